@@ -0,0 +1,198 @@
+package com.bootcampms.carga.Arranque;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Mide el arranque en frío de un servicio empaquetado (productos o inventario) en cada modo de ejecución y compara el
+ * resultado con el jar ejecutable habitual (el que se despliega en la imagen Docker).
+ * <ul>
+ *     <li>{@code jar}: {@code java -jar <servicio>/target/<servicio>-*.jar}.</li>
+ *     <li>{@code jar plano}: el jar plano de {@code target/arranque-rapido}, sin AOT ni CDS (aísla el efecto de no usar jars anidados).</li>
+ *     <li>{@code aot}: el jar plano con {@code -Dspring.aot.enabled=true}.</li>
+ *     <li>{@code aot + cds}: además, con el archivo AppCDS de la ejecución de entrenamiento.</li>
+ * </ul>
+ * Para cada modo arranca el servicio varias veces en un proceso nuevo, con el perfil {@code dev}, y registra el tiempo
+ * de arranque que informa Spring ({@code Started ... in X seconds}) y el tiempo desde que se lanza el proceso hasta la
+ * primera respuesta correcta de {@link ConfiguracionArranque#primeraPeticion()}. Se informa la mediana de cada modo.
+ * <p>
+ * Requiere haber empaquetado antes el servicio con el perfil de arranque rápido
+ * ({@code mvn -Parranque-rapido package -DskipTests}). Las opciones están en {@link ConfiguracionArranque}:
+ * {@code mvn compile exec:exec -Dcarga.principal=com.bootcampms.carga.Arranque.ArranqueBenchmark
+ * -Dcarga.args="--servicio=productos"}.
+ * </p>
+ */
+public final class ArranqueBenchmark {
+
+    private static final Pattern ARRANQUE_SPRING = Pattern.compile("Started \\S+ in ([0-9.,]+) seconds");
+    private static final Duration ESPERA_MAXIMA = Duration.ofSeconds(120);
+
+    private final ConfiguracionArranque configuracion;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private record Modo(String nombre, File directorio, List<String> argumentos) {
+    }
+
+    private record Medicion(double arranqueSpring, double primeraPeticion) {
+    }
+
+    private ArranqueBenchmark(ConfiguracionArranque configuracion) {
+        this.configuracion = configuracion;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionArranque configuracion = ConfiguracionArranque.desdeArgumentos(args);
+        String servicio = configuracion.servicio();
+        Path target = configuracion.target();
+        Path directorioRapido = target.resolve("arranque-rapido");
+        Path jarEjecutable = buscar(target, servicio + "-", ".jar");
+        Path jarPlano = buscar(directorioRapido, servicio + "-", "-aot.jar");
+        String archivoCds = servicio + ".jsa";
+        if (!Files.exists(directorioRapido.resolve(archivoCds))) {
+            throw new IllegalStateException("No existe " + directorioRapido.resolve(archivoCds) + "; empaquetar " + servicio
+                    + " con -Parranque-rapido.");
+        }
+
+        List<Modo> modos = List.of(
+                new Modo("jar", target.toFile(), List.of("-jar", jarEjecutable.getFileName().toString())),
+                new Modo("jar plano", directorioRapido.toFile(), List.of("-jar", jarPlano.getFileName().toString())),
+                new Modo("aot", directorioRapido.toFile(),
+                        List.of("-Dspring.aot.enabled=true", "-jar", jarPlano.getFileName().toString())),
+                new Modo("aot + cds", directorioRapido.toFile(),
+                        List.of("-XX:SharedArchiveFile=" + archivoCds, "-Dspring.aot.enabled=true", "-jar", jarPlano.getFileName().toString())));
+
+        ArranqueBenchmark benchmark = new ArranqueBenchmark(configuracion);
+        List<double[]> medianas = new ArrayList<>();
+        for (Modo modo : modos) {
+            List<Medicion> mediciones = new ArrayList<>();
+            for (int i = 0; i < configuracion.repeticiones(); i++) {
+                mediciones.add(benchmark.medir(modo));
+            }
+            medianas.add(new double[]{
+                    mediana(mediciones.stream().mapToDouble(Medicion::arranqueSpring).toArray()),
+                    mediana(mediciones.stream().mapToDouble(Medicion::primeraPeticion).toArray())});
+        }
+
+        System.out.printf("%nArranque en frío de %s (mediana de %d arranques, Java %s)%n", servicio,
+                configuracion.repeticiones(), Runtime.version().feature());
+        System.out.printf("%-10s | %14s | %19s | %10s%n", "Modo", "Arranque (s)", "1ª petición (s)", "Aceleración");
+        double referencia = medianas.get(0)[1];
+        for (int i = 0; i < modos.size(); i++) {
+            double[] m = medianas.get(i);
+            System.out.printf("%-10s | %14.2f | %19.2f | %9.2fx%n", modos.get(i).nombre(), m[0], m[1], referencia / m[1]);
+        }
+    }
+
+    private Medicion medir(Modo modo) throws Exception {
+        int puerto = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(modo.argumentos());
+        comando.addAll(List.of("--server.port=" + puerto, "--spring.profiles.active=dev", "--spring.jpa.show-sql=false"));
+
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando).directory(modo.directorio()).redirectErrorStream(true).start();
+        // La salida se consume siempre para que el proceso no se bloquee al llenar el buffer
+        CompletableFuture<Double> arranqueSpring = new CompletableFuture<>();
+        Thread lector = new Thread(() -> leerArranque(proceso, arranqueSpring), "lector-arranque");
+        lector.setDaemon(true);
+        lector.start();
+        try {
+            double primeraPeticion = esperarPrimeraRespuesta(puerto, proceso, inicio);
+            return new Medicion(arranqueSpring.get(5, TimeUnit.SECONDS), primeraPeticion);
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(20, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly();
+            }
+        }
+    }
+
+    private double esperarPrimeraRespuesta(int puerto, Process proceso, long inicio) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + configuracion.primeraPeticion()))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        long limite = inicio + ESPERA_MAXIMA.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El servicio terminó durante el arranque (código " + proceso.exitValue() + ").");
+            }
+            try {
+                HttpResponse<Void> respuesta = httpClient.send(peticion, HttpResponse.BodyHandlers.discarding());
+                if (respuesta.statusCode() == 200) {
+                    return (System.nanoTime() - inicio) / 1_000_000_000.0;
+                }
+            } catch (ConnectException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Sin respuesta de " + configuracion.primeraPeticion() + " tras "
+                + ESPERA_MAXIMA.toSeconds() + " s.");
+    }
+
+    /**
+     * Lee la salida del proceso hasta que termina y completa el futuro con el tiempo de arranque que informa Spring.
+     */
+    private static void leerArranque(Process proceso, CompletableFuture<Double> arranqueSpring) {
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(proceso.getInputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = lector.readLine()) != null) {
+                Matcher coincidencia = ARRANQUE_SPRING.matcher(linea);
+                if (!arranqueSpring.isDone() && coincidencia.find()) {
+                    arranqueSpring.complete(Double.parseDouble(coincidencia.group(1).replace(',', '.')));
+                }
+            }
+        } catch (IOException e) {
+            // El proceso se ha destruido
+        }
+        arranqueSpring.complete(Double.NaN);
+    }
+
+    private static Path buscar(Path directorio, String prefijo, String sufijo) throws IOException {
+        if (!Files.isDirectory(directorio)) {
+            throw new IllegalStateException("No existe " + directorio.toAbsolutePath() + "; empaquetar con -Parranque-rapido.");
+        }
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros
+                    .filter(f -> f.getFileName().toString().startsWith(prefijo) && f.getFileName().toString().endsWith(sufijo))
+                    .filter(f -> sufijo.endsWith("-aot.jar") || !f.getFileName().toString().endsWith("-aot.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No se encontró " + prefijo + "*" + sufijo + " en " + directorio));
+        }
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static double mediana(double[] valores) {
+        double[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        int medio = ordenados.length / 2;
+        return ordenados.length % 2 == 1 ? ordenados[medio] : (ordenados[medio - 1] + ordenados[medio]) / 2;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bootcampms.carga.Arranque;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opciones de la medición del arranque, leídas de argumentos {@code --clave=valor}.
+ * @param servicio Servicio que se mide: {@code productos} o {@code inventario}.
+ * @param raiz Raíz del repositorio, donde se busca {@code <servicio>/target}.
+ * @param repeticiones Arranques de cada modo; se informa la mediana.
+ */
+public record ConfiguracionArranque(String servicio, Path raiz, int repeticiones) {
+
+    /** Petición cuya primera respuesta correcta marca el fin del arranque, por servicio. */
+    public static final Map<String, String> PRIMERA_PETICION = Map.of(
+            "productos", "/api/v1/productos",
+            "inventario", "/api/v1/inventario/stock");
+
+    private static final Set<String> OPCIONES = Set.of("servicio", "raiz", "repeticiones");
+
+    public ConfiguracionArranque {
+        if (!PRIMERA_PETICION.containsKey(servicio)) {
+            throw new IllegalArgumentException("Servicio desconocido: " + servicio + ". Servicios: " + PRIMERA_PETICION.keySet());
+        }
+        if (repeticiones < 1) {
+            throw new IllegalArgumentException("Las repeticiones deben ser al menos 1");
+        }
+    }
+
+    /**
+     * Lee las opciones de los argumentos; {@code --servicio} es obligatoria.
+     * @param argumentos Argumentos {@code --clave=valor}.
+     * @return La configuración.
+     * @throws IllegalArgumentException si hay opciones desconocidas, falta el servicio o algún valor es incorrecto.
+     */
+    public static ConfiguracionArranque desdeArgumentos(String... argumentos) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String argumento : argumentos) {
+            int igual = argumento.indexOf('=');
+            if (!argumento.startsWith("--") || igual < 0) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + argumento + " (se esperaba --clave=valor)");
+            }
+            String clave = argumento.substring(2, igual);
+            if (!OPCIONES.contains(clave)) {
+                throw new IllegalArgumentException("Opción desconocida: --" + clave + ". Opciones: " + OPCIONES);
+            }
+            opciones.put(clave, argumento.substring(igual + 1));
+        }
+        if (!opciones.containsKey("servicio")) {
+            throw new IllegalArgumentException("Falta --servicio=" + String.join("|", PRIMERA_PETICION.keySet()));
+        }
+        return new ConfiguracionArranque(
+                opciones.get("servicio"),
+                Path.of(opciones.getOrDefault("raiz", "..")),
+                Integer.parseInt(opciones.getOrDefault("repeticiones", "5")));
+    }
+
+    /**
+     * @return El directorio {@code target} del servicio.
+     */
+    public Path target() {
+        return raiz.resolve(servicio).resolve("target");
+    }
+
+    /**
+     * @return La ruta de la petición que marca el fin del arranque.
+     */
+    public String primeraPeticion() {
+        return PRIMERA_PETICION.get(servicio);
+    }
+}
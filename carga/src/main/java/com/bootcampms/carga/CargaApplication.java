@@ -0,0 +1,70 @@
+package com.bootcampms.carga;
+
+import com.bootcampms.carga.Coleccion.ColeccionPostman;
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+import com.bootcampms.carga.Config.ConfiguracionCarga;
+import com.bootcampms.carga.Ejecucion.GeneradorCarga;
+import com.bootcampms.carga.Ejecucion.InformeCarga;
+import com.bootcampms.carga.Ejecucion.RegistroLatencias;
+import com.bootcampms.carga.Ejecucion.ServiciosLocales;
+import com.bootcampms.carga.Escenario.CatalogoEscenarios;
+import com.bootcampms.carga.Escenario.Escenario;
+import com.bootcampms.carga.Escenario.PreparadorPeticiones;
+
+/**
+ * Generador de carga que reproduce la colección de Postman del proyecto contra productos e inventario, como una mezcla
+ * ponderada de escenarios a tasa constante de llegadas (modelo abierto).
+ * <p>
+ * Por defecto ataca a los servicios de docker-compose (puertos 8080 y 8081); con {@code --arrancar} los arranca antes
+ * como procesos locales. Las opciones están en {@link ConfiguracionCarga}:
+ * {@code mvn compile exec:exec -Dcarga.args="--tasa=200 --duracion=60"}.
+ * </p>
+ */
+public final class CargaApplication {
+
+    private CargaApplication() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(args);
+        ColeccionPostman coleccion = ColeccionPostman.leer(configuracion.coleccion());
+        CatalogoEscenarios escenarios = CatalogoEscenarios.cargar(configuracion.escenarios(), coleccion);
+        for (Escenario escenario : escenarios.getEscenarios()) {
+            for (PeticionPostman paso : escenario.pasos()) {
+                if (!configuracion.servicios().containsKey(paso.puerto())) {
+                    throw new IllegalArgumentException("El escenario '" + escenario.nombre() + "' usa " + paso
+                            + ", que no apunta a productos ni a inventario");
+                }
+            }
+        }
+
+        System.out.printf("Colección '%s': %d peticiones. Escenarios (peso sobre %d):%n", coleccion.getNombre(),
+                coleccion.getPeticiones().size(), escenarios.pesoTotal());
+        for (Escenario escenario : escenarios.getEscenarios()) {
+            System.out.printf("  %-20s %3d  %s%n", escenario.nombre(), escenario.peso(),
+                    escenario.pasos().stream().map(PeticionPostman::nombre).toList());
+        }
+
+        ServiciosLocales servicios = null;
+        if (configuracion.arrancar()) {
+            System.out.printf("Arrancando productos (%s) e inventario (%s)...%n", configuracion.productosUrl(), configuracion.inventarioUrl());
+            servicios = ServiciosLocales.arrancar(configuracion.raiz(), configuracion.productosUrl(),
+                    configuracion.inventarioUrl(), configuracion.salida());
+        }
+        try {
+            System.out.printf("Generando %.1f escenarios/s contra %s y %s...%n", configuracion.tasa(),
+                    configuracion.productosUrl(), configuracion.inventarioUrl());
+            GeneradorCarga generador = new GeneradorCarga(configuracion, escenarios,
+                    new PreparadorPeticiones(configuracion.servicios(), configuracion.tiempoMaximo()),
+                    GeneradorCarga.cliente(configuracion));
+            RegistroLatencias registro = generador.ejecutar();
+            InformeCarga informe = new InformeCarga(configuracion, registro);
+            informe.imprimir(System.out);
+            System.out.printf("%nDistribuciones completas (.hgrm) en %s%n", informe.escribirDistribuciones().toAbsolutePath());
+        } finally {
+            if (servicios != null) {
+                servicios.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.bootcampms.carga.Coleccion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Colección de Postman (formato v2.1) leída como una lista plana de peticiones.
+ * <p>
+ * Recorre las carpetas de forma recursiva y conserva, de cada petición, el método, el puerto y la ruta de la URL,
+ * las cabeceras y el cuerpo en bruto. Los parámetros de consulta y las cabeceras desactivados se ignoran, igual que
+ * los scripts de prueba: el generador de carga valida las respuestas solo por su código de estado.
+ * </p>
+ */
+public final class ColeccionPostman {
+
+    private final String nombre;
+    private final List<PeticionPostman> peticiones;
+
+    private ColeccionPostman(String nombre, List<PeticionPostman> peticiones) {
+        this.nombre = nombre;
+        this.peticiones = Collections.unmodifiableList(peticiones);
+    }
+
+    /**
+     * Lee una colección exportada desde Postman.
+     * @param fichero Ruta del fichero {@code .postman_collection.json}.
+     * @return La colección leída.
+     * @throws IOException si no se puede leer o no es JSON.
+     * @throws IllegalArgumentException si alguna petición no tiene una URL utilizable.
+     */
+    public static ColeccionPostman leer(Path fichero) throws IOException {
+        JsonNode raiz = new ObjectMapper().readTree(fichero.toFile());
+        List<PeticionPostman> peticiones = new ArrayList<>();
+        recorrer(raiz.path("item"), null, peticiones);
+        return new ColeccionPostman(raiz.path("info").path("name").asText(fichero.getFileName().toString()), peticiones);
+    }
+
+    private static void recorrer(JsonNode elementos, String carpeta, List<PeticionPostman> peticiones) {
+        for (JsonNode elemento : elementos) {
+            String nombre = elemento.path("name").asText();
+            if (elemento.has("item")) {
+                recorrer(elemento.get("item"), nombre, peticiones);
+            } else if (elemento.has("request")) {
+                peticiones.add(peticion(carpeta, nombre, elemento.get("request")));
+            }
+        }
+    }
+
+    private static PeticionPostman peticion(String carpeta, String nombre, JsonNode request) {
+        JsonNode url = request.path("url");
+        int puerto;
+        StringBuilder ruta = new StringBuilder();
+        if (url.isTextual() || !url.has("path")) {
+            // URL solo en bruto: se interpreta como http si no trae esquema (p. ej. localhost:8080/api/v1/productos)
+            String cruda = url.isTextual() ? url.asText() : url.path("raw").asText();
+            URI uri = URI.create(cruda.contains("://") ? cruda : "http://" + cruda);
+            puerto = uri.getPort();
+            ruta.append(uri.getRawPath());
+            if (uri.getRawQuery() != null) {
+                ruta.append('?').append(uri.getRawQuery());
+            }
+        } else {
+            puerto = url.path("port").asInt(-1);
+            for (JsonNode segmento : url.path("path")) {
+                ruta.append('/').append(segmento.asText());
+            }
+            String consulta = activos(url.path("query")).entrySet().stream()
+                    .map(parametro -> parametro.getKey() + "=" + parametro.getValue())
+                    .collect(Collectors.joining("&"));
+            if (!consulta.isEmpty()) {
+                ruta.append('?').append(consulta);
+            }
+        }
+        if (puerto < 0) {
+            throw new IllegalArgumentException("La petición '" + nombre + "' no indica puerto en su URL: " + url.path("raw").asText(url.asText()));
+        }
+        JsonNode cuerpo = request.path("body");
+        return new PeticionPostman(carpeta, nombre, request.path("method").asText("GET").toUpperCase(Locale.ROOT), puerto,
+                ruta.isEmpty() ? "/" : ruta.toString(), activos(request.path("header")),
+                "raw".equals(cuerpo.path("mode").asText()) ? cuerpo.path("raw").asText(null) : null);
+    }
+
+    /**
+     * Pares clave/valor no desactivados de una lista de cabeceras o parámetros de Postman.
+     */
+    private static Map<String, String> activos(JsonNode pares) {
+        Map<String, String> activos = new LinkedHashMap<>();
+        for (JsonNode par : pares) {
+            if (!par.path("disabled").asBoolean(false)) {
+                activos.put(par.path("key").asText(), par.path("value").asText());
+            }
+        }
+        return activos;
+    }
+
+    /**
+     * Busca una petición por su nombre o, si el nombre se repite en varias carpetas, por {@code Carpeta/Nombre}.
+     * @param referencia Nombre o {@code Carpeta/Nombre} de la petición.
+     * @return La petición.
+     * @throws IllegalArgumentException si no existe o si el nombre es ambiguo.
+     */
+    public PeticionPostman buscar(String referencia) {
+        List<PeticionPostman> candidatas = peticiones.stream()
+                .filter(peticion -> peticion.nombre().equals(referencia)
+                        || (peticion.carpeta() + "/" + peticion.nombre()).equals(referencia))
+                .toList();
+        if (candidatas.isEmpty()) {
+            throw new IllegalArgumentException("La colección '" + nombre + "' no tiene ninguna petición '" + referencia + "'");
+        }
+        if (candidatas.size() > 1) {
+            throw new IllegalArgumentException("Hay varias peticiones '" + referencia + "'; use Carpeta/Nombre: " + candidatas);
+        }
+        return candidatas.get(0);
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public List<PeticionPostman> getPeticiones() {
+        return peticiones;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bootcampms.carga.Coleccion;
+
+import java.util.Map;
+
+/**
+ * Petición de la colección de Postman, tal como está definida (sin reescribir IDs ni cuerpos).
+ * @param carpeta Carpeta de la colección que contiene la petición (p. ej. {@code Productos}).
+ * @param nombre Nombre de la petición (p. ej. {@code Ver producto}).
+ * @param metodo Método HTTP en mayúsculas.
+ * @param puerto Puerto de la URL de la colección, que identifica el servicio destino (8080 productos, 8081 inventario).
+ * @param ruta Ruta con la consulta, si tiene parámetros activos (p. ej. {@code /api/v1/productos/1}).
+ * @param cabeceras Cabeceras activas de la petición.
+ * @param cuerpo Cuerpo en bruto, o {@code null} si no tiene.
+ */
+public record PeticionPostman(String carpeta, String nombre, String metodo, int puerto, String ruta,
+                              Map<String, String> cabeceras, String cuerpo) {
+
+    /**
+     * Indica si la petición da de alta un producto (un POST cuyo cuerpo trae {@code sku}). Los pasos siguientes de
+     * un escenario trabajan sobre el producto creado.
+     * @return {@code true} si crea un producto.
+     */
+    public boolean creaProducto() {
+        return "POST".equals(metodo) && cuerpo != null && cuerpo.contains("\"sku\"");
+    }
+
+    @Override
+    public String toString() {
+        return carpeta + "/" + nombre + " (" + metodo + " :" + puerto + ruta + ")";
+    }
+}
@@ -0,0 +1,99 @@
+package com.bootcampms.carga.Config;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opciones del generador de carga, leídas de argumentos {@code --clave=valor}.
+ * @param coleccion Colección de Postman que se reproduce.
+ * @param escenarios Fichero con la mezcla de escenarios, o {@code null} para la mezcla por defecto.
+ * @param productosUrl URL base (esquema, host y puerto) del servicio de productos.
+ * @param inventarioUrl URL base del servicio de inventario.
+ * @param tasa Llegadas de escenarios por segundo (modelo abierto: no depende de lo que tarden las respuestas).
+ * @param calentamiento Tiempo a la misma tasa cuyas medidas se descartan.
+ * @param duracion Tiempo de medición.
+ * @param concurrencia Máximo de escenarios en ejecución a la vez; el resto espera en cola.
+ * @param pendientesMaximos Máximo de llegadas esperando en cola; por encima se descartan y se cuentan.
+ * @param productos Los escenarios eligen su producto entre 1 y este valor.
+ * @param tiempoMaximo Tiempo máximo de espera de cada respuesta.
+ * @param semilla Semilla de la secuencia de escenarios y productos.
+ * @param salida Directorio donde se escriben las distribuciones de percentiles ({@code .hgrm}).
+ * @param arrancar Si es {@code true}, arranca productos e inventario como procesos locales a partir de sus jars.
+ * @param raiz Raíz del repositorio, donde se buscan los jars de los servicios al arrancarlos.
+ */
+public record ConfiguracionCarga(Path coleccion, Path escenarios, URI productosUrl, URI inventarioUrl, double tasa,
+                                 Duration calentamiento, Duration duracion, int concurrencia, int pendientesMaximos,
+                                 long productos, Duration tiempoMaximo, long semilla, Path salida, boolean arrancar,
+                                 Path raiz) {
+
+    /** Puertos con los que aparecen los servicios en la colección de Postman. */
+    public static final int PUERTO_PRODUCTOS = 8080;
+    public static final int PUERTO_INVENTARIO = 8081;
+
+    private static final Set<String> OPCIONES = Set.of("coleccion", "escenarios", "productos-url", "inventario-url",
+            "tasa", "calentamiento", "duracion", "concurrencia", "pendientes-maximos", "productos", "tiempo-maximo",
+            "semilla", "salida", "arrancar", "raiz");
+
+    public ConfiguracionCarga {
+        if (tasa <= 0) {
+            throw new IllegalArgumentException("La tasa debe ser mayor que 0");
+        }
+        if (concurrencia < 1 || pendientesMaximos < 1 || productos < 1) {
+            throw new IllegalArgumentException("La concurrencia, los pendientes máximos y los productos deben ser al menos 1");
+        }
+    }
+
+    /**
+     * Lee las opciones de los argumentos; las que no se indican toman su valor por defecto (docker-compose en los
+     * puertos 8080 y 8081 con los datos de ejemplo del perfil {@code dev}).
+     * @param argumentos Argumentos {@code --clave=valor}.
+     * @return La configuración.
+     * @throws IllegalArgumentException si hay opciones desconocidas o valores incorrectos.
+     */
+    public static ConfiguracionCarga desdeArgumentos(String... argumentos) {
+        Map<String, String> opciones = new HashMap<>();
+        for (String argumento : argumentos) {
+            if (!argumento.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + argumento + " (se esperaba --clave=valor)");
+            }
+            int igual = argumento.indexOf('=');
+            String clave = igual < 0 ? argumento.substring(2) : argumento.substring(2, igual);
+            if (!OPCIONES.contains(clave)) {
+                throw new IllegalArgumentException("Opción desconocida: --" + clave + ". Opciones: " + OPCIONES);
+            }
+            opciones.put(clave, igual < 0 ? "true" : argumento.substring(igual + 1));
+        }
+        String escenarios = opciones.get("escenarios");
+        return new ConfiguracionCarga(
+                Path.of(opciones.getOrDefault("coleccion", "../BootCamp MS CodigoFacilito.postman_collection.json")),
+                escenarios != null ? Path.of(escenarios) : null,
+                URI.create(opciones.getOrDefault("productos-url", "http://localhost:" + PUERTO_PRODUCTOS)),
+                URI.create(opciones.getOrDefault("inventario-url", "http://localhost:" + PUERTO_INVENTARIO)),
+                Double.parseDouble(opciones.getOrDefault("tasa", "50")),
+                segundos(opciones.getOrDefault("calentamiento", "10")),
+                segundos(opciones.getOrDefault("duracion", "60")),
+                Integer.parseInt(opciones.getOrDefault("concurrencia", "256")),
+                Integer.parseInt(opciones.getOrDefault("pendientes-maximos", "100000")),
+                Long.parseLong(opciones.getOrDefault("productos", "3")),
+                segundos(opciones.getOrDefault("tiempo-maximo", "10")),
+                Long.parseLong(opciones.getOrDefault("semilla", "42")),
+                Path.of(opciones.getOrDefault("salida", "target/carga")),
+                Boolean.parseBoolean(opciones.getOrDefault("arrancar", "false")),
+                Path.of(opciones.getOrDefault("raiz", "..")));
+    }
+
+    private static Duration segundos(String valor) {
+        return Duration.ofMillis(Math.round(Double.parseDouble(valor) * 1000));
+    }
+
+    /**
+     * @return La URL base de cada servicio, por el puerto con el que aparece en la colección.
+     */
+    public Map<Integer, URI> servicios() {
+        return Map.of(PUERTO_PRODUCTOS, productosUrl, PUERTO_INVENTARIO, inventarioUrl);
+    }
+}
@@ -0,0 +1,164 @@
+package com.bootcampms.carga.Ejecucion;
+
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+import com.bootcampms.carga.Config.ConfiguracionCarga;
+import com.bootcampms.carga.Escenario.CatalogoEscenarios;
+import com.bootcampms.carga.Escenario.Escenario;
+import com.bootcampms.carga.Escenario.PreparadorPeticiones;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de modelo abierto: lanza escenarios a una tasa constante de llegadas, independiente de lo que
+ * tarden las respuestas.
+ * <p>
+ * Un único hilo planificador calcula el instante previsto de cada llegada ({@code inicio + i / tasa}), elige su
+ * escenario y su producto, y la entrega a un pool de {@code concurrencia} hilos. Si el sistema se atasca, las llegadas
+ * esperan en la cola del pool y esa espera cuenta en el tiempo de respuesta, que se mide desde el instante previsto
+ * (ver {@link RegistroLatencias}). Un generador de bucle cerrado dejaría de enviar durante el atasco y lo ocultaría.
+ * </p>
+ * <p>
+ * Los pasos de un escenario se ejecutan en orden sobre el mismo producto; tras un alta de producto, los siguientes
+ * pasos usan el producto creado. Si un paso no responde 2xx, el escenario se interrumpe.
+ * </p>
+ */
+public final class GeneradorCarga {
+
+    private final ConfiguracionCarga configuracion;
+    private final CatalogoEscenarios escenarios;
+    private final PreparadorPeticiones preparador;
+    private final HttpClient cliente;
+    /** Base de los SKU y códigos de barras únicos: cambia en cada ejecución para no repetir los de la anterior. */
+    private final AtomicLong unicos = new AtomicLong((System.currentTimeMillis() / 1000 % 100_000) * 1_000_000);
+
+    public GeneradorCarga(ConfiguracionCarga configuracion, CatalogoEscenarios escenarios,
+                          PreparadorPeticiones preparador, HttpClient cliente) {
+        this.configuracion = configuracion;
+        this.escenarios = escenarios;
+        this.preparador = preparador;
+        this.cliente = cliente;
+    }
+
+    /**
+     * Ejecuta el calentamiento y la medición a la tasa configurada y espera a que terminen los escenarios en curso.
+     * @return Las latencias y resultados de las llegadas del periodo de medición.
+     * @throws InterruptedException si se interrumpe el hilo que llama.
+     */
+    public RegistroLatencias ejecutar() throws InterruptedException {
+        RegistroLatencias registro = new RegistroLatencias();
+        AtomicInteger numeroHilo = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(configuracion.concurrencia(), configuracion.concurrencia(),
+                0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), tarea -> {
+                    Thread hilo = new Thread(tarea, "carga-" + numeroHilo.incrementAndGet());
+                    hilo.setDaemon(true);
+                    return hilo;
+                });
+        executor.prestartAllCoreThreads();
+        SplittableRandom aleatorio = new SplittableRandom(configuracion.semilla());
+        double intervalo = 1_000_000_000.0 / configuracion.tasa();
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        try {
+            for (long i = 0; ; i++) {
+                long previsto = inicio + Math.round(i * intervalo);
+                if (previsto >= fin) {
+                    break;
+                }
+                long espera;
+                while ((espera = previsto - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                boolean medir = previsto >= inicioMedicion;
+                Escenario escenario = escenarios.elegir(aleatorio);
+                long productoId = 1 + aleatorio.nextLong(configuracion.productos());
+                if (medir) {
+                    registro.programado();
+                    registro.retrasoPlanificador(-espera);
+                }
+                if (executor.getQueue().size() >= configuracion.pendientesMaximos()) {
+                    if (medir) {
+                        registro.descartado();
+                    }
+                    continue;
+                }
+                executor.execute(() -> ejecutarEscenario(escenario, productoId, previsto, medir ? registro : null));
+            }
+        } finally {
+            executor.shutdown();
+            // Un escenario en curso tarda, como mucho, el tiempo máximo de respuesta por cada uno de sus pasos
+            int pasosMaximos = escenarios.getEscenarios().stream().mapToInt(escenario -> escenario.pasos().size()).max().orElse(1);
+            if (!executor.awaitTermination(configuracion.tiempoMaximo().multipliedBy(pasosMaximos).toSeconds() + 1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+        return registro;
+    }
+
+    /**
+     * Ejecuta los pasos de un escenario.
+     * @param registro Registro de latencias, o {@code null} durante el calentamiento.
+     */
+    private void ejecutarEscenario(Escenario escenario, long productoId, long previsto, RegistroLatencias registro) {
+        long id = productoId;
+        long previstoPaso = previsto;
+        long primerEnvio = -1;
+        int estado = 200;
+        for (PeticionPostman paso : escenario.pasos()) {
+            long envio = System.nanoTime();
+            if (primerEnvio < 0) {
+                primerEnvio = envio;
+            }
+            String cuerpo = null;
+            try {
+                HttpResponse<String> respuesta = cliente.send(preparador.preparar(paso, id, unicos.incrementAndGet()),
+                        HttpResponse.BodyHandlers.ofString());
+                estado = respuesta.statusCode();
+                cuerpo = respuesta.body();
+            } catch (IOException e) {
+                estado = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long respuesta = System.nanoTime();
+            if (registro != null) {
+                registro.registrarPeticion(paso.nombre(), estado, respuesta - envio, respuesta - previstoPaso);
+            }
+            if (estado < 200 || estado >= 300) {
+                break;
+            }
+            if (paso.creaProducto() && cuerpo != null) {
+                id = preparador.idCreado(cuerpo).orElse(id);
+            }
+            previstoPaso = respuesta;
+        }
+        if (registro != null) {
+            long terminado = System.nanoTime();
+            registro.registrarEscenario(escenario.nombre(), estado, terminado - primerEnvio, terminado - previsto);
+        }
+    }
+
+    /**
+     * @return Un cliente HTTP/1.1 cuyo tiempo máximo de conexión es el de respuesta de la configuración.
+     */
+    public static HttpClient cliente(ConfiguracionCarga configuracion) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(Math.max(1, configuracion.tiempoMaximo().toSeconds())))
+                .build();
+    }
+}
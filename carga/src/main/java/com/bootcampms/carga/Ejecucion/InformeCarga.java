@@ -0,0 +1,136 @@
+package com.bootcampms.carga.Ejecucion;
+
+import com.bootcampms.carga.Config.ConfiguracionCarga;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imprime el resultado de una ejecución: tablas de percentiles por petición y por escenario, un resumen que compara
+ * los tiempos de servicio con los de respuesta corregidos por omisión coordinada, y las distribuciones completas en
+ * ficheros {@code .hgrm} (el formato de {@code Histogram.outputPercentileDistribution}, que se puede representar con
+ * el HdrHistogram Plotter).
+ */
+public final class InformeCarga {
+
+    /** Las latencias se registran en microsegundos y se informan en milisegundos. */
+    private static final double ESCALA_MS = 1000.0;
+
+    private final ConfiguracionCarga configuracion;
+    private final RegistroLatencias registro;
+
+    public InformeCarga(ConfiguracionCarga configuracion, RegistroLatencias registro) {
+        this.configuracion = configuracion;
+        this.registro = registro;
+    }
+
+    /**
+     * Imprime el informe.
+     * @param salida Flujo donde se imprime.
+     */
+    public void imprimir(PrintStream salida) {
+        Map<String, RegistroLatencias.Serie> escenarios = registro.getEscenarios();
+        long completados = escenarios.values().stream().mapToLong(RegistroLatencias.Serie::total).sum();
+        double segundos = configuracion.duracion().toMillis() / 1000.0;
+        salida.printf("%nCarga: %.1f escenarios/s durante %.0f s (%.0f s de calentamiento), %d de concurrencia máxima%n",
+                configuracion.tasa(), segundos, configuracion.calentamiento().toMillis() / 1000.0, configuracion.concurrencia());
+        salida.printf("Llegadas: %d planificadas, %d terminadas (%.1f/s), %d descartadas por cola llena, %d sin terminar%n",
+                registro.programados(), completados, completados / segundos, registro.descartados(),
+                registro.programados() - completados - registro.descartados());
+        long retraso = registro.retrasoMaximoPlanificador() / 1_000_000;
+        if (retraso > 10) {
+            salida.printf("AVISO: el planificador llegó a ir %d ms por detrás de la tasa; el generador puede estar saturado%n", retraso);
+        }
+
+        salida.printf("%nPeticiones: tiempo de servicio en ms (desde el envío, sin corregir)%n");
+        tabla(salida, registro.getPeticiones(), false);
+        salida.printf("%nPeticiones: tiempo de respuesta en ms (desde el instante previsto, corregido)%n");
+        tabla(salida, registro.getPeticiones(), true);
+        salida.printf("%nEscenarios: tiempo de respuesta en ms (desde la llegada planificada, corregido)%n");
+        tabla(salida, escenarios, true);
+
+        salida.printf("%nResumen corregido por omisión coordinada (ms)%n");
+        cabecera(salida, "");
+        fila(salida, "Peticiones, servicio", RegistroLatencias.unir(registro.getPeticiones().values(), false));
+        fila(salida, "Peticiones, respuesta", RegistroLatencias.unir(registro.getPeticiones().values(), true));
+        fila(salida, "Escenarios, servicio", RegistroLatencias.unir(escenarios.values(), false));
+        fila(salida, "Escenarios, respuesta", RegistroLatencias.unir(escenarios.values(), true));
+        salida.printf("Si la respuesta supera con mucho al servicio en los percentiles altos, las peticiones han esperado "
+                + "a que el sistema se liberase: esa espera es parte de la latencia que ve un usuario.%n");
+    }
+
+    private static void tabla(PrintStream salida, Map<String, RegistroLatencias.Serie> series, boolean respuesta) {
+        salida.printf("%-38s %8s %8s %6s %6s %6s", "", "N", "2xx", "4xx", "5xx", "Fallo");
+        cabecera(salida, null);
+        series.forEach((nombre, serie) -> {
+            salida.printf("%-38s %8d %8d %6d %6d %6d", recortar(nombre), serie.total(), serie.correctas(),
+                    serie.rechazadas(), serie.errores(), serie.fallos());
+            percentiles(salida, respuesta ? serie.getRespuesta() : serie.getServicio());
+        });
+    }
+
+    private static void cabecera(PrintStream salida, String titulo) {
+        if (titulo != null) {
+            salida.printf("%-38s %8s", titulo, "N");
+        }
+        salida.printf(" %9s %9s %9s %9s %9s %9s%n", "p50", "p90", "p99", "p99.9", "p99.99", "máx");
+    }
+
+    private static void fila(PrintStream salida, String nombre, Histogram histograma) {
+        salida.printf("%-38s %8d", nombre, histograma.getTotalCount());
+        percentiles(salida, histograma);
+    }
+
+    private static void percentiles(PrintStream salida, Histogram histograma) {
+        salida.printf(" %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                ms(histograma, 50), ms(histograma, 90), ms(histograma, 99), ms(histograma, 99.9), ms(histograma, 99.99),
+                histograma.getMaxValue() / ESCALA_MS);
+    }
+
+    private static double ms(Histogram histograma, double percentil) {
+        return histograma.getValueAtPercentile(percentil) / ESCALA_MS;
+    }
+
+    private static String recortar(String nombre) {
+        return nombre.length() <= 38 ? nombre : nombre.substring(0, 37) + "…";
+    }
+
+    /**
+     * Escribe la distribución completa de cada serie en {@code <salida>/<tipo>-<nombre>-<servicio|respuesta>.hgrm},
+     * y la de todas las peticiones y todos los escenarios juntos en {@code total-peticiones-*} y {@code total-escenarios-*}.
+     * @return El directorio donde se han escrito.
+     * @throws IOException si no se pueden escribir.
+     */
+    public Path escribirDistribuciones() throws IOException {
+        Path directorio = configuracion.salida();
+        Files.createDirectories(directorio);
+        escribir(directorio, "peticion", registro.getPeticiones());
+        escribir(directorio, "escenario", registro.getEscenarios());
+        for (boolean respuesta : new boolean[]{false, true}) {
+            String sufijo = respuesta ? "-respuesta.hgrm" : "-servicio.hgrm";
+            distribucion(directorio.resolve("total-peticiones" + sufijo), RegistroLatencias.unir(registro.getPeticiones().values(), respuesta));
+            distribucion(directorio.resolve("total-escenarios" + sufijo), RegistroLatencias.unir(registro.getEscenarios().values(), respuesta));
+        }
+        return directorio;
+    }
+
+    private static void escribir(Path directorio, String tipo, Map<String, RegistroLatencias.Serie> series) throws IOException {
+        for (Map.Entry<String, RegistroLatencias.Serie> serie : series.entrySet()) {
+            String base = tipo + "-" + serie.getKey().toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", "-");
+            distribucion(directorio.resolve(base + "-servicio.hgrm"), serie.getValue().getServicio());
+            distribucion(directorio.resolve(base + "-respuesta.hgrm"), serie.getValue().getRespuesta());
+        }
+    }
+
+    private static void distribucion(Path fichero, Histogram histograma) throws IOException {
+        try (PrintStream salida = new PrintStream(Files.newOutputStream(fichero), false, StandardCharsets.UTF_8)) {
+            histograma.outputPercentileDistribution(salida, ESCALA_MS);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.bootcampms.carga.Ejecucion;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias y resultados de una ejecución del generador, por petición y por escenario.
+ * <p>
+ * De cada serie se guardan dos histogramas en microsegundos:
+ * </p>
+ * <ul>
+ *     <li><b>Servicio</b>: desde que se envía la petición hasta que llega la respuesta. Es lo que mide un cliente en
+ *     bucle cerrado y sufre omisión coordinada: si el sistema se atasca, las peticiones que deberían haber salido
+ *     durante el atasco esperan y no se cuentan como lentas.</li>
+ *     <li><b>Respuesta</b>: desde el instante en que la petición debía salir según la tasa de llegadas hasta que llega
+ *     la respuesta. Incluye la espera en cola del generador y corrige esa omisión. En un escenario, el primer paso
+ *     debía salir en el instante planificado de la llegada y cada paso siguiente al terminar el anterior.</li>
+ * </ul>
+ */
+public final class RegistroLatencias {
+
+    private static final int DIGITOS_SIGNIFICATIVOS = 3;
+
+    private final Map<String, Serie> peticiones = new ConcurrentHashMap<>();
+    private final Map<String, Serie> escenarios = new ConcurrentHashMap<>();
+    private final LongAdder programados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final AtomicLong retrasoMaximoPlanificador = new AtomicLong();
+
+    /**
+     * Resultados de una petición o escenario.
+     */
+    public static final class Serie {
+
+        private final Histogram servicio = new ConcurrentHistogram(DIGITOS_SIGNIFICATIVOS);
+        private final Histogram respuesta = new ConcurrentHistogram(DIGITOS_SIGNIFICATIVOS);
+        private final LongAdder correctas = new LongAdder();
+        private final LongAdder rechazadas = new LongAdder();
+        private final LongAdder errores = new LongAdder();
+        private final LongAdder fallos = new LongAdder();
+
+        private void registrar(int estado, long servicioNanos, long respuestaNanos) {
+            servicio.recordValue(TimeUnit.NANOSECONDS.toMicros(servicioNanos));
+            respuesta.recordValue(TimeUnit.NANOSECONDS.toMicros(respuestaNanos));
+            if (estado >= 200 && estado < 300) {
+                correctas.increment();
+            } else if (estado >= 400 && estado < 500) {
+                rechazadas.increment();
+            } else if (estado >= 500) {
+                errores.increment();
+            } else {
+                fallos.increment();
+            }
+        }
+
+        public Histogram getServicio() {
+            return servicio;
+        }
+
+        public Histogram getRespuesta() {
+            return respuesta;
+        }
+
+        /** @return Respuestas 2xx (o escenarios completos). */
+        public long correctas() {
+            return correctas.sum();
+        }
+
+        /** @return Respuestas 4xx (o escenarios interrumpidos por una). */
+        public long rechazadas() {
+            return rechazadas.sum();
+        }
+
+        /** @return Respuestas 5xx (o escenarios interrumpidos por una). */
+        public long errores() {
+            return errores.sum();
+        }
+
+        /** @return Peticiones sin respuesta: conexión rechazada, tiempo agotado... */
+        public long fallos() {
+            return fallos.sum();
+        }
+
+        public long total() {
+            return servicio.getTotalCount();
+        }
+    }
+
+    /**
+     * Registra una petición.
+     * @param nombre Nombre de la petición en la colección.
+     * @param estado Código de estado HTTP, o 0 si no hubo respuesta.
+     * @param servicioNanos Tiempo desde el envío hasta la respuesta.
+     * @param respuestaNanos Tiempo desde el instante previsto de envío hasta la respuesta.
+     */
+    void registrarPeticion(String nombre, int estado, long servicioNanos, long respuestaNanos) {
+        peticiones.computeIfAbsent(nombre, clave -> new Serie()).registrar(estado, servicioNanos, respuestaNanos);
+    }
+
+    /**
+     * Registra un escenario terminado, completo o interrumpido por una petición fallida.
+     * @param nombre Nombre del escenario.
+     * @param estado Estado de la petición que lo interrumpió, o 200 si se completó.
+     * @param servicioNanos Tiempo desde el envío del primer paso hasta la respuesta del último.
+     * @param respuestaNanos Tiempo desde el instante planificado de la llegada hasta la respuesta del último paso.
+     */
+    void registrarEscenario(String nombre, int estado, long servicioNanos, long respuestaNanos) {
+        escenarios.computeIfAbsent(nombre, clave -> new Serie()).registrar(estado, servicioNanos, respuestaNanos);
+    }
+
+    void programado() {
+        programados.increment();
+    }
+
+    void descartado() {
+        descartados.increment();
+    }
+
+    void retrasoPlanificador(long nanos) {
+        retrasoMaximoPlanificador.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** @return Peticiones por nombre, en orden alfabético. */
+    public Map<String, Serie> getPeticiones() {
+        return new TreeMap<>(peticiones);
+    }
+
+    /** @return Escenarios por nombre, en orden alfabético. */
+    public Map<String, Serie> getEscenarios() {
+        return new TreeMap<>(escenarios);
+    }
+
+    /** @return Llegadas planificadas dentro del periodo de medición. */
+    public long programados() {
+        return programados.sum();
+    }
+
+    /** @return Llegadas que no se ejecutaron porque la cola de pendientes estaba llena. */
+    public long descartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * @return El mayor retraso del planificador respecto a la tasa prevista, en nanosegundos. Si es grande, el propio
+     * generador (no el sistema medido) no ha podido mantener la tasa.
+     */
+    public long retrasoMaximoPlanificador() {
+        return retrasoMaximoPlanificador.get();
+    }
+
+    /**
+     * Une los histogramas de una familia de series.
+     * @param series Series a unir.
+     * @param respuesta {@code true} para los tiempos de respuesta (corregidos), {@code false} para los de servicio.
+     * @return Un histograma nuevo con todos los valores.
+     */
+    public static Histogram unir(Iterable<Serie> series, boolean respuesta) {
+        Histogram total = new Histogram(DIGITOS_SIGNIFICATIVOS);
+        for (Serie serie : series) {
+            total.add(respuesta ? serie.respuesta : serie.servicio);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,133 @@
+package com.bootcampms.carga.Ejecucion;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Arranca productos e inventario como procesos locales a partir de sus jars ({@code mvn package} en cada servicio),
+ * con el perfil {@code dev} y en los puertos de las URLs configuradas, para generar carga sin docker-compose.
+ * <p>
+ * Inventario se apunta al productos arrancado. La salida de cada servicio va a {@code <registros>/<servicio>.log}.
+ * Los servicios se detienen al cerrar.
+ * </p>
+ */
+public final class ServiciosLocales implements AutoCloseable {
+
+    private static final Duration ESPERA_ARRANQUE = Duration.ofMinutes(2);
+
+    private final List<Process> procesos = new ArrayList<>();
+
+    private ServiciosLocales() {
+    }
+
+    /**
+     * Arranca los dos servicios y espera a que su health de Actuator responda 200.
+     * @param raiz Raíz del repositorio, con {@code productos/target} e {@code inventario/target}.
+     * @param productosUrl URL base de productos; se usa su puerto.
+     * @param inventarioUrl URL base de inventario; se usa su puerto.
+     * @param registros Directorio de los logs de los servicios.
+     * @return Los servicios arrancados.
+     * @throws IOException si falta algún jar o no se puede lanzar el proceso.
+     * @throws InterruptedException si se interrumpe la espera del arranque.
+     * @throws IllegalArgumentException si alguna URL no indica puerto.
+     * @throws IllegalStateException si algún servicio termina o no está listo a tiempo.
+     */
+    public static ServiciosLocales arrancar(Path raiz, URI productosUrl, URI inventarioUrl, Path registros)
+            throws IOException, InterruptedException {
+        if (productosUrl.getPort() < 0 || inventarioUrl.getPort() < 0) {
+            throw new IllegalArgumentException("Para arrancar los servicios, sus URLs deben indicar el puerto");
+        }
+        Files.createDirectories(registros);
+        ServiciosLocales servicios = new ServiciosLocales();
+        try {
+            servicios.lanzar(jar(raiz, "productos"), registros.resolve("productos.log"), productosUrl,
+                    "--server.port=" + productosUrl.getPort());
+            servicios.lanzar(jar(raiz, "inventario"), registros.resolve("inventario.log"), inventarioUrl,
+                    "--server.port=" + inventarioUrl.getPort(),
+                    "--microservice.productos.url=" + productosUrl.resolve("/api/v1/productos"));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            servicios.close();
+            throw e;
+        }
+        return servicios;
+    }
+
+    /**
+     * Busca el jar ejecutable de un servicio (descarta los {@code -plain} y los de otros clasificadores).
+     */
+    private static Path jar(Path raiz, String servicio) throws IOException {
+        Path target = raiz.resolve(servicio).resolve("target");
+        if (Files.isDirectory(target)) {
+            try (Stream<Path> ficheros = Files.list(target)) {
+                List<Path> jars = ficheros
+                        .filter(fichero -> fichero.getFileName().toString().matches(servicio + "-\\d[^-]*(-SNAPSHOT)?\\.jar"))
+                        .toList();
+                if (jars.size() == 1) {
+                    return jars.get(0);
+                }
+            }
+        }
+        throw new IOException("No se encuentra un único jar de " + servicio + " en " + target.toAbsolutePath()
+                + "; ejecute mvn package -DskipTests en " + servicio);
+    }
+
+    private void lanzar(Path jar, Path registro, URI url, String... argumentos) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", jar.toAbsolutePath().toString(), "--spring.profiles.active=dev"));
+        comando.addAll(List.of(argumentos));
+        Process proceso = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(registro.toFile())
+                .start();
+        procesos.add(proceso);
+        esperarListo(proceso, url.resolve("/management/health"), registro);
+    }
+
+    private static void esperarListo(Process proceso, URI health, Path registro) throws InterruptedException {
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        long limite = System.nanoTime() + ESPERA_ARRANQUE.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El servicio de " + health + " terminó al arrancar; ver " + registro);
+            }
+            try {
+                if (cliente.send(HttpRequest.newBuilder(health).timeout(Duration.ofSeconds(1)).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Todavía no escucha
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("El servicio de " + health + " no estaba listo tras " + ESPERA_ARRANQUE.toSeconds()
+                + " s; ver " + registro);
+    }
+
+    @Override
+    public void close() {
+        // Inventario primero: depende de productos
+        for (int i = procesos.size() - 1; i >= 0; i--) {
+            Process proceso = procesos.get(i);
+            proceso.destroy();
+            try {
+                if (!proceso.waitFor(20, TimeUnit.SECONDS)) {
+                    proceso.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                proceso.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
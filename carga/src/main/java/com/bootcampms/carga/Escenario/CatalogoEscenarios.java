@@ -0,0 +1,132 @@
+package com.bootcampms.carga.Escenario;
+
+import com.bootcampms.carga.Coleccion.ColeccionPostman;
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+/**
+ * Mezcla ponderada de escenarios construida sobre las peticiones de una colección de Postman.
+ * <p>
+ * Se define con propiedades {@code escenario.<nombre>.peso} y {@code escenario.<nombre>.pasos}; los pasos son nombres
+ * de peticiones de la colección separados por comas. Los escenarios con peso 0 se ignoran. La mezcla por defecto está
+ * en {@code escenarios.properties} del classpath.
+ * </p>
+ */
+public final class CatalogoEscenarios {
+
+    private static final String PREFIJO = "escenario.";
+    private static final String RECURSO_POR_DEFECTO = "/escenarios.properties";
+
+    private final List<Escenario> escenarios;
+    private final int[] pesosAcumulados;
+
+    private CatalogoEscenarios(List<Escenario> escenarios) {
+        if (escenarios.isEmpty()) {
+            throw new IllegalArgumentException("No hay ningún escenario con peso mayor que 0");
+        }
+        this.escenarios = Collections.unmodifiableList(escenarios);
+        this.pesosAcumulados = new int[escenarios.size()];
+        int acumulado = 0;
+        for (int i = 0; i < escenarios.size(); i++) {
+            acumulado += escenarios.get(i).peso();
+            pesosAcumulados[i] = acumulado;
+        }
+    }
+
+    /**
+     * Carga la mezcla de un fichero de propiedades o, si no se indica, la mezcla por defecto.
+     * @param fichero Fichero de propiedades, o {@code null} para usar {@code escenarios.properties} del classpath.
+     * @param coleccion Colección de la que se toman las peticiones.
+     * @return El catálogo de escenarios.
+     * @throws IOException si no se puede leer el fichero.
+     * @throws IllegalArgumentException si la definición es incorrecta o nombra peticiones que no están en la colección.
+     */
+    public static CatalogoEscenarios cargar(Path fichero, ColeccionPostman coleccion) throws IOException {
+        Properties propiedades = new Properties();
+        if (fichero != null) {
+            try (Reader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+                propiedades.load(lector);
+            }
+        } else {
+            try (InputStream entrada = CatalogoEscenarios.class.getResourceAsStream(RECURSO_POR_DEFECTO)) {
+                if (entrada == null) {
+                    throw new IOException("No se encuentra " + RECURSO_POR_DEFECTO + " en el classpath");
+                }
+                propiedades.load(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            }
+        }
+        return desdePropiedades(propiedades, coleccion);
+    }
+
+    /**
+     * Construye el catálogo a partir de propiedades ya cargadas.
+     * @param propiedades Propiedades {@code escenario.<nombre>.peso} y {@code escenario.<nombre>.pasos}.
+     * @param coleccion Colección de la que se toman las peticiones.
+     * @return El catálogo, con los escenarios en orden alfabético.
+     */
+    public static CatalogoEscenarios desdePropiedades(Properties propiedades, ColeccionPostman coleccion) {
+        TreeSet<String> nombres = new TreeSet<>();
+        for (String clave : propiedades.stringPropertyNames()) {
+            if (!clave.startsWith(PREFIJO) || !(clave.endsWith(".peso") || clave.endsWith(".pasos"))) {
+                throw new IllegalArgumentException("Propiedad de escenario desconocida: " + clave);
+            }
+            nombres.add(clave.substring(PREFIJO.length(), clave.lastIndexOf('.')));
+        }
+        List<Escenario> escenarios = new ArrayList<>();
+        for (String nombre : nombres) {
+            String peso = propiedades.getProperty(PREFIJO + nombre + ".peso");
+            String pasos = propiedades.getProperty(PREFIJO + nombre + ".pasos");
+            if (peso == null || pasos == null || pasos.isBlank()) {
+                throw new IllegalArgumentException("El escenario '" + nombre + "' necesita peso y pasos");
+            }
+            int valorPeso = Integer.parseInt(peso.trim());
+            if (valorPeso < 0) {
+                throw new IllegalArgumentException("El peso del escenario '" + nombre + "' no puede ser negativo");
+            }
+            if (valorPeso > 0) {
+                List<PeticionPostman> peticiones = Arrays.stream(pasos.split(","))
+                        .map(String::trim)
+                        .map(coleccion::buscar)
+                        .toList();
+                escenarios.add(new Escenario(nombre, valorPeso, peticiones));
+            }
+        }
+        return new CatalogoEscenarios(escenarios);
+    }
+
+    /**
+     * Elige un escenario con probabilidad proporcional a su peso.
+     * @param aleatorio Generador aleatorio del planificador.
+     * @return El escenario elegido.
+     */
+    public Escenario elegir(SplittableRandom aleatorio) {
+        int tirada = aleatorio.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        int posicion = Arrays.binarySearch(pesosAcumulados, tirada + 1);
+        return escenarios.get(posicion >= 0 ? posicion : -posicion - 1);
+    }
+
+    public List<Escenario> getEscenarios() {
+        return escenarios;
+    }
+
+    /**
+     * @return La suma de los pesos de todos los escenarios.
+     */
+    public int pesoTotal() {
+        return pesosAcumulados[pesosAcumulados.length - 1];
+    }
+}
@@ -0,0 +1,14 @@
+package com.bootcampms.carga.Escenario;
+
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+
+import java.util.List;
+
+/**
+ * Flujo de peticiones de la colección que se ejecuta en orden por cada llegada que lo elige.
+ * @param nombre Nombre del escenario (p. ej. {@code venta}).
+ * @param peso Peso relativo en la mezcla de escenarios.
+ * @param pasos Peticiones del flujo, en orden.
+ */
+public record Escenario(String nombre, int peso, List<PeticionPostman> pasos) {
+}
@@ -0,0 +1,155 @@
+package com.bootcampms.carga.Escenario;
+
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Convierte las peticiones de la colección en peticiones HTTP reproducibles a escala.
+ * <p>
+ * La colección está escrita para ejecutarse una vez contra los datos de ejemplo: IDs fijos en la ruta y en el
+ * cuerpo, y un SKU y un código de barras que solo pueden darse de alta una vez. Para repetirla miles de veces:
+ * </p>
+ * <ul>
+ *     <li>El host y el puerto de la colección se sustituyen por la URL del servicio correspondiente.</li>
+ *     <li>El último segmento numérico de la ruta y los campos {@code id} y {@code productoId} del cuerpo pasan a ser
+ *     el producto del escenario.</li>
+ *     <li>{@code sku} y {@code codBar} se sustituyen por valores únicos en cada petición.</li>
+ * </ul>
+ * Los cuerpos admiten comentarios {@code //} como los de la colección; se envían ya sin ellos.
+ */
+public final class PreparadorPeticiones {
+
+    private static final Pattern ID_EN_RUTA = Pattern.compile("^(.*/)\\d+(\\?.*)?$");
+    /** Cabeceras que gestiona el propio cliente HTTP y no se pueden fijar a mano. */
+    private static final Set<String> CABECERAS_RESTRINGIDAS = Set.of("connection", "content-length", "host", "expect", "upgrade");
+
+    private final Map<Integer, URI> servicios;
+    private final Duration tiempoMaximo;
+    private final JsonMapper mapper = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .build();
+    private final Map<PeticionPostman, Optional<ObjectNode>> plantillas = new ConcurrentHashMap<>();
+
+    /**
+     * @param servicios URL base de cada servicio, por el puerto con el que aparece en la colección.
+     * @param tiempoMaximo Tiempo máximo de espera de cada respuesta.
+     */
+    public PreparadorPeticiones(Map<Integer, URI> servicios, Duration tiempoMaximo) {
+        this.servicios = Map.copyOf(servicios);
+        this.tiempoMaximo = tiempoMaximo;
+    }
+
+    /**
+     * Prepara una petición de la colección para un producto concreto.
+     * @param peticion Petición de la colección.
+     * @param productoId Producto del escenario.
+     * @param unico Número distinto en cada llamada, del que salen el SKU y el código de barras.
+     * @return La petición HTTP lista para enviar.
+     * @throws IllegalArgumentException si la colección apunta a un puerto sin servicio configurado.
+     */
+    public HttpRequest preparar(PeticionPostman peticion, long productoId, long unico) {
+        URI base = servicios.get(peticion.puerto());
+        if (base == null) {
+            throw new IllegalArgumentException("No hay servicio configurado para el puerto " + peticion.puerto() + " de " + peticion);
+        }
+        HttpRequest.Builder constructor = HttpRequest.newBuilder(base.resolve(ruta(peticion.ruta(), productoId)))
+                .timeout(tiempoMaximo);
+        peticion.cabeceras().forEach((nombre, valor) -> {
+            if (!CABECERAS_RESTRINGIDAS.contains(nombre.toLowerCase(Locale.ROOT))) {
+                constructor.header(nombre, valor);
+            }
+        });
+        String cuerpo = cuerpo(peticion, productoId, unico);
+        return constructor.method(peticion.metodo(), cuerpo == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(cuerpo)).build();
+    }
+
+    /**
+     * Sustituye el último segmento numérico de la ruta (el ID del recurso) por el producto del escenario.
+     */
+    static String ruta(String ruta, long productoId) {
+        Matcher coincidencia = ID_EN_RUTA.matcher(ruta);
+        if (!coincidencia.matches()) {
+            return ruta;
+        }
+        return coincidencia.group(1) + productoId + (coincidencia.group(2) != null ? coincidencia.group(2) : "");
+    }
+
+    private String cuerpo(PeticionPostman peticion, long productoId, long unico) {
+        if (peticion.cuerpo() == null || peticion.cuerpo().isBlank()) {
+            return null;
+        }
+        Optional<ObjectNode> plantilla = plantillas.computeIfAbsent(peticion, this::plantilla);
+        if (plantilla.isEmpty()) {
+            return peticion.cuerpo(); // No es un objeto JSON: se envía tal cual
+        }
+        ObjectNode cuerpo = plantilla.get().deepCopy();
+        if (cuerpo.has("id")) {
+            cuerpo.put("id", productoId);
+        }
+        if (cuerpo.has("productoId")) {
+            cuerpo.put("productoId", productoId);
+        }
+        if (cuerpo.has("sku")) {
+            cuerpo.put("sku", sku(unico));
+        }
+        if (cuerpo.has("codBar")) {
+            cuerpo.put("codBar", codBar(unico));
+        }
+        try {
+            return mapper.writeValueAsString(cuerpo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el cuerpo de " + peticion, e);
+        }
+    }
+
+    private Optional<ObjectNode> plantilla(PeticionPostman peticion) {
+        try {
+            JsonNode cuerpo = mapper.readTree(peticion.cuerpo());
+            return cuerpo instanceof ObjectNode objeto ? Optional.of(objeto) : Optional.empty();
+        } catch (JsonProcessingException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Lee el ID de la respuesta de un alta de producto.
+     * @param respuesta Cuerpo de la respuesta.
+     * @return El ID, o vacío si la respuesta no trae un {@code id} numérico.
+     */
+    public Optional<Long> idCreado(String respuesta) {
+        try {
+            JsonNode id = mapper.readTree(respuesta).path("id");
+            return id.canConvertToLong() ? Optional.of(id.asLong()) : Optional.empty();
+        } catch (JsonProcessingException e) {
+            return Optional.empty();
+        }
+    }
+
+    static String sku(long unico) {
+        return "CARGA-" + unico;
+    }
+
+    /**
+     * Código de barras de 13 dígitos (los de la colección tienen 13), con prefijo 97 para no chocar con los de ejemplo.
+     */
+    static String codBar(long unico) {
+        return String.format("97%011d", unico % 100_000_000_000L);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bootcampms.carga.Arranque;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ConfiguracionArranqueTest {
+
+    @Test
+    void desdeArgumentos_conServicio_usaSuTargetYSuPrimeraPeticion() {
+        ConfiguracionArranque configuracion = ConfiguracionArranque.desdeArgumentos("--servicio=inventario", "--repeticiones=3");
+
+        assertThat(configuracion.target()).isEqualTo(Path.of("..", "inventario", "target"));
+        assertThat(configuracion.primeraPeticion()).isEqualTo("/api/v1/inventario/stock");
+        assertThat(configuracion.repeticiones()).isEqualTo(3);
+    }
+
+    @Test
+    void desdeArgumentos_sinServicioOConUnoDesconocido_falla() {
+        assertThatThrownBy(ConfiguracionArranque::desdeArgumentos)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("--servicio");
+        assertThatThrownBy(() -> ConfiguracionArranque.desdeArgumentos("--servicio=pedidos"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("pedidos");
+    }
+
+    @Test
+    void mediana_devuelveElCentralOPromediaLosDosCentrales() {
+        assertThat(ArranqueBenchmark.mediana(new double[]{3, 1, 2})).isEqualTo(2);
+        assertThat(ArranqueBenchmark.mediana(new double[]{4, 1, 3, 2})).isEqualTo(2.5);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bootcampms.carga.Coleccion;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ColeccionPostmanTest {
+
+    /** La colección real del repositorio, relativa al directorio del módulo. */
+    private static final Path COLECCION = Path.of("../BootCamp MS CodigoFacilito.postman_collection.json");
+
+    private static ColeccionPostman coleccion;
+
+    @BeforeAll
+    static void leer() throws IOException {
+        coleccion = ColeccionPostman.leer(COLECCION);
+    }
+
+    @Test
+    void leer_recorreLasCarpetasDeLaColeccion() {
+        assertThat(coleccion.getNombre()).isEqualTo("BootCamp MS CodigoFacilito");
+        assertThat(coleccion.getPeticiones()).hasSize(12);
+        assertThat(coleccion.getPeticiones()).extracting(PeticionPostman::carpeta).containsOnly("Productos", "inventario");
+        assertThat(coleccion.getPeticiones()).filteredOn(peticion -> peticion.carpeta().equals("Productos"))
+                .extracting(PeticionPostman::puerto).containsOnly(8080);
+        assertThat(coleccion.getPeticiones()).filteredOn(peticion -> peticion.carpeta().equals("inventario"))
+                .extracting(PeticionPostman::puerto).containsOnly(8081);
+    }
+
+    @Test
+    void leer_ignoraLosParametrosDesactivadosYConservaElCuerpo() {
+        PeticionPostman ver = coleccion.buscar("Ver producto");
+        assertThat(ver.metodo()).isEqualTo("GET");
+        assertThat(ver.ruta()).isEqualTo("/api/v1/productos/1");
+        assertThat(ver.cuerpo()).isNull();
+        assertThat(ver.creaProducto()).isFalse();
+
+        PeticionPostman nuevo = coleccion.buscar("Nuevo producto");
+        assertThat(nuevo.metodo()).isEqualTo("POST");
+        assertThat(nuevo.ruta()).isEqualTo("/api/v1/productos");
+        assertThat(nuevo.cabeceras()).containsEntry("Content-Type", "application/json");
+        assertThat(nuevo.cuerpo()).contains("\"sku\": \"SKU-POSTMAN-001\"");
+        assertThat(nuevo.creaProducto()).isTrue();
+        assertThat(coleccion.buscar("Registrar salida").creaProducto()).isFalse();
+    }
+
+    @Test
+    void buscar_admiteCarpetaYNombreYRechazaLasDesconocidas() {
+        assertThat(coleccion.buscar("inventario/Ajuste de stock").ruta()).isEqualTo("/api/v1/inventario/ajuste-stock");
+        assertThatThrownBy(() -> coleccion.buscar("No existe")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
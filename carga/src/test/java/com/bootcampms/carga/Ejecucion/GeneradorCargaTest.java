@@ -0,0 +1,124 @@
+package com.bootcampms.carga.Ejecucion;
+
+import com.bootcampms.carga.Coleccion.ColeccionPostman;
+import com.bootcampms.carga.Config.ConfiguracionCarga;
+import com.bootcampms.carga.Escenario.CatalogoEscenarios;
+import com.bootcampms.carga.Escenario.PreparadorPeticiones;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GeneradorCargaTest {
+
+    private HttpServer servidor;
+    private final List<String> rutas = new CopyOnWriteArrayList<>();
+    /** Si está activo, la siguiente petición se atasca 300 ms. */
+    private final AtomicBoolean atasco = new AtomicBoolean();
+
+    @BeforeAll
+    static void sinRetrasoDeNagle() {
+        // Sin esto, el HttpServer del JDK suma ~40 ms a cada respuesta (Nagle + ACK retardado)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    @BeforeEach
+    void iniciarServidor() throws IOException {
+        // Un solo servidor hace de productos y de inventario: responde 201 a las altas y 200 al resto
+        servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        servidor.createContext("/", intercambio -> {
+            rutas.add(intercambio.getRequestMethod() + " " + intercambio.getRequestURI().getPath());
+            try {
+                if (atasco.compareAndSet(true, false)) {
+                    Thread.sleep(300);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] cuerpo = "{\"id\": 999}".getBytes(StandardCharsets.UTF_8);
+            intercambio.sendResponseHeaders(intercambio.getRequestMethod().equals("POST") ? 201 : 200, cuerpo.length);
+            try (OutputStream salida = intercambio.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        });
+        servidor.setExecutor(Executors.newCachedThreadPool());
+        servidor.start();
+    }
+
+    @AfterEach
+    void detenerServidor() {
+        servidor.stop(0);
+    }
+
+    private RegistroLatencias ejecutar(Properties mezcla, String... opciones) throws Exception {
+        String url = "http://localhost:" + servidor.getAddress().getPort();
+        String[] argumentos = new String[opciones.length + 3];
+        argumentos[0] = "--productos-url=" + url;
+        argumentos[1] = "--inventario-url=" + url;
+        argumentos[2] = "--calentamiento=0";
+        System.arraycopy(opciones, 0, argumentos, 3, opciones.length);
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desdeArgumentos(argumentos);
+        ColeccionPostman coleccion = ColeccionPostman.leer(Path.of("../BootCamp MS CodigoFacilito.postman_collection.json"));
+        return new GeneradorCarga(configuracion, CatalogoEscenarios.desdePropiedades(mezcla, coleccion),
+                new PreparadorPeticiones(configuracion.servicios(), configuracion.tiempoMaximo()),
+                GeneradorCarga.cliente(configuracion)).ejecutar();
+    }
+
+    private static Properties mezcla(String... nombresYPasos) {
+        Properties propiedades = new Properties();
+        for (int i = 0; i < nombresYPasos.length; i += 2) {
+            propiedades.setProperty("escenario." + nombresYPasos[i] + ".peso", "1");
+            propiedades.setProperty("escenario." + nombresYPasos[i] + ".pasos", nombresYPasos[i + 1]);
+        }
+        return propiedades;
+    }
+
+    @Test
+    void ejecutar_lanzaLasLlegadasALaTasaIndicada() throws Exception {
+        RegistroLatencias registro = ejecutar(mezcla("ver", "Ver producto", "stock", "Obtener stock de un producto"),
+                "--tasa=200", "--duracion=1");
+
+        assertThat(registro.programados()).isEqualTo(200);
+        assertThat(registro.descartados()).isZero();
+        long escenarios = registro.getEscenarios().values().stream().mapToLong(RegistroLatencias.Serie::total).sum();
+        assertThat(escenarios).isEqualTo(200);
+        assertThat(registro.getPeticiones()).containsOnlyKeys("Ver producto", "Obtener stock de un producto");
+        assertThat(registro.getPeticiones().get("Ver producto").correctas()).isEqualTo(registro.getEscenarios().get("ver").total());
+    }
+
+    @Test
+    void ejecutar_losPasosSiguientesAUnAltaUsanElProductoCreado() throws Exception {
+        ejecutar(mezcla("alta", "Nuevo producto, Actualizar un producto, Borrar producto"), "--tasa=20", "--duracion=0.5");
+
+        assertThat(rutas).contains("POST /api/v1/productos", "PUT /api/v1/productos/999", "DELETE /api/v1/productos/999");
+        assertThat(rutas).noneMatch(ruta -> ruta.startsWith("PUT") && !ruta.endsWith("/999"));
+    }
+
+    @Test
+    void ejecutar_conElServicioAtascado_laRespuestaCorregidaIncluyeLaEspera() throws Exception {
+        atasco.set(true);
+        // Con un solo hilo, las llegadas de los 300 ms del atasco esperan en cola: su tiempo de servicio es corto,
+        // pero su tiempo de respuesta (desde el instante previsto) incluye la espera
+        RegistroLatencias registro = ejecutar(mezcla("ver", "Ver producto"), "--tasa=100", "--duracion=1", "--concurrencia=1");
+
+        RegistroLatencias.Serie ver = registro.getPeticiones().get("Ver producto");
+        assertThat(ver.total()).isEqualTo(100);
+        assertThat(ver.getServicio().getValueAtPercentile(90)).isLessThan(100_000);
+        assertThat(ver.getRespuesta().getValueAtPercentile(90)).isGreaterThan(ver.getServicio().getValueAtPercentile(90));
+        assertThat(ver.getRespuesta().getValueAtPercentile(99)).isGreaterThanOrEqualTo(200_000);
+    }
+}
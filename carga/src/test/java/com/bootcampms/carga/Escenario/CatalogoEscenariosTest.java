@@ -0,0 +1,74 @@
+package com.bootcampms.carga.Escenario;
+
+import com.bootcampms.carga.Coleccion.ColeccionPostman;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class CatalogoEscenariosTest {
+
+    private static ColeccionPostman coleccion;
+
+    @BeforeAll
+    static void leer() throws IOException {
+        coleccion = ColeccionPostman.leer(Path.of("../BootCamp MS CodigoFacilito.postman_collection.json"));
+    }
+
+    @Test
+    void cargar_laMezclaPorDefectoUsaPeticionesDeLaColeccion() throws IOException {
+        CatalogoEscenarios catalogo = CatalogoEscenarios.cargar(null, coleccion);
+
+        assertThat(catalogo.getEscenarios()).extracting(Escenario::nombre)
+                .contains("ver-producto", "venta", "alta-producto");
+        Escenario alta = catalogo.getEscenarios().stream().filter(escenario -> escenario.nombre().equals("alta-producto"))
+                .findFirst().orElseThrow();
+        assertThat(alta.pasos().get(0).creaProducto()).isTrue();
+        assertThat(alta.pasos().get(alta.pasos().size() - 1).metodo()).isEqualTo("DELETE");
+    }
+
+    @Test
+    void elegir_respetaLosPesosEIgnoraLosNulos() {
+        Properties propiedades = new Properties();
+        propiedades.setProperty("escenario.lectura.peso", "3");
+        propiedades.setProperty("escenario.lectura.pasos", "Ver producto");
+        propiedades.setProperty("escenario.escritura.peso", "1");
+        propiedades.setProperty("escenario.escritura.pasos", "Registrar entrada, Registrar salida");
+        propiedades.setProperty("escenario.apagado.peso", "0");
+        propiedades.setProperty("escenario.apagado.pasos", "Borrar producto");
+        CatalogoEscenarios catalogo = CatalogoEscenarios.desdePropiedades(propiedades, coleccion);
+
+        assertThat(catalogo.getEscenarios()).extracting(Escenario::nombre).containsExactly("escritura", "lectura");
+        assertThat(catalogo.pesoTotal()).isEqualTo(4);
+        Map<String, Integer> elegidos = new HashMap<>();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 0; i < 40_000; i++) {
+            elegidos.merge(catalogo.elegir(aleatorio).nombre(), 1, Integer::sum);
+        }
+        assertThat(elegidos.get("lectura") / 40_000.0).isCloseTo(0.75, within(0.01));
+        assertThat(elegidos).doesNotContainKey("apagado");
+    }
+
+    @Test
+    void desdePropiedades_conPasosDesconocidosOIncompletos_lanzaExcepcion() {
+        Properties desconocido = new Properties();
+        desconocido.setProperty("escenario.x.peso", "1");
+        desconocido.setProperty("escenario.x.pasos", "No existe");
+        assertThatThrownBy(() -> CatalogoEscenarios.desdePropiedades(desconocido, coleccion))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        Properties sinPasos = new Properties();
+        sinPasos.setProperty("escenario.x.peso", "1");
+        assertThatThrownBy(() -> CatalogoEscenarios.desdePropiedades(sinPasos, coleccion))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.bootcampms.carga.Escenario;
+
+import com.bootcampms.carga.Coleccion.ColeccionPostman;
+import com.bootcampms.carga.Coleccion.PeticionPostman;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PreparadorPeticionesTest {
+
+    private static ColeccionPostman coleccion;
+    private final PreparadorPeticiones preparador = new PreparadorPeticiones(
+            Map.of(8080, URI.create("http://productos:9000"), 8081, URI.create("http://inventario:9001")), Duration.ofSeconds(5));
+
+    @BeforeAll
+    static void leer() throws IOException {
+        coleccion = ColeccionPostman.leer(Path.of("../BootCamp MS CodigoFacilito.postman_collection.json"));
+    }
+
+    @Test
+    void preparar_sustituyeElServicioYElIdDeLaRuta() {
+        HttpRequest ver = preparador.preparar(coleccion.buscar("Ver producto"), 42, 1);
+        assertThat(ver.uri()).isEqualTo(URI.create("http://productos:9000/api/v1/productos/42"));
+        assertThat(ver.method()).isEqualTo("GET");
+
+        HttpRequest stock = preparador.preparar(coleccion.buscar("Obtener stock de todos los productos"), 42, 2);
+        assertThat(stock.uri()).isEqualTo(URI.create("http://inventario:9001/api/v1/inventario/stock"));
+        assertThat(PreparadorPeticiones.ruta("/a/7?x=1", 9)).isEqualTo("/a/9?x=1");
+    }
+
+    @Test
+    void preparar_quitaLosComentariosYHaceUnicosElSkuYElCodigoDeBarras() throws IOException {
+        PeticionPostman nuevo = coleccion.buscar("Nuevo producto");
+
+        JsonNode primero = new ObjectMapper().readTree(cuerpo(preparador.preparar(nuevo, 1, 100)));
+        JsonNode segundo = new ObjectMapper().readTree(cuerpo(preparador.preparar(nuevo, 1, 101)));
+
+        assertThat(primero.path("sku").asText()).isEqualTo("CARGA-100");
+        assertThat(primero.path("codBar").asText()).isEqualTo("9700000000100").hasSize(13);
+        assertThat(segundo.path("sku").asText()).isNotEqualTo(primero.path("sku").asText());
+        assertThat(primero.path("categoria").path("id").asLong()).isEqualTo(1);
+        assertThat(primero.path("estado").asText()).isEqualTo("PUBLICADO");
+    }
+
+    @Test
+    void preparar_usaElProductoDelEscenarioEnElCuerpo() throws IOException {
+        JsonNode actualizar = new ObjectMapper().readTree(cuerpo(preparador.preparar(coleccion.buscar("Actualizar un producto"), 77, 5)));
+        assertThat(actualizar.path("id").asLong()).isEqualTo(77);
+
+        JsonNode salida = new ObjectMapper().readTree(cuerpo(preparador.preparar(coleccion.buscar("Registrar salida"), 77, 6)));
+        assertThat(salida.path("productoId").asLong()).isEqualTo(77);
+        assertThat(salida.path("tipoMovimiento").asText()).isEqualTo("SALIDA_VENTA");
+    }
+
+    @Test
+    void preparar_conUnPuertoSinServicio_lanzaExcepcion() {
+        PeticionPostman otra = new PeticionPostman("Otros", "Otra", "GET", 9999, "/", Map.of(), null);
+        assertThatThrownBy(() -> preparador.preparar(otra, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void idCreado_leeElIdDeLaRespuesta() {
+        assertThat(preparador.idCreado("{\"id\": 123, \"sku\": \"CARGA-1\"}")).contains(123L);
+        assertThat(preparador.idCreado("{\"mensaje\": \"error\"}")).isEmpty();
+        assertThat(preparador.idCreado("no es JSON")).isEmpty();
+    }
+
+    /**
+     * Lee el cuerpo de una petición ya construida.
+     */
+    private static String cuerpo(HttpRequest peticion) {
+        List<ByteBuffer> partes = new ArrayList<>();
+        peticion.bodyPublisher().orElseThrow().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription suscripcion) {
+                suscripcion.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer parte) {
+                partes.add(parte);
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                throw new IllegalStateException(error);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        StringBuilder cuerpo = new StringBuilder();
+        partes.forEach(parte -> cuerpo.append(StandardCharsets.UTF_8.decode(parte)));
+        return cuerpo.toString();
+    }
+}
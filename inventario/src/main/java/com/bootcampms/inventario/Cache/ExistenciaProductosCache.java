@@ -0,0 +1,134 @@
+package com.bootcampms.inventario.Cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Caché en proceso de la existencia de productos en el microservicio de Productos.
+ * <p>
+ * Guarda dos conjuntos de IDs con Caffeine: los productos que existen (caché positiva, acotada por tamaño y con
+ * un tiempo de vida largo) y los que no existen (caché negativa, más pequeña y con un tiempo de vida corto, para
+ * que un producto recién dado de alta en el catálogo se acepte pronto). Un acierto en cualquiera de las dos evita
+ * la llamada HTTP a productos. Los errores de comunicación nunca se guardan.
+ * </p>
+ * <p>
+ * Un producto borrado del catálogo se sigue aceptando hasta que expire su entrada positiva, igual que ocurría
+ * con una validación que llegaba justo antes del borrado.
+ * Los aciertos, fallos y desalojos se registran en Micrometer bajo los nombres de caché
+ * {@code productos-existentes} y {@code productos-inexistentes}.
+ * </p>
+ */
+public class ExistenciaProductosCache {
+
+    public static final String NOMBRE_CACHE_EXISTENTES = "productos-existentes";
+    public static final String NOMBRE_CACHE_INEXISTENTES = "productos-inexistentes";
+
+    private final boolean habilitada;
+    private final long tamanioMaximo;
+    private final Cache<Long, Boolean> existentes;
+    private final Cache<Long, Boolean> inexistentes;
+
+    /**
+     * Constructor de la caché.
+     * @param habilitada Si es {@code false}, la caché no guarda nada y toda validación va a productos.
+     * @param tamanioMaximo Número máximo de productos existentes en caché.
+     * @param ttl Tiempo de vida de cada producto existente desde que se registra.
+     * @param tamanioMaximoNegativo Número máximo de productos inexistentes en caché.
+     * @param ttlNegativo Tiempo de vida de cada producto inexistente desde que se registra.
+     * @param meterRegistry Registro de métricas donde publicar las estadísticas de las dos cachés.
+     */
+    public ExistenciaProductosCache(boolean habilitada, long tamanioMaximo, Duration ttl,
+                                    long tamanioMaximoNegativo, Duration ttlNegativo,
+                                    MeterRegistry meterRegistry) {
+        this.habilitada = habilitada;
+        this.tamanioMaximo = tamanioMaximo;
+        this.existentes = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.inexistentes = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximoNegativo)
+                .expireAfterWrite(ttlNegativo)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, existentes, NOMBRE_CACHE_EXISTENTES);
+        CaffeineCacheMetrics.monitor(meterRegistry, inexistentes, NOMBRE_CACHE_INEXISTENTES);
+    }
+
+    /**
+     * Consulta lo que se sabe de un producto sin llamar a productos.
+     * @param productoId El ID del producto.
+     * @return {@code true} si se sabe que existe, {@code false} si se sabe que no existe,
+     *         o vacío si no está en caché (o la caché está deshabilitada).
+     */
+    public Optional<Boolean> consultar(Long productoId) {
+        if (!habilitada || productoId == null) {
+            return Optional.empty();
+        }
+        if (existentes.getIfPresent(productoId) != null) {
+            return Optional.of(true);
+        }
+        if (inexistentes.getIfPresent(productoId) != null) {
+            return Optional.of(false);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Registra que un producto existe y lo quita de la caché negativa.
+     * @param productoId El ID del producto.
+     */
+    public void registrarExistente(Long productoId) {
+        if (habilitada && productoId != null) {
+            existentes.put(productoId, Boolean.TRUE);
+            inexistentes.invalidate(productoId);
+        }
+    }
+
+    /**
+     * Registra que un producto no existe y lo quita de la caché positiva.
+     * @param productoId El ID del producto.
+     */
+    public void registrarInexistente(Long productoId) {
+        if (habilitada && productoId != null) {
+            inexistentes.put(productoId, Boolean.TRUE);
+            existentes.invalidate(productoId);
+        }
+    }
+
+    /**
+     * Olvida todo lo que se sabe de un producto.
+     * @param productoId El ID del producto.
+     */
+    public void invalidar(Long productoId) {
+        existentes.invalidate(productoId);
+        inexistentes.invalidate(productoId);
+    }
+
+    /**
+     * @return {@code true} si la caché está habilitada.
+     */
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    /**
+     * @return El número máximo de productos existentes que caben en caché (límite útil de la precarga).
+     */
+    public long getTamanioMaximo() {
+        return tamanioMaximo;
+    }
+
+    /**
+     * @return El número aproximado de productos existentes en caché.
+     */
+    public long existentesEnCache() {
+        return existentes.estimatedSize();
+    }
+}
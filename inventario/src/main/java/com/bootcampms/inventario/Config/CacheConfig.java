@@ -0,0 +1,58 @@
+package com.bootcampms.inventario.Config;
+
+import com.bootcampms.inventario.Cache.ExistenciaProductosCache;
+import com.bootcampms.inventario.Service.ProductoWebClientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la caché de existencia de productos usada al validar movimientos.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Crea la caché de existencia de productos.
+     * @param habilitada Si se usa la caché ({@code inventario.cache-productos.habilitada}).
+     * @param tamanioMaximo Número máximo de productos existentes ({@code inventario.cache-productos.tamanio-maximo}).
+     * @param ttl Tiempo de vida de un producto existente ({@code inventario.cache-productos.ttl}).
+     * @param tamanioMaximoNegativo Número máximo de productos inexistentes ({@code inventario.cache-productos.tamanio-maximo-negativo}).
+     * @param ttlNegativo Tiempo de vida de un producto inexistente ({@code inventario.cache-productos.ttl-negativo}).
+     * @param meterRegistry Registro de Micrometer para las métricas de la caché.
+     * @return La caché de existencia de productos.
+     */
+    @Bean
+    public ExistenciaProductosCache existenciaProductosCache(
+            @Value("${inventario.cache-productos.habilitada:true}") boolean habilitada,
+            @Value("${inventario.cache-productos.tamanio-maximo:100000}") long tamanioMaximo,
+            @Value("${inventario.cache-productos.ttl:10m}") Duration ttl,
+            @Value("${inventario.cache-productos.tamanio-maximo-negativo:10000}") long tamanioMaximoNegativo,
+            @Value("${inventario.cache-productos.ttl-negativo:30s}") Duration ttlNegativo,
+            MeterRegistry meterRegistry) {
+        return new ExistenciaProductosCache(habilitada, tamanioMaximo, ttl, tamanioMaximoNegativo, ttlNegativo, meterRegistry);
+    }
+
+    /**
+     * Precarga la caché de existencia con los IDs del catálogo cuando la aplicación ya está lista, sin bloquear
+     * el arranque: la aplicación atiende peticiones mientras tanto y las validaciones que no encuentren el producto
+     * en la caché llaman a productos como siempre.
+     * Se desactiva con {@code inventario.cache-productos.precarga=false}; un fallo solo deja la caché sin precargar.
+     * @param productoWebClientService El servicio que consulta los IDs del catálogo.
+     * @param tiempoMaximo Tiempo máximo de toda la precarga ({@code inventario.cache-productos.precarga-tiempo-maximo}).
+     * @return Un listener de {@link ApplicationReadyEvent} que lanza la precarga en segundo plano.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "inventario.cache-productos.precarga", havingValue = "true", matchIfMissing = true)
+    public ApplicationListener<ApplicationReadyEvent> precargarCacheProductos(
+            ProductoWebClientService productoWebClientService,
+            @Value("${inventario.cache-productos.precarga-tiempo-maximo:30s}") Duration tiempoMaximo) {
+        return evento -> productoWebClientService.precargarCache(tiempoMaximo).subscribe();
+    }
+}
@@ -49,7 +49,7 @@ public class DataInitializer {
      * @return Un {@link CommandLineRunner} para la inicialización de datos.
      */
     @Bean
-    @Profile("dev")
+    @Profile("dev & !datos-sinteticos")
     public CommandLineRunner initData() {
         return args -> {
             try {
@@ -0,0 +1,62 @@
+package com.bootcampms.inventario.Config;
+
+import com.bootcampms.inventario.Resiliencia.ResilienciaProductos;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración del circuit breaker, el bulkhead y las peticiones especulativas de las llamadas a productos.
+ */
+@Configuration
+public class ResilienciaConfig {
+
+    /**
+     * Crea la protección de las llamadas a productos.
+     * @param circuitoHabilitado Si se aplica el circuit breaker ({@code microservice.productos.circuito.habilitado}).
+     * @param umbralFallos Porcentaje de llamadas fallidas que abre el circuito ({@code microservice.productos.circuito.umbral-fallos}).
+     * @param umbralLentas Porcentaje de llamadas lentas que abre el circuito ({@code microservice.productos.circuito.umbral-lentas}).
+     * @param duracionLenta Duración a partir de la cual una llamada es lenta ({@code microservice.productos.circuito.duracion-lenta}).
+     * @param ventana Número de llamadas recientes sobre las que se calculan los porcentajes ({@code microservice.productos.circuito.ventana}).
+     * @param minimoLlamadas Llamadas mínimas en la ventana antes de poder abrir el circuito ({@code microservice.productos.circuito.minimo-llamadas}).
+     * @param esperaAbierto Tiempo que el circuito rechaza llamadas antes de probar de nuevo ({@code microservice.productos.circuito.espera-abierto}).
+     * @param llamadasSemiabierto Llamadas de prueba con el circuito semiabierto ({@code microservice.productos.circuito.llamadas-semiabierto}).
+     * @param llamadasSimultaneas Máximo de llamadas a productos en curso ({@code microservice.productos.llamadas-simultaneas}).
+     * @param especulativaHabilitada Si se lanzan peticiones especulativas ({@code microservice.productos.especulativa.habilitada}).
+     * @param retardoMinimoEspeculativa Espera mínima antes de la petición especulativa ({@code microservice.productos.especulativa.retardo-minimo}).
+     * @param meterRegistry Registro de Micrometer para las métricas.
+     * @return La protección de las llamadas a productos.
+     */
+    @Bean
+    public ResilienciaProductos resilienciaProductos(
+            @Value("${microservice.productos.circuito.habilitado:true}") boolean circuitoHabilitado,
+            @Value("${microservice.productos.circuito.umbral-fallos:50}") float umbralFallos,
+            @Value("${microservice.productos.circuito.umbral-lentas:80}") float umbralLentas,
+            @Value("${microservice.productos.circuito.duracion-lenta:2s}") Duration duracionLenta,
+            @Value("${microservice.productos.circuito.ventana:50}") int ventana,
+            @Value("${microservice.productos.circuito.minimo-llamadas:20}") int minimoLlamadas,
+            @Value("${microservice.productos.circuito.espera-abierto:10s}") Duration esperaAbierto,
+            @Value("${microservice.productos.circuito.llamadas-semiabierto:5}") int llamadasSemiabierto,
+            @Value("${microservice.productos.llamadas-simultaneas:100}") int llamadasSimultaneas,
+            @Value("${microservice.productos.especulativa.habilitada:false}") boolean especulativaHabilitada,
+            @Value("${microservice.productos.especulativa.retardo-minimo:50ms}") Duration retardoMinimoEspeculativa,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerConfig configuracionCircuito = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(ventana)
+                .minimumNumberOfCalls(minimoLlamadas)
+                .failureRateThreshold(umbralFallos)
+                .slowCallRateThreshold(umbralLentas)
+                .slowCallDurationThreshold(duracionLenta)
+                .waitDurationInOpenState(esperaAbierto)
+                .permittedNumberOfCallsInHalfOpenState(llamadasSemiabierto)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .build();
+        return new ResilienciaProductos(circuitoHabilitado, configuracionCircuito, llamadasSimultaneas,
+                especulativaHabilitada, retardoMinimoEspeculativa, meterRegistry);
+    }
+}
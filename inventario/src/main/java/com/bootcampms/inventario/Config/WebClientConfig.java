@@ -0,0 +1,64 @@
+package com.bootcampms.inventario.Config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Configuración del {@link WebClient} utilizado para la comunicación con el microservicio de Productos.
+ * <p>
+ * El cliente es no bloqueante (reactor-netty) y reutiliza las conexiones de un pool propio, acotado por
+ * {@code microservice.productos.conexiones-maximas}. Las peticiones que no encuentran conexión libre esperan
+ * en cola; el tiempo máximo de cada llamada lo aplica {@code ProductoWebClientService}.
+ * </p>
+ */
+@Configuration
+public class WebClientConfig {
+
+    /**
+     * Crea el pool de conexiones HTTP hacia productos. Se libera al cerrar el contexto.
+     * @param conexionesMaximas Número máximo de conexiones abiertas a la vez ({@code microservice.productos.conexiones-maximas}).
+     * @return El proveedor de conexiones.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider productosConnectionProvider(
+            @Value("${microservice.productos.conexiones-maximas:200}") int conexionesMaximas) {
+        return ConnectionProvider.builder("productos")
+                .maxConnections(conexionesMaximas)
+                .pendingAcquireMaxCount(-1) // Sin límite de cola: el límite de tiempo es el de cada llamada
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+    }
+
+    /**
+     * Crea el {@link WebClient} de productos, con la URL base del API y timeouts de conexión y de respuesta,
+     * para evitar que una validación espere indefinidamente a un servicio externo.
+     * @param builder El {@link WebClient.Builder} de Spring Boot (con la instrumentación de Micrometer).
+     * @param connectionProvider El pool de conexiones hacia productos.
+     * @param productosApiUrl La URL base del API de productos ({@code microservice.productos.url}).
+     * @param tiempoConexion Tiempo máximo para abrir una conexión ({@code microservice.productos.tiempo-conexion}).
+     * @param tiempoMaximo Tiempo máximo de espera de la respuesta ({@code microservice.productos.tiempo-maximo}).
+     * @return El {@link WebClient} configurado.
+     */
+    @Bean
+    public WebClient productosWebClient(WebClient.Builder builder,
+                                        ConnectionProvider connectionProvider,
+                                        @Value("${microservice.productos.url}") String productosApiUrl,
+                                        @Value("${microservice.productos.tiempo-conexion:5s}") Duration tiempoConexion,
+                                        @Value("${microservice.productos.tiempo-maximo:5s}") Duration tiempoMaximo) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) tiempoConexion.toMillis())
+                .responseTimeout(tiempoMaximo);
+        return builder
+                .baseUrl(productosApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
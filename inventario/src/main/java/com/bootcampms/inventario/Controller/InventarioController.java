@@ -1,5 +1,6 @@
 package com.bootcampms.inventario.Controller;
 
+import com.bootcampms.inventario.DTO.LoteMovimientosDTO;
 import com.bootcampms.inventario.DTO.MovimientoInventarioDTO;
 import com.bootcampms.inventario.Exception.GlobalExceptionHandler; // Para referencia en @ApiResponse
 import com.bootcampms.inventario.Exception.ProductoNoEncontradoException;
@@ -152,6 +153,47 @@ public class InventarioController {
         return new ResponseEntity<>(movimientoRegistrado, HttpStatus.CREATED);
     }
 
+    /**
+     * Registra un lote de movimientos de inventario (p. ej. las líneas de un pedido) en una única transacción.
+     * Los productos se validan en paralelo contra el microservicio de Productos antes de aplicar ningún movimiento.
+     * @param loteDTO DTO con los movimientos a registrar.
+     * @return ResponseEntity con los {@link MovimientoInventario} registrados y estado HTTP CREATED.
+     * @throws com.bootcampms.inventario.Exception.ProductoNoEncontradoException si algún productoID no existe en el catálogo.
+     * @throws com.bootcampms.inventario.Exception.StockInsuficienteException si alguna salida no tiene stock suficiente.
+     */
+    @Operation(summary = "Registrar un lote de movimientos de inventario",
+            description = "Registra varios movimientos a la vez: o se aplican todos o ninguno. Admite hasta " +
+                    LoteMovimientosDTO.MAXIMO_MOVIMIENTOS + " movimientos por lote.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Movimientos registrados exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = MovimientoInventario.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida (ej. lote vacío o demasiado grande, stock insuficiente)",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Algún producto no encontrado en el catálogo externo",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @PostMapping("/movimientos/lote")
+    public ResponseEntity<List<MovimientoInventario>> registrarMovimientos(
+            @Parameter(description = "DTO con los movimientos a registrar.", required = true)
+            @Valid @RequestBody LoteMovimientosDTO loteDTO) {
+        log.info("Solicitud POST para registrar un lote de {} movimientos", loteDTO.getMovimientos().size());
+        List<MovimientoInventario> movimientos = loteDTO.getMovimientos().stream()
+                .map(movimientoDTO -> new MovimientoInventario(
+                        null, // ID se autogenera
+                        movimientoDTO.getProductoId(),
+                        movimientoDTO.getCantidad(),
+                        movimientoDTO.getTipoMovimiento(),
+                        LocalDateTime.now(),
+                        movimientoDTO.getNotas()))
+                .toList();
+        List<MovimientoInventario> movimientosRegistrados = inventarioService.registrarMovimientos(movimientos);
+        log.info("Lote de {} movimientos registrado exitosamente", movimientosRegistrados.size());
+        return new ResponseEntity<>(movimientosRegistrados, HttpStatus.CREATED);
+    }
+
     /**
      * Registra una entrada de inventario.
      * Valida que el tipo de movimiento sea de entrada.
@@ -0,0 +1,28 @@
+package com.bootcampms.inventario.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * DTO (Data Transfer Object) para registrar varios movimientos de inventario en una sola operación,
+ * por ejemplo las líneas de un pedido o una importación masiva.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO para registrar un lote de movimientos de inventario.")
+public class LoteMovimientosDTO {
+
+    /** Número máximo de movimientos por lote. */
+    public static final int MAXIMO_MOVIMIENTOS = 500;
+
+    @NotEmpty(message = "El lote debe contener al menos un movimiento")
+    @Size(max = MAXIMO_MOVIMIENTOS, message = "El lote no puede contener más de " + MAXIMO_MOVIMIENTOS + " movimientos")
+    @Schema(description = "Movimientos a registrar, en orden de aplicación.", requiredMode = Schema.RequiredMode.REQUIRED)
+    private List<@Valid MovimientoInventarioDTO> movimientos;
+}
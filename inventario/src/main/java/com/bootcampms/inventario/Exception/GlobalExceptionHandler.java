@@ -80,6 +80,26 @@ public class GlobalExceptionHandler {
                 .body(error);
     }
 
+    /**
+     * Maneja {@link ProductosNoDisponibleException}: la validación se rechazó sin llamar a productos
+     * (circuito abierto o demasiadas llamadas en curso), así que el cliente puede reintentar más tarde.
+     * @param ex La excepción.
+     * @return ResponseEntity con {@link ErrorResponse} y estado SERVICE_UNAVAILABLE.
+     */
+    @ExceptionHandler(ProductosNoDisponibleException.class)
+    public ResponseEntity<ErrorResponse> handleProductosNoDisponibleException(ProductosNoDisponibleException ex) {
+        log.warn("Manejando ProductosNoDisponibleException globalmente: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(APPLICATION_JSON_UTF8)
+                .body(error);
+    }
+
     /**
      * Maneja {@link TipoMovimientoIncorrectoException}.
      * @param ex La excepción.
@@ -0,0 +1,16 @@
+package com.bootcampms.inventario.Exception;
+
+/**
+ * Excepción lanzada cuando una validación contra el microservicio de Productos se rechaza sin llamarlo,
+ * porque el circuito está abierto (productos falla o responde lento) o porque ya hay demasiadas llamadas en curso.
+ */
+public class ProductosNoDisponibleException extends RuntimeException {
+    /**
+     * Constructor que acepta un mensaje descriptivo del error y su causa.
+     * @param mensaje El mensaje detallando la causa de la excepción.
+     * @param causa La excepción de Resilience4j que rechazó la llamada.
+     */
+    public ProductosNoDisponibleException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
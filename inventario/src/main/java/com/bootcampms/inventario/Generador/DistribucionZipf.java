@@ -0,0 +1,100 @@
+package com.bootcampms.inventario.Generador;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de Zipf sobre los rangos {@code 1..n}: el rango {@code k} tiene probabilidad proporcional a
+ * {@code 1 / k^exponente}, de modo que unos pocos rangos concentran la mayor parte de las muestras.
+ * <p>
+ * Usa el muestreo por rechazo-inversión de Hörmann y Derflinger: cada muestra cuesta O(1) sin tablas precalculadas,
+ * así que sirve igual para cincuenta rangos que para diez millones. La instancia es inmutable y puede
+ * compartirse entre hilos; el generador aleatorio lo aporta quien muestrea.
+ * </p>
+ * <p>
+ * Productos e inventario se construyen por separado y cada uno tiene una copia de esta clase, idénticas salvo el
+ * paquete: {@code DistribucionZipfCopiaTest} de inventario falla si divergen, así que un cambio se hace en las dos.
+ * </p>
+ */
+public final class DistribucionZipf {
+
+    private final int n;
+    private final double exponente;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    /**
+     * Crea la distribución.
+     * @param n Número de rangos (al menos 1).
+     * @param exponente Exponente de Zipf (mayor que 0); cuanto mayor, más concentrada en los primeros rangos.
+     * @throws IllegalArgumentException si {@code n} o el exponente no son válidos.
+     */
+    public DistribucionZipf(int n, double exponente) {
+        if (n < 1) {
+            throw new IllegalArgumentException("El número de rangos debe ser al menos 1.");
+        }
+        if (!(exponente > 0)) {
+            throw new IllegalArgumentException("El exponente de Zipf debe ser mayor que 0.");
+        }
+        this.n = n;
+        this.exponente = exponente;
+        this.hIntegralX1 = hIntegral(1.5) - 1d;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2d - hIntegralInversa(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * Obtiene una muestra.
+     * @param aleatorio El generador aleatorio.
+     * @return Un rango entre 1 y {@code n}; el 1 es el más frecuente.
+     */
+    public int muestra(SplittableRandom aleatorio) {
+        while (true) {
+            double u = hIntegralN + aleatorio.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInversa(u);
+            int k = (int) (x + 0.5);
+            if (k < 1) {
+                k = 1;
+            } else if (k > n) {
+                k = n;
+            }
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * @return El número de rangos.
+     */
+    public int getN() {
+        return n;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponente * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return auxiliar2((1d - exponente) * logX) * logX;
+    }
+
+    private double hIntegralInversa(double x) {
+        double t = x * (1d - exponente);
+        if (t < -1d) {
+            t = -1d; // Evita errores de redondeo cerca del límite
+        }
+        return Math.exp(auxiliar1(t) * x);
+    }
+
+    /** {@code log(1 + x) / x}, estable cerca de 0. */
+    private static double auxiliar1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1d / 3 - 0.25 * x));
+    }
+
+    /** {@code (exp(x) - 1) / x}, estable cerca de 0. */
+    private static double auxiliar2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x * (1d / 3) * (1 + 0.25 * x));
+    }
+}
@@ -0,0 +1,276 @@
+package com.bootcampms.inventario.Generador;
+
+import com.bootcampms.inventario.Model.TipoMovimiento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generador de un histórico de inventario sintético a escala de producción (perfil {@code datos-sinteticos}),
+ * en sustitución de los pocos registros de {@link com.bootcampms.inventario.Config.DataInitializer}.
+ * <p>
+ * Genera {@code inventario.generador.movimientos} movimientos sobre los productos con IDs de 1 a
+ * {@code inventario.generador.productos} (los mismos que crea el generador de productos con la misma cantidad), y una
+ * fila de stock por producto. La popularidad de los productos sigue una distribución de Zipf, de modo que unos pocos
+ * productos concentran la mayoría de los movimientos, y los productos más populares se reparten por todo el rango de
+ * IDs en lugar de ser siempre los primeros. Los tipos siguen una mezcla fija (70 % ventas, 15 % compras, 7 %
+ * devoluciones, 5 % mermas y 3 % ajustes de entrada) y las fechas avanzan de forma uniforme a lo largo de
+ * {@code inventario.generador.dias} días hasta {@code inventario.generador.fecha-fin}.
+ * </p>
+ * <p>
+ * Los movimientos se generan en orden en un solo hilo, llevando el saldo de cada producto: una salida que dejaría
+ * el stock en negativo se sustituye por una reposición ({@code ENTRADA_COMPRA}). No se generan recuentos, así que
+ * el stock final de cada producto coincide exactamente con la suma de su libro de movimientos. El resultado es
+ * determinista a partir de {@code inventario.generador.semilla}; solo la escritura, por lotes JDBC, se reparte
+ * entre {@code inventario.generador.hilos} hilos.
+ * </p>
+ */
+@Component
+@Profile("datos-sinteticos")
+public class GeneradorDatosSinteticos implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatosSinteticos.class);
+
+    private static final String SQL_MOVIMIENTO = "INSERT INTO movimientos_inventario " +
+            "(id, producto_id, cantidad, tipo_movimiento, fecha_hora, notas) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_STOCK = "INSERT INTO stock_producto (producto_id, cantidad) VALUES (?, ?)";
+    private static final String NOTA_REPOSICION = "Reposición automática";
+    /** Multiplicador de la permutación de rangos a IDs (primo, cercano a 2^32 / φ). */
+    private static final long MULTIPLICADOR = 2_654_435_761L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int numeroProductos;
+    private final long numeroMovimientos;
+    private final long semilla;
+    private final double exponenteZipf;
+    private final int tamanioLote;
+    private final int hilos;
+    private final LocalDateTime inicio;
+    private final Duration intervalo;
+
+    /**
+     * Un bloque de movimientos consecutivos, listo para insertarse en un lote.
+     */
+    private record Bloque(long primerId, int[] productos, int[] cantidades, TipoMovimiento[] tipos,
+                          String[] notas, int filas) {
+    }
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param jdbcTemplate El JdbcTemplate para las inserciones por lotes.
+     * @param numeroProductos Número de productos ({@code inventario.generador.productos}).
+     * @param numeroMovimientos Número de movimientos ({@code inventario.generador.movimientos}).
+     * @param semilla Semilla de la que se derivan todos los datos ({@code inventario.generador.semilla}).
+     * @param exponenteZipf Exponente de Zipf de la popularidad de los productos ({@code inventario.generador.exponente-zipf}).
+     * @param tamanioLote Filas por lote JDBC ({@code inventario.generador.tamanio-lote}).
+     * @param hilos Hilos de escritura ({@code inventario.generador.hilos}); 0 para uno por núcleo.
+     * @param dias Días de histórico ({@code inventario.generador.dias}).
+     * @param fechaFin Fecha ISO del final del histórico ({@code inventario.generador.fecha-fin}); fija para que el resultado sea reproducible.
+     */
+    @Autowired
+    public GeneradorDatosSinteticos(JdbcTemplate jdbcTemplate,
+                                    @Value("${inventario.generador.productos:100000}") int numeroProductos,
+                                    @Value("${inventario.generador.movimientos:1000000}") long numeroMovimientos,
+                                    @Value("${inventario.generador.semilla:42}") long semilla,
+                                    @Value("${inventario.generador.exponente-zipf:1.0}") double exponenteZipf,
+                                    @Value("${inventario.generador.tamanio-lote:5000}") int tamanioLote,
+                                    @Value("${inventario.generador.hilos:0}") int hilos,
+                                    @Value("${inventario.generador.dias:365}") int dias,
+                                    @Value("${inventario.generador.fecha-fin:2025-01-01T00:00:00}") String fechaFin) {
+        if (numeroProductos < 1 || numeroMovimientos < 0 || dias < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un producto, un número de movimientos válido y un día de histórico.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.numeroProductos = numeroProductos;
+        this.numeroMovimientos = numeroMovimientos;
+        this.semilla = semilla;
+        this.exponenteZipf = exponenteZipf;
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.intervalo = Duration.ofDays(dias);
+        this.inicio = LocalDateTime.parse(fechaFin).minus(intervalo);
+    }
+
+    /**
+     * Genera los movimientos y el stock si las tablas están vacías.
+     * @param args Argumentos de línea de comandos (no utilizados).
+     * @throws IllegalStateException si ya hay movimientos o stock.
+     * @throws Exception si falla alguna inserción.
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        Long existentes = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM movimientos_inventario) + (SELECT COUNT(*) FROM stock_producto)", Long.class);
+        if (existentes != null && existentes > 0) {
+            throw new IllegalStateException("El generador de datos sintéticos requiere las tablas de inventario vacías.");
+        }
+        log.info("Generando {} movimientos sobre {} productos (semilla {}, Zipf {}, {} hilos de escritura)...",
+                numeroMovimientos, numeroProductos, semilla, exponenteZipf, hilos);
+        long comienzo = System.nanoTime();
+
+        // Cola acotada: si los escritores no dan abasto, el hilo generador inserta el bloque él mismo
+        ThreadPoolExecutor escritores = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hilos * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            int[] saldos = generarMovimientos(escritores);
+            insertarStock(saldos, escritores);
+        } finally {
+            escritores.shutdownNow();
+        }
+        // Las altas posteriores deben continuar tras los IDs generados
+        jdbcTemplate.execute("ALTER TABLE movimientos_inventario ALTER COLUMN id RESTART WITH " + (numeroMovimientos + 1));
+
+        double segundos = (System.nanoTime() - comienzo) / 1_000_000_000.0;
+        log.info("Datos sintéticos de inventario generados en {} s ({} movimientos/s).",
+                String.format("%.1f", segundos), String.format("%.0f", numeroMovimientos / Math.max(segundos, 1e-9)));
+    }
+
+    /**
+     * Genera los movimientos en orden y los envía por bloques a los escritores.
+     * @return El saldo final de cada producto, indexado por ID.
+     */
+    private int[] generarMovimientos(ThreadPoolExecutor escritores) throws Exception {
+        SplittableRandom aleatorio = new SplittableRandom(semilla);
+        DistribucionZipf popularidad = new DistribucionZipf(numeroProductos, exponenteZipf);
+        long multiplicador = multiplicadorCoprimo(numeroProductos);
+        long pasoNanos = numeroMovimientos > 0 ? intervalo.toNanos() / numeroMovimientos : 0;
+        int[] saldos = new int[numeroProductos + 1];
+        List<Future<?>> escrituras = new ArrayList<>();
+
+        for (long primerId = 1; primerId <= numeroMovimientos; primerId += tamanioLote) {
+            int filas = (int) Math.min(tamanioLote, numeroMovimientos - primerId + 1);
+            Bloque bloque = new Bloque(primerId, new int[filas], new int[filas], new TipoMovimiento[filas],
+                    new String[filas], filas);
+            for (int i = 0; i < filas; i++) {
+                int productoId = (int) ((popularidad.muestra(aleatorio) - 1) * multiplicador % numeroProductos) + 1;
+                TipoMovimiento tipo = tipo(aleatorio);
+                int cantidad = cantidad(tipo, aleatorio);
+                boolean esSalida = tipo == TipoMovimiento.SALIDA_VENTA || tipo == TipoMovimiento.SALIDA_AJUSTE;
+                if (esSalida && saldos[productoId] < cantidad) {
+                    // Sin stock suficiente: se repone en su lugar, como haría un pedido automático al proveedor
+                    tipo = TipoMovimiento.ENTRADA_COMPRA;
+                    cantidad = cantidad + 20 + aleatorio.nextInt(81);
+                    bloque.notas()[i] = NOTA_REPOSICION;
+                    esSalida = false;
+                }
+                saldos[productoId] += esSalida ? -cantidad : cantidad;
+                bloque.productos()[i] = productoId;
+                bloque.cantidades()[i] = cantidad;
+                bloque.tipos()[i] = tipo;
+            }
+            escrituras.add(escritores.submit(() -> insertarMovimientos(bloque, pasoNanos)));
+            if ((primerId - 1 + filas) % 10_000_000 < filas) {
+                log.info("Movimientos generados: {}", primerId - 1 + filas);
+            }
+        }
+        for (Future<?> escritura : escrituras) {
+            escritura.get();
+        }
+        return saldos;
+    }
+
+    private void insertarMovimientos(Bloque bloque, long pasoNanos) {
+        jdbcTemplate.batchUpdate(SQL_MOVIMIENTO, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long id = bloque.primerId() + i;
+                ps.setLong(1, id);
+                ps.setLong(2, bloque.productos()[i]);
+                ps.setInt(3, bloque.cantidades()[i]);
+                ps.setString(4, bloque.tipos()[i].name());
+                ps.setTimestamp(5, Timestamp.valueOf(inicio.plusNanos((id - 1) * pasoNanos)));
+                ps.setString(6, bloque.notas()[i]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return bloque.filas();
+            }
+        });
+    }
+
+    private void insertarStock(int[] saldos, ThreadPoolExecutor escritores) throws Exception {
+        List<Future<?>> escrituras = new ArrayList<>();
+        for (int desde = 1; desde <= numeroProductos; desde += tamanioLote) {
+            int primero = desde;
+            int filas = Math.min(tamanioLote, numeroProductos - desde + 1);
+            escrituras.add(escritores.submit(() -> jdbcTemplate.batchUpdate(SQL_STOCK, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, primero + i);
+                    ps.setInt(2, saldos[primero + i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return filas;
+                }
+            })));
+        }
+        for (Future<?> escritura : escrituras) {
+            escritura.get();
+        }
+    }
+
+    private static TipoMovimiento tipo(SplittableRandom aleatorio) {
+        int valor = aleatorio.nextInt(100);
+        if (valor < 70) {
+            return TipoMovimiento.SALIDA_VENTA;
+        } else if (valor < 85) {
+            return TipoMovimiento.ENTRADA_COMPRA;
+        } else if (valor < 92) {
+            return TipoMovimiento.ENTRADA_DEVOLUCION;
+        } else if (valor < 97) {
+            return TipoMovimiento.SALIDA_AJUSTE;
+        }
+        return TipoMovimiento.ENTRADA_AJUSTE;
+    }
+
+    private static int cantidad(TipoMovimiento tipo, SplittableRandom aleatorio) {
+        return switch (tipo) {
+            case SALIDA_VENTA -> 1 + (aleatorio.nextInt(10) == 0 ? aleatorio.nextInt(10) : aleatorio.nextInt(3));
+            case ENTRADA_COMPRA -> 10 * (1 + aleatorio.nextInt(20));
+            case ENTRADA_DEVOLUCION -> 1 + aleatorio.nextInt(2);
+            case SALIDA_AJUSTE, ENTRADA_AJUSTE -> 1 + aleatorio.nextInt(5);
+            case RECUENTO_INVENTARIO -> throw new IllegalArgumentException("El generador no produce recuentos.");
+        };
+    }
+
+    /**
+     * Busca un multiplicador coprimo con {@code n}, de modo que {@code rango * multiplicador mod n} sea una
+     * permutación de los IDs.
+     */
+    private static long multiplicadorCoprimo(int n) {
+        if (n == 1) {
+            return 1;
+        }
+        long candidato = MULTIPLICADOR % n;
+        while (candidato == 0 || mcd(candidato, n) != 1) {
+            candidato = (candidato + 1) % n;
+        }
+        return candidato;
+    }
+
+    private static long mcd(long a, long b) {
+        return b == 0 ? a : mcd(b, a % b);
+    }
+}
@@ -2,6 +2,9 @@ package com.bootcampms.inventario.Repository;
 
 import com.bootcampms.inventario.Model.StockProducto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -24,4 +27,43 @@ public interface StockProductoRepository extends JpaRepository<StockProducto, Lo
      *         o un {@link Optional#empty()} si no existe stock registrado para ese productoId.
      */
     Optional<StockProducto> findByProductoId(Long productoId);
-}
\ No newline at end of file
+
+    /**
+     * Suma {@code delta} a la cantidad en stock de un producto en una única sentencia condicional,
+     * sin leer previamente la fila.
+     * <p>
+     * Si el registro de stock no existe y {@code delta} no es negativo, se crea con esa cantidad.
+     * La sentencia solo se aplica si el stock resultante no queda negativo, por lo que no se pierden
+     * actualizaciones concurrentes y el bloqueo de la fila dura únicamente lo que tarda la sentencia.
+     * </p>
+     *
+     * @param productoId El ID del producto.
+     * @param delta      Unidades a sumar (negativo para salidas).
+     * @return 1 si el stock se modificó; 0 si el stock era insuficiente para aplicar el delta.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO stock_producto s " +
+            "USING (VALUES (CAST(:productoId AS BIGINT), CAST(:delta AS INT))) AS v(producto_id, delta) " +
+            "ON s.producto_id = v.producto_id " +
+            "WHEN MATCHED AND s.cantidad + v.delta >= 0 THEN UPDATE SET cantidad = s.cantidad + v.delta " +
+            "WHEN NOT MATCHED AND v.delta >= 0 THEN INSERT (producto_id, cantidad) VALUES (v.producto_id, v.delta)",
+            nativeQuery = true)
+    int aplicarMovimientoStock(@Param("productoId") Long productoId, @Param("delta") int delta);
+
+    /**
+     * Establece la cantidad en stock de un producto en una única sentencia, creando el registro si no existe.
+     * Utilizado por los movimientos de recuento de inventario.
+     *
+     * @param productoId El ID del producto.
+     * @param cantidad   La nueva cantidad absoluta de stock.
+     * @return El número de filas afectadas (1).
+     */
+    @Modifying
+    @Query(value = "MERGE INTO stock_producto s " +
+            "USING (VALUES (CAST(:productoId AS BIGINT), CAST(:cantidad AS INT))) AS v(producto_id, cantidad) " +
+            "ON s.producto_id = v.producto_id " +
+            "WHEN MATCHED THEN UPDATE SET cantidad = v.cantidad " +
+            "WHEN NOT MATCHED THEN INSERT (producto_id, cantidad) VALUES (v.producto_id, v.cantidad)",
+            nativeQuery = true)
+    int establecerCantidad(@Param("productoId") Long productoId, @Param("cantidad") int cantidad);
+}
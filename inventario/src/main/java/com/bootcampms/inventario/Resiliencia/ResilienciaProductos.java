@@ -0,0 +1,217 @@
+package com.bootcampms.inventario.Resiliencia;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Protección de las llamadas al microservicio de Productos con Resilience4j.
+ * <ul>
+ *     <li><b>Circuit breaker</b>: si en la ventana de llamadas recientes fallan o van lentas más del umbral, el circuito
+ *     se abre y las llamadas se rechazan al momento con {@link CallNotPermittedException}, en lugar de esperar el tiempo
+ *     máximo. Pasada la espera, deja pasar unas pocas de prueba (semiabierto) y se cierra si van bien. Cuentan como
+ *     fallo los errores 5xx, de red y los tiempos agotados; un 4xx (incluido el 404 de un producto inexistente) no.</li>
+ *     <li><b>Bulkhead</b>: limita las llamadas simultáneas a productos; las que superan el límite se rechazan al momento
+ *     con {@link BulkheadFullException}.</li>
+ *     <li><b>Petición especulativa</b> (opcional): si una consulta tarda más que el p95 observado (con un mínimo),
+ *     se lanza una segunda igual y se usa la primera respuesta que llegue; la otra se cancela. El error de la segunda
+ *     se ignora, y no se lanza si el circuito o el bulkhead la rechazan.</li>
+ * </ul>
+ * <p>
+ * Métricas: las de Resilience4j ({@code resilience4j.circuitbreaker.*} y {@code resilience4j.bulkhead.*}, con
+ * {@code name=productos}), {@code inventario.productos.circuito.transiciones} (por {@code desde} y {@code hacia}),
+ * {@code inventario.productos.latencia} (con su p95) e {@code inventario.productos.especulativas}
+ * (por {@code resultado}: {@code lanzada} o {@code ganadora}).
+ * </p>
+ */
+public class ResilienciaProductos {
+
+    public static final String NOMBRE = "productos";
+
+    private static final Logger log = LoggerFactory.getLogger(ResilienciaProductos.class);
+    /** Cada cuánto se vuelve a leer el p95 del histograma de latencias. */
+    private static final long REFRESCO_P95_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final boolean circuitoHabilitado;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final boolean especulativaHabilitada;
+    private final Duration retardoMinimoEspeculativa;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer latencia;
+    private final Counter especulativasLanzadas;
+    private final Counter especulativasGanadoras;
+    private volatile long p95Nanos;
+    private volatile long p95CalculadoEn = System.nanoTime() - REFRESCO_P95_NANOS;
+
+    /**
+     * Constructor de la protección de llamadas.
+     * @param circuitoHabilitado Si es {@code false}, no se aplica el circuit breaker (el bulkhead sí).
+     * @param configuracionCircuito Umbrales del circuit breaker. Qué errores cuentan como fallo lo decide esta clase.
+     * @param llamadasSimultaneas Máximo de llamadas a productos en curso a la vez (bulkhead).
+     * @param especulativaHabilitada Si se lanzan peticiones especulativas en {@link #protegerConEspeculativa(Supplier)}.
+     * @param retardoMinimoEspeculativa Espera mínima antes de lanzar la petición especulativa.
+     * @param meterRegistry Registro de Micrometer para las métricas.
+     */
+    public ResilienciaProductos(boolean circuitoHabilitado, CircuitBreakerConfig configuracionCircuito,
+                                int llamadasSimultaneas, boolean especulativaHabilitada,
+                                Duration retardoMinimoEspeculativa, MeterRegistry meterRegistry) {
+        this.circuitoHabilitado = circuitoHabilitado;
+        this.especulativaHabilitada = especulativaHabilitada;
+        this.retardoMinimoEspeculativa = retardoMinimoEspeculativa;
+        this.meterRegistry = meterRegistry;
+
+        CircuitBreakerRegistry circuitos = CircuitBreakerRegistry.of(CircuitBreakerConfig.from(configuracionCircuito)
+                .recordException(ResilienciaProductos::esFalloDeProductos)
+                .build());
+        this.circuitBreaker = circuitos.circuitBreaker(NOMBRE);
+        this.circuitBreaker.getEventPublisher().onStateTransition(evento -> {
+            CircuitBreaker.StateTransition transicion = evento.getStateTransition();
+            log.warn("Circuito de productos: {} -> {}", transicion.getFromState(), transicion.getToState());
+            Counter.builder("inventario.productos.circuito.transiciones")
+                    .description("Cambios de estado del circuit breaker de productos")
+                    .tag("desde", transicion.getFromState().name())
+                    .tag("hacia", transicion.getToState().name())
+                    .register(meterRegistry)
+                    .increment();
+        });
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(llamadasSimultaneas)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        this.bulkhead = bulkheads.bulkhead(NOMBRE);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitos).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+
+        this.latencia = Timer.builder("inventario.productos.latencia")
+                .description("Latencia de las consultas individuales a productos que terminan bien")
+                .publishPercentiles(0.95)
+                .distributionStatisticExpiry(Duration.ofMinutes(1))
+                .register(meterRegistry);
+        this.especulativasLanzadas = contadorEspeculativas("lanzada");
+        this.especulativasGanadoras = contadorEspeculativas("ganadora");
+    }
+
+    private Counter contadorEspeculativas(String resultado) {
+        return Counter.builder("inventario.productos.especulativas")
+                .description("Peticiones especulativas a productos")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si un error de una llamada a productos cuenta como fallo para el circuito.
+     * Los 4xx son respuestas válidas de un productos sano, y el rechazo del bulkhead no llega a llamar a productos.
+     */
+    static boolean esFalloDeProductos(Throwable error) {
+        if (error instanceof WebClientResponseException respuesta) {
+            return !respuesta.getStatusCode().is4xxClientError();
+        }
+        return !(error instanceof BulkheadFullException);
+    }
+
+    /**
+     * Indica si un error es un rechazo del circuito o del bulkhead, sin llamada a productos.
+     * @param error El error de la llamada.
+     * @return {@code true} si la llamada se rechazó sin llegar a productos.
+     */
+    public static boolean esRechazo(Throwable error) {
+        return error instanceof CallNotPermittedException || error instanceof BulkheadFullException;
+    }
+
+    /**
+     * Aplica el circuit breaker y el bulkhead a una llamada a productos.
+     * La llamada debe incluir su propio tiempo máximo, para que el circuito cuente como fallo los tiempos agotados.
+     * @param llamada Crea la llamada; solo se invoca si el circuito y el bulkhead la permiten.
+     * @param <T> Tipo del resultado.
+     * @return La llamada protegida, que termina con {@link CallNotPermittedException} o {@link BulkheadFullException}
+     *         si se rechaza.
+     */
+    public <T> Mono<T> proteger(Supplier<Mono<T>> llamada) {
+        Mono<T> limitada = Mono.defer(llamada).transformDeferred(BulkheadOperator.of(bulkhead));
+        return circuitoHabilitado ? limitada.transformDeferred(CircuitBreakerOperator.of(circuitBreaker)) : limitada;
+    }
+
+    /**
+     * Como {@link #proteger(Supplier)}, y además, si está habilitado, lanza una petición especulativa cuando la primera
+     * tarda más que {@link #retardoEspeculativa()}. Solo para consultas idempotentes.
+     * @param llamada Crea la llamada; se invoca una vez por intento.
+     * @param <T> Tipo del resultado.
+     * @return El resultado del primer intento que responda.
+     */
+    public <T> Mono<T> protegerConEspeculativa(Supplier<Mono<T>> llamada) {
+        if (!especulativaHabilitada) {
+            return medir(proteger(llamada));
+        }
+        return Mono.defer(() -> {
+            Mono<T> primera = medir(proteger(llamada));
+            Mono<T> segunda = Mono.delay(retardoEspeculativa())
+                    .then(Mono.defer(() -> {
+                        especulativasLanzadas.increment();
+                        return medir(proteger(llamada));
+                    }))
+                    .doOnNext(resultado -> especulativasGanadoras.increment())
+                    // La especulativa solo puede adelantar la respuesta: si falla o se rechaza, se espera a la primera
+                    .onErrorResume(error -> Mono.never());
+            return Mono.firstWithSignal(primera, segunda);
+        });
+    }
+
+    private <T> Mono<T> medir(Mono<T> llamada) {
+        return Mono.defer(() -> {
+            Timer.Sample muestra = Timer.start();
+            return llamada.doOnNext(resultado -> muestra.stop(latencia));
+        });
+    }
+
+    /**
+     * @return La espera antes de lanzar una petición especulativa: el p95 de latencia observado en el último minuto,
+     *         o el retardo mínimo configurado si es mayor (p. ej. mientras no hay muestras).
+     */
+    public Duration retardoEspeculativa() {
+        long ahora = System.nanoTime();
+        if (ahora - p95CalculadoEn >= REFRESCO_P95_NANOS) {
+            p95Nanos = leerP95Nanos();
+            p95CalculadoEn = ahora;
+        }
+        return Duration.ofNanos(Math.max(retardoMinimoEspeculativa.toNanos(), p95Nanos));
+    }
+
+    private long leerP95Nanos() {
+        for (ValueAtPercentile percentil : latencia.takeSnapshot().percentileValues()) {
+            if (percentil.percentile() == 0.95) {
+                return (long) percentil.value(TimeUnit.NANOSECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return El estado actual del circuito.
+     */
+    public CircuitBreaker.State estadoCircuito() {
+        return circuitBreaker.getState();
+    }
+}
@@ -27,11 +27,24 @@ public interface InventarioService {
      * @param movimiento El MovimientoInventario a registrar.
      * @return El MovimientoInventario registrado.
      * @throws com.bootcampms.inventario.Exception.ProductoNoEncontradoException si el producto no existe.
+     * @throws com.bootcampms.inventario.Exception.ProductosNoDisponibleException si el servicio de productos no está disponible.
      * @throws com.bootcampms.inventario.Exception.StockInsuficienteException si no hay stock suficiente para una salida.
      * @throws IllegalArgumentException si el tipo de movimiento es nulo o no reconocido.
      */
     MovimientoInventario registrarMovimiento(MovimientoInventario movimiento);
 
+    /**
+     * Registra varios movimientos de inventario (p. ej. las líneas de un pedido) en una única transacción:
+     * o se aplican todos o ninguno. Los productos se validan en paralelo antes de abrir la transacción.
+     * @param movimientos Los MovimientoInventario a registrar, en orden de aplicación.
+     * @return Los MovimientoInventario registrados, en el mismo orden.
+     * @throws com.bootcampms.inventario.Exception.ProductoNoEncontradoException si alguno de los productos no existe.
+     * @throws com.bootcampms.inventario.Exception.ProductosNoDisponibleException si el servicio de productos no está disponible.
+     * @throws com.bootcampms.inventario.Exception.StockInsuficienteException si no hay stock suficiente para alguna salida.
+     * @throws IllegalArgumentException si algún tipo de movimiento es nulo o no reconocido.
+     */
+    List<MovimientoInventario> registrarMovimientos(List<MovimientoInventario> movimientos);
+
     /**
      * Obtiene todos los movimientos de inventario para un producto específico,
      * ordenados por fecha y hora de forma descendente.
@@ -7,14 +7,19 @@ import com.bootcampms.inventario.Repository.MovimientoInventarioRepository;
 import com.bootcampms.inventario.Repository.StockProductoRepository;
 import com.bootcampms.inventario.Exception.StockInsuficienteException;
 import com.bootcampms.inventario.Exception.ProductoNoEncontradoException;
+import com.bootcampms.inventario.Exception.ProductosNoDisponibleException;
 import com.bootcampms.inventario.Exception.TipoMovimientoIncorrectoException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -23,6 +28,11 @@ import java.util.Optional;
 /**
  * Implementación del servicio para la gestión de inventario.
  * Maneja la lógica de negocio para el stock y los movimientos.
+ * <p>
+ * Al registrar un movimiento, la validación del producto contra el microservicio de Productos se hace antes de
+ * abrir la transacción: así no se retiene una conexión del pool mientras se espera a un servicio externo lento.
+ * La transacción solo cubre la actualización del stock y el asiento en el libro de movimientos.
+ * </p>
  */
 @Service
 public class InventarioServiceImpl implements InventarioService {
@@ -30,21 +40,27 @@ public class InventarioServiceImpl implements InventarioService {
     private final MovimientoInventarioRepository movimientoRepository;
     private final StockProductoRepository stockRepository;
     private final ProductoWebClientService productoValidationService;
+    private final TransactionTemplate transactionTemplate;
     private static final Logger log = LoggerFactory.getLogger(InventarioServiceImpl.class);
+    /** SQLSTATE estándar de la violación de una clave primaria o única. */
+    private static final String SQLSTATE_CLAVE_DUPLICADA = "23505";
 
     /**
      * Constructor para InventarioServiceImpl.
      * @param movimientoRepository Repositorio para {@link MovimientoInventario}.
      * @param stockRepository Repositorio para {@link StockProducto}.
      * @param productoValidationService Servicio para validar la existencia de productos con un microservicio externo.
+     * @param transactionManager Gestor de transacciones para la parte transaccional de los movimientos.
      */
     @Autowired
     public InventarioServiceImpl(MovimientoInventarioRepository movimientoRepository,
                                  StockProductoRepository stockRepository,
-                                 ProductoWebClientService productoValidationService) {
+                                 ProductoWebClientService productoValidationService,
+                                 PlatformTransactionManager transactionManager) {
         this.movimientoRepository = movimientoRepository;
         this.stockRepository = stockRepository;
         this.productoValidationService = productoValidationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -78,7 +94,6 @@ public class InventarioServiceImpl implements InventarioService {
      * {@inheritDoc}
      */
     @Override
-    @Transactional
     public MovimientoInventario registrarMovimiento(MovimientoInventario movimiento) {
         log.info("Registrando movimiento: {}", movimiento);
         if (movimiento.getTipoMovimiento() == null) {
@@ -89,53 +104,133 @@ public class InventarioServiceImpl implements InventarioService {
             movimiento.setFechaHora(LocalDateTime.now());
         }
 
-        // 1. Validar que el producto existe usando el servicio bloqueante
+        // 1. Validar que el producto existe usando el servicio bloqueante, fuera de la transacción (sin conexión JDBC)
         try {
             productoValidationService.validarProductoExisteBloqueante(movimiento.getProductoId());
             log.debug("Producto ID: {} validado exitosamente.", movimiento.getProductoId());
         } catch (ProductoNoEncontradoException e) {
             log.warn("Error al registrar movimiento: Producto ID {} no encontrado en el catálogo.", movimiento.getProductoId());
             throw e;
+        } catch (ProductosNoDisponibleException e) {
+            log.warn("Error al registrar movimiento: {}", e.getMessage());
+            throw e;
         } catch (RuntimeException e) {
             log.error("Error de comunicación al validar producto ID {}: {}", movimiento.getProductoId(), e.getMessage());
             throw new RuntimeException("Error al validar producto con el servicio externo: " + e.getMessage(), e);
         }
 
-        StockProducto stockProducto = stockRepository.findByProductoId(movimiento.getProductoId())
-                .orElse(new StockProducto(movimiento.getProductoId(), 0));
+        // 2 y 3. Aplicar el stock y registrar el movimiento en una transacción corta
+        return ejecutarTransaccion(List.of(movimiento), estado -> aplicarMovimiento(movimiento));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<MovimientoInventario> registrarMovimientos(List<MovimientoInventario> movimientos) {
+        log.info("Registrando lote de {} movimientos.", movimientos.size());
+        for (MovimientoInventario movimiento : movimientos) {
+            if (movimiento.getTipoMovimiento() == null) {
+                log.error("Error al registrar lote: El tipo de movimiento no puede ser nulo.");
+                throw new IllegalArgumentException("El tipo de movimiento no puede ser nulo");
+            }
+            if (movimiento.getFechaHora() == null) {
+                movimiento.setFechaHora(LocalDateTime.now());
+            }
+        }
+
+        // 1. Validar todos los productos a la vez (en paralelo y acotado), fuera de la transacción
+        List<Long> productoIds = movimientos.stream().map(MovimientoInventario::getProductoId).toList();
+        try {
+            productoValidationService.validarProductosExistenBloqueante(productoIds);
+            log.debug("Productos del lote validados exitosamente: {}", productoIds);
+        } catch (ProductoNoEncontradoException e) {
+            log.warn("Error al registrar lote: {}", e.getMessage());
+            throw e;
+        } catch (ProductosNoDisponibleException e) {
+            log.warn("Error al registrar lote: {}", e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Error de comunicación al validar los productos del lote: {}", e.getMessage());
+            throw new RuntimeException("Error al validar producto con el servicio externo: " + e.getMessage(), e);
+        }
+
+        // 2 y 3. Aplicar todos los movimientos en una sola transacción: si uno falla, no se aplica ninguno
+        return ejecutarTransaccion(movimientos, estado -> movimientos.stream().map(this::aplicarMovimiento).toList());
+    }
+
+    /**
+     * Ejecuta la aplicación de los movimientos en una transacción y la repite una vez si choca con el alta
+     * concurrente del registro de stock de un producto.
+     * <p>
+     * Dos primeras entradas (o recuentos) simultáneas de un producto sin stock pueden tomar ambas la rama
+     * {@code WHEN NOT MATCHED} del MERGE; la que confirma después viola la clave primaria y su transacción se deshace.
+     * Al repetirla, el registro ya existe y el MERGE lo actualiza.
+     * </p>
+     * @param movimientos Los movimientos que aplica la transacción; se les quita el ID asignado antes de repetirla.
+     * @param accion La aplicación de los movimientos.
+     * @return El resultado de la transacción.
+     */
+    private <T> T ejecutarTransaccion(List<MovimientoInventario> movimientos, TransactionCallback<T> accion) {
+        try {
+            return transactionTemplate.execute(accion);
+        } catch (DataIntegrityViolationException e) {
+            if (!(e.getMostSpecificCause() instanceof SQLException sqlException)
+                    || !SQLSTATE_CLAVE_DUPLICADA.equals(sqlException.getSQLState())) {
+                throw e;
+            }
+            log.debug("Alta concurrente del stock de los productos {}; se repite la transacción.",
+                    movimientos.stream().map(MovimientoInventario::getProductoId).distinct().toList());
+            movimientos.forEach(movimiento -> movimiento.setId(null));
+            return transactionTemplate.execute(accion);
+        }
+    }
 
-        int cantidadActual = stockProducto.getCantidad() != null ? stockProducto.getCantidad() : 0;
+    /**
+     * Aplica un movimiento ya validado: actualiza el stock y lo registra en el libro de movimientos.
+     * Se ejecuta dentro de la transacción abierta por {@link #registrarMovimiento(MovimientoInventario)}.
+     * @param movimiento El movimiento a aplicar.
+     * @return El movimiento guardado.
+     * @throws StockInsuficienteException si no hay stock suficiente para una salida.
+     */
+    private MovimientoInventario aplicarMovimiento(MovimientoInventario movimiento) {
+        Long productoId = movimiento.getProductoId();
         int cantidadMovimiento = movimiento.getCantidad();
 
-        // 3. Actualizar la cantidad de stock según el tipo de movimiento
+        // 2. Aplicar el cambio de stock con una sentencia condicional atómica (sin leer la fila antes)
         switch (movimiento.getTipoMovimiento()) {
             case ENTRADA_COMPRA, ENTRADA_DEVOLUCION, ENTRADA_AJUSTE:
-                stockProducto.setCantidad(cantidadActual + cantidadMovimiento);
-                log.debug("Entrada registrada para producto ID {}. Nuevo stock: {}", movimiento.getProductoId(), stockProducto.getCantidad());
+                // Una entrada siempre suma o crea el registro: si no afecta a una fila, el MERGE no hizo nada
+                if (stockRepository.aplicarMovimientoStock(productoId, cantidadMovimiento) != 1) {
+                    throw new IllegalStateException("La entrada de " + cantidadMovimiento
+                            + " unidades no modificó el stock del producto ID " + productoId);
+                }
+                log.debug("Entrada registrada para producto ID {}. Cantidad sumada: {}", productoId, cantidadMovimiento);
                 break;
             case SALIDA_VENTA, SALIDA_AJUSTE:
-                if (cantidadActual < cantidadMovimiento) {
-                    log.warn("Stock insuficiente para producto ID {}. Actual: {}, Solicitado: {}", movimiento.getProductoId(), cantidadActual, cantidadMovimiento);
+                if (stockRepository.aplicarMovimientoStock(productoId, -cantidadMovimiento) == 0) {
+                    // Solo en el camino de error se lee el stock, para informar la cantidad actual
+                    int cantidadActual = stockRepository.findByProductoId(productoId)
+                            .map(StockProducto::getCantidad)
+                            .orElse(0);
+                    log.warn("Stock insuficiente para producto ID {}. Actual: {}, Solicitado: {}", productoId, cantidadActual, cantidadMovimiento);
                     throw new StockInsuficienteException(
-                            "Stock insuficiente para el producto ID " + movimiento.getProductoId() +
+                            "Stock insuficiente para el producto ID " + productoId +
                                     ". Stock actual: " + cantidadActual +
                                     ", Cantidad solicitada: " + cantidadMovimiento);
                 }
-                stockProducto.setCantidad(cantidadActual - cantidadMovimiento);
-                log.debug("Salida registrada para producto ID {}. Nuevo stock: {}", movimiento.getProductoId(), stockProducto.getCantidad());
+                log.debug("Salida registrada para producto ID {}. Cantidad restada: {}", productoId, cantidadMovimiento);
                 break;
             case RECUENTO_INVENTARIO:
-                stockProducto.setCantidad(cantidadMovimiento); // Establece la cantidad directamente
-                log.debug("Recuento de inventario para producto ID {}. Nuevo stock: {}", movimiento.getProductoId(), stockProducto.getCantidad());
+                stockRepository.establecerCantidad(productoId, cantidadMovimiento); // Establece la cantidad directamente
+                log.debug("Recuento de inventario para producto ID {}. Nuevo stock: {}", productoId, cantidadMovimiento);
                 break;
             default: // Debería ser inalcanzable si el enum es exhaustivo y no hay nulls
                 log.error("Tipo de movimiento no reconocido: {}", movimiento.getTipoMovimiento());
                 throw new IllegalArgumentException("Tipo de movimiento no reconocido: " + movimiento.getTipoMovimiento());
         }
 
-        stockRepository.save(stockProducto);
-        log.debug("Stock actualizado para producto ID {} guardado.", stockProducto.getProductoId());
-
+        // 3. Registrar el movimiento en el libro mayor dentro de la misma transacción
         MovimientoInventario movimientoGuardado = movimientoRepository.save(movimiento);
         log.info("Movimiento registrado exitosamente: {}", movimientoGuardado);
         return movimientoGuardado;
@@ -145,7 +240,6 @@ public class InventarioServiceImpl implements InventarioService {
      * {@inheritDoc}
      */
     @Override
-    @Transactional
     public MovimientoInventario registrarEntrada(Long productoId, int cantidad, TipoMovimiento tipoMovimiento, String notas) {
         if (!Arrays.asList(TipoMovimiento.ENTRADA_COMPRA, TipoMovimiento.ENTRADA_DEVOLUCION, TipoMovimiento.ENTRADA_AJUSTE)
                 .contains(tipoMovimiento)) {
@@ -160,7 +254,6 @@ public class InventarioServiceImpl implements InventarioService {
      * {@inheritDoc}
      */
     @Override
-    @Transactional
     public MovimientoInventario registrarSalida(Long productoId, int cantidad, TipoMovimiento tipoMovimiento, String notas) {
         if (!Arrays.asList(TipoMovimiento.SALIDA_VENTA, TipoMovimiento.SALIDA_AJUSTE)
                 .contains(tipoMovimiento)) {
@@ -175,7 +268,6 @@ public class InventarioServiceImpl implements InventarioService {
      * {@inheritDoc}
      */
     @Override
-    @Transactional
     public MovimientoInventario establecerStock(Long productoId, int nuevaCantidad, String notas) {
         log.info("Estableciendo stock para producto ID {} a nueva cantidad: {}", productoId, nuevaCantidad);
         if (nuevaCantidad < 0) {
@@ -1,25 +1,76 @@
 package com.bootcampms.inventario.Service;
 
+import com.bootcampms.inventario.Cache.ExistenciaProductosCache;
 import com.bootcampms.inventario.Exception.ProductoNoEncontradoException;
+import com.bootcampms.inventario.Exception.ProductosNoDisponibleException;
+import com.bootcampms.inventario.Resiliencia.ResilienciaProductos;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value; // Para inyectar la URL
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
- * Servicio para interactuar con el microservicio de Productos utilizando {@link RestTemplate}.
+ * Servicio para interactuar con el microservicio de Productos utilizando un {@link WebClient} no bloqueante.
  * Su función principal es validar la existencia de un producto en el catálogo externo.
  * <p>
- * Nota: Se podría considerar renombrar esta clase a ProductoRestTemplateService para mayor claridad
- * si en el futuro se introducen otros clientes web (ej. WebClient).
+ * Las respuestas se recuerdan en la {@link ExistenciaProductosCache}: un producto conocido (existente o no)
+ * se valida sin llamada HTTP. La caché se puede precargar con el listado completo del catálogo.
+ * </p>
+ * <p>
+ * Las consultas que no están en caché se agrupan para reducir las llamadas a productos:
+ * </p>
+ * <ul>
+ *     <li>Las validaciones simultáneas de un mismo ID comparten una única llamada en vuelo (single-flight).</li>
+ *     <li>Los IDs distintos que llegan dentro de una ventana corta ({@code microservice.productos.lote.ventana})
+ *     se consultan con una sola petición {@code GET /batch?ids=...}. Si productos no ofrece ese endpoint,
+ *     se vuelve a las consultas individuales.</li>
+ * </ul>
+ * <p>
+ * Las llamadas pasan por el circuit breaker y el bulkhead de {@link ResilienciaProductos}: mientras productos falla
+ * o hay demasiadas llamadas en curso, la validación termina al momento con {@link ProductosNoDisponibleException}.
+ * Las consultas individuales pueden repetirse de forma especulativa si tardan más que el p95 observado.
+ * </p>
+ * <p>
+ * Cada llamada tiene un tiempo máximo ({@code microservice.productos.tiempo-maximo}); al agotarse, la petición
+ * HTTP en curso se cancela. Una llamada compartida no se cancela aunque alguno de los que esperan su resultado
+ * cancele la suscripción. Los métodos {@code Bloqueante} esperan el resultado en el hilo que llama, para el
+ * código imperativo (controladores y transacciones JPA).
+ * </p>
+ * <p>
+ * Métricas: {@code inventario.productos.validaciones} (por {@code origen}: {@code cache}, {@code compartida} o
+ * {@code remota}), {@code inventario.productos.llamadas} (llamadas HTTP por {@code tipo}: {@code individual} o
+ * {@code lote}) e {@code inventario.productos.lote.tamanio} (IDs por llamada en lote). La diferencia entre las
+ * validaciones no resueltas por la caché y las llamadas es el ahorro de la agrupación.
  * </p>
  */
 @Service
@@ -27,75 +78,373 @@ public class ProductoWebClientService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductoWebClientService.class);
 
-    private final RestTemplate restTemplate;
-    private final String productosApiUrlValue;
+    private final WebClient webClient;
+    private final ExistenciaProductosCache existenciaCache;
+    private final ResilienciaProductos resiliencia;
+    private final Duration tiempoMaximo;
+    private final int concurrenciaMaxima;
+    private final boolean compartirConsultas;
+    private final int tamanioMaximoLote;
+
+    /** Resultado pendiente de cada ID con una consulta en vuelo. */
+    private final ConcurrentMap<Long, CompletableFuture<Boolean>> enVuelo = new ConcurrentHashMap<>();
+    /** IDs a la espera de la siguiente consulta en lote. */
+    private final Sinks.Many<Long> pendientesLote = Sinks.many().unicast().onBackpressureBuffer();
+    private final Disposable agrupadorLotes;
+    /** Pasa a {@code false} si productos no ofrece {@code /batch}. */
+    private final AtomicBoolean loteSoportado = new AtomicBoolean(true);
+
+    private final Counter validacionesCache;
+    private final Counter validacionesCompartidas;
+    private final Counter validacionesRemotas;
+    private final Counter llamadasIndividuales;
+    private final Counter llamadasLote;
+    private final DistributionSummary tamanioLotes;
 
     /**
      * Constructor para {@code ProductoWebClientService}.
      *
-     * @param restTemplate         El {@link RestTemplate} configurado para realizar llamadas HTTP.
-     * @param productosApiUrl      La URL base del API del microservicio de productos,
-     *                             inyectada desde la propiedad {@code microservice.productos.url}.
+     * @param webClient          El {@link WebClient} de productos, con la URL base {@code microservice.productos.url}.
+     * @param existenciaCache    La caché de existencia de productos.
+     * @param resiliencia        El circuit breaker, el bulkhead y las peticiones especulativas de las llamadas.
+     * @param tiempoMaximo       Tiempo máximo de cada llamada a productos ({@code microservice.productos.tiempo-maximo}).
+     * @param concurrenciaMaxima Máximo de validaciones simultáneas al validar varios productos
+     *                           ({@code microservice.productos.concurrencia-validacion}).
+     * @param compartirConsultas Si las validaciones simultáneas de un mismo ID comparten la llamada
+     *                           ({@code microservice.productos.compartir-consultas}).
+     * @param tamanioMaximoLote  Máximo de IDs por consulta en lote; 1 para no agrupar
+     *                           ({@code microservice.productos.lote.tamanio-maximo}).
+     * @param ventanaLote        Tiempo máximo que un ID espera a otros para formar un lote
+     *                           ({@code microservice.productos.lote.ventana}).
+     * @param meterRegistry      Registro de Micrometer para las métricas de validaciones y llamadas.
      */
     @Autowired
-    public ProductoWebClientService(RestTemplate restTemplate,
-                                    @Value("${microservice.productos.url}") String productosApiUrl) {
-        this.restTemplate = restTemplate;
-        this.productosApiUrlValue = productosApiUrl;
+    public ProductoWebClientService(@Qualifier("productosWebClient") WebClient webClient,
+                                    ExistenciaProductosCache existenciaCache,
+                                    ResilienciaProductos resiliencia,
+                                    @Value("${microservice.productos.tiempo-maximo:5s}") Duration tiempoMaximo,
+                                    @Value("${microservice.productos.concurrencia-validacion:16}") int concurrenciaMaxima,
+                                    @Value("${microservice.productos.compartir-consultas:true}") boolean compartirConsultas,
+                                    @Value("${microservice.productos.lote.tamanio-maximo:100}") int tamanioMaximoLote,
+                                    @Value("${microservice.productos.lote.ventana:2ms}") Duration ventanaLote,
+                                    MeterRegistry meterRegistry) {
+        this.webClient = webClient;
+        this.existenciaCache = existenciaCache;
+        this.resiliencia = resiliencia;
+        this.tiempoMaximo = tiempoMaximo;
+        this.concurrenciaMaxima = concurrenciaMaxima;
+        this.compartirConsultas = compartirConsultas;
+        this.tamanioMaximoLote = tamanioMaximoLote;
+        this.validacionesCache = contadorValidaciones(meterRegistry, "cache");
+        this.validacionesCompartidas = contadorValidaciones(meterRegistry, "compartida");
+        this.validacionesRemotas = contadorValidaciones(meterRegistry, "remota");
+        this.llamadasIndividuales = contadorLlamadas(meterRegistry, "individual");
+        this.llamadasLote = contadorLlamadas(meterRegistry, "lote");
+        this.tamanioLotes = DistributionSummary.builder("inventario.productos.lote.tamanio")
+                .description("IDs consultados en cada llamada en lote a productos")
+                .register(meterRegistry);
+        this.agrupadorLotes = tamanioMaximoLote > 1
+                ? pendientesLote.asFlux()
+                        .bufferTimeout(tamanioMaximoLote, ventanaLote)
+                        .flatMap(this::consultarLote)
+                        .subscribe()
+                : null;
     }
 
+    private static Counter contadorValidaciones(MeterRegistry meterRegistry, String origen) {
+        return Counter.builder("inventario.productos.validaciones")
+                .description("Validaciones de existencia de productos, según cómo se resolvieron")
+                .tag("origen", origen)
+                .register(meterRegistry);
+    }
+
+    private static Counter contadorLlamadas(MeterRegistry meterRegistry, String tipo) {
+        return Counter.builder("inventario.productos.llamadas")
+                .description("Llamadas HTTP al servicio de productos para validar productos")
+                .tag("tipo", tipo)
+                .register(meterRegistry);
+    }
 
     /**
-     * Valida si un producto existe en el microservicio de Productos de forma bloqueante.
-     * Realiza una llamada HTTP GET al endpoint específico del producto por su ID.
+     * Detiene el agrupador de consultas en lote al cerrar el contexto.
+     */
+    @PreDestroy
+    public void detener() {
+        if (agrupadorLotes != null) {
+            agrupadorLotes.dispose();
+        }
+    }
+
+    /**
+     * Valida si un producto existe en el microservicio de Productos, sin bloquear.
+     * Realiza una llamada HTTP GET al endpoint específico del producto por su ID, o lo incluye en una consulta en lote.
      * <p>
-     * Se utiliza {@code restTemplate.exchange} para tener un control más fino sobre la respuesta HTTP,
-     * incluyendo el código de estado. Una petición HEAD sería teóricamente más eficiente
-     * para solo verificar existencia, pero GET es más comúnmente implementado y soportado.
+     * Si el producto está en la caché de existencia, se responde sin llamada HTTP; si ya hay una consulta en vuelo
+     * para el mismo ID, se espera a su resultado. Las respuestas 2xx y 404 se guardan en la caché; los demás errores no.
      * </p>
      *
      * @param productoId El ID del producto que se desea validar.
+     * @return Un {@link Mono} con {@code true} si el producto existe y el servicio de productos responde con un código 2xx.
+     *         Termina con {@link ProductoNoEncontradoException} si el servicio de productos responde con un HTTP 404,
+     *         con {@link ProductosNoDisponibleException} si el circuito o el bulkhead rechazan la llamada,
+     *         o con una {@link RuntimeException} para otros errores de comunicación (errores de cliente 4xx distintos
+     *         de 404, errores de servidor 5xx, problemas de red, tiempo máximo agotado o excepciones inesperadas).
+     */
+    public Mono<Boolean> validarProductoExiste(Long productoId) {
+        Optional<Boolean> enCache = existenciaCache.consultar(productoId);
+        if (enCache.isPresent()) {
+            validacionesCache.increment();
+            return enCache.get()
+                    ? Mono.just(true)
+                    : Mono.error(new ProductoNoEncontradoException("El producto con ID " + productoId + " no existe en el catálogo."));
+        }
+        if (!compartirConsultas) {
+            validacionesRemotas.increment();
+            return consultarIndividual(productoId);
+        }
+
+        return Mono.defer(() -> {
+            CompletableFuture<Boolean> propio = new CompletableFuture<>();
+            CompletableFuture<Boolean> compartido = enVuelo.putIfAbsent(productoId, propio);
+            if (compartido != null) {
+                validacionesCompartidas.increment();
+                return Mono.fromFuture(compartido, true);
+            }
+            validacionesRemotas.increment();
+            propio.whenComplete((existe, error) -> enVuelo.remove(productoId, propio));
+            if (tamanioMaximoLote > 1 && loteSoportado.get()) {
+                encolarEnLote(productoId, propio);
+            } else {
+                completar(propio, consultarIndividual(productoId));
+            }
+            return Mono.fromFuture(propio, true);
+        });
+    }
+
+    /**
+     * Consulta un producto con su propia llamada HTTP ({@code GET /{id}}).
+     */
+    private Mono<Boolean> consultarIndividual(Long productoId) {
+        return resiliencia.protegerConEspeculativa(() -> {
+                    log.debug("WebClient: Validando existencia del producto ID: {} en el servicio de productos.", productoId);
+                    llamadasIndividuales.increment();
+                    return webClient.get()
+                            .uri("/{id}", productoId)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .timeout(tiempoMaximo);
+                })
+                .map(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        log.debug("Producto ID: {} validado exitosamente (HTTP {}).", productoId, response.getStatusCode());
+                        existenciaCache.registrarExistente(productoId);
+                        return true;
+                    }
+                    // retrieve() solo deja pasar sin error los códigos 1xx, 2xx y 3xx
+                    log.warn("Producto ID: {} respondió con HTTP {} pero no fue 2xx y no lanzó excepción.", productoId, response.getStatusCode());
+                    return false;
+                })
+                .onErrorMap(ex -> traducirError(productoId, ex));
+    }
+
+    /**
+     * Añade un ID a la siguiente consulta en lote. Si no se puede encolar, se consulta individualmente.
+     */
+    private void encolarEnLote(Long productoId, CompletableFuture<Boolean> resultado) {
+        try {
+            pendientesLote.emitNext(productoId, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1)));
+        } catch (Sinks.EmissionException ex) {
+            log.warn("No se pudo encolar el producto ID {} para la consulta en lote: {}", productoId, ex.getMessage());
+            completar(resultado, consultarIndividual(productoId));
+        }
+    }
+
+    /**
+     * Consulta un lote de IDs con una sola llamada ({@code GET /batch?ids=...}) y completa el resultado de cada uno.
+     * Nunca termina con error, para no detener el agrupador.
+     */
+    private Mono<Void> consultarLote(List<Long> productoIds) {
+        if (productoIds.size() == 1 || !loteSoportado.get()) {
+            productoIds.forEach(productoId -> completar(enVuelo.get(productoId), consultarIndividual(productoId)));
+            return Mono.empty();
+        }
+        String ids = productoIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return resiliencia.proteger(() -> {
+                    log.debug("WebClient: Validando existencia de {} productos en lote: {}", productoIds.size(), ids);
+                    llamadasLote.increment();
+                    tamanioLotes.record(productoIds.size());
+                    return webClient.get()
+                            .uri(uri -> uri.path("/batch").queryParam("ids", ids).build())
+                            .retrieve()
+                            .bodyToMono(JsonNode.class)
+                            .timeout(tiempoMaximo);
+                })
+                .doOnNext(resultado -> registrarResultadoLote(productoIds, resultado))
+                .onErrorResume(ex -> {
+                    if (ex instanceof WebClientResponseException.NotFound || ex instanceof WebClientResponseException.MethodNotAllowed) {
+                        // Versión de productos sin consulta en lote: se consulta individualmente a partir de ahora
+                        log.warn("El servicio de productos no admite consultas en lote ({}); se consultará cada producto por separado.", ex.getMessage());
+                        loteSoportado.set(false);
+                        productoIds.forEach(productoId -> completar(enVuelo.get(productoId), consultarIndividual(productoId)));
+                    } else {
+                        productoIds.forEach(productoId -> fallar(enVuelo.get(productoId), traducirError(productoId, ex)));
+                    }
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Completa el resultado de cada ID del lote con la respuesta de productos ({@code ResultadoLoteDTO}).
+     */
+    private void registrarResultadoLote(List<Long> productoIds, JsonNode resultado) {
+        Set<Long> encontrados = new HashSet<>();
+        resultado.path("productos").forEach(producto -> encontrados.add(producto.path("id").asLong()));
+        Set<Long> noEncontrados = new HashSet<>();
+        resultado.path("idsNoEncontrados").forEach(id -> noEncontrados.add(id.asLong()));
+        for (Long productoId : productoIds) {
+            CompletableFuture<Boolean> pendiente = enVuelo.get(productoId);
+            if (encontrados.contains(productoId)) {
+                existenciaCache.registrarExistente(productoId);
+                if (pendiente != null) {
+                    pendiente.complete(true);
+                }
+            } else if (noEncontrados.contains(productoId)) {
+                log.warn("Producto ID: {} no encontrado en el servicio de productos (consulta en lote).", productoId);
+                existenciaCache.registrarInexistente(productoId);
+                fallar(pendiente, new ProductoNoEncontradoException("El producto con ID " + productoId + " no existe en el catálogo."));
+            } else {
+                log.error("La respuesta en lote del servicio de productos no incluye el producto ID {}.", productoId);
+                fallar(pendiente, new RuntimeException("Error inesperado al comunicarse con el servicio de productos para validar ID "
+                        + productoId + ". Causa: el producto no aparece en la respuesta del lote."));
+            }
+        }
+    }
+
+    private static void completar(CompletableFuture<Boolean> pendiente, Mono<Boolean> resultado) {
+        if (pendiente != null) {
+            resultado.subscribe(pendiente::complete, pendiente::completeExceptionally);
+        }
+    }
+
+    private static void fallar(CompletableFuture<Boolean> pendiente, Throwable error) {
+        if (pendiente != null) {
+            pendiente.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * Valida si un producto existe en el microservicio de Productos, esperando el resultado en el hilo que llama.
+     *
+     * @param productoId El ID del producto que se desea validar.
      * @return {@code true} si el producto existe y el servicio de productos responde con un código 2xx.
      * @throws ProductoNoEncontradoException si el servicio de productos responde con un HTTP 404,
      *                                       indicando que el producto no fue encontrado.
+     * @throws ProductosNoDisponibleException si la llamada se rechaza sin llegar a productos (circuito abierto o bulkhead lleno).
      * @throws RuntimeException              para otros errores de comunicación (errores de cliente 4xx distintos de 404,
      *                                       errores de servidor 5xx, problemas de red, o excepciones inesperadas).
+     * @see #validarProductoExiste(Long)
      */
     public boolean validarProductoExisteBloqueante(Long productoId) {
-        log.debug("BLOQUEANTE (RestTemplate): Validando existencia del producto ID: {} en el servicio de productos.", productoId);
-        String url = productosApiUrlValue + "/" + productoId; // Construir la URL completa
+        return Boolean.TRUE.equals(validarProductoExiste(productoId).block());
+    }
 
-        try {
-            ResponseEntity<Void> response = restTemplate.exchange(url, HttpMethod.GET, null, Void.class);
+    /**
+     * Valida que existen todos los productos indicados, con varias validaciones en paralelo
+     * (como máximo {@code microservice.productos.concurrencia-validacion} a la vez). Los IDs repetidos se validan una vez.
+     * <p>
+     * Al primer error se cancelan las validaciones que sigan en curso y se devuelve ese error,
+     * con la misma semántica que {@link #validarProductoExiste(Long)}.
+     * </p>
+     *
+     * @param productoIds Los IDs de los productos.
+     * @return Un {@link Mono} que termina vacío si todos los productos existen, o con el primer error.
+     */
+    public Mono<Void> validarProductosExisten(Collection<Long> productoIds) {
+        return Flux.fromIterable(new LinkedHashSet<>(productoIds))
+                .flatMap(this::validarProductoExiste, concurrenciaMaxima)
+                .then();
+    }
 
-            // Si se llega aquí, la respuesta fue exitosa (2xx)
-            if (response.getStatusCode().is2xxSuccessful()) {
-                log.debug("Producto ID: {} validado exitosamente (HTTP {}).", productoId, response.getStatusCode());
-                return true;
-            } else {
-                // Este bloque sería inusual si restTemplate.exchange no lanzó una excepción para códigos no-2xx.
-                // Se mantiene por robustez, aunque HttpClientErrorException/HttpServerErrorException deberían cubrir estos casos.
-                log.warn("Producto ID: {} respondió con HTTP {} pero no fue 2xx y no lanzó excepción.", productoId, response.getStatusCode());
-                return false;
-            }
-        } catch (HttpClientErrorException ex) { // Errores 4xx
-            if (ex.getStatusCode() == HttpStatus.NOT_FOUND) {
-                log.warn("Producto ID: {} no encontrado en el servicio de productos (HTTP 404).", productoId);
-                throw new ProductoNoEncontradoException("El producto con ID " + productoId + " no existe en el catálogo.");
-            }
-            // Para otros errores 4xx, se relanza una RuntimeException más genérica.
-            log.error("Error de cliente HTTP ({}) al validar producto ID {}: {}", ex.getStatusCode(), productoId, ex.getResponseBodyAsString(), ex);
-            throw new RuntimeException("Error de respuesta del cliente ("+ ex.getStatusCode() +") al comunicarse con el servicio de productos para validar ID " + productoId, ex);
-        } catch (HttpServerErrorException ex) { // Errores 5xx
-            log.error("Error de servidor HTTP ({}) al validar producto ID {}: {}", ex.getStatusCode(), productoId, ex.getResponseBodyAsString(), ex);
-            throw new RuntimeException("Error de respuesta del servidor ("+ ex.getStatusCode() +") al comunicarse con el servicio de productos para validar ID " + productoId, ex);
-        } catch (ResourceAccessException ex) { // Errores de red, timeouts de conexión/lectura
+    /**
+     * Valida que existen todos los productos indicados, esperando el resultado en el hilo que llama.
+     *
+     * @param productoIds Los IDs de los productos.
+     * @throws ProductoNoEncontradoException si alguno de los productos no existe.
+     * @throws ProductosNoDisponibleException si la llamada se rechaza sin llegar a productos (circuito abierto o bulkhead lleno).
+     * @throws RuntimeException              para otros errores de comunicación con el servicio de productos.
+     * @see #validarProductosExisten(Collection)
+     */
+    public void validarProductosExistenBloqueante(Collection<Long> productoIds) {
+        validarProductosExisten(productoIds).block();
+    }
+
+    /**
+     * Precarga la caché de existencia con los IDs del catálogo ({@code GET /export/ids}, NDJSON con un ID por línea),
+     * sin descargar los productos completos.
+     * <p>
+     * El listado se lee en streaming y se cancela al llenar la caché. La precarga termina siempre sin error: si productos
+     * no responde, no ofrece el listado o se agota {@code tiempoMaximo}, solo se registra un aviso y la caché conserva
+     * lo precargado hasta ese momento; el resto se irá llenando con las validaciones.
+     * </p>
+     *
+     * @param tiempoMaximo Tiempo máximo de toda la precarga.
+     * @return Un Mono con el número de productos registrados en la caché.
+     */
+    public Mono<Long> precargarCache(Duration tiempoMaximo) {
+        if (!existenciaCache.isHabilitada()) {
+            return Mono.just(0L);
+        }
+        return Mono.defer(() -> {
+            AtomicLong precargados = new AtomicLong();
+            return webClient.get()
+                    .uri("/export/ids")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .retrieve()
+                    .bodyToFlux(Long.class)
+                    .take(existenciaCache.getTamanioMaximo())
+                    .doOnNext(id -> {
+                        existenciaCache.registrarExistente(id);
+                        precargados.incrementAndGet();
+                    })
+                    .then(Mono.fromSupplier(precargados::get))
+                    .timeout(tiempoMaximo)
+                    .doOnNext(total -> log.info("Caché de existencia de productos precargada con {} productos.", total))
+                    .onErrorResume(ex -> {
+                        log.warn("Precarga de la caché de existencia de productos incompleta ({} productos): {}",
+                                precargados.get(), ex.getMessage());
+                        return Mono.just(precargados.get());
+                    });
+        });
+    }
+
+    /**
+     * Traduce un error de la llamada a productos a las excepciones del servicio.
+     */
+    private Throwable traducirError(Long productoId, Throwable ex) {
+        if (ResilienciaProductos.esRechazo(ex)) { // Circuito abierto o demasiadas llamadas en curso: no se llamó a productos
+            log.warn("Validación del producto ID {} rechazada sin llamar al servicio de productos: {}", productoId, ex.getMessage());
+            return new ProductosNoDisponibleException("El servicio de productos no está disponible en este momento; no se pudo validar el producto con ID " + productoId + ".", ex);
+        }
+        if (ex instanceof WebClientResponseException.NotFound) {
+            log.warn("Producto ID: {} no encontrado en el servicio de productos (HTTP 404).", productoId);
+            existenciaCache.registrarInexistente(productoId);
+            return new ProductoNoEncontradoException("El producto con ID " + productoId + " no existe en el catálogo.");
+        }
+        if (ex instanceof WebClientResponseException respuesta && respuesta.getStatusCode().is4xxClientError()) { // Errores 4xx
+            log.error("Error de cliente HTTP ({}) al validar producto ID {}: {}", respuesta.getStatusCode(), productoId, respuesta.getResponseBodyAsString(), ex);
+            return new RuntimeException("Error de respuesta del cliente (" + respuesta.getStatusCode() + ") al comunicarse con el servicio de productos para validar ID " + productoId, ex);
+        }
+        if (ex instanceof WebClientResponseException respuesta) { // Errores 5xx
+            log.error("Error de servidor HTTP ({}) al validar producto ID {}: {}", respuesta.getStatusCode(), productoId, respuesta.getResponseBodyAsString(), ex);
+            return new RuntimeException("Error de respuesta del servidor (" + respuesta.getStatusCode() + ") al comunicarse con el servicio de productos para validar ID " + productoId, ex);
+        }
+        if (ex instanceof WebClientRequestException || ex instanceof TimeoutException) { // Errores de red, timeouts de conexión/respuesta
             log.error("Error de conexión/red al validar producto ID {} con el servicio de productos: {}", productoId, ex.getMessage(), ex);
-            // Podría ser útil una excepción más específica para problemas de red si se necesita un manejo diferenciado.
-            throw new RuntimeException("No se pudo conectar con el servicio de productos para validar ID " + productoId + ". Causa: " + ex.getMessage(), ex);
-        } catch (Exception ex) { // Otros errores inesperados durante la comunicación
-            log.error("Error inesperado al validar producto ID {} con el servicio de productos: {}", productoId, ex.getMessage(), ex);
-            throw new RuntimeException("Error inesperado al comunicarse con el servicio de productos para validar ID " + productoId + ". Causa: " + ex.getMessage(), ex);
+            return new RuntimeException("No se pudo conectar con el servicio de productos para validar ID " + productoId + ". Causa: " + ex.getMessage(), ex);
         }
+        // Otros errores inesperados durante la comunicación
+        log.error("Error inesperado al validar producto ID {} con el servicio de productos: {}", productoId, ex.getMessage(), ex);
+        return new RuntimeException("Error inesperado al comunicarse con el servicio de productos para validar ID " + productoId + ". Causa: " + ex.getMessage(), ex);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.bootcampms.inventario.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el throughput de {@code InventarioServiceImpl.registrarMovimiento} con y sin la caché de existencia de
+ * productos, y con y sin la agrupación de consultas (llamadas compartidas y en lote), contra un sustituto de
+ * productos que tarda {@link #LATENCIA_PRODUCTOS} en cada validación.
+ * <p>
+ * Sin caché, cada movimiento espera una validación HTTP. Con caché, el sustituto ofrece el listado de los
+ * {@code productos} del escenario y la caché se precarga al arrancar, así que los movimientos no llaman a productos.
+ * Sin caché, la agrupación reúne en una llamada las validaciones simultáneas de los 16 hilos.
+ * Al final de cada ejecución se imprime el número de peticiones que llegaron al sustituto por movimiento.
+ * </p>
+ * Ejecutar con {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.inventario.Benchmark.CacheProductosBenchmark
+ * -Dexec.classpathScope=test}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(16)
+public class CacheProductosBenchmark {
+
+    static final Duration LATENCIA_PRODUCTOS = Duration.ofMillis(20);
+
+    @State(Scope.Benchmark)
+    public static class Entorno {
+
+        @Param({"false", "true"})
+        private boolean cache;
+
+        @Param({"false", "true"})
+        private boolean agrupar;
+
+        @Param({"10000"})
+        private int productos;
+
+        private EscenarioStock escenario;
+
+        @Setup(Level.Trial)
+        public void iniciar(BenchmarkParams parametros) throws IOException {
+            escenario = EscenarioStock.iniciar("cache_productos_benchmark", productos, 1.2, parametros.getThreads(),
+                    EscenarioStock.PORCENTAJE_SALIDAS, EscenarioStock.PORCENTAJE_RECUENTOS, LATENCIA_PRODUCTOS, cache, agrupar);
+        }
+
+        @TearDown(Level.Trial)
+        public void resumir(BenchmarkParams parametros) {
+            try {
+                long movimientos = escenario.correctos() + escenario.rechazados() + escenario.conflictos();
+                System.out.printf("%n[caché %s, agrupación %s, %d hilos] %s; %.3f peticiones a productos por movimiento%n",
+                        cache ? "habilitada" : "deshabilitada", agrupar ? "habilitada" : "deshabilitada",
+                        parametros.getThreads(), escenario.resumenContadores(),
+                        movimientos == 0 ? 0 : (double) escenario.peticionesProductos() / movimientos);
+            } finally {
+                escenario.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private SplittableRandom aleatorio;
+
+        @Setup(Level.Trial)
+        public void iniciar(ThreadParams hilo) {
+            aleatorio = new SplittableRandom(42L + hilo.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public EscenarioStock.Resultado registrarMovimiento(Entorno entorno, Hilo hilo) {
+        return entorno.escenario.registrarMovimiento(hilo.aleatorio);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CacheProductosBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package com.bootcampms.inventario.Benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.openjdk.jmh.runner.IterationType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@code InventarioServiceImpl.registrarMovimiento} bajo contención: varios hilos lanzan movimientos mezclados
+ * (55 % salidas, 5 % recuentos y 40 % entradas) sobre {@code productos} productos elegidos con sesgo de Zipf
+ * ({@code sesgo} = 0 para un reparto uniforme). Con pocos productos o mucho sesgo, casi todos los hilos compiten por
+ * la misma fila de stock.
+ * <p>
+ * Informa el throughput y, en modo {@code SampleTime}, los percentiles de latencia (p0.50, p0.99, p0.999). Al final
+ * de cada ejecución imprime las tasas de rechazo por stock y de conflictos, y comprueba que el stock de cada
+ * producto coincide con su libro de movimientos y no es negativo; si no es así, la ejecución falla.
+ * </p>
+ * <p>
+ * {@link #main(String[])} repite la medición con 1, 8 y 64 hilos, o con los indicados como argumentos:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.inventario.Benchmark.ContencionStockBenchmark
+ * -Dexec.classpathScope=test -Dexec.args="1 16"}. Para pruebas de más duración, ver {@link EstresStock}.
+ * </p>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class ContencionStockBenchmark {
+
+    private static final int[] HILOS = {1, 8, 64};
+
+    @State(Scope.Benchmark)
+    public static class Entorno {
+
+        @Param({"1", "100", "10000"})
+        private int productos;
+
+        @Param({"0", "1.2"})
+        private double sesgo;
+
+        private EscenarioStock escenario;
+
+        @Setup(Level.Trial)
+        public void iniciar(BenchmarkParams parametros) throws IOException {
+            escenario = EscenarioStock.iniciar("contencion_benchmark", productos, sesgo, parametros.getThreads(),
+                    EscenarioStock.PORCENTAJE_SALIDAS, EscenarioStock.PORCENTAJE_RECUENTOS);
+        }
+
+        @TearDown(Level.Iteration)
+        public void terminarIteracion(IterationParams iteracion) {
+            // Las tasas de rechazo y conflicto solo cuentan las iteraciones de medición
+            if (iteracion.getType() == IterationType.WARMUP) {
+                escenario.reiniciarContadores();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void verificar(BenchmarkParams parametros) {
+            try {
+                VerificadorLibro.Informe informe = escenario.verificarLibro();
+                System.out.printf("%n[%d hilos, %d productos, sesgo %s] %s%n%s%n", parametros.getThreads(), productos, sesgo,
+                        escenario.resumenContadores(), informe);
+                if (!informe.correcto()) {
+                    throw new IllegalStateException(informe.toString());
+                }
+            } finally {
+                escenario.close();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Hilo {
+
+        private SplittableRandom aleatorio;
+
+        @Setup(Level.Trial)
+        public void iniciar(ThreadParams hilo) {
+            aleatorio = new SplittableRandom(42L + hilo.getThreadIndex());
+        }
+    }
+
+    @Benchmark
+    public EscenarioStock.Resultado registrarMovimiento(Entorno entorno, Hilo hilo) {
+        return entorno.escenario.registrarMovimiento(hilo.aleatorio);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int[] hilos = args.length == 0 ? HILOS : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+        for (int numeroHilos : hilos) {
+            new Runner(new OptionsBuilder()
+                    .include(ContencionStockBenchmark.class.getSimpleName())
+                    .threads(numeroHilos)
+                    .build()).run();
+        }
+    }
+}
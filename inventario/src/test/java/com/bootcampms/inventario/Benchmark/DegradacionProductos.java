@@ -0,0 +1,148 @@
+package com.bootcampms.inventario.Benchmark;
+
+import com.bootcampms.inventario.Resiliencia.ResilienciaProductos;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de la resiliencia de inventario frente a un productos degradado: arranca un {@link EscenarioStock} (sin caché
+ * ni agrupación de consultas, para que cada movimiento llame a productos) y lanza movimientos en bucle cerrado en tres
+ * fases: productos sano, degradado con fallos inyectados en el {@link ProductosSustituto} y de nuevo sano.
+ * Lo repite sin resiliencia (solo el tiempo máximo de cada llamada) y con circuit breaker y peticiones especulativas.
+ * <p>
+ * Por fase informa el throughput, los percentiles p50/p99 de latencia de todos los movimientos (también los fallidos),
+ * el porcentaje de fallos, las peticiones que llegaron a productos y el estado del circuito al terminar. Al final de
+ * cada modo imprime las transiciones del circuito. Se configura con propiedades del sistema:
+ * </p>
+ * <ul>
+ *     <li>{@code degradacion.hilos} (32) y {@code degradacion.duracion} (10): hilos y segundos por fase.</li>
+ *     <li>{@code degradacion.errores} (50) y {@code degradacion.lentas} (20): porcentajes de respuestas 503 y lentas
+ *     en la fase degradada.</li>
+ *     <li>{@code degradacion.latencia-lenta} (3000): milisegundos adicionales de las respuestas lentas.</li>
+ * </ul>
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.inventario.Benchmark.DegradacionProductos
+ * -Dexec.classpathScope=test}
+ */
+public final class DegradacionProductos {
+
+    private static final Duration LATENCIA_PRODUCTOS = Duration.ofMillis(5);
+    private static final int PRODUCTOS = 1000;
+
+    private DegradacionProductos() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int hilos = Integer.getInteger("degradacion.hilos", 32);
+        Duration duracion = Duration.ofSeconds(Integer.getInteger("degradacion.duracion", 10));
+        int errores = Integer.getInteger("degradacion.errores", 50);
+        int lentas = Integer.getInteger("degradacion.lentas", 20);
+        Duration latenciaLenta = Duration.ofMillis(Integer.getInteger("degradacion.latencia-lenta", 3000));
+
+        System.out.printf("Degradación de productos: %d hilos, %d s por fase; fase degradada con %d %% de 503 y %d %% de respuestas +%d ms%n",
+                hilos, duracion.toSeconds(), errores, lentas, latenciaLenta.toMillis());
+        for (boolean resiliencia : new boolean[]{false, true}) {
+            System.out.printf("%n%s%n", resiliencia ? "Con circuit breaker y peticiones especulativas" : "Sin resiliencia");
+            System.out.printf("%-11s %9s %9s %9s %9s %10s   %s%n",
+                    "Fase", "Mov/s", "p50 ms", "p99 ms", "Fallos %", "Peticiones", "Circuito");
+            try (EscenarioStock escenario = EscenarioStock.iniciar("degradacion_" + resiliencia, PRODUCTOS, 0, hilos,
+                    EscenarioStock.PORCENTAJE_SALIDAS, EscenarioStock.PORCENTAJE_RECUENTOS, LATENCIA_PRODUCTOS, false, false,
+                    "microservice.productos.circuito.habilitado=" + resiliencia,
+                    "microservice.productos.circuito.duracion-lenta=1s",
+                    // Para que la recuperación se vea dentro de la última fase
+                    "microservice.productos.circuito.espera-abierto=2s",
+                    "microservice.productos.especulativa.habilitada=" + resiliencia)) {
+                ProductosSustituto productos = escenario.productosSustituto();
+                ResilienciaProductos protecciones = escenario.bean(ResilienciaProductos.class);
+                fase("sana", escenario, hilos, duracion, 0, protecciones);
+                productos.inyectarFallos(errores, lentas, latenciaLenta);
+                fase("degradada", escenario, hilos, duracion, 1, protecciones);
+                productos.restablecer();
+                fase("recuperada", escenario, hilos, duracion, 2, protecciones);
+                imprimirTransiciones(escenario.bean(MeterRegistry.class));
+            }
+        }
+    }
+
+    private static void fase(String nombre, EscenarioStock escenario, int hilos, Duration duracion, long semillaBase,
+                             ResilienciaProductos protecciones) throws Exception {
+        escenario.reiniciarContadores();
+        long peticionesAntes = escenario.peticionesProductos();
+        Medicion medicion = ejecutar(escenario, hilos, duracion, semillaBase);
+        long total = escenario.correctos() + escenario.rechazados() + escenario.conflictos();
+        System.out.printf("%-11s %9.0f %9.1f %9.1f %9.2f %10d   %s%n", nombre, total / medicion.segundos(),
+                medicion.percentil(50), medicion.percentil(99), EscenarioStock.porcentaje(escenario.conflictos(), total),
+                escenario.peticionesProductos() - peticionesAntes, protecciones.estadoCircuito());
+    }
+
+    private static void imprimirTransiciones(MeterRegistry meterRegistry) {
+        List<String> transiciones = new ArrayList<>();
+        for (Counter contador : meterRegistry.find("inventario.productos.circuito.transiciones").counters()) {
+            transiciones.add(contador.getId().getTag("desde") + " -> " + contador.getId().getTag("hacia")
+                    + ": " + (long) contador.count());
+        }
+        System.out.println("Transiciones del circuito: " + (transiciones.isEmpty() ? "ninguna" : String.join(", ", transiciones)));
+    }
+
+    /**
+     * Lanza {@code hilos} hilos en bucle cerrado durante {@code duracion} y mide la latencia de todos los movimientos.
+     */
+    private static Medicion ejecutar(EscenarioStock escenario, int hilos, Duration duracion, long semillaBase) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                SplittableRandom aleatorio = new SplittableRandom(42L + semillaBase * 1000 + i);
+                resultados.add(executor.submit(() -> {
+                    salida.await();
+                    long fin = System.nanoTime() + duracion.toNanos();
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    long inicio;
+                    while ((inicio = System.nanoTime()) < fin) {
+                        escenario.registrarMovimiento(aleatorio);
+                        if (n == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, n * 2);
+                        }
+                        latencias[n++] = System.nanoTime() - inicio;
+                    }
+                    return Arrays.copyOf(latencias, n);
+                }));
+            }
+            long comienzo = System.nanoTime();
+            salida.countDown();
+            List<long[]> partes = new ArrayList<>();
+            for (Future<long[]> resultado : resultados) {
+                partes.add(resultado.get());
+            }
+            long[] todas = partes.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            return new Medicion(todas, (System.nanoTime() - comienzo) / 1_000_000_000.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Latencias ordenadas (en nanosegundos) de los movimientos de una fase.
+     */
+    private record Medicion(long[] latenciasOrdenadas, double segundos) {
+
+        double percentil(double percentil) {
+            if (latenciasOrdenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(percentil / 100.0 * latenciasOrdenadas.length) - 1;
+            return latenciasOrdenadas[Math.max(0, indice)] / 1_000_000.0;
+        }
+    }
+}
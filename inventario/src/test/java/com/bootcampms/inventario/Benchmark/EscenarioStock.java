@@ -0,0 +1,257 @@
+package com.bootcampms.inventario.Benchmark;
+
+import com.bootcampms.inventario.Exception.StockInsuficienteException;
+import com.bootcampms.inventario.Generador.DistribucionZipf;
+import com.bootcampms.inventario.InventarioApplication;
+import com.bootcampms.inventario.Model.MovimientoInventario;
+import com.bootcampms.inventario.Model.TipoMovimiento;
+import com.bootcampms.inventario.Service.InventarioService;
+import com.bootcampms.inventario.Service.ProductoWebClientService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escenario común de las pruebas de contención sobre el stock: arranca inventario en proceso (sin servidor web)
+ * contra un sustituto local de productos, siembra el stock inicial y lanza movimientos mezclados sobre
+ * {@code productos} productos elegidos con sesgo de Zipf ({@code sesgo} = 0 para un reparto uniforme).
+ * <p>
+ * Cada movimiento pasa por {@link InventarioService#registrarMovimiento}, con la validación HTTP del producto incluida
+ * (salvo que se habilite la caché de existencia de productos).
+ * El resultado se clasifica en correcto, rechazado (stock insuficiente, el rechazo esperado de una salida) o
+ * conflicto (cualquier otro error, p. ej. un tiempo de espera de bloqueo de H2).
+ * </p>
+ */
+final class EscenarioStock implements AutoCloseable {
+
+    /** Mezcla por defecto de movimientos: porcentajes de salidas y de recuentos; el resto son entradas. */
+    static final int PORCENTAJE_SALIDAS = 55;
+    static final int PORCENTAJE_RECUENTOS = 5;
+    static final int STOCK_INICIAL = 100;
+
+    enum Resultado { CORRECTO, RECHAZADO, CONFLICTO }
+
+    private final ProductosSustituto productosSustituto;
+    private final ConfigurableApplicationContext contexto;
+    private final InventarioService inventarioService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int productos;
+    private final DistribucionZipf popularidad;
+    private final int porcentajeSalidas;
+    private final int porcentajeRecuentos;
+    private final LongAdder correctos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+    private final LongAdder conflictos = new LongAdder();
+
+    private EscenarioStock(ProductosSustituto productosSustituto, ConfigurableApplicationContext contexto, int productos,
+                           double sesgo, int porcentajeSalidas, int porcentajeRecuentos) {
+        this.productosSustituto = productosSustituto;
+        this.contexto = contexto;
+        this.inventarioService = contexto.getBean(InventarioService.class);
+        this.jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        this.productos = productos;
+        this.popularidad = sesgo > 0 ? new DistribucionZipf(productos, sesgo) : null;
+        this.porcentajeSalidas = porcentajeSalidas;
+        this.porcentajeRecuentos = porcentajeRecuentos;
+    }
+
+    /**
+     * Arranca el escenario con la base de datos vacía y {@link #STOCK_INICIAL} unidades de cada producto.
+     * @param baseDatos Nombre de la base H2 en memoria (una por escenario).
+     * @param productos Número de productos distintos.
+     * @param sesgo Exponente de Zipf de la popularidad de los productos; 0 para un reparto uniforme.
+     * @param hilos Número máximo de hilos que lanzarán movimientos (dimensiona el pool de conexiones).
+     * @param porcentajeSalidas Porcentaje de salidas ({@code SALIDA_VENTA}).
+     * @param porcentajeRecuentos Porcentaje de recuentos ({@code RECUENTO_INVENTARIO}); el resto son {@code ENTRADA_COMPRA}.
+     * @return El escenario listo.
+     * @throws IOException si no se puede arrancar el sustituto de productos.
+     */
+    static EscenarioStock iniciar(String baseDatos, int productos, double sesgo, int hilos,
+                                  int porcentajeSalidas, int porcentajeRecuentos) throws IOException {
+        return iniciar(baseDatos, productos, sesgo, hilos, porcentajeSalidas, porcentajeRecuentos, Duration.ZERO, false, false);
+    }
+
+    /**
+     * Arranca el escenario como {@link #iniciar(String, int, double, int, int, int)}, con un sustituto de productos
+     * lento y, opcionalmente, la caché de existencia de productos (precargada con los {@code productos} del escenario)
+     * y la agrupación de consultas a productos (llamadas compartidas y consultas en lote).
+     * @param latenciaProductos Latencia de cada validación en el sustituto de productos.
+     * @param cacheProductos Si se habilita la caché de existencia de productos de inventario.
+     * @param agruparConsultas Si se comparten y agrupan en lotes las consultas a productos.
+     * @param propiedades Propiedades adicionales de inventario ({@code clave=valor}), que prevalecen sobre las del escenario.
+     * @return El escenario listo.
+     * @throws IOException si no se puede arrancar el sustituto de productos.
+     */
+    static EscenarioStock iniciar(String baseDatos, int productos, double sesgo, int hilos,
+                                  int porcentajeSalidas, int porcentajeRecuentos,
+                                  Duration latenciaProductos, boolean cacheProductos,
+                                  boolean agruparConsultas, String... propiedades) throws IOException {
+        ProductosSustituto productosSustituto = ProductosSustituto.iniciar(latenciaProductos, productos);
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(InventarioApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.profiles.active=benchmark",
+                        "microservice.productos.url=" + productosSustituto.url(),
+                        "inventario.cache-productos.habilitada=" + cacheProductos,
+                        // La precarga al arrancar va en segundo plano: el escenario la ejecuta y la espera antes de medir
+                        "inventario.cache-productos.precarga=false",
+                        "microservice.productos.compartir-consultas=" + agruparConsultas,
+                        "microservice.productos.lote.tamanio-maximo=" + (agruparConsultas ? 100 : 1),
+                        "spring.datasource.url=jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1",
+                        // Cada hilo usa como mucho una conexión a la vez: el pool no debe ser el límite
+                        "spring.datasource.hikari.maximum-pool-size=" + (hilos + 10),
+                        "microservice.productos.conexiones-maximas=" + (hilos + 10),
+                        "microservice.productos.llamadas-simultaneas=" + (hilos + 10),
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.bootcampms.inventario=ERROR",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .properties(propiedades)
+                .run();
+        contexto.getBean(ProductoWebClientService.class).precargarCache(Duration.ofMinutes(1)).block();
+        EscenarioStock escenario = new EscenarioStock(productosSustituto, contexto, productos, sesgo,
+                porcentajeSalidas, porcentajeRecuentos);
+        escenario.sembrar();
+        return escenario;
+    }
+
+    /**
+     * Siembra el stock inicial como un recuento por producto, para que también quede en el libro.
+     */
+    private void sembrar() {
+        Timestamp ahora = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO movimientos_inventario (producto_id, cantidad, tipo_movimiento, fecha_hora, notas) " +
+                "VALUES (?, ?, 'RECUENTO_INVENTARIO', ?, 'Stock inicial')", lote((ps, id) -> {
+            ps.setLong(1, id);
+            ps.setInt(2, STOCK_INICIAL);
+            ps.setTimestamp(3, ahora);
+        }));
+        jdbcTemplate.batchUpdate("INSERT INTO stock_producto (producto_id, cantidad) VALUES (?, ?)", lote((ps, id) -> {
+            ps.setLong(1, id);
+            ps.setInt(2, STOCK_INICIAL);
+        }));
+    }
+
+    private interface Fila {
+        void rellenar(PreparedStatement ps, long productoId) throws SQLException;
+    }
+
+    private BatchPreparedStatementSetter lote(Fila fila) {
+        return new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                fila.rellenar(ps, i + 1);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return productos;
+            }
+        };
+    }
+
+    /**
+     * Registra un movimiento aleatorio según la mezcla y el sesgo del escenario.
+     * @param aleatorio Generador aleatorio del hilo que llama.
+     * @return La clasificación del resultado.
+     */
+    Resultado registrarMovimiento(SplittableRandom aleatorio) {
+        long productoId = popularidad != null ? popularidad.muestra(aleatorio) : 1 + aleatorio.nextInt(productos);
+        int tipo = aleatorio.nextInt(100);
+        MovimientoInventario movimiento;
+        if (tipo < porcentajeSalidas) {
+            movimiento = new MovimientoInventario(productoId, 1 + aleatorio.nextInt(3), TipoMovimiento.SALIDA_VENTA, null, null);
+        } else if (tipo < porcentajeSalidas + porcentajeRecuentos) {
+            movimiento = new MovimientoInventario(productoId, aleatorio.nextInt(STOCK_INICIAL + 1), TipoMovimiento.RECUENTO_INVENTARIO, null, null);
+        } else {
+            movimiento = new MovimientoInventario(productoId, 1 + aleatorio.nextInt(5), TipoMovimiento.ENTRADA_COMPRA, null, null);
+        }
+        try {
+            inventarioService.registrarMovimiento(movimiento);
+            correctos.increment();
+            return Resultado.CORRECTO;
+        } catch (StockInsuficienteException e) {
+            rechazados.increment();
+            return Resultado.RECHAZADO;
+        } catch (RuntimeException e) {
+            conflictos.increment();
+            return Resultado.CONFLICTO;
+        }
+    }
+
+    /**
+     * Reinicia los contadores de resultados (p. ej. al terminar el calentamiento).
+     */
+    void reiniciarContadores() {
+        correctos.reset();
+        rechazados.reset();
+        conflictos.reset();
+    }
+
+    /**
+     * @return El número de validaciones que han llegado al sustituto de productos.
+     */
+    long peticionesProductos() {
+        return productosSustituto.peticiones();
+    }
+
+    ProductosSustituto productosSustituto() {
+        return productosSustituto;
+    }
+
+    <T> T bean(Class<T> tipo) {
+        return contexto.getBean(tipo);
+    }
+
+    long correctos() {
+        return correctos.sum();
+    }
+
+    long rechazados() {
+        return rechazados.sum();
+    }
+
+    long conflictos() {
+        return conflictos.sum();
+    }
+
+    /**
+     * Resume los contadores como tasas sobre el total de movimientos intentados.
+     * @return Texto con el total y los porcentajes de rechazos y conflictos.
+     */
+    String resumenContadores() {
+        long total = correctos() + rechazados() + conflictos();
+        return String.format("%d movimientos: %.2f %% rechazados por stock, %.2f %% conflictos",
+                total, porcentaje(rechazados(), total), porcentaje(conflictos(), total));
+    }
+
+    static double porcentaje(long parte, long total) {
+        return total == 0 ? 0 : 100.0 * parte / total;
+    }
+
+    /**
+     * Verifica el stock frente al libro de movimientos.
+     * @return El informe del verificador.
+     */
+    VerificadorLibro.Informe verificarLibro() {
+        return VerificadorLibro.verificar(jdbcTemplate);
+    }
+
+    @Override
+    public void close() {
+        contexto.close();
+        productosSustituto.detener();
+    }
+}
@@ -0,0 +1,136 @@
+package com.bootcampms.inventario.Benchmark;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prueba de estrés de las escrituras de stock: para cada número de hilos arranca un escenario nuevo
+ * ({@link EscenarioStock}) y lanza movimientos mezclados en bucle cerrado durante un intervalo. Informa el throughput,
+ * los percentiles p50/p99/p999 de latencia de los movimientos correctos y las tasas de rechazo por stock y de
+ * conflictos. Después comprueba el stock frente al libro de movimientos ({@link VerificadorLibro}).
+ * <p>
+ * Termina con código 1 si algún nivel pierde actualizaciones o deja stock negativo, para poder usarla en CI.
+ * Se configura con propiedades del sistema:
+ * </p>
+ * <ul>
+ *     <li>{@code estres.hilos} (por defecto {@code 1,8,64}): niveles de concurrencia.</li>
+ *     <li>{@code estres.productos} (100) y {@code estres.sesgo} (1.2, 0 para uniforme): productos y sesgo de Zipf.</li>
+ *     <li>{@code estres.salidas} (55) y {@code estres.recuentos} (5): porcentajes de la mezcla; el resto son entradas.</li>
+ *     <li>{@code estres.calentamiento} (5) y {@code estres.duracion} (20): segundos de calentamiento y de medición por nivel.</li>
+ * </ul>
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.inventario.Benchmark.EstresStock
+ * -Dexec.classpathScope=test -Destres.productos=1 -Destres.hilos=16,128}
+ */
+public final class EstresStock {
+
+    private EstresStock() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] niveles = Arrays.stream(System.getProperty("estres.hilos", "1,8,64").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        int productos = Integer.getInteger("estres.productos", 100);
+        double sesgo = Double.parseDouble(System.getProperty("estres.sesgo", "1.2"));
+        int salidas = Integer.getInteger("estres.salidas", EscenarioStock.PORCENTAJE_SALIDAS);
+        int recuentos = Integer.getInteger("estres.recuentos", EscenarioStock.PORCENTAJE_RECUENTOS);
+        Duration calentamiento = Duration.ofSeconds(Integer.getInteger("estres.calentamiento", 5));
+        Duration duracion = Duration.ofSeconds(Integer.getInteger("estres.duracion", 20));
+
+        System.out.printf("Estrés de stock: %d productos, sesgo %s, %d %% salidas, %d %% recuentos, %d s por nivel%n",
+                productos, sesgo, salidas, recuentos, duracion.toSeconds());
+        System.out.printf("%6s %10s %9s %9s %9s %11s %11s   %s%n",
+                "Hilos", "Mov/s", "p50 µs", "p99 µs", "p999 µs", "Rechazos %", "Conflicto %", "Libro");
+        boolean correcto = true;
+        for (int hilos : niveles) {
+            try (EscenarioStock escenario = EscenarioStock.iniciar("estres_" + hilos, productos, sesgo, hilos, salidas, recuentos)) {
+                ejecutar(escenario, hilos, calentamiento, 0);
+                escenario.reiniciarContadores();
+                Medicion medicion = ejecutar(escenario, hilos, duracion, hilos);
+                VerificadorLibro.Informe informe = escenario.verificarLibro();
+                long total = escenario.correctos() + escenario.rechazados() + escenario.conflictos();
+                System.out.printf("%6d %10.0f %9d %9d %9d %11.2f %11.2f   %s%n", hilos, total / medicion.segundos(),
+                        medicion.percentil(50), medicion.percentil(99), medicion.percentil(99.9),
+                        EscenarioStock.porcentaje(escenario.rechazados(), total),
+                        EscenarioStock.porcentaje(escenario.conflictos(), total),
+                        informe.correcto() ? "OK" : informe);
+                correcto &= informe.correcto();
+            }
+        }
+        if (!correcto) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Lanza {@code hilos} hilos en bucle cerrado durante {@code duracion}.
+     * @param semillaBase Desplazamiento de las semillas, para que el calentamiento y la medición no repitan la secuencia.
+     */
+    private static Medicion ejecutar(EscenarioStock escenario, int hilos, Duration duracion, long semillaBase) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                SplittableRandom aleatorio = new SplittableRandom(42L + semillaBase * 1000 + i);
+                resultados.add(executor.submit(() -> {
+                    salida.await();
+                    long fin = System.nanoTime() + duracion.toNanos();
+                    long[] latencias = new long[1024];
+                    int n = 0;
+                    long inicio;
+                    while ((inicio = System.nanoTime()) < fin) {
+                        EscenarioStock.Resultado resultado = escenario.registrarMovimiento(aleatorio);
+                        if (resultado == EscenarioStock.Resultado.CORRECTO) {
+                            if (n == latencias.length) {
+                                latencias = Arrays.copyOf(latencias, n * 2);
+                            }
+                            latencias[n++] = System.nanoTime() - inicio;
+                        }
+                    }
+                    return Arrays.copyOf(latencias, n);
+                }));
+            }
+            long comienzo = System.nanoTime();
+            salida.countDown();
+            List<long[]> latencias = new ArrayList<>();
+            for (Future<long[]> resultado : resultados) {
+                latencias.add(resultado.get());
+            }
+            return new Medicion(unir(latencias), (System.nanoTime() - comienzo) / 1_000_000_000.0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long[] unir(List<long[]> partes) {
+        long[] todas = new long[partes.stream().mapToInt(parte -> parte.length).sum()];
+        int posicion = 0;
+        for (long[] parte : partes) {
+            System.arraycopy(parte, 0, todas, posicion, parte.length);
+            posicion += parte.length;
+        }
+        Arrays.sort(todas);
+        return todas;
+    }
+
+    /**
+     * Latencias ordenadas (en nanosegundos) de los movimientos correctos de un nivel.
+     */
+    private record Medicion(long[] latenciasOrdenadas, double segundos) {
+
+        long percentil(double percentil) {
+            if (latenciasOrdenadas.length == 0) {
+                return 0;
+            }
+            int indice = (int) Math.ceil(percentil / 100.0 * latenciasOrdenadas.length) - 1;
+            return latenciasOrdenadas[Math.max(0, indice)] / 1_000;
+        }
+    }
+}
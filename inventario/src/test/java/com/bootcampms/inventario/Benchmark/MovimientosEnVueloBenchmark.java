@@ -0,0 +1,178 @@
+package com.bootcampms.inventario.Benchmark;
+
+import com.bootcampms.inventario.InventarioApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prueba de carga que mide cuántos movimientos concurrentes en vuelo sostiene inventario cuando productos
+ * es lento, con hilos de plataforma (pool de Tomcat) y con hilos virtuales.
+ * <p>
+ * Arranca un sustituto de productos que responde a {@code GET /api/v1/productos/{id}} tras una latencia fija
+ * y cuenta las validaciones simultáneas que recibe: ese máximo es el número de movimientos en vuelo dentro de
+ * inventario. Después arranca inventario en proceso, una vez por modo, y lanza {@code POST /entradas} desde
+ * un número fijo de clientes en bucle cerrado durante un intervalo, para varios niveles de concurrencia.
+ * </p>
+ * <p>
+ * La validación del producto se hace antes de abrir la transacción y no retiene conexión JDBC. Aun así, el pool se
+ * dimensiona por encima de la concurrencia máxima para que el único límite medido sea el modelo de hilos.
+ * </p>
+ * Ejecutar con {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.inventario.Benchmark.MovimientosEnVueloBenchmark
+ * -Dexec.classpathScope=test} sobre Java 21 (con Java 17 solo se mide el modo de plataforma).
+ * Admite como argumento {@code plataforma} o {@code virtuales} para medir un único modo.
+ */
+public final class MovimientosEnVueloBenchmark {
+
+    private static final Duration LATENCIA_PRODUCTOS = Duration.ofMillis(200);
+    private static final Duration DURACION_NIVEL = Duration.ofSeconds(15);
+    private static final int[] CONCURRENCIAS = {100, 400, 1600};
+    private static final int PRODUCTOS_DISTINTOS = 100;
+
+    private MovimientosEnVueloBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Boolean> modos = new ArrayList<>();
+        if (args.length == 0 || args[0].equals("plataforma")) {
+            modos.add(false);
+        }
+        if (args.length == 0 || args[0].equals("virtuales")) {
+            if (Runtime.version().feature() >= 21) {
+                modos.add(true);
+            } else {
+                System.out.println("Java " + Runtime.version().feature() + ": el modo de hilos virtuales requiere Java 21, se omite.");
+            }
+        }
+
+        ProductosSustituto productos = ProductosSustituto.iniciar(LATENCIA_PRODUCTOS);
+        HttpClient cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        try {
+            System.out.printf("%-11s %12s %10s %10s %10s %16s %8s%n",
+                    "Modo", "Concurrencia", "Mov/s", "p50 ms", "p99 ms", "En vuelo (máx)", "Errores");
+            for (boolean virtuales : modos) {
+                try (ConfigurableApplicationContext inventario = arrancarInventario(productos.url(), virtuales)) {
+                    int puerto = inventario.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                    URI entradas = URI.create("http://localhost:" + puerto + "/api/v1/inventario/entradas");
+                    for (int concurrencia : CONCURRENCIAS) {
+                        productos.reiniciarMaximo();
+                        Resultado resultado = medir(cliente, entradas, concurrencia);
+                        System.out.printf("%-11s %12d %10.0f %10d %10d %16d %8d%n",
+                                virtuales ? "virtuales" : "plataforma", concurrencia, resultado.porSegundo(),
+                                resultado.percentil(50), resultado.percentil(99), productos.maximoEnVuelo(), resultado.errores());
+                    }
+                }
+            }
+        } finally {
+            productos.detener();
+        }
+    }
+
+    private static ConfigurableApplicationContext arrancarInventario(String urlProductos, boolean virtuales) {
+        String modo = virtuales ? "virtuales" : "plataforma";
+        return new SpringApplicationBuilder(InventarioApplication.class)
+                .properties(
+                        "spring.profiles.active=benchmark",
+                        "server.port=0",
+                        "microservice.productos.url=" + urlProductos,
+                        // Se mide la validación HTTP de cada movimiento: sin caché de existencia de productos
+                        "inventario.cache-productos.habilitada=false",
+                        "microservice.productos.compartir-consultas=false",
+                        "microservice.productos.lote.tamanio-maximo=1",
+                        // Una conexión a productos por movimiento en vuelo: el pool de WebClient no debe ser el límite
+                        "microservice.productos.conexiones-maximas=" + (CONCURRENCIAS[CONCURRENCIAS.length - 1] + 50),
+                        "microservice.productos.llamadas-simultaneas=" + (CONCURRENCIAS[CONCURRENCIAS.length - 1] + 50),
+                        "spring.threads.virtual.enabled=" + virtuales,
+                        "spring.datasource.url=jdbc:h2:mem:benchmark_" + modo + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + (CONCURRENCIAS[CONCURRENCIAS.length - 1] + 50),
+                        "spring.datasource.hikari.minimum-idle=10",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.bootcampms.inventario=WARN",
+                        "logging.level.org.hibernate.SQL=WARN",
+                        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+                .run();
+    }
+
+    /**
+     * Lanza {@code concurrencia} clientes en bucle cerrado (cada uno envía el siguiente movimiento al recibir
+     * la respuesta del anterior) durante {@link #DURACION_NIVEL}.
+     */
+    private static Resultado medir(HttpClient cliente, URI entradas, int concurrencia) {
+        long fin = System.nanoTime() + DURACION_NIVEL.toNanos();
+        Resultado resultado = new Resultado();
+        List<CompletableFuture<Void>> clientes = new ArrayList<>();
+        for (int i = 0; i < concurrencia; i++) {
+            String cuerpo = "{\"productoId\": " + (i % PRODUCTOS_DISTINTOS + 1)
+                    + ", \"cantidad\": 1, \"tipoMovimiento\": \"ENTRADA_COMPRA\", \"notas\": \"benchmark\"}";
+            HttpRequest peticion = HttpRequest.newBuilder(entradas)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                    .build();
+            clientes.add(enBucle(cliente, peticion, fin, resultado));
+        }
+        long inicio = System.nanoTime();
+        CompletableFuture.allOf(clientes.toArray(CompletableFuture[]::new)).join();
+        resultado.segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        return resultado;
+    }
+
+    private static CompletableFuture<Void> enBucle(HttpClient cliente, HttpRequest peticion, long fin, Resultado resultado) {
+        if (System.nanoTime() >= fin) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long inicio = System.nanoTime();
+        return cliente.sendAsync(peticion, HttpResponse.BodyHandlers.discarding())
+                .handle((respuesta, error) -> {
+                    resultado.registrar(System.nanoTime() - inicio, error == null && respuesta.statusCode() == 201);
+                    return null;
+                })
+                .thenCompose(ignorado -> enBucle(cliente, peticion, fin, resultado));
+    }
+
+    /**
+     * Latencias y errores de un nivel de concurrencia.
+     */
+    private static final class Resultado {
+        private final List<Long> latenciasNanos = Collections.synchronizedList(new ArrayList<>());
+        private final LongAdder errores = new LongAdder();
+        private double segundos;
+
+        void registrar(long nanos, boolean correcto) {
+            if (correcto) {
+                latenciasNanos.add(nanos);
+            } else {
+                errores.increment();
+            }
+        }
+
+        double porSegundo() {
+            return latenciasNanos.size() / segundos;
+        }
+
+        long percentil(int percentil) {
+            List<Long> ordenadas = new ArrayList<>(latenciasNanos);
+            if (ordenadas.isEmpty()) {
+                return 0;
+            }
+            Collections.sort(ordenadas);
+            int indice = (int) Math.ceil(percentil / 100.0 * ordenadas.size()) - 1;
+            return ordenadas.get(Math.max(0, indice)) / 1_000_000;
+        }
+
+        long errores() {
+            return errores.sum();
+        }
+    }
+}
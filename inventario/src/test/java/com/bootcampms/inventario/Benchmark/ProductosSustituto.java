@@ -0,0 +1,171 @@
+package com.bootcampms.inventario.Benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Sustituto local de productos para los benchmarks: responde 200 a {@code GET /api/v1/productos/{id}} tras una
+ * latencia fija y registra el total de peticiones y el máximo de peticiones simultáneas.
+ * También responde a la consulta en lote {@code GET /api/v1/productos/batch?ids=1,2,3} (con la misma latencia y
+ * contada como una petición), dando todos los IDs por encontrados.
+ * <p>
+ * Para probar la resiliencia de inventario se le pueden inyectar fallos en caliente
+ * ({@link #inyectarFallos(int, int, Duration)}): un porcentaje de respuestas 503 y un porcentaje de respuestas
+ * que tardan una latencia adicional. {@link #restablecer()} vuelve al comportamiento sano.
+ * </p>
+ * Si se indica un catálogo, {@code GET /api/v1/productos/export/ids} lista en NDJSON los IDs de 1 a ese
+ * número (para la precarga de la caché de inventario); esa petición no se cuenta.
+ */
+final class ProductosSustituto {
+
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicInteger maximo = new AtomicInteger();
+    private final LongAdder peticiones = new LongAdder();
+    private volatile int porcentajeErrores;
+    private volatile int porcentajeLentas;
+    private volatile Duration latenciaLenta = Duration.ZERO;
+
+    private ProductosSustituto(HttpServer servidor, ExecutorService executor) {
+        this.servidor = servidor;
+        this.executor = executor;
+    }
+
+    /**
+     * Arranca el sustituto en un puerto libre.
+     * @param latencia Tiempo que tarda cada respuesta ({@link Duration#ZERO} para responder en cuanto llega la petición).
+     * @return El sustituto arrancado.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    static ProductosSustituto iniciar(Duration latencia) throws IOException {
+        return iniciar(latencia, 0);
+    }
+
+    /**
+     * Arranca el sustituto en un puerto libre, con un listado de productos para la precarga.
+     * @param latencia Tiempo que tarda cada respuesta ({@link Duration#ZERO} para responder en cuanto llega la petición).
+     * @param catalogo Número de productos del listado de {@code /export/ids} (IDs de 1 a {@code catalogo}).
+     * @return El sustituto arrancado.
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    static ProductosSustituto iniciar(Duration latencia, int catalogo) throws IOException {
+        // Sin esto, el HttpServer del JDK suma ~40 ms a cada respuesta (Nagle + ACK retardado) a la latencia fijada
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer servidor = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ProductosSustituto productos = new ProductosSustituto(servidor, executor);
+        servidor.createContext("/api/v1/productos", intercambio -> {
+            productos.peticiones.increment();
+            int actuales = productos.enVuelo.incrementAndGet();
+            productos.maximo.accumulateAndGet(actuales, Math::max);
+            try {
+                if (!latencia.isZero()) {
+                    Thread.sleep(latencia.toMillis());
+                }
+                if (productos.porcentajeLentas > 0 && ThreadLocalRandom.current().nextInt(100) < productos.porcentajeLentas) {
+                    Thread.sleep(productos.latenciaLenta.toMillis());
+                }
+                if (productos.porcentajeErrores > 0 && ThreadLocalRandom.current().nextInt(100) < productos.porcentajeErrores) {
+                    intercambio.sendResponseHeaders(503, -1);
+                    return;
+                }
+                byte[] cuerpo = intercambio.getRequestURI().getPath().endsWith("/batch")
+                        ? resultadoLote(intercambio.getRequestURI().getQuery()).getBytes(StandardCharsets.UTF_8)
+                        : "{}".getBytes(StandardCharsets.UTF_8);
+                intercambio.getResponseHeaders().add("Content-Type", "application/json");
+                intercambio.sendResponseHeaders(200, cuerpo.length);
+                try (OutputStream salida = intercambio.getResponseBody()) {
+                    salida.write(cuerpo);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                productos.enVuelo.decrementAndGet();
+                intercambio.close();
+            }
+        });
+        servidor.createContext("/api/v1/productos/export/ids", intercambio -> {
+            intercambio.getResponseHeaders().add("Content-Type", "application/x-ndjson");
+            intercambio.sendResponseHeaders(200, 0);
+            try (OutputStream salida = new BufferedOutputStream(intercambio.getResponseBody())) {
+                for (int id = 1; id <= catalogo; id++) {
+                    salida.write((id + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            } finally {
+                intercambio.close();
+            }
+        });
+        servidor.setExecutor(executor);
+        servidor.start();
+        return productos;
+    }
+
+    /**
+     * Cuerpo de la respuesta a {@code /batch} ({@code ResultadoLoteDTO} de productos) con todos los IDs encontrados.
+     */
+    private static String resultadoLote(String consulta) {
+        String ids = consulta == null ? "" : consulta.replaceFirst("^.*ids=([^&]*).*$", "$1").replace("%2C", ",");
+        String productos = Arrays.stream(ids.split(","))
+                .filter(id -> !id.isBlank())
+                .map(id -> "{\"id\":" + id + "}")
+                .collect(Collectors.joining(","));
+        return "{\"productos\":[" + productos + "],\"idsNoEncontrados\":[],\"skusNoEncontrados\":[]}";
+    }
+
+    /**
+     * @return La URL base del API de productos del sustituto ({@code microservice.productos.url}).
+     */
+    String url() {
+        return "http://localhost:" + servidor.getAddress().getPort() + "/api/v1/productos";
+    }
+
+    /**
+     * Degrada el sustituto a partir de la siguiente petición.
+     * @param porcentajeErrores Porcentaje de peticiones que responden 503.
+     * @param porcentajeLentas Porcentaje de peticiones que tardan además {@code latenciaLenta}.
+     * @param latenciaLenta Latencia adicional de las peticiones lentas.
+     */
+    void inyectarFallos(int porcentajeErrores, int porcentajeLentas, Duration latenciaLenta) {
+        this.latenciaLenta = latenciaLenta;
+        this.porcentajeLentas = porcentajeLentas;
+        this.porcentajeErrores = porcentajeErrores;
+    }
+
+    /**
+     * Quita los fallos inyectados.
+     */
+    void restablecer() {
+        inyectarFallos(0, 0, Duration.ZERO);
+    }
+
+    void reiniciarMaximo() {
+        maximo.set(0);
+    }
+
+    int maximoEnVuelo() {
+        return maximo.get();
+    }
+
+    long peticiones() {
+        return peticiones.sum();
+    }
+
+    void detener() {
+        servidor.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,104 @@
+package com.bootcampms.inventario.Benchmark;
+
+import com.bootcampms.inventario.Model.TipoMovimiento;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Comprueba, al terminar una prueba de carga, que el stock de cada producto es el que resulta de su libro de
+ * movimientos, para detectar actualizaciones perdidas.
+ * <p>
+ * Reproduce los movimientos de cada producto en orden de ID: un recuento fija la cantidad, las entradas suman
+ * y las salidas restan. El orden de ID es el orden real de aplicación, porque cada movimiento se inserta en la
+ * misma transacción que modifica el stock y mientras retiene el bloqueo de su fila. Las salidas rechazadas por
+ * stock insuficiente no dejan movimiento ni cambian el stock.
+ * </p>
+ */
+final class VerificadorLibro {
+
+    /** Número máximo de descuadres que se detallan en el informe. */
+    private static final int DETALLE_MAXIMO = 10;
+
+    private VerificadorLibro() {
+    }
+
+    /**
+     * Resultado de la verificación.
+     * @param productos Productos con stock o con movimientos.
+     * @param movimientos Movimientos del libro.
+     * @param descuadres Productos cuyo stock no coincide con su libro (actualizaciones perdidas o duplicadas).
+     * @param unidadesDescuadradas Suma de las diferencias absolutas entre stock y libro.
+     * @param negativos Productos con stock negativo.
+     * @param detalle Los primeros descuadres, como {@code producto: stock != libro}.
+     */
+    record Informe(int productos, long movimientos, int descuadres, long unidadesDescuadradas, int negativos,
+                   List<String> detalle) {
+
+        boolean correcto() {
+            return descuadres == 0 && negativos == 0;
+        }
+
+        @Override
+        public String toString() {
+            if (correcto()) {
+                return String.format("Libro correcto: %d productos, %d movimientos, sin actualizaciones perdidas ni stock negativo.",
+                        productos, movimientos);
+            }
+            return String.format("LIBRO DESCUADRADO: %d de %d productos no coinciden con su libro (%d unidades), %d con stock negativo. %s",
+                    descuadres, productos, unidadesDescuadradas, negativos, detalle);
+        }
+    }
+
+    /**
+     * Verifica el stock de todos los productos frente a su libro de movimientos.
+     * @param jdbcTemplate Acceso a la base de datos de inventario.
+     * @return El informe de la verificación.
+     */
+    static Informe verificar(JdbcTemplate jdbcTemplate) {
+        Map<Long, Long> esperado = new HashMap<>();
+        long[] movimientos = {0};
+        jdbcTemplate.query("SELECT producto_id, cantidad, tipo_movimiento FROM movimientos_inventario ORDER BY producto_id, id",
+                fila -> {
+                    movimientos[0]++;
+                    long productoId = fila.getLong(1);
+                    int cantidad = fila.getInt(2);
+                    switch (TipoMovimiento.valueOf(fila.getString(3))) {
+                        case RECUENTO_INVENTARIO -> esperado.put(productoId, (long) cantidad);
+                        case SALIDA_VENTA, SALIDA_AJUSTE -> esperado.merge(productoId, (long) -cantidad, Long::sum);
+                        default -> esperado.merge(productoId, (long) cantidad, Long::sum);
+                    }
+                });
+
+        Map<Long, Long> stock = new HashMap<>();
+        jdbcTemplate.query("SELECT producto_id, cantidad FROM stock_producto",
+                fila -> {
+                    stock.put(fila.getLong(1), fila.getLong(2));
+                });
+
+        int descuadres = 0;
+        long unidades = 0;
+        int negativos = 0;
+        List<String> detalle = new ArrayList<>();
+        Map<Long, Long> todos = new HashMap<>(esperado);
+        stock.keySet().forEach(productoId -> todos.putIfAbsent(productoId, 0L));
+        for (Long productoId : todos.keySet()) {
+            long libro = esperado.getOrDefault(productoId, 0L);
+            long actual = stock.getOrDefault(productoId, 0L);
+            if (actual < 0) {
+                negativos++;
+            }
+            if (actual != libro) {
+                descuadres++;
+                unidades += Math.abs(actual - libro);
+                if (detalle.size() < DETALLE_MAXIMO) {
+                    detalle.add(productoId + ": " + actual + " != " + libro);
+                }
+            }
+        }
+        return new Informe(todos.size(), movimientos[0], descuadres, unidades, negativos, detalle);
+    }
+}
@@ -1,7 +1,9 @@
 // D:/SpringProyects/BootCampMS2025/inventario/src/test/java/com/bootcampms/inventario/Controller/InventarioControllerTest.java
 package com.bootcampms.inventario.Controller;
 
+import com.bootcampms.inventario.DTO.LoteMovimientosDTO;
 import com.bootcampms.inventario.DTO.MovimientoInventarioDTO;
+import com.bootcampms.inventario.Exception.ProductosNoDisponibleException;
 import com.bootcampms.inventario.Exception.TipoMovimientoIncorrectoException;
 import com.bootcampms.inventario.Model.MovimientoInventario;
 import com.bootcampms.inventario.Model.StockProducto;
@@ -212,6 +214,26 @@ public class InventarioControllerTest {
                 movimientoDTO.getNotas());
     }
 
+    @Test
+    void registrarEntrada_conProductosNoDisponible_retornaServiceUnavailable() throws Exception {
+        String mensajeEsperado = "El servicio de productos no está disponible en este momento; no se pudo validar el producto con ID 1.";
+
+        when(inventarioService.registrarEntrada(
+                eq(movimientoDTO.getProductoId()),
+                eq(movimientoDTO.getCantidad()),
+                eq(movimientoDTO.getTipoMovimiento()),
+                eq(movimientoDTO.getNotas())))
+                .thenThrow(new ProductosNoDisponibleException(mensajeEsperado, new RuntimeException("circuito abierto")));
+
+        mockMvc.perform(post("/api/v1/inventario/entradas")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(movimientoDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.status").value(HttpStatus.SERVICE_UNAVAILABLE.value()))
+                .andExpect(jsonPath("$.mensaje").value(mensajeEsperado));
+    }
+
     @Test
     void registrarSalida_conDtoValido_retornaMovimientoCreadoYHttpStatusCreated() throws Exception {
         movimientoDTO.setTipoMovimiento(TipoMovimiento.SALIDA_VENTA);
@@ -309,4 +331,34 @@ public class InventarioControllerTest {
                 movimientoDTO.getCantidad(),
                 movimientoDTO.getNotas());
     }
-}
\ No newline at end of file
+
+    @Test
+    void registrarMovimientos_conLoteValido_retornaMovimientosCreadosYHttpStatusCreated() throws Exception {
+        MovimientoInventarioDTO salidaDTO = new MovimientoInventarioDTO(2L, 3, TipoMovimiento.SALIDA_VENTA, "Línea 2");
+        LoteMovimientosDTO loteDTO = new LoteMovimientosDTO(List.of(movimientoDTO, salidaDTO));
+        MovimientoInventario salida = new MovimientoInventario(2L, 2L, 3, TipoMovimiento.SALIDA_VENTA, LocalDateTime.now(), "Línea 2");
+        when(inventarioService.registrarMovimientos(anyList())).thenReturn(List.of(movimiento1, salida));
+
+        mockMvc.perform(post("/api/v1/inventario/movimientos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loteDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].tipoMovimiento").value(TipoMovimiento.SALIDA_VENTA.toString()));
+
+        ArgumentCaptor<List<MovimientoInventario>> movimientosCaptor = ArgumentCaptor.forClass(List.class);
+        verify(inventarioService).registrarMovimientos(movimientosCaptor.capture());
+        assertThat(movimientosCaptor.getValue()).extracting(MovimientoInventario::getProductoId).containsExactly(1L, 2L);
+        assertThat(movimientosCaptor.getValue()).allSatisfy(movimiento -> assertThat(movimiento.getFechaHora()).isNotNull());
+    }
+
+    @Test
+    void registrarMovimientos_conLoteVacio_retornaBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/inventario/movimientos/lote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoteMovimientosDTO(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verify(inventarioService, never()).registrarMovimientos(anyList());
+    }
+}
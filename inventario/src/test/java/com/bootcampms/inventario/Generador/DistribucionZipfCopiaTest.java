@@ -0,0 +1,28 @@
+package com.bootcampms.inventario.Generador;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que la copia de {@link DistribucionZipf} de inventario es idéntica, salvo el paquete, a la de productos,
+ * cuyas pruebas ({@code DistribucionZipfTest}) cubren el muestreo de las dos.
+ */
+class DistribucionZipfCopiaTest {
+
+    private static final Path INVENTARIO = Path.of("src/main/java/com/bootcampms/inventario/Generador/DistribucionZipf.java");
+    private static final Path PRODUCTOS = Path.of("../productos/src/main/java/com/bootcampms/productos/Generador/DistribucionZipf.java");
+
+    @Test
+    void distribucionZipf_esIdenticaALaDeProductosSalvoElPaquete() throws IOException {
+        assertThat(sinPaquete(INVENTARIO)).isEqualTo(sinPaquete(PRODUCTOS));
+    }
+
+    private static String sinPaquete(Path fuente) throws IOException {
+        return Files.readString(fuente).replaceFirst("package com\\.bootcampms\\.\\w+\\.Generador;", "");
+    }
+}
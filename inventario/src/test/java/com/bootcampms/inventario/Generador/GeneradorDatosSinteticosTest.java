@@ -0,0 +1,62 @@
+package com.bootcampms.inventario.Generador;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración del generador de datos sintéticos: arranca la aplicación con el perfil
+ * {@code datos-sinteticos} (junto a {@code dev}, como en el Readme) a escala reducida y comprueba los recuentos, que el stock de cada producto
+ * coincide con la suma de su libro de movimientos y que la popularidad está sesgada.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:sinteticos_test;DB_CLOSE_DELAY=-1",
+        "inventario.generador.productos=500",
+        "inventario.generador.movimientos=20000",
+        "inventario.generador.tamanio-lote=1000",
+        "inventario.generador.hilos=4"
+})
+@ActiveProfiles({"dev", "datos-sinteticos"})
+class GeneradorDatosSinteticosTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void generar_creaLosRecuentosConfigurados() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM movimientos_inventario", Long.class)).isEqualTo(20000L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_producto", Long.class)).isEqualTo(500L);
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(id) FROM movimientos_inventario", Long.class)).isEqualTo(20000L);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM movimientos_inventario WHERE tipo_movimiento = 'RECUENTO_INVENTARIO'", Long.class)).isZero();
+    }
+
+    @Test
+    void generar_stockCoincideConLaSumaDelLibroYNuncaEsNegativo() {
+        Long descuadres = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM stock_producto s
+                WHERE s.cantidad <> COALESCE((SELECT SUM(CASE WHEN m.tipo_movimiento LIKE 'SALIDA%'
+                                                             THEN -m.cantidad ELSE m.cantidad END)
+                                              FROM movimientos_inventario m WHERE m.producto_id = s.producto_id), 0)
+                   OR s.cantidad < 0
+                """, Long.class);
+
+        assertThat(descuadres).isZero();
+    }
+
+    @Test
+    void generar_concentraLosMovimientosEnPocosProductos() {
+        // Con Zipf de exponente 1 sobre 500 productos, los 10 más populares reúnen cerca del 43 % de los movimientos
+        Long movimientosTop10 = jdbcTemplate.queryForObject("""
+                SELECT SUM(total) FROM (SELECT COUNT(*) AS total FROM movimientos_inventario
+                                        GROUP BY producto_id ORDER BY total DESC LIMIT 10)
+                """, Long.class);
+
+        assertThat(movimientosTop10).isGreaterThan(20000L * 35 / 100);
+    }
+}
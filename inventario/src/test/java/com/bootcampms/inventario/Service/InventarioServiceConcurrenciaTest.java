@@ -0,0 +1,182 @@
+package com.bootcampms.inventario.Service;
+
+import com.bootcampms.inventario.Exception.StockInsuficienteException;
+import com.bootcampms.inventario.Model.MovimientoInventario;
+import com.bootcampms.inventario.Model.StockProducto;
+import com.bootcampms.inventario.Model.TipoMovimiento;
+import com.bootcampms.inventario.Repository.MovimientoInventarioRepository;
+import com.bootcampms.inventario.Repository.StockProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración que lanza salidas concurrentes sobre un único producto "caliente"
+ * y comprueba que no se pierden actualizaciones ni se genera stock negativo.
+ * Registra en el log el throughput obtenido con 1, 8 y 64 escritores concurrentes, junto al de la línea base
+ * de lectura-modificación-escritura que sustituyó el MERGE condicional.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        // ProductoWebClientService es un mock: no hay catálogo que precargar
+        "inventario.cache-productos.precarga=false"
+})
+class InventarioServiceConcurrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(InventarioServiceConcurrenciaTest.class);
+    private static final long PRODUCTO_CALIENTE = 5000L;
+    private static final long PRODUCTO_LINEA_BASE = 5001L;
+    /** Primer ID de los productos sin stock de la prueba de primeras entradas. */
+    private static final long PRODUCTOS_NUEVOS = 6000L;
+    private static final int MOVIMIENTOS_POR_NIVEL = 2000;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private StockProductoRepository stockRepository;
+
+    @Autowired
+    private MovimientoInventarioRepository movimientoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ProductoWebClientService productoValidationService;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 64})
+    void salidasConcurrentes_noPierdenActualizacionesNiDejanStockNegativo(int escritores) throws Exception {
+        // El stock inicial solo cubre la mitad de las salidas: la otra mitad debe rechazarse
+        int stockInicial = MOVIMIENTOS_POR_NIVEL / 2;
+        inventarioService.establecerStock(PRODUCTO_CALIENTE, stockInicial, "Inicio prueba concurrencia");
+
+        Resultado resultado = lanzarSalidas(escritores, "MERGE condicional",
+                () -> inventarioService.registrarSalida(PRODUCTO_CALIENTE, 1, TipoMovimiento.SALIDA_VENTA, "Venta concurrente"));
+
+        assertThat(resultado.errores()).isZero();
+        assertThat(resultado.exitosas()).isEqualTo(stockInicial);
+        assertThat(resultado.rechazadas()).isEqualTo(MOVIMIENTOS_POR_NIVEL - stockInicial);
+        assertThat(stockRepository.findByProductoId(PRODUCTO_CALIENTE))
+                .hasValueSatisfying(stock -> assertThat(stock.getCantidad()).isZero());
+    }
+
+    /**
+     * Línea base: las mismas salidas con el camino anterior al MERGE (leer la fila, comprobar y restar en memoria,
+     * guardarla), en la misma transacción corta. Solo se mide y se registra en el log cuántas unidades se venden
+     * de más por actualizaciones perdidas; no se exige corrección.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 64})
+    void salidasConcurrentes_lineaBaseLecturaEscritura(int escritores) throws Exception {
+        int stockInicial = MOVIMIENTOS_POR_NIVEL / 2;
+        inventarioService.establecerStock(PRODUCTO_LINEA_BASE, stockInicial, "Inicio línea base");
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+
+        Resultado resultado = lanzarSalidas(escritores, "Lectura-escritura", () -> transaccion.executeWithoutResult(estado -> {
+            StockProducto stock = stockRepository.findByProductoId(PRODUCTO_LINEA_BASE)
+                    .orElse(new StockProducto(PRODUCTO_LINEA_BASE, 0));
+            if (stock.getCantidad() < 1) {
+                throw new StockInsuficienteException("Stock insuficiente para el producto ID " + PRODUCTO_LINEA_BASE);
+            }
+            stock.setCantidad(stock.getCantidad() - 1);
+            stockRepository.save(stock);
+            movimientoRepository.save(new MovimientoInventario(PRODUCTO_LINEA_BASE, 1, TipoMovimiento.SALIDA_VENTA,
+                    LocalDateTime.now(), "Venta concurrente (línea base)"));
+        }));
+
+        int stockFinal = stockRepository.findByProductoId(PRODUCTO_LINEA_BASE).map(StockProducto::getCantidad).orElse(0);
+        log.info("Escritores: {} | Lectura-escritura | Unidades vendidas de más por actualizaciones perdidas: {}",
+                escritores, resultado.exitosas() - (stockInicial - stockFinal));
+        assertThat(resultado.exitosas() + resultado.rechazadas() + resultado.errores()).isEqualTo(MOVIMIENTOS_POR_NIVEL);
+    }
+
+    /**
+     * Varias primeras entradas simultáneas de un producto sin registro de stock toman todas la rama de alta del MERGE;
+     * las que pierden la carrera deben reintentarse y sumarse, no terminar en un error de clave duplicada.
+     */
+    @Test
+    void primerasEntradasConcurrentes_deUnProductoNuevo_seSumanTodasSinErrores() throws Exception {
+        int escritores = 16;
+        int productos = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(escritores);
+        try {
+            for (long productoId = PRODUCTOS_NUEVOS; productoId < PRODUCTOS_NUEVOS + productos; productoId++) {
+                long id = productoId;
+                CountDownLatch salida = new CountDownLatch(1);
+                List<Future<?>> futuros = new ArrayList<>();
+                for (int i = 0; i < escritores; i++) {
+                    futuros.add(executor.submit(() -> {
+                        salida.await();
+                        return inventarioService.registrarEntrada(id, 1, TipoMovimiento.ENTRADA_COMPRA, "Primera entrada concurrente");
+                    }));
+                }
+                salida.countDown();
+                for (Future<?> futuro : futuros) {
+                    futuro.get(); // Propaga cualquier error de la entrada
+                }
+                assertThat(stockRepository.findByProductoId(id))
+                        .hasValueSatisfying(stock -> assertThat(stock.getCantidad()).isEqualTo(escritores));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Lanza {@link #MOVIMIENTOS_POR_NIVEL} salidas con {@code escritores} hilos y registra el throughput en el log.
+     */
+    private Resultado lanzarSalidas(int escritores, String camino, Runnable salida) throws Exception {
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(escritores);
+        try {
+            long inicio = System.nanoTime();
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < MOVIMIENTOS_POR_NIVEL; i++) {
+                futuros.add(executor.submit(() -> {
+                    try {
+                        salida.run();
+                        exitosas.incrementAndGet();
+                    } catch (StockInsuficienteException e) {
+                        rechazadas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        errores.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+            log.info("Escritores: {} | {} | Movimientos: {} | Throughput: {} mov/s | Errores: {}",
+                    escritores, camino, MOVIMIENTOS_POR_NIVEL, String.format("%.0f", MOVIMIENTOS_POR_NIVEL / segundos), errores.get());
+        } finally {
+            executor.shutdown();
+        }
+        return new Resultado(exitosas.get(), rechazadas.get(), errores.get());
+    }
+
+    private record Resultado(int exitosas, int rechazadas, int errores) {
+    }
+}
@@ -2,6 +2,7 @@
 package com.bootcampms.inventario.Service;
 
 import com.bootcampms.inventario.Exception.ProductoNoEncontradoException;
+import com.bootcampms.inventario.Exception.ProductosNoDisponibleException;
 import com.bootcampms.inventario.Exception.StockInsuficienteException;
 import com.bootcampms.inventario.Exception.TipoMovimientoIncorrectoException;
 import com.bootcampms.inventario.Model.MovimientoInventario;
@@ -13,11 +14,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
 // Ya no se necesitan reactor.core.publisher.Flux, Mono, ni reactor.test.StepVerifier
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.List; // Para colecciones
 import java.util.Optional; // Para resultados opcionales
@@ -39,6 +44,9 @@ class InventarioServiceImplTest {
     @Mock
     private ProductoWebClientService productoValidationService;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private InventarioServiceImpl inventarioService;
 
@@ -120,7 +128,36 @@ class InventarioServiceImplTest {
         });
 
         verify(productoValidationService).validarProductoExisteBloqueante(productoIdInvalido);
-        verifyNoInteractions(stockRepository, movimientoRepository);
+        verifyNoInteractions(stockRepository, movimientoRepository, transactionManager);
+    }
+
+    @Test
+    void registrarMovimiento_cuandoProductosNoEstaDisponible_propagaLaExcepcionSinEnvolverla() {
+        MovimientoInventario movimiento = new MovimientoInventario(null, productoIdExistente, 10, TipoMovimiento.ENTRADA_COMPRA, LocalDateTime.now(), "Test");
+        // Circuito abierto: la validación se rechaza sin llamar a productos
+        when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente))
+                .thenThrow(new ProductosNoDisponibleException("Productos no disponible", new RuntimeException("circuito abierto")));
+
+        assertThrows(ProductosNoDisponibleException.class, () -> inventarioService.registrarMovimiento(movimiento));
+
+        verifyNoInteractions(stockRepository, movimientoRepository, transactionManager);
+    }
+
+    @Test
+    void registrarMovimiento_validaElProductoAntesDeAbrirLaTransaccion() {
+        when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, 10)).thenReturn(1);
+        when(movimientoRepository.save(movimientoEntradaEjemplo)).thenReturn(movimientoEntradaEjemplo);
+
+        inventarioService.registrarMovimiento(movimientoEntradaEjemplo);
+
+        // La validación remota no retiene conexión: la transacción empieza después y solo cubre las escrituras
+        InOrder orden = inOrder(productoValidationService, transactionManager, stockRepository, movimientoRepository);
+        orden.verify(productoValidationService).validarProductoExisteBloqueante(productoIdExistente);
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(stockRepository).aplicarMovimientoStock(productoIdExistente, 10);
+        orden.verify(movimientoRepository).save(movimientoEntradaEjemplo);
+        orden.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -140,12 +177,8 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(100L, productoIdNuevo, cantidadEntrada, TipoMovimiento.ENTRADA_COMPRA, movimiento.getFechaHora(), "Nueva compra");
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdNuevo)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdNuevo)).thenReturn(Optional.empty());
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(invocation -> {
-            StockProducto sp = invocation.getArgument(0);
-            // En un escenario real, el ID no se asignaría aquí, pero para simular el guardado:
-            return new StockProducto(sp.getProductoId(), sp.getCantidad());
-        });
+        // La sentencia MERGE crea el registro de stock si no existe
+        when(stockRepository.aplicarMovimientoStock(productoIdNuevo, cantidadEntrada)).thenReturn(1);
         when(movimientoRepository.save(any(MovimientoInventario.class))).thenReturn(movimientoGuardadoSimulado);
 
         MovimientoInventario movGuardado = inventarioService.registrarMovimiento(movimiento);
@@ -154,26 +187,50 @@ class InventarioServiceImplTest {
         assertThat(movGuardado.getProductoId()).isEqualTo(productoIdNuevo);
         assertThat(movGuardado.getCantidad()).isEqualTo(cantidadEntrada);
 
-        ArgumentCaptor<StockProducto> stockCaptor = ArgumentCaptor.forClass(StockProducto.class);
-        verify(stockRepository).save(stockCaptor.capture());
-        StockProducto stockGuardado = stockCaptor.getValue();
-        assertThat(stockGuardado.getProductoId()).isEqualTo(productoIdNuevo);
-        assertThat(stockGuardado.getCantidad()).isEqualTo(cantidadEntrada);
-        // Ya no tenemos isNew() en StockProducto
+        verify(stockRepository).aplicarMovimientoStock(productoIdNuevo, cantidadEntrada);
+        verify(stockRepository, never()).findByProductoId(any());
+        verify(stockRepository, never()).save(any(StockProducto.class));
 
         verify(movimientoRepository).save(any(MovimientoInventario.class));
     }
 
+    @Test
+    void registrarMovimiento_primeraEntradaQueChocaConUnAltaConcurrente_deberiaReintentarUnaVez() {
+        MovimientoInventario movimiento = new MovimientoInventario(null, productoIdNuevo, 5, TipoMovimiento.ENTRADA_COMPRA, LocalDateTime.now(), "Nueva compra");
+        when(productoValidationService.validarProductoExisteBloqueante(productoIdNuevo)).thenReturn(true);
+        // Otra transacción creó el registro entre la comprobación y el alta del MERGE
+        when(stockRepository.aplicarMovimientoStock(productoIdNuevo, 5))
+                .thenThrow(new DataIntegrityViolationException("Clave duplicada", new SQLException("Unique index or primary key violation", "23505")))
+                .thenReturn(1);
+        when(movimientoRepository.save(any(MovimientoInventario.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        inventarioService.registrarMovimiento(movimiento);
+
+        verify(stockRepository, times(2)).aplicarMovimientoStock(productoIdNuevo, 5);
+        verify(movimientoRepository).save(movimiento);
+    }
+
+    @Test
+    void registrarMovimiento_otraViolacionDeIntegridad_noDeberiaReintentar() {
+        MovimientoInventario movimiento = new MovimientoInventario(null, productoIdNuevo, 5, TipoMovimiento.ENTRADA_COMPRA, LocalDateTime.now(), "Nueva compra");
+        when(productoValidationService.validarProductoExisteBloqueante(productoIdNuevo)).thenReturn(true);
+        when(stockRepository.aplicarMovimientoStock(productoIdNuevo, 5))
+                .thenThrow(new DataIntegrityViolationException("Nulo", new SQLException("NULL not allowed", "23502")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> inventarioService.registrarMovimiento(movimiento));
+
+        verify(stockRepository, times(1)).aplicarMovimientoStock(productoIdNuevo, 5);
+        verify(movimientoRepository, never()).save(any(MovimientoInventario.class));
+    }
+
     @Test
     void registrarMovimiento_entradaValida_stockExistente_deberiaActualizarStockYGuardarMovimiento() {
         int cantidadEntrada = movimientoEntradaEjemplo.getCantidad();
-        int stockInicial = stockExistente.getCantidad();
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(101L, productoIdExistente, cantidadEntrada, TipoMovimiento.ENTRADA_COMPRA, movimientoEntradaEjemplo.getFechaHora(), movimientoEntradaEjemplo.getNotas());
 
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0)); // Devuelve el mismo objeto modificado
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, cantidadEntrada)).thenReturn(1);
         when(movimientoRepository.save(any(MovimientoInventario.class))).thenReturn(movimientoGuardadoSimulado);
 
         MovimientoInventario movGuardado = inventarioService.registrarMovimiento(movimientoEntradaEjemplo);
@@ -181,9 +238,7 @@ class InventarioServiceImplTest {
         assertThat(movGuardado.getId()).isEqualTo(101L);
         assertThat(movGuardado.getProductoId()).isEqualTo(productoIdExistente);
 
-        ArgumentCaptor<StockProducto> stockCaptor = ArgumentCaptor.forClass(StockProducto.class);
-        verify(stockRepository).save(stockCaptor.capture());
-        assertThat(stockCaptor.getValue().getCantidad()).isEqualTo(stockInicial + cantidadEntrada);
+        verify(stockRepository).aplicarMovimientoStock(productoIdExistente, cantidadEntrada);
 
         verify(movimientoRepository).save(any(MovimientoInventario.class));
     }
@@ -192,20 +247,17 @@ class InventarioServiceImplTest {
     void registrarMovimiento_salidaValida_stockSuficiente_deberiaActualizarStockYGuardarMovimiento() {
         int cantidadSalida = 5;
         MovimientoInventario movimientoSalida = new MovimientoInventario(null, productoIdExistente, cantidadSalida, TipoMovimiento.SALIDA_VENTA, LocalDateTime.now(), "Venta");
-        int stockInicial = stockExistente.getCantidad();
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(102L, productoIdExistente, cantidadSalida, TipoMovimiento.SALIDA_VENTA, movimientoSalida.getFechaHora(), "Venta");
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, -cantidadSalida)).thenReturn(1);
         when(movimientoRepository.save(any(MovimientoInventario.class))).thenReturn(movimientoGuardadoSimulado);
 
         MovimientoInventario movGuardado = inventarioService.registrarMovimiento(movimientoSalida);
         assertThat(movGuardado.getId()).isEqualTo(102L);
 
-        ArgumentCaptor<StockProducto> stockCaptor = ArgumentCaptor.forClass(StockProducto.class);
-        verify(stockRepository).save(stockCaptor.capture());
-        assertThat(stockCaptor.getValue().getCantidad()).isEqualTo(stockInicial - cantidadSalida);
+        verify(stockRepository).aplicarMovimientoStock(productoIdExistente, -cantidadSalida);
+        verify(stockRepository, never()).findByProductoId(any());
 
         verify(movimientoRepository).save(any(MovimientoInventario.class));
     }
@@ -216,12 +268,15 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoSalida = new MovimientoInventario(null, productoIdExistente, cantidadSalida, TipoMovimiento.SALIDA_VENTA, LocalDateTime.now(), "Venta fallida");
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
+        // La sentencia condicional no modifica ninguna fila cuando el stock no alcanza
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, -cantidadSalida)).thenReturn(0);
         when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
 
-        assertThrows(StockInsuficienteException.class, () -> {
+        StockInsuficienteException ex = assertThrows(StockInsuficienteException.class, () -> {
             inventarioService.registrarMovimiento(movimientoSalida);
         });
 
+        assertThat(ex.getMessage()).contains("Stock actual: " + stockExistente.getCantidad());
         verify(stockRepository, never()).save(any(StockProducto.class));
         verify(movimientoRepository, never()).save(any(MovimientoInventario.class));
     }
@@ -233,8 +288,7 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(103L, productoIdExistente, nuevaCantidadRecuento, TipoMovimiento.RECUENTO_INVENTARIO, movimientoRecuento.getFechaHora(), "Recuento");
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(stockRepository.establecerCantidad(productoIdExistente, nuevaCantidadRecuento)).thenReturn(1);
         when(movimientoRepository.save(any(MovimientoInventario.class))).thenReturn(movimientoGuardadoSimulado);
 
         MovimientoInventario movGuardado = inventarioService.registrarMovimiento(movimientoRecuento);
@@ -242,9 +296,7 @@ class InventarioServiceImplTest {
         assertThat(movGuardado.getId()).isEqualTo(103L);
         assertThat(movGuardado.getCantidad()).isEqualTo(nuevaCantidadRecuento);
 
-        ArgumentCaptor<StockProducto> stockCaptor = ArgumentCaptor.forClass(StockProducto.class);
-        verify(stockRepository).save(stockCaptor.capture());
-        assertThat(stockCaptor.getValue().getCantidad()).isEqualTo(nuevaCantidadRecuento);
+        verify(stockRepository).establecerCantidad(productoIdExistente, nuevaCantidadRecuento);
 
         ArgumentCaptor<MovimientoInventario> movimientoCaptor = ArgumentCaptor.forClass(MovimientoInventario.class);
         verify(movimientoRepository).save(movimientoCaptor.capture());
@@ -259,11 +311,8 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(104L, productoIdNuevo, nuevaCantidadRecuento, TipoMovimiento.RECUENTO_INVENTARIO, movimientoRecuento.getFechaHora(), "Recuento nuevo");
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdNuevo)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdNuevo)).thenReturn(Optional.empty()); // Stock no existe
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(invocation -> {
-            StockProducto sp = invocation.getArgument(0);
-            return new StockProducto(sp.getProductoId(), sp.getCantidad());
-        });
+        // La sentencia MERGE crea el registro de stock si no existe
+        when(stockRepository.establecerCantidad(productoIdNuevo, nuevaCantidadRecuento)).thenReturn(1);
         when(movimientoRepository.save(any(MovimientoInventario.class))).thenReturn(movimientoGuardadoSimulado);
 
         MovimientoInventario movGuardado = inventarioService.registrarMovimiento(movimientoRecuento);
@@ -271,12 +320,7 @@ class InventarioServiceImplTest {
         assertThat(movGuardado.getId()).isEqualTo(104L);
         assertThat(movGuardado.getCantidad()).isEqualTo(nuevaCantidadRecuento);
 
-        ArgumentCaptor<StockProducto> stockCaptor = ArgumentCaptor.forClass(StockProducto.class);
-        verify(stockRepository).save(stockCaptor.capture());
-        StockProducto stockGuardado = stockCaptor.getValue();
-        assertThat(stockGuardado.getProductoId()).isEqualTo(productoIdNuevo);
-        assertThat(stockGuardado.getCantidad()).isEqualTo(nuevaCantidadRecuento);
-        // Ya no tenemos isNew()
+        verify(stockRepository).establecerCantidad(productoIdNuevo, nuevaCantidadRecuento);
 
         verify(movimientoRepository).save(any(MovimientoInventario.class));
     }
@@ -289,8 +333,7 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(105L, productoIdExistente, cantidad, tipo, LocalDateTime.now(), notas); // FechaHora será la del momento de creación
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, cantidad)).thenReturn(1);
         // Mockear el save del movimientoRepository para que devuelva el objeto con ID y capture el argumento
         ArgumentCaptor<MovimientoInventario> movimientoCaptor = ArgumentCaptor.forClass(MovimientoInventario.class);
         when(movimientoRepository.save(movimientoCaptor.capture())).thenReturn(movimientoGuardadoSimulado);
@@ -323,8 +366,7 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(106L, productoIdExistente, cantidad, tipo, LocalDateTime.now(), notas);
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente)); // Stock suficiente
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, -cantidad)).thenReturn(1); // Stock suficiente
 
         ArgumentCaptor<MovimientoInventario> movimientoCaptor = ArgumentCaptor.forClass(MovimientoInventario.class);
         when(movimientoRepository.save(movimientoCaptor.capture())).thenReturn(movimientoGuardadoSimulado);
@@ -353,8 +395,7 @@ class InventarioServiceImplTest {
         MovimientoInventario movimientoGuardadoSimulado = new MovimientoInventario(107L, productoIdExistente, nuevaCantidad, TipoMovimiento.RECUENTO_INVENTARIO, LocalDateTime.now(), notas);
 
         when(productoValidationService.validarProductoExisteBloqueante(productoIdExistente)).thenReturn(true);
-        when(stockRepository.findByProductoId(productoIdExistente)).thenReturn(Optional.of(stockExistente));
-        when(stockRepository.save(any(StockProducto.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(stockRepository.establecerCantidad(productoIdExistente, nuevaCantidad)).thenReturn(1);
 
         ArgumentCaptor<MovimientoInventario> movimientoCaptor = ArgumentCaptor.forClass(MovimientoInventario.class);
         when(movimientoRepository.save(movimientoCaptor.capture())).thenReturn(movimientoGuardadoSimulado);
@@ -367,4 +408,35 @@ class InventarioServiceImplTest {
         assertThat(capturado.getCantidad()).isEqualTo(nuevaCantidad);
         assertThat(capturado.getTipoMovimiento()).isEqualTo(TipoMovimiento.RECUENTO_INVENTARIO);
     }
-}
\ No newline at end of file
+
+    @Test
+    void registrarMovimientos_validaTodosLosProductosAntesDeLaTransaccionYAplicaCadaMovimiento() {
+        MovimientoInventario salida = new MovimientoInventario(null, productoIdNuevo, 2, TipoMovimiento.SALIDA_VENTA, null, "Línea 2");
+        when(stockRepository.aplicarMovimientoStock(productoIdExistente, 10)).thenReturn(1);
+        when(stockRepository.aplicarMovimientoStock(productoIdNuevo, -2)).thenReturn(1);
+        when(movimientoRepository.save(any(MovimientoInventario.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        List<MovimientoInventario> resultado = inventarioService.registrarMovimientos(List.of(movimientoEntradaEjemplo, salida));
+
+        assertThat(resultado).containsExactly(movimientoEntradaEjemplo, salida);
+        assertThat(salida.getFechaHora()).isNotNull();
+        InOrder orden = inOrder(productoValidationService, transactionManager, stockRepository);
+        orden.verify(productoValidationService).validarProductosExistenBloqueante(List.of(productoIdExistente, productoIdNuevo));
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(stockRepository).aplicarMovimientoStock(productoIdExistente, 10);
+        orden.verify(stockRepository).aplicarMovimientoStock(productoIdNuevo, -2);
+        verify(productoValidationService, never()).validarProductoExisteBloqueante(any());
+    }
+
+    @Test
+    void registrarMovimientos_cuandoUnProductoNoExiste_noAplicaNingunMovimiento() {
+        MovimientoInventario invalido = new MovimientoInventario(null, productoIdInvalido, 1, TipoMovimiento.ENTRADA_COMPRA, null, "Línea 2");
+        doThrow(new ProductoNoEncontradoException("El producto con ID " + productoIdInvalido + " no existe en el catálogo."))
+                .when(productoValidationService).validarProductosExistenBloqueante(List.of(productoIdExistente, productoIdInvalido));
+
+        assertThrows(ProductoNoEncontradoException.class,
+                () -> inventarioService.registrarMovimientos(List.of(movimientoEntradaEjemplo, invalido)));
+
+        verifyNoInteractions(stockRepository, movimientoRepository, transactionManager);
+    }
+}
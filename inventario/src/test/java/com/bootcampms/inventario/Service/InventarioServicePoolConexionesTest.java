@@ -0,0 +1,100 @@
+package com.bootcampms.inventario.Service;
+
+import com.bootcampms.inventario.Model.TipoMovimiento;
+import com.bootcampms.inventario.Repository.StockProductoRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Prueba de integración que simula un servicio de productos lento y comprueba que los movimientos en espera
+ * de la validación no retienen conexiones del pool: con más movimientos en vuelo que conexiones, todos llegan
+ * a la validación a la vez, el pool queda libre y las lecturas siguen respondiendo.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:inventarioPoolDb;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=" + InventarioServicePoolConexionesTest.CONEXIONES,
+        // Si una petición esperase conexión, fallaría pronto en lugar de a los 30 s por defecto
+        "spring.datasource.hikari.connection-timeout=2000",
+        // ProductoWebClientService es un mock: no hay catálogo que precargar
+        "inventario.cache-productos.precarga=false"
+})
+class InventarioServicePoolConexionesTest {
+
+    static final int CONEXIONES = 4;
+    private static final int MOVIMIENTOS_EN_VUELO = 4 * CONEXIONES;
+    private static final long PRIMER_PRODUCTO = 7000L;
+
+    @Autowired
+    private InventarioService inventarioService;
+
+    @Autowired
+    private StockProductoRepository stockRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private ProductoWebClientService productoValidationService;
+
+    @Test
+    void registrarMovimiento_conProductosLento_noRetieneConexionesDuranteLaValidacion() throws Exception {
+        CountDownLatch enValidacion = new CountDownLatch(MOVIMIENTOS_EN_VUELO);
+        CountDownLatch responderProductos = new CountDownLatch(1);
+        // Productos "lento": cada validación queda en espera hasta que la prueba la libera
+        when(productoValidationService.validarProductoExisteBloqueante(anyLong())).thenAnswer(invocacion -> {
+            enValidacion.countDown();
+            responderProductos.await(30, TimeUnit.SECONDS);
+            return true;
+        });
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        ExecutorService executor = Executors.newFixedThreadPool(MOVIMIENTOS_EN_VUELO);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < MOVIMIENTOS_EN_VUELO; i++) {
+                long productoId = PRIMER_PRODUCTO + i;
+                futuros.add(executor.submit(() ->
+                        inventarioService.registrarEntrada(productoId, 5, TipoMovimiento.ENTRADA_COMPRA, "Productos lento")));
+            }
+
+            // Si la validación retuviese una conexión, solo CONEXIONES movimientos llegarían a validarse a la vez
+            assertThat(enValidacion.await(10, TimeUnit.SECONDS)).as("todos los movimientos validando a la vez").isTrue();
+            int conexionesActivas = pool.getActiveConnections();
+            // Las lecturas no esperan a que productos responda
+            assertThat(inventarioService.obtenerStockTodosProductos()).isNotNull();
+
+            responderProductos.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(conexionesActivas).isZero();
+        } finally {
+            responderProductos.countDown();
+            executor.shutdownNow();
+        }
+
+        for (int i = 0; i < MOVIMIENTOS_EN_VUELO; i++) {
+            assertThat(stockRepository.findByProductoId(PRIMER_PRODUCTO + i))
+                    .hasValueSatisfying(stock -> assertThat(stock.getCantidad()).isEqualTo(5));
+        }
+        assertThat(pool.getActiveConnections()).isZero();
+    }
+}
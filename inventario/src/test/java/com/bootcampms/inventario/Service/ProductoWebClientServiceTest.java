@@ -0,0 +1,352 @@
+package com.bootcampms.inventario.Service;
+
+import com.bootcampms.inventario.Cache.ExistenciaProductosCache;
+import com.bootcampms.inventario.Exception.ProductoNoEncontradoException;
+import com.bootcampms.inventario.Exception.ProductosNoDisponibleException;
+import com.bootcampms.inventario.Resiliencia.ResilienciaProductos;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductoWebClientServiceTest {
+
+    private static final String URL = "http://productos/api/v1/productos";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Rutas pedidas a productos, en orden de llegada. */
+    private final List<String> rutas = new CopyOnWriteArrayList<>();
+    /** Respuesta de productos a cada petición; por defecto 200. */
+    private Function<ClientRequest, Mono<ClientResponse>> productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.OK).build());
+    /** Protección de las llamadas; por defecto, la configuración de Resilience4j sin especulativas. */
+    private ResilienciaProductos resiliencia;
+
+    private ProductoWebClientService servicio(boolean cacheHabilitada) {
+        return servicio(cacheHabilitada, Duration.ofSeconds(5), 4);
+    }
+
+    private ProductoWebClientService servicio(boolean cacheHabilitada, Duration tiempoMaximo, int concurrenciaMaxima) {
+        return servicio(cacheHabilitada, tiempoMaximo, concurrenciaMaxima, false, 1);
+    }
+
+    private ProductoWebClientService servicioAgrupado(int tamanioMaximoLote) {
+        return servicio(true, Duration.ofSeconds(5), 4, true, tamanioMaximoLote);
+    }
+
+    private ProductoWebClientService servicio(boolean cacheHabilitada, Duration tiempoMaximo, int concurrenciaMaxima,
+                                              boolean compartirConsultas, int tamanioMaximoLote) {
+        ExistenciaProductosCache cache = new ExistenciaProductosCache(cacheHabilitada, 100, Duration.ofMinutes(10),
+                100, Duration.ofSeconds(30), meterRegistry);
+        WebClient webClient = WebClient.builder()
+                .baseUrl(URL)
+                .exchangeFunction(peticion -> {
+                    rutas.add(peticion.url().getPath());
+                    return productos.apply(peticion);
+                })
+                .build();
+        if (resiliencia == null) {
+            resiliencia = new ResilienciaProductos(true, CircuitBreakerConfig.ofDefaults(), 100, false, Duration.ofMillis(50), meterRegistry);
+        }
+        return new ProductoWebClientService(webClient, cache, resiliencia, tiempoMaximo, concurrenciaMaxima,
+                compartirConsultas, tamanioMaximoLote, Duration.ofMillis(20), meterRegistry);
+    }
+
+    private static Mono<ClientResponse> json(String cuerpo) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(cuerpo)
+                .build());
+    }
+
+    private double contador(String nombre, String etiqueta, String valor) {
+        return meterRegistry.get(nombre).tag(etiqueta, valor).counter().count();
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_productoExistente_soloLlamaAProductosLaPrimeraVez() {
+        ProductoWebClientService servicio = servicio(true);
+
+        assertThat(servicio.validarProductoExisteBloqueante(1L)).isTrue();
+        assertThat(servicio.validarProductoExisteBloqueante(1L)).isTrue();
+
+        assertThat(rutas).containsExactly("/api/v1/productos/1");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ExistenciaProductosCache.NOMBRE_CACHE_EXISTENTES)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_productoInexistente_guardaElRechazoEnLaCacheNegativa() {
+        productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        ProductoWebClientService servicio = servicio(true);
+
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(99L)).isInstanceOf(ProductoNoEncontradoException.class);
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(99L)).isInstanceOf(ProductoNoEncontradoException.class);
+
+        assertThat(rutas).hasSize(1);
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_erroresDeClienteYServidor_noSeGuardanEnCache() {
+        productos = peticion -> Mono.just(ClientResponse.create(
+                peticion.url().getPath().endsWith("/5") ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.FORBIDDEN).build());
+        ProductoWebClientService servicio = servicio(true);
+
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(5L))
+                .isNotInstanceOf(ProductoNoEncontradoException.class)
+                .hasMessageContaining("Error de respuesta del servidor (500");
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(5L))
+                .isNotInstanceOf(ProductoNoEncontradoException.class);
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(6L))
+                .isNotInstanceOf(ProductoNoEncontradoException.class)
+                .hasMessageContaining("Error de respuesta del cliente (403");
+
+        assertThat(rutas).hasSize(3);
+    }
+
+    @Test
+    void validarProductoExiste_errorDeRed_terminaConErrorDeConexion() {
+        productos = peticion -> Mono.error(new WebClientRequestException(new ConnectException("Connection refused"),
+                HttpMethod.GET, peticion.url(), HttpHeaders.EMPTY));
+
+        StepVerifier.create(servicio(true).validarProductoExiste(1L))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isNotInstanceOf(ProductoNoEncontradoException.class)
+                        .hasMessageContaining("No se pudo conectar con el servicio de productos para validar ID 1"))
+                .verify();
+    }
+
+    @Test
+    void validarProductoExiste_productosNoResponde_cancelaLaPeticionAlAgotarElTiempoMaximo() {
+        AtomicBoolean cancelada = new AtomicBoolean();
+        productos = peticion -> Mono.<ClientResponse>never().doOnCancel(() -> cancelada.set(true));
+
+        StepVerifier.create(servicio(true, Duration.ofMillis(100), 4).validarProductoExiste(1L))
+                .expectErrorSatisfies(error -> assertThat(error).hasMessageContaining("No se pudo conectar"))
+                .verify(Duration.ofSeconds(5));
+        assertThat(cancelada).isTrue();
+    }
+
+    @Test
+    void validarProductosExisten_validaEnParaleloSinSuperarLaConcurrenciaMaxima() {
+        AtomicInteger enVuelo = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        productos = peticion -> Mono.delay(Duration.ofMillis(50))
+                .map(tick -> ClientResponse.create(HttpStatus.OK).build())
+                .doOnSubscribe(suscripcion -> maximo.accumulateAndGet(enVuelo.incrementAndGet(), Math::max))
+                // Se descuenta al responder, antes de que flatMap pida el siguiente ID (doFinally llegaría después)
+                .doOnSuccess(respuesta -> enVuelo.decrementAndGet());
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+
+        StepVerifier.create(servicio(true, Duration.ofSeconds(5), 4).validarProductosExisten(ids))
+                .verifyComplete();
+
+        assertThat(rutas).hasSize(20);
+        assertThat(maximo.get()).isEqualTo(4);
+    }
+
+    @Test
+    void validarProductosExistenBloqueante_productoInexistente_lanzaProductoNoEncontradoYNoRepiteIds() {
+        productos = peticion -> Mono.just(ClientResponse.create(
+                peticion.url().getPath().endsWith("/3") ? HttpStatus.NOT_FOUND : HttpStatus.OK).build());
+        ProductoWebClientService servicio = servicio(true);
+
+        assertThatThrownBy(() -> servicio.validarProductosExistenBloqueante(List.of(1L, 2L, 3L, 1L, 2L)))
+                .isInstanceOf(ProductoNoEncontradoException.class)
+                .hasMessageContaining("ID 3");
+        assertThat(rutas).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void validarProductoExiste_validacionesSimultaneasDelMismoId_compartenUnaLlamada() {
+        productos = peticion -> Mono.delay(Duration.ofMillis(50)).map(tick -> ClientResponse.create(HttpStatus.OK).build());
+        ProductoWebClientService servicio = servicioAgrupado(1);
+
+        StepVerifier.create(Flux.range(0, 10).flatMap(i -> servicio.validarProductoExiste(1L)))
+                .expectNextCount(10)
+                .verifyComplete();
+
+        assertThat(rutas).containsExactly("/api/v1/productos/1");
+        assertThat(contador("inventario.productos.validaciones", "origen", "remota")).isEqualTo(1);
+        assertThat(contador("inventario.productos.validaciones", "origen", "compartida")).isEqualTo(9);
+        assertThat(contador("inventario.productos.llamadas", "tipo", "individual")).isEqualTo(1);
+    }
+
+    @Test
+    void validarProductosExisten_idsDistintosEnLaMismaVentana_seConsultanEnUnLote() {
+        List<String> consultas = new CopyOnWriteArrayList<>();
+        productos = peticion -> {
+            consultas.add(peticion.url().getQuery());
+            return json("{\"productos\":[{\"id\":1},{\"id\":2}],\"idsNoEncontrados\":[3],\"skusNoEncontrados\":[]}");
+        };
+        ProductoWebClientService servicio = servicioAgrupado(100);
+
+        assertThatThrownBy(() -> servicio.validarProductosExistenBloqueante(List.of(1L, 2L, 3L)))
+                .isInstanceOf(ProductoNoEncontradoException.class)
+                .hasMessageContaining("ID 3");
+        // El lote deja en la caché tanto los encontrados como los no encontrados
+        assertThat(servicio.validarProductoExisteBloqueante(2L)).isTrue();
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(3L)).isInstanceOf(ProductoNoEncontradoException.class);
+
+        assertThat(rutas).containsExactly("/api/v1/productos/batch");
+        assertThat(consultas).containsExactly("ids=1,2,3");
+        assertThat(contador("inventario.productos.validaciones", "origen", "remota")).isEqualTo(3);
+        assertThat(contador("inventario.productos.llamadas", "tipo", "lote")).isEqualTo(1);
+        assertThat(meterRegistry.get("inventario.productos.lote.tamanio").summary().totalAmount()).isEqualTo(3);
+    }
+
+    @Test
+    void validarProductosExisten_productosSinConsultaEnLote_vuelveALasConsultasIndividuales() {
+        productos = peticion -> Mono.just(ClientResponse.create(
+                peticion.url().getPath().endsWith("/batch") ? HttpStatus.NOT_FOUND : HttpStatus.OK).build());
+        ProductoWebClientService servicio = servicioAgrupado(100);
+
+        servicio.validarProductosExistenBloqueante(List.of(1L, 2L));
+        servicio.validarProductosExistenBloqueante(List.of(3L, 4L));
+
+        assertThat(rutas).hasSize(5).containsOnlyOnce("/api/v1/productos/batch")
+                .contains("/api/v1/productos/1", "/api/v1/productos/2", "/api/v1/productos/3", "/api/v1/productos/4");
+        assertThat(contador("inventario.productos.llamadas", "tipo", "individual")).isEqualTo(4);
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_productosFallando_abreElCircuitoYRechazaSinLlamar() {
+        productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+        resiliencia = new ResilienciaProductos(true, CircuitBreakerConfig.custom()
+                .slidingWindowSize(4).minimumNumberOfCalls(4).failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1)).build(),
+                100, false, Duration.ofMillis(50), meterRegistry);
+        ProductoWebClientService servicio = servicio(true);
+
+        for (long id = 1; id <= 4; id++) {
+            long productoId = id;
+            assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(productoId))
+                    .isNotInstanceOf(ProductosNoDisponibleException.class)
+                    .hasMessageContaining("Error de respuesta del servidor (503");
+        }
+        assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(5L))
+                .isInstanceOf(ProductosNoDisponibleException.class)
+                .hasMessageContaining("ID 5");
+
+        assertThat(rutas).hasSize(4);
+        assertThat(resiliencia.estadoCircuito()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(meterRegistry.get("inventario.productos.circuito.transiciones")
+                .tag("desde", "CLOSED").tag("hacia", "OPEN").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_productosInexistentes_noAbrenElCircuito() {
+        productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        resiliencia = new ResilienciaProductos(true, CircuitBreakerConfig.custom()
+                .slidingWindowSize(4).minimumNumberOfCalls(4).build(),
+                100, false, Duration.ofMillis(50), meterRegistry);
+        ProductoWebClientService servicio = servicio(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> servicio.validarProductoExisteBloqueante(99L)).isInstanceOf(ProductoNoEncontradoException.class);
+        }
+
+        assertThat(rutas).hasSize(10);
+        assertThat(resiliencia.estadoCircuito()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void validarProductosExisten_masLlamadasQueElBulkhead_rechazaLasQueSobran() {
+        productos = peticion -> Mono.delay(Duration.ofMillis(200)).map(tick -> ClientResponse.create(HttpStatus.OK).build());
+        resiliencia = new ResilienciaProductos(true, CircuitBreakerConfig.ofDefaults(), 2, false, Duration.ofMillis(50), meterRegistry);
+
+        StepVerifier.create(servicio(true).validarProductosExisten(List.of(1L, 2L, 3L, 4L)))
+                .expectError(ProductosNoDisponibleException.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(rutas).hasSize(2);
+    }
+
+    @Test
+    void validarProductoExiste_primeraPeticionLenta_respondeLaEspeculativaYCancelaLaPrimera() {
+        AtomicInteger peticiones = new AtomicInteger();
+        AtomicBoolean primeraCancelada = new AtomicBoolean();
+        productos = peticion -> peticiones.incrementAndGet() == 2
+                ? Mono.<ClientResponse>never().doOnCancel(() -> primeraCancelada.set(true))
+                : Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        resiliencia = new ResilienciaProductos(true, CircuitBreakerConfig.ofDefaults(), 100, true, Duration.ofMillis(50), meterRegistry);
+        ProductoWebClientService servicio = servicio(true);
+
+        // Una consulta rápida no lanza especulativa
+        assertThat(servicio.validarProductoExisteBloqueante(1L)).isTrue();
+        // La primera petición del ID 2 no responde: la especulativa sale tras el retardo mínimo y responde
+        StepVerifier.create(servicio.validarProductoExiste(2L))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertThat(rutas).containsExactly("/api/v1/productos/1", "/api/v1/productos/2", "/api/v1/productos/2");
+        assertThat(primeraCancelada).isTrue();
+        assertThat(resiliencia.retardoEspeculativa()).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        assertThat(contador("inventario.productos.especulativas", "resultado", "lanzada")).isEqualTo(1);
+        assertThat(contador("inventario.productos.especulativas", "resultado", "ganadora")).isEqualTo(1);
+    }
+
+    @Test
+    void validarProductoExisteBloqueante_cacheDeshabilitada_llamaSiempreAProductos() {
+        ProductoWebClientService servicio = servicio(false);
+
+        servicio.validarProductoExisteBloqueante(1L);
+        servicio.validarProductoExisteBloqueante(1L);
+
+        assertThat(rutas).hasSize(2);
+        assertThat(servicio.precargarCache(Duration.ofSeconds(5)).block()).isZero();
+    }
+
+    @Test
+    void precargarCache_registraLosIdsDelListadoSinValidarlosDespues() {
+        productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                .body("1\n2\n3\n")
+                .build());
+        ProductoWebClientService servicio = servicio(true);
+
+        assertThat(servicio.precargarCache(Duration.ofSeconds(5)).block()).isEqualTo(3);
+        assertThat(servicio.validarProductoExisteBloqueante(2L)).isTrue();
+
+        assertThat(rutas).containsExactly("/api/v1/productos/export/ids");
+    }
+
+    @Test
+    void precargarCache_siProductosFalla_noLanzaExcepcion() {
+        productos = peticion -> Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+
+        assertThat(servicio(true).precargarCache(Duration.ofSeconds(5)).block()).isZero();
+    }
+
+    @Test
+    void precargarCache_siProductosNoResponde_terminaAlAgotarElTiempoMaximo() {
+        productos = peticion -> Mono.never();
+
+        StepVerifier.create(servicio(true).precargarCache(Duration.ofMillis(100)))
+                .expectNext(0L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+}
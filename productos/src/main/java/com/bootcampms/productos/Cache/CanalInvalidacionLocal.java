@@ -0,0 +1,31 @@
+package com.bootcampms.productos.Cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Implementación en memoria de {@link CanalInvalidacionProductos}.
+ * Entrega las invalidaciones de forma síncrona a los oyentes registrados en la misma JVM.
+ * Sirve para una única instancia y como sustituto del canal distribuido en pruebas.
+ */
+public class CanalInvalidacionLocal implements CanalInvalidacionProductos {
+
+    private final List<Consumer<Long>> oyentes = new CopyOnWriteArrayList<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void publicar(Long productoId) {
+        oyentes.forEach(oyente -> oyente.accept(productoId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void suscribir(Consumer<Long> oyente) {
+        oyentes.add(oyente);
+    }
+}
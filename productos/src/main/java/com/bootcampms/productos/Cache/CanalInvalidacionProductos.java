@@ -0,0 +1,27 @@
+package com.bootcampms.productos.Cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que se propagan las invalidaciones de la caché de productos entre instancias
+ * del microservicio que se ejecutan detrás de un balanceador de carga.
+ * <p>
+ * La implementación por defecto ({@link CanalInvalidacionLocal}) solo entrega los mensajes dentro de la JVM.
+ * Para un despliegue con varias instancias se puede registrar un bean {@code @Primary} que implemente
+ * esta interfaz sobre un broker de mensajería (p. ej. Redis pub/sub o Kafka).
+ * </p>
+ */
+public interface CanalInvalidacionProductos {
+
+    /**
+     * Publica la invalidación de un producto para el resto de instancias.
+     * @param productoId El ID del producto modificado o eliminado.
+     */
+    void publicar(Long productoId);
+
+    /**
+     * Registra un oyente que se invoca por cada invalidación recibida.
+     * @param oyente Función que recibe el ID del producto a invalidar.
+     */
+    void suscribir(Consumer<Long> oyente);
+}
@@ -0,0 +1,171 @@
+package com.bootcampms.productos.Cache;
+
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Instantánea inmutable en memoria de las categorías, que son datos de referencia que casi nunca cambian.
+ * <p>
+ * Las categorías se cargan completas en una instantánea que no se modifica nunca: ante cualquier escritura
+ * en la tabla de categorías se construye una nueva a partir del repositorio y se publica de forma atómica,
+ * de modo que los lectores ven siempre una versión completa y coherente sin bloqueos. Cada instantánea lleva
+ * un ETag calculado a partir de su contenido.
+ * </p>
+ * Las categorías devueltas son copias compartidas entre peticiones y deben tratarse como de solo lectura.
+ */
+public class CatalogoCategorias {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogoCategorias.class);
+
+    private final CategoriaRepository categoriaRepository;
+    private final ReentrantLock lockRecarga = new ReentrantLock();
+    private volatile Instantanea instantanea = new Instantanea(Map.of(), "\"vacio\"");
+
+    /**
+     * Versión inmutable del catálogo de categorías.
+     * @param porId Categorías por ID, en orden de ID.
+     * @param etag ETag fuerte (entrecomillado) del contenido.
+     */
+    public record Instantanea(Map<Long, Categoria> porId, String etag) {
+
+        /**
+         * @return Todas las categorías, ordenadas por ID.
+         */
+        public Collection<Categoria> todas() {
+            return porId.values();
+        }
+    }
+
+    /**
+     * Constructor del catálogo. La carga inicial se realiza al arrancar la aplicación.
+     * @param categoriaRepository El repositorio de categorías del que se cargan las instantáneas.
+     */
+    public CatalogoCategorias(CategoriaRepository categoriaRepository) {
+        this.categoriaRepository = categoriaRepository;
+    }
+
+    /**
+     * @return La instantánea vigente.
+     */
+    public Instantanea instantanea() {
+        return instantanea;
+    }
+
+    /**
+     * Busca una categoría en la instantánea vigente.
+     * @param id El ID de la categoría.
+     * @return Un Optional con la categoría, o vacío si no existe.
+     */
+    public Optional<Categoria> obtener(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(instantanea.porId().get(id));
+    }
+
+    /**
+     * @param id El ID de la categoría.
+     * @return true si la categoría existe en la instantánea vigente.
+     */
+    public boolean existe(Long id) {
+        return id != null && instantanea.porId().containsKey(id);
+    }
+
+    /**
+     * Devuelve copias de los productos con su categoría asignada a partir de {@code categoriaId}, sin consultar
+     * la base de datos. Los productos recibidos no se modifican, ya que pueden estar compartidos (caché de productos).
+     * @param productos Los productos a completar.
+     * @return Las copias con la categoría, en el mismo orden.
+     */
+    public List<Producto> resolver(Iterable<Producto> productos) {
+        Map<Long, Categoria> porId = instantanea.porId();
+        List<Producto> resueltos = new ArrayList<>();
+        for (Producto producto : productos) {
+            resueltos.add(producto.conCategoria(porId.get(producto.getCategoriaId())));
+        }
+        return resueltos;
+    }
+
+    /**
+     * Devuelve una copia del producto con su categoría asignada a partir de {@code categoriaId}, sin consultar
+     * la base de datos. El producto recibido no se modifica, ya que puede estar compartido (caché de productos).
+     * @param producto El producto a completar.
+     * @return La copia con la categoría.
+     */
+    public Producto resolver(Producto producto) {
+        return producto.conCategoria(instantanea.porId().get(producto.getCategoriaId()));
+    }
+
+    /**
+     * Programa la recarga del catálogo para cuando se confirme la transacción en curso
+     * (o la realiza inmediatamente si no hay transacción).
+     */
+    public void recargarAlConfirmar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recargar();
+                }
+            });
+        } else {
+            recargar();
+        }
+    }
+
+    /**
+     * Carga todas las categorías desde el repositorio y publica una nueva instantánea.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recargar() {
+        // ReentrantLock en lugar de synchronized: la recarga consulta la base de datos y no debe fijar hilos virtuales
+        lockRecarga.lock();
+        try {
+            Map<Long, Categoria> porId = new LinkedHashMap<>();
+            categoriaRepository.findAll().stream()
+                    .sorted(Comparator.comparing(Categoria::getId))
+                    // Copias desacopladas del contexto de persistencia
+                    .forEach(c -> porId.put(c.getId(), new Categoria(c.getId(), c.getNombre(), c.getDescripcion())));
+            instantanea = new Instantanea(Collections.unmodifiableMap(porId), calcularEtag(porId.values()));
+            log.debug("Catálogo de categorías recargado: {} categorías, ETag {}.", porId.size(), instantanea.etag());
+        } finally {
+            lockRecarga.unlock();
+        }
+    }
+
+    /**
+     * Calcula un ETag fuerte a partir del contenido de las categorías.
+     * @param categorias Las categorías, en orden estable.
+     * @return El ETag entrecomillado.
+     */
+    public static String calcularEtag(Collection<Categoria> categorias) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Categoria categoria : categorias) {
+                digest.update((categoria.getId() + "\u0000" + categoria.getNombre() + "\u0000"
+                        + categoria.getDescripcion() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
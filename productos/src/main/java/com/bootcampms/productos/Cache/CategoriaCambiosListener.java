@@ -0,0 +1,39 @@
+package com.bootcampms.productos.Cache;
+
+import com.bootcampms.productos.Model.Categoria;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de {@link Categoria} que recarga el {@link CatalogoCategorias} tras cualquier escritura,
+ * venga del servicio de categorías o de cualquier otro repositorio o endpoint.
+ * Hibernate obtiene la instancia del contenedor de Spring, por lo que admite inyección.
+ */
+@Component
+public class CategoriaCambiosListener {
+
+    // Se resuelve de forma diferida: el catálogo depende del EntityManagerFactory que crea este listener
+    private final ObjectProvider<CatalogoCategorias> catalogoCategorias;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param catalogoCategorias Proveedor del catálogo de categorías a recargar.
+     */
+    public CategoriaCambiosListener(ObjectProvider<CatalogoCategorias> catalogoCategorias) {
+        this.catalogoCategorias = catalogoCategorias;
+    }
+
+    /**
+     * Programa la recarga del catálogo para después del commit.
+     * @param categoria La categoría creada, modificada o eliminada.
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void alCambiar(Categoria categoria) {
+        catalogoCategorias.ifAvailable(CatalogoCategorias::recargarAlConfirmar);
+    }
+}
@@ -0,0 +1,146 @@
+package com.bootcampms.productos.Cache;
+
+import com.bootcampms.productos.Model.Producto;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Caché en proceso de productos por ID, de lectura directa (read-through) frente al repositorio.
+ * <p>
+ * Usa Caffeine (política W-TinyLFU) acotada por tamaño y con expiración por tiempo desde la escritura.
+ * Las invalidaciones se aplican localmente de inmediato y, al confirmarse la transacción en curso,
+ * se aplican de nuevo y se publican en el {@link CanalInvalidacionProductos} para el resto de instancias.
+ * Los aciertos, fallos y desalojos se registran en Micrometer bajo el nombre de caché {@code productos}.
+ * </p>
+ * <p>
+ * Internamente guarda futuros: la carga desde la base de datos se ejecuta en el hilo del lector que falla,
+ * fuera del bloqueo del mapa, y los lectores concurrentes de la misma clave esperan a ese futuro. Así una
+ * consulta JDBC nunca se ejecuta dentro de un bloque {@code synchronized}, que fijaría un hilo virtual a su portador.
+ * </p>
+ * Los productos devueltos son compartidos entre peticiones y deben tratarse como de solo lectura.
+ */
+public class ProductoCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoCache.class);
+    public static final String NOMBRE_CACHE = "productos";
+
+    private final AsyncCache<Long, Producto> cache;
+    private final CanalInvalidacionProductos canalInvalidacion;
+
+    /**
+     * Constructor de la caché.
+     * @param tamanioMaximo Número máximo de productos en caché.
+     * @param ttl Tiempo de vida de cada entrada desde que se carga.
+     * @param canalInvalidacion Canal para propagar y recibir invalidaciones entre instancias.
+     * @param meterRegistry Registro de métricas donde publicar las estadísticas de la caché.
+     */
+    public ProductoCache(long tamanioMaximo, Duration ttl,
+                         CanalInvalidacionProductos canalInvalidacion,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanioMaximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.canalInvalidacion = canalInvalidacion;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NOMBRE_CACHE);
+        // Las invalidaciones recibidas de otras instancias solo se aplican localmente (no se republican)
+        canalInvalidacion.suscribir(this::invalidarLocal);
+    }
+
+    /**
+     * Obtiene un producto de la caché o, si no está, lo carga con la función indicada y lo almacena.
+     * Las ausencias no se almacenan. Solo una petición por clave ejecuta la carga y el resto espera su resultado;
+     * una invalidación concurrente descarta el valor que se esté cargando.
+     * @param id El ID del producto.
+     * @param cargador Función que carga el producto desde la base de datos.
+     * @return Un Optional con el producto, o vacío si no existe.
+     */
+    public Optional<Producto> obtener(Long id, Function<Long, Optional<Producto>> cargador) {
+        CompletableFuture<Producto> propio = new CompletableFuture<>();
+        CompletableFuture<Producto> futuro = cache.get(id, (clave, executor) -> propio);
+        if (futuro == propio) {
+            // Esta petición es la que carga, en su propio hilo (y su transacción) y fuera del bloqueo del mapa
+            try {
+                propio.complete(cargador.apply(id).orElse(null)); // Un futuro con null se elimina de la caché
+            } catch (RuntimeException e) {
+                propio.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return Optional.ofNullable(esperar(futuro));
+    }
+
+    /**
+     * Obtiene un producto solo si ya está en la caché, sin cargarlo.
+     * @param id El ID del producto.
+     * @return Un Optional con el producto en caché, o vacío si no está.
+     */
+    public Optional<Producto> consultar(Long id) {
+        CompletableFuture<Producto> futuro = cache.getIfPresent(id);
+        // Una carga en curso cuenta como ausente: no se espera a ella
+        if (futuro == null || !futuro.isDone() || futuro.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(futuro.join());
+    }
+
+    /**
+     * Invalida un producto en esta instancia y lo publica al resto cuando se confirme la transacción
+     * en curso (o inmediatamente si no hay transacción).
+     * @param id El ID del producto modificado o eliminado.
+     */
+    public void invalidar(Long id) {
+        if (id == null) {
+            return;
+        }
+        invalidarLocal(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // Segunda invalidación: descarta valores antiguos cargados por lectores antes del commit
+                    invalidarLocal(id);
+                    canalInvalidacion.publicar(id);
+                }
+            });
+        } else {
+            canalInvalidacion.publicar(id);
+        }
+    }
+
+    /**
+     * Elimina un producto únicamente de la caché de esta instancia.
+     * @param id El ID del producto.
+     */
+    void invalidarLocal(Long id) {
+        log.debug("Invalidando producto ID {} en caché.", id);
+        cache.synchronous().invalidate(id);
+    }
+
+    /**
+     * Espera el resultado de una carga, propagando la excepción original del cargador.
+     */
+    private static Producto esperar(CompletableFuture<Producto> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
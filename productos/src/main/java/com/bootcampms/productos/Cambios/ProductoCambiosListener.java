@@ -0,0 +1,57 @@
+package com.bootcampms.productos.Cambios;
+
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de {@link Producto} que anota cada alta, modificación y baja en el {@link RegistroCambiosProductos},
+ * venga del servicio de productos, de la carga masiva o de cualquier otro repositorio.
+ * Los callbacks se ejecutan durante el flush, tras la sentencia SQL del producto y dentro de su transacción.
+ * Una actualización sin cambios reales no genera UPDATE y por tanto tampoco cambio.
+ */
+@Component
+public class ProductoCambiosListener {
+
+    // Se resuelve de forma diferida: el registro depende del DataSource, que se crea junto al EntityManagerFactory
+    private final ObjectProvider<RegistroCambiosProductos> registroCambios;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param registroCambios Proveedor del registro de cambios.
+     */
+    public ProductoCambiosListener(ObjectProvider<RegistroCambiosProductos> registroCambios) {
+        this.registroCambios = registroCambios;
+    }
+
+    /**
+     * Registra el alta de un producto.
+     * @param producto El producto creado.
+     */
+    @PostPersist
+    public void alCrear(Producto producto) {
+        registroCambios.ifAvailable(registro -> registro.registrar(producto.getId(), TipoCambio.CREADO));
+    }
+
+    /**
+     * Registra la modificación de un producto.
+     * @param producto El producto modificado.
+     */
+    @PostUpdate
+    public void alActualizar(Producto producto) {
+        registroCambios.ifAvailable(registro -> registro.registrar(producto.getId(), TipoCambio.ACTUALIZADO));
+    }
+
+    /**
+     * Registra la baja de un producto como lápida.
+     * @param producto El producto eliminado.
+     */
+    @PostRemove
+    public void alEliminar(Producto producto) {
+        registroCambios.ifAvailable(registro -> registro.registrar(producto.getId(), TipoCambio.ELIMINADO));
+    }
+}
@@ -0,0 +1,150 @@
+package com.bootcampms.productos.Cambios;
+
+import com.bootcampms.productos.Model.TipoCambio;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro de cambios de productos: asigna a cada cambio una secuencia creciente de la secuencia de base de datos
+ * {@code productos_cambios_seq} y lo inserta en {@code cambios_productos} dentro de la misma transacción que la
+ * escritura del producto.
+ * <p>
+ * Las transacciones no se confirman en el orden en que obtienen su secuencia, así que un lector que avanzara
+ * hasta la última secuencia confirmada podría saltarse otra menor aún en curso. Por eso el registro lleva
+ * la cuenta de las secuencias pendientes de confirmar y solo expone como visibles las anteriores a la menor
+ * de ellas: todo lo que queda por debajo de {@link #secuenciaVisible()} ya está confirmado o descartado.
+ * </p>
+ * La secuencia de base de datos no retrocede aunque se revierta una transacción o se reinicie el servicio, y no
+ * repite números entre instancias. En la primera operación se descarta un número para partir de uno mayor que
+ * cualquiera asignado antes del arranque: las transacciones de entonces ya terminaron, así que la marca de agua
+ * visible puede empezar ahí. Las secuencias pendientes solo se conocen en esta instancia, por lo que la marca
+ * visible no espera a las transacciones en curso de otras instancias (igual que los índices en memoria, el feed
+ * asume una sola instancia que escribe).
+ * El estado se protege con un {@link ReentrantLock} y no con {@code synchronized}, porque la asignación consulta
+ * la base de datos y un hilo virtual bloqueado dentro de un monitor quedaría fijado a su portador.
+ */
+@Component
+public class RegistroCambiosProductos {
+
+    private static final String INSERTAR_CAMBIO =
+            "INSERT INTO cambios_productos (secuencia, producto_id, tipo, fecha) VALUES (?, ?, ?, ?)";
+    private static final String SIGUIENTE_SECUENCIA = "SELECT NEXT VALUE FOR productos_cambios_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final NavigableSet<Long> pendientes = new TreeSet<>();
+    private long ultimaAsignada = -1;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param jdbcTemplate El JdbcTemplate, que participa en la transacción JPA en curso.
+     */
+    @Autowired
+    public RegistroCambiosProductos(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Registra un cambio de un producto en la transacción en curso. Si la transacción se revierte,
+     * el cambio tampoco queda registrado y su secuencia se descarta.
+     * @param productoId El ID del producto.
+     * @param tipo El tipo de cambio.
+     */
+    public void registrar(Long productoId, TipoCambio tipo) {
+        long secuencia = asignarSecuencia();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int estado) {
+                    liberar(secuencia);
+                }
+            });
+            insertar(secuencia, productoId, tipo);
+        } else {
+            try {
+                insertar(secuencia, productoId, tipo);
+            } finally {
+                liberar(secuencia);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la mayor secuencia que un lector puede consumir sin riesgo de que aparezca después
+     * otra menor: todas las secuencias hasta ella están confirmadas o descartadas.
+     * @return La secuencia visible.
+     */
+    public long secuenciaVisible() {
+        lock.lock();
+        try {
+            inicializarSiHaceFalta();
+            return pendientes.isEmpty() ? ultimaAsignada : pendientes.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la última secuencia asignada, esté o no confirmada.
+     * @return La última secuencia asignada por esta instancia, o la descartada al inicializar si aún no hay cambios.
+     */
+    public long ultimaSecuenciaAsignada() {
+        lock.lock();
+        try {
+            inicializarSiHaceFalta();
+            return ultimaAsignada;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long asignarSecuencia() {
+        lock.lock();
+        try {
+            inicializarSiHaceFalta();
+            // Se obtiene y se marca como pendiente sin soltar el cerrojo, para que la marca visible no la adelante
+            long secuencia = siguienteSecuencia();
+            ultimaAsignada = secuencia;
+            pendientes.add(secuencia);
+            return secuencia;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void liberar(long secuencia) {
+        lock.lock();
+        try {
+            pendientes.remove(secuencia);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void inicializarSiHaceFalta() {
+        if (ultimaAsignada < 0) {
+            ultimaAsignada = siguienteSecuencia();
+        }
+    }
+
+    private long siguienteSecuencia() {
+        Long secuencia = jdbcTemplate.queryForObject(SIGUIENTE_SECUENCIA, Long.class);
+        if (secuencia == null) {
+            throw new IllegalStateException("La secuencia productos_cambios_seq no devolvió ningún valor");
+        }
+        return secuencia;
+    }
+
+    private void insertar(long secuencia, Long productoId, TipoCambio tipo) {
+        jdbcTemplate.update(INSERTAR_CAMBIO, secuencia, productoId, tipo.name(), OffsetDateTime.now(ZoneOffset.UTC));
+    }
+}
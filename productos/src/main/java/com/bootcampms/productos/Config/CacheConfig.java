@@ -0,0 +1,56 @@
+package com.bootcampms.productos.Config;
+
+import com.bootcampms.productos.Cache.CanalInvalidacionLocal;
+import com.bootcampms.productos.Cache.CanalInvalidacionProductos;
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de la caché de productos, de su canal de invalidación y del catálogo de categorías.
+ */
+@Configuration
+public class CacheConfig {
+
+    /**
+     * Canal de invalidación por defecto, local a la JVM.
+     * Para varias instancias, registrar otro bean {@link CanalInvalidacionProductos} anotado con {@code @Primary}.
+     * @return El canal de invalidación en memoria.
+     */
+    @Bean
+    public CanalInvalidacionProductos canalInvalidacionProductos() {
+        return new CanalInvalidacionLocal();
+    }
+
+    /**
+     * Crea la caché de productos por ID.
+     * @param tamanioMaximo Número máximo de entradas ({@code productos.cache.tamanio-maximo}).
+     * @param ttl Tiempo de vida de cada entrada ({@code productos.cache.ttl}).
+     * @param canalInvalidacion Canal para propagar invalidaciones entre instancias.
+     * @param meterRegistry Registro de Micrometer para las métricas de la caché.
+     * @return La caché de productos.
+     */
+    @Bean
+    public ProductoCache productoCache(@Value("${productos.cache.tamanio-maximo:10000}") long tamanioMaximo,
+                                       @Value("${productos.cache.ttl:10m}") Duration ttl,
+                                       CanalInvalidacionProductos canalInvalidacion,
+                                       MeterRegistry meterRegistry) {
+        return new ProductoCache(tamanioMaximo, ttl, canalInvalidacion, meterRegistry);
+    }
+
+    /**
+     * Crea el catálogo en memoria de categorías (instantánea inmutable, recargada tras cada escritura).
+     * @param categoriaRepository El repositorio de categorías.
+     * @return El catálogo de categorías.
+     */
+    @Bean
+    public CatalogoCategorias catalogoCategorias(CategoriaRepository categoriaRepository) {
+        return new CatalogoCategorias(categoriaRepository);
+    }
+}
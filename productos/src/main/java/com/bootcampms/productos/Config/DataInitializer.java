@@ -21,7 +21,7 @@ import java.util.Arrays;
  * Activo principalmente en perfiles de desarrollo o prueba.
  */
 @Component
-@Profile("dev") // Opcional: Activar solo para el perfil 'dev' o perfiles específicos
+@Profile("dev & !datos-sinteticos") // Con datos-sinteticos el catálogo lo genera GeneradorDatosSinteticos
 public class DataInitializer implements CommandLineRunner {
 
     private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
@@ -0,0 +1,132 @@
+package com.bootcampms.productos.Config;
+
+import com.bootcampms.productos.Controller.ProductoReactivoHandler;
+import com.bootcampms.productos.Exception.ManejadorErroresReactivo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Configuración de la API reactiva de lectura de productos (perfil {@code reactivo}).
+ * <p>
+ * La aplicación sigue siendo MVC sobre Tomcat; este perfil añade, en otro puerto, un servidor Reactor Netty con
+ * rutas funcionales de WebFlux para las lecturas por ID, listado, lote y búsqueda. Estas leen de la misma base de
+ * datos con R2DBC, sin JPA ni hilos bloqueados. Las escrituras siguen atendiéndose solo por la API MVC.
+ * </p>
+ * Las autoconfiguraciones de R2DBC de Spring Boot están excluidas en {@code application.properties}: el pool se
+ * declara aquí para que solo exista con este perfil y sin un segundo gestor de transacciones junto al de JPA.
+ * No se publica como bean {@link io.r2dbc.spi.ConnectionFactory}: con uno en el contexto, Spring Boot no crearía el
+ * {@code DataSource} de JPA y JDBC.
+ */
+@Configuration
+@Profile("reactivo")
+public class ReactivoConfig {
+
+    /**
+     * Pool de conexiones R2DBC de la API reactiva, envuelto para que no cuente como {@link io.r2dbc.spi.ConnectionFactory}
+     * de la aplicación. Se cierra con el contexto.
+     * @param conexiones El pool de conexiones.
+     */
+    public record PoolReactivo(ConnectionPool conexiones) {
+
+        public void cerrar() {
+            conexiones.dispose();
+        }
+    }
+
+    /**
+     * Crea el pool de conexiones R2DBC.
+     * @param url URL R2DBC de la base de datos; debe apuntar a la misma que {@code spring.datasource.url}
+     *            ({@code productos.reactivo.r2dbc-url}).
+     * @param usuario Usuario de la base de datos, el mismo que el de JDBC ({@code spring.datasource.username}).
+     * @param clave Contraseña de la base de datos ({@code spring.datasource.password}).
+     * @param tamanioMaximo Número máximo de conexiones del pool ({@code productos.reactivo.pool-maximo}).
+     * @return El pool de conexiones.
+     */
+    @Bean(destroyMethod = "cerrar")
+    public PoolReactivo poolReactivo(@Value("${productos.reactivo.r2dbc-url:r2dbc:h2:mem:///bootcampdb}") String url,
+                                     @Value("${spring.datasource.username:sa}") String usuario,
+                                     @Value("${spring.datasource.password:}") String clave,
+                                     @Value("${productos.reactivo.pool-maximo:10}") int tamanioMaximo) {
+        ConnectionFactoryOptions opciones = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, usuario)
+                .option(ConnectionFactoryOptions.PASSWORD, clave)
+                .build();
+        ConnectionPoolConfiguration configuracion = ConnectionPoolConfiguration.builder(ConnectionFactories.get(opciones))
+                .name("productos-reactivo")
+                .initialSize(1)
+                .maxSize(tamanioMaximo)
+                .build();
+        return new PoolReactivo(new ConnectionPool(configuracion));
+    }
+
+    /**
+     * Crea el cliente R2DBC usado por {@link com.bootcampms.productos.Repository.ProductoReactivoRepository}.
+     * @param pool El pool de conexiones R2DBC.
+     * @return El cliente de base de datos.
+     */
+    @Bean
+    public DatabaseClient databaseClientReactivo(PoolReactivo pool) {
+        return DatabaseClient.create(pool.conexiones());
+    }
+
+    /**
+     * Declara las rutas de lectura, con las mismas rutas y parámetros que la API MVC.
+     * Las rutas concretas van antes que {@code /{id}}. Cualquier error, también los lanzados al leer los
+     * parámetros, se traduce a la misma respuesta de error que la API MVC.
+     * @param handler El manejador de las rutas.
+     * @param manejadorErrores El traductor de errores a {@link com.bootcampms.productos.Exception.GlobalExceptionHandler.ErrorResponse}.
+     * @return Las rutas de la API reactiva.
+     */
+    @Bean
+    public RouterFunction<ServerResponse> rutasProductosReactivas(ProductoReactivoHandler handler,
+                                                                  ManejadorErroresReactivo manejadorErrores) {
+        return RouterFunctions.route()
+                .GET("/api/v1/productos", handler::obtenerTodos)
+                .GET("/api/v1/productos/search", handler::buscar)
+                .GET("/api/v1/productos/batch", handler::obtenerLote)
+                .POST("/api/v1/productos/batch", handler::obtenerLotePost)
+                .GET("/api/v1/productos/{id}", handler::obtenerPorId)
+                .filter((request, siguiente) -> Mono.defer(() -> siguiente.handle(request))
+                        .onErrorResume(manejadorErrores::responder))
+                .build();
+    }
+
+    /**
+     * Crea el servidor Reactor Netty de la API reactiva. Usa el ObjectMapper de la aplicación para mantener
+     * el mismo contrato JSON que la API MVC.
+     * @param rutas Las rutas de la API reactiva.
+     * @param objectMapper El ObjectMapper de la aplicación.
+     * @param puerto Puerto del servidor ({@code productos.reactivo.puerto}).
+     * @param hilos Hilos de event loop ({@code productos.reactivo.hilos}); 0 para uno por núcleo.
+     * @return El servidor, que arranca y se detiene con el contexto.
+     */
+    @Bean
+    public ServidorReactivo servidorReactivo(RouterFunction<ServerResponse> rutas,
+                                             ObjectMapper objectMapper,
+                                             @Value("${productos.reactivo.puerto:8090}") int puerto,
+                                             @Value("${productos.reactivo.hilos:0}") int hilos) {
+        HandlerStrategies estrategias = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        int hilosEfectivos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        return new ServidorReactivo(RouterFunctions.toHttpHandler(rutas, estrategias), puerto, hilosEfectivos);
+    }
+}
@@ -0,0 +1,81 @@
+package com.bootcampms.productos.Config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Servidor Reactor Netty que publica la API reactiva de lectura en su propio puerto, junto al Tomcat de la API MVC.
+ * <p>
+ * Usa su propio grupo de hilos de event loop (pocos y de número fijo): ninguna ruta bloquea, así que un hilo por
+ * núcleo basta para atender cualquier número de conexiones concurrentes. Se arranca al final del refresco del
+ * contexto y se detiene antes de cerrar el pool de conexiones R2DBC.
+ * </p>
+ */
+public class ServidorReactivo implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServidorReactivo.class);
+
+    private final HttpHandler httpHandler;
+    private final int puerto;
+    private final int hilos;
+    private volatile LoopResources bucles;
+    private volatile DisposableServer servidor;
+
+    /**
+     * Constructor del servidor; no abre el puerto hasta {@link #start()}.
+     * @param httpHandler El manejador HTTP con las rutas reactivas.
+     * @param puerto Puerto en el que escuchar (0 para uno libre cualquiera).
+     * @param hilos Número de hilos de event loop.
+     */
+    public ServidorReactivo(HttpHandler httpHandler, int puerto, int hilos) {
+        this.httpHandler = httpHandler;
+        this.puerto = puerto;
+        this.hilos = hilos;
+    }
+
+    @Override
+    public void start() {
+        bucles = LoopResources.create("productos-reactivo", hilos, true);
+        servidor = HttpServer.create()
+                .port(puerto)
+                .runOn(bucles)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("API reactiva de lectura escuchando en el puerto {} ({} hilos de event loop).", servidor.port(), hilos);
+    }
+
+    @Override
+    public void stop() {
+        if (servidor != null) {
+            servidor.disposeNow();
+            servidor = null;
+        }
+        if (bucles != null) {
+            bucles.disposeLater().block();
+            bucles = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return servidor != null;
+    }
+
+    /**
+     * @return El puerto en el que escucha el servidor (útil cuando se configuró el puerto 0).
+     * @throws IllegalStateException si el servidor no está arrancado.
+     */
+    public int getPuerto() {
+        DisposableServer actual = servidor;
+        if (actual == null) {
+            throw new IllegalStateException("El servidor reactivo no está arrancado.");
+        }
+        return actual.port();
+    }
+}
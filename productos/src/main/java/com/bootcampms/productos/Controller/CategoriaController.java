@@ -0,0 +1,141 @@
+package com.bootcampms.productos.Controller;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Exception.GlobalExceptionHandler;
+import com.bootcampms.productos.Exception.RecursoNoEncontradoException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Service.CategoriaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Controlador REST para las categorías de productos.
+ * Las lecturas se sirven desde el catálogo en memoria con ETag, de modo que los clientes pueden
+ * revalidar con {@code If-None-Match} y recibir {@code 304 Not Modified} sin cuerpo.
+ */
+@RestController
+@RequestMapping("/api/v1/categorias")
+@Tag(name = "Categoria API", description = "Operaciones pertenecientes a las categorías de productos")
+public class CategoriaController {
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    /**
+     * Obtiene todas las categorías.
+     * @param request La solicitud, para evaluar {@code If-None-Match}.
+     * @return ResponseEntity con las categorías y su ETag, o null si el cliente ya tiene la versión vigente (304).
+     */
+    @Operation(summary = "Obtener todas las categorías",
+            description = "Devuelve todas las categorías ordenadas por ID, con un ETag que cambia con cualquier modificación. " +
+                    "Con If-None-Match y el ETag vigente responde 304 sin cuerpo.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de categorías obtenida exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Categoria.class))),
+            @ApiResponse(responseCode = "304", description = "Las categorías no han cambiado desde el ETag indicado")
+    })
+    @GetMapping
+    public ResponseEntity<Collection<Categoria>> obtenerTodas(WebRequest request) {
+        CatalogoCategorias.Instantanea instantanea = categoriaService.obtenerCategorias();
+        if (request.checkNotModified(instantanea.etag())) {
+            return null; // Spring responde 304 con el ETag
+        }
+        return ResponseEntity.ok().eTag(instantanea.etag()).body(instantanea.todas());
+    }
+
+    /**
+     * Obtiene una categoría por su ID.
+     * @param id El ID de la categoría.
+     * @param request La solicitud, para evaluar {@code If-None-Match}.
+     * @return ResponseEntity con la categoría y su ETag, o null si el cliente ya tiene la versión vigente (304).
+     * @throws RecursoNoEncontradoException si la categoría no existe.
+     */
+    @Operation(summary = "Obtener una categoría por ID", description = "Devuelve una categoría con su ETag. Admite If-None-Match.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Categoría encontrada",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Categoria.class))),
+            @ApiResponse(responseCode = "304", description = "La categoría no ha cambiado desde el ETag indicado"),
+            @ApiResponse(responseCode = "404", description = "Categoría no encontrada",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<Categoria> obtenerPorId(
+            @Parameter(description = "ID de la categoría.", required = true)
+            @PathVariable Long id,
+            WebRequest request) {
+        Categoria categoria = categoriaService.obtenerCategoriaPorId(id)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Categoría con ID " + id + " no encontrada."));
+        String etag = CatalogoCategorias.calcularEtag(List.of(categoria));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(categoria);
+    }
+
+    /**
+     * Crea una nueva categoría.
+     * @param categoria La categoría a crear. El ID se ignora.
+     * @return ResponseEntity con la categoría creada y estado HTTP CREATED.
+     * @throws com.bootcampms.productos.Exception.CategoriaDuplicadaException si el nombre ya existe.
+     */
+    @Operation(summary = "Crear una categoría", description = "Crea una categoría. El catálogo en memoria se recarga tras el commit.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Categoría creada exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Categoria.class))),
+            @ApiResponse(responseCode = "400", description = "Datos de validación incorrectos"),
+            @ApiResponse(responseCode = "409", description = "Ya existe una categoría con ese nombre",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @PostMapping
+    public ResponseEntity<Categoria> crearCategoria(@Valid @RequestBody Categoria categoria) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(categoriaService.crearCategoria(categoria));
+    }
+
+    /**
+     * Actualiza el nombre y la descripción de una categoría.
+     * @param id El ID de la categoría.
+     * @param categoria Los nuevos datos de la categoría.
+     * @return ResponseEntity con la categoría actualizada y estado HTTP OK.
+     * @throws RecursoNoEncontradoException si la categoría no existe.
+     * @throws com.bootcampms.productos.Exception.CategoriaDuplicadaException si el nuevo nombre ya existe.
+     */
+    @Operation(summary = "Actualizar una categoría", description = "Actualiza una categoría. El catálogo en memoria se recarga tras el commit.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Categoría actualizada exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Categoria.class))),
+            @ApiResponse(responseCode = "404", description = "Categoría no encontrada",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Ya existe una categoría con ese nombre",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @PutMapping("/{id}")
+    public ResponseEntity<Categoria> actualizarCategoria(
+            @Parameter(description = "ID de la categoría a actualizar.", required = true)
+            @PathVariable Long id,
+            @Valid @RequestBody Categoria categoria) {
+        return ResponseEntity.ok(categoriaService.actualizarCategoria(id, categoria));
+    }
+}
@@ -1,6 +1,19 @@
 package com.bootcampms.productos.Controller;
 
+import com.bootcampms.productos.DTO.FeedCambiosDTO;
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO;
+import com.bootcampms.productos.DTO.ResultadoFacetasDTO;
+import com.bootcampms.productos.DTO.ResultadoLoteDTO;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
+import com.bootcampms.productos.DTO.VistaProducto;
+import com.bootcampms.productos.Model.Estado;
 import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
+import com.bootcampms.productos.Service.CambiosProductoService;
+import com.bootcampms.productos.Service.ProductoCargaMasivaService;
+import com.bootcampms.productos.Service.ProductoExportacionService;
+import com.bootcampms.productos.Service.ProductoLoteService;
 import com.bootcampms.productos.Service.ProductoService;
 import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
 import com.bootcampms.productos.Exception.GlobalExceptionHandler; // Para referencia en @ApiResponse
@@ -16,14 +29,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Controlador REST para gestionar las operaciones CRUD de productos.
@@ -37,32 +57,310 @@ public class ProductoController {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private ProductoExportacionService productoExportacionService;
+
+    @Autowired
+    private ProductoCargaMasivaService productoCargaMasivaService;
+
+    @Autowired
+    private ProductoLoteService productoLoteService;
+
+    @Autowired
+    private CambiosProductoService cambiosProductoService;
+
     /**
      * Obtiene una lista de todos los productos.
+     * @param vista Representación de los productos (completa o resumen).
      * @return ResponseEntity con una lista de productos y estado HTTP OK.
      */
-    @Operation(summary = "Obtener todos los productos", description = "Devuelve una lista de todos los productos existentes en el sistema.")
+    @Operation(summary = "Obtener todos los productos", description = "Devuelve una lista de todos los productos existentes en el sistema. " +
+            "Con vista=RESUMEN devuelve solo los campos de listado, leídos como proyección.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de productos obtenida exitosamente",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = List.class, subTypes = {Producto.class})))
     })
     @GetMapping
-    public ResponseEntity<List<Producto>> obtenerTodos() {
-        List<Producto> productos = productoService.obtenerTodosLosProductos();
+    public ResponseEntity<List<?>> obtenerTodos(
+            @Parameter(description = "Representación de los productos: COMPLETA o RESUMEN (solo campos de listado, sin hidratar entidades).", example = "RESUMEN")
+            @RequestParam(defaultValue = "COMPLETA") VistaProducto vista) {
+        List<?> productos = vista == VistaProducto.RESUMEN
+                ? productoService.obtenerResumenProductos()
+                : productoService.obtenerTodosLosProductos();
         return ResponseEntity.ok(productos);
     }
 
+    /**
+     * Obtiene una página del catálogo mediante paginación por cursor.
+     * @param cursor Cursor opaco devuelto en la página anterior (opcional).
+     * @param size Tamaño de página solicitado (se limita al máximo permitido).
+     * @param categoria ID de categoría por la que filtrar (opcional).
+     * @param estado Estado por el que filtrar (opcional).
+     * @param vista Representación de los productos (completa o resumen).
+     * @return ResponseEntity con la página de productos y el cursor siguiente, y estado HTTP OK.
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    @Operation(summary = "Obtener productos paginados por cursor",
+            description = "Devuelve una página de productos ordenados por ID, con filtros opcionales por categoría y estado. " +
+                    "Usar el valor 'siguiente' de la respuesta como 'cursor' para obtener la página siguiente.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de productos obtenida exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = PaginaProductosDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @GetMapping("/pagina")
+    public ResponseEntity<PaginaProductosDTO<?>> obtenerPagina(
+            @Parameter(description = "Cursor opaco de la página anterior. Omitir para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo " + ProductoService.TAMANIO_PAGINA_MAXIMO + ").", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "ID de la categoría por la que filtrar.", example = "1")
+            @RequestParam(required = false) Long categoria,
+            @Parameter(description = "Estado por el que filtrar.", example = "PUBLICADO")
+            @RequestParam(required = false) Estado estado,
+            @Parameter(description = "Representación de los productos: COMPLETA o RESUMEN (solo campos de listado, sin hidratar entidades).", example = "RESUMEN")
+            @RequestParam(defaultValue = "COMPLETA") VistaProducto vista) {
+        PaginaProductosDTO<?> pagina = vista == VistaProducto.RESUMEN
+                ? productoService.obtenerPaginaResumen(cursor, size, categoria, estado)
+                : productoService.obtenerPaginaProductos(cursor, size, categoria, estado);
+        return ResponseEntity.ok(pagina);
+    }
+
+    /**
+     * Filtra el catálogo por facetas y devuelve una página de resultados con los recuentos por faceta.
+     * @param categoria IDs de categoría (se admite cualquiera de ellos).
+     * @param estado Estados admitidos; por defecto solo PUBLICADO, que es lo visible en la tienda.
+     * @param precioMin Precio efectivo mínimo (precio de oferta si existe, si no el precio).
+     * @param precioMax Precio efectivo máximo.
+     * @param enOferta Si se indica, filtra por productos con (true) o sin (false) precio de oferta.
+     * @param cursor Cursor opaco devuelto en la página anterior (opcional).
+     * @param size Tamaño de página solicitado (se limita al máximo permitido).
+     * @param vista Representación de los productos (completa o resumen).
+     * @return ResponseEntity con la página, el total y los recuentos por faceta, y estado HTTP OK.
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    @Operation(summary = "Filtrar productos por facetas",
+            description = "Filtra por categoría, estado, rango de precio efectivo y oferta usando un índice de bitmaps en memoria. " +
+                    "Devuelve los productos ordenados por ID, paginados por cursor, junto con el total y los recuentos por categoría, estado y oferta.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados y recuentos obtenidos exitosamente",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ResultadoFacetasDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @GetMapping("/facetas")
+    public ResponseEntity<ResultadoFacetasDTO<?>> filtrarPorFacetas(
+            @Parameter(description = "IDs de categoría. Repetir el parámetro para varias.", example = "1")
+            @RequestParam(required = false) List<Long> categoria,
+            @Parameter(description = "Estados admitidos. Repetir el parámetro para varios.", example = "PUBLICADO")
+            @RequestParam(defaultValue = "PUBLICADO") List<Estado> estado,
+            @Parameter(description = "Precio efectivo mínimo (inclusive).", example = "10.00")
+            @RequestParam(required = false) BigDecimal precioMin,
+            @Parameter(description = "Precio efectivo máximo (inclusive).", example = "500.00")
+            @RequestParam(required = false) BigDecimal precioMax,
+            @Parameter(description = "Filtrar por productos en oferta (true) o sin oferta (false).")
+            @RequestParam(required = false) Boolean enOferta,
+            @Parameter(description = "Cursor opaco de la página anterior. Omitir para la primera página.")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Tamaño de página (máximo " + ProductoService.TAMANIO_PAGINA_MAXIMO + ").", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Representación de los productos: COMPLETA o RESUMEN (solo campos de listado, sin hidratar entidades).", example = "RESUMEN")
+            @RequestParam(defaultValue = "COMPLETA") VistaProducto vista) {
+        IndiceFacetasProductos.Filtro filtro = new IndiceFacetasProductos.Filtro(categoria, estado, precioMin, precioMax, enOferta);
+        ResultadoFacetasDTO<?> resultado = vista == VistaProducto.RESUMEN
+                ? productoService.filtrarPorFacetasResumen(filtro, cursor, size)
+                : productoService.filtrarPorFacetas(filtro, cursor, size);
+        return ResponseEntity.ok(resultado);
+    }
+
+    /**
+     * Exporta el catálogo completo como NDJSON (un producto JSON por línea), en streaming.
+     * El cuerpo se escribe directamente desde el cursor de base de datos, por lo que el uso de heap
+     * no depende del tamaño del catálogo.
+     * @param gzip Si es true, la respuesta se comprime con GZIP ({@code Content-Encoding: gzip}).
+     * @return ResponseEntity con el cuerpo en streaming y estado HTTP OK.
+     */
+    @Operation(summary = "Exportar el catálogo en NDJSON",
+            description = "Devuelve todos los productos ordenados por ID, uno por línea (application/x-ndjson), en streaming. " +
+                    "Pensado para sistemas que sincronizan el catálogo completo (indexadores, feeds).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = Producto.class)))
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @Parameter(description = "Comprimir la respuesta con GZIP.", example = "false")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StreamingResponseBody cuerpo = salida -> {
+            if (gzip) {
+                GZIPOutputStream salidaGzip = new GZIPOutputStream(salida, 8192);
+                productoExportacionService.exportarProductos(salidaGzip);
+                salidaGzip.finish();
+            } else {
+                productoExportacionService.exportarProductos(salida);
+            }
+        };
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON);
+        if (gzip) {
+            respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return respuesta.body(cuerpo);
+    }
+
+    /**
+     * Exporta solo los IDs del catálogo como NDJSON (un número por línea), en streaming y sin cargar las entidades.
+     * @return La respuesta en streaming con los IDs.
+     */
+    @Operation(summary = "Exportar los IDs del catálogo en NDJSON",
+            description = "Devuelve los IDs de todos los productos ordenados, uno por línea (application/x-ndjson), en streaming. " +
+                    "Pensado para clientes que solo necesitan saber qué productos existen, como la caché de inventario.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Exportación en curso",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(type = "integer", format = "int64")))
+    })
+    @GetMapping(value = "/export/ids", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarIds() {
+        StreamingResponseBody cuerpo = productoExportacionService::exportarIds;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(cuerpo);
+    }
+
+    /**
+     * Obtiene en lote los productos indicados por ID y/o SKU en la query string.
+     * @param ids IDs de los productos (separados por comas o repitiendo el parámetro).
+     * @param skus SKUs de los productos (separados por comas o repitiendo el parámetro).
+     * @return ResponseEntity con el resultado en streaming y estado HTTP OK.
+     * @throws com.bootcampms.productos.Exception.SolicitudLoteInvalidaException si no hay claves o se supera el máximo.
+     */
+    @Operation(summary = "Obtener productos en lote (GET)",
+            description = "Devuelve los productos solicitados por ID y/o SKU, en el orden de la solicitud, y las claves no encontradas. " +
+                    "Se resuelven con una consulta IN por tramo (o desde la caché) y la respuesta se escribe en streaming.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos encontrados y claves no encontradas",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ResultadoLoteDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Sin claves o más claves de las permitidas",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @GetMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> obtenerLote(
+            @Parameter(description = "IDs de los productos.", example = "1,2,3")
+            @RequestParam(required = false) List<Long> ids,
+            @Parameter(description = "SKUs de los productos.", example = "SKU001,SKU002")
+            @RequestParam(required = false) List<String> skus) {
+        return responderLote(new SolicitudLoteDTO(ids, skus));
+    }
+
+    /**
+     * Obtiene en lote los productos indicados por ID y/o SKU en el cuerpo, para listas que no caben en la URL.
+     * @param solicitud Las claves de los productos.
+     * @return ResponseEntity con el resultado en streaming y estado HTTP OK.
+     * @throws com.bootcampms.productos.Exception.SolicitudLoteInvalidaException si no hay claves o se supera el máximo.
+     */
+    @Operation(summary = "Obtener productos en lote (POST)",
+            description = "Igual que GET /batch, con las claves en el cuerpo de la solicitud.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Productos encontrados y claves no encontradas",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ResultadoLoteDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Sin claves o más claves de las permitidas",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> obtenerLote(
+            @Parameter(description = "IDs y/o SKUs de los productos.", required = true)
+            @RequestBody SolicitudLoteDTO solicitud) {
+        return responderLote(solicitud);
+    }
+
+    private ResponseEntity<StreamingResponseBody> responderLote(SolicitudLoteDTO solicitud) {
+        // Se valida antes de empezar el streaming: una vez escrita la respuesta ya no se puede devolver un 400
+        SolicitudLoteDTO validada = productoLoteService.validarSolicitud(solicitud);
+        StreamingResponseBody cuerpo = salida -> productoLoteService.escribirProductos(validada, salida);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cuerpo);
+    }
+
+    /**
+     * Busca productos por texto sobre nombre, descripción y SKU.
+     * @param q Texto de búsqueda.
+     * @param limite Número máximo de resultados (se limita al máximo permitido).
+     * @param vista Representación de los productos (completa o resumen).
+     * @return ResponseEntity con los productos ordenados por relevancia y estado HTTP OK.
+     */
+    @Operation(summary = "Buscar productos por texto",
+            description = "Busca en nombre, descripción y SKU sin distinguir mayúsculas ni tildes. Todos los términos deben aparecer, " +
+                    "cada uno completo o como prefijo, y los resultados se ordenan por relevancia (BM25).")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Resultados de la búsqueda (lista vacía si no hay coincidencias)",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = Producto.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<?>> buscar(
+            @Parameter(description = "Texto de búsqueda.", required = true, example = "laptop")
+            @RequestParam String q,
+            @Parameter(description = "Número máximo de resultados (máximo " + ProductoService.LIMITE_BUSQUEDA_MAXIMO + ").", example = "20")
+            @RequestParam(defaultValue = "20") int limite,
+            @Parameter(description = "Representación de los productos: COMPLETA o RESUMEN (solo campos de listado, sin hidratar entidades).", example = "RESUMEN")
+            @RequestParam(defaultValue = "COMPLETA") VistaProducto vista) {
+        List<?> productos = vista == VistaProducto.RESUMEN
+                ? productoService.buscarResumen(q, limite)
+                : productoService.buscarProductos(q, limite);
+        return ResponseEntity.ok(productos);
+    }
+
+    /**
+     * Obtiene los cambios del catálogo posteriores a una marca de agua, para sincronización incremental.
+     * @param since La secuencia del último cambio ya procesado por el consumidor (0 para empezar desde el principio).
+     * @param limite Número máximo de cambios (se limita al máximo permitido).
+     * @return ResponseEntity con los cambios y la marca de agua siguiente, y estado HTTP OK.
+     */
+    @Operation(summary = "Feed de cambios del catálogo",
+            description = "Devuelve, en orden de secuencia, las altas, modificaciones y bajas (lápidas) de productos posteriores a 'since', " +
+                    "con el estado actual de cada producto. El consumidor guarda 'siguiente' y lo envía como 'since' en la próxima consulta; " +
+                    "mientras 'hayMas' sea true puede seguir pidiendo páginas. Un consumidor al día recibe una lista vacía.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Página de cambios (vacía si el consumidor está al día)",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = FeedCambiosDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Marca de agua inválida",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<FeedCambiosDTO> obtenerCambios(
+            @Parameter(description = "Secuencia del último cambio ya procesado.", example = "0")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Número máximo de cambios por página.", example = "500")
+            @RequestParam(defaultValue = "500") int limite) {
+        return ResponseEntity.ok(cambiosProductoService.obtenerCambios(since, limite));
+    }
+
     /**
      * Obtiene un producto específico por su ID.
      * @param id El ID del producto a obtener.
-     * @return ResponseEntity con el producto encontrado y estado HTTP OK, o NotFound si no existe.
+     * @param request La solicitud, para evaluar {@code If-None-Match}.
+     * @return ResponseEntity con el producto encontrado, su ETag y estado HTTP OK, o null si el cliente
+     *         ya tiene la versión vigente (304).
+     * @throws RecursoNoEncontradoException si el producto no existe.
      */
-    @Operation(summary = "Obtener un producto por ID", description = "Devuelve un producto específico basado en su ID.")
+    @Operation(summary = "Obtener un producto por ID",
+            description = "Devuelve un producto específico basado en su ID, con un ETag fuerte que cambia con cada modificación. " +
+                    "Con If-None-Match y el ETag vigente responde 304 sin cargar ni serializar el producto.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto encontrado",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = Producto.class))),
+            @ApiResponse(responseCode = "304", description = "El producto no ha cambiado desde el ETag indicado"),
             @ApiResponse(responseCode = "404", description = "Producto no encontrado",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
@@ -70,10 +368,18 @@ public class ProductoController {
     @GetMapping("/{id}")
     public ResponseEntity<Producto> obtenerPorId(
             @Parameter(description = "ID del producto a ser obtenido. No puede ser vacío.", required = true)
-            @PathVariable Long id) {
-        return productoService.obtenerProductoPorId(id)
-                .map(ResponseEntity::ok)
+            @PathVariable Long id,
+            WebRequest request) {
+        // Revalidación barata: se compara el ETag (versión) antes de cargar el producto
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<String> etag = productoService.obtenerEtagProducto(id);
+            if (etag.isPresent() && request.checkNotModified(etag.get())) {
+                return null; // Spring responde 304 con el ETag
+            }
+        }
+        Producto producto = productoService.obtenerProductoPorId(id)
                 .orElseThrow(() -> new RecursoNoEncontradoException("Producto con ID " + id + " no encontrado."));
+        return ResponseEntity.ok().eTag(productoService.calcularEtag(producto)).body(producto);
     }
 
     /**
@@ -109,19 +415,44 @@ public class ProductoController {
         }
         // Las validaciones de SKU y CodBar duplicado se manejan en el servicio y GlobalExceptionHandler
         Producto nuevoProducto = productoService.guardarProducto(producto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(nuevoProducto);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(productoService.calcularEtag(nuevoProducto)).body(nuevoProducto);
+    }
+
+    /**
+     * Crea o actualiza productos en bloque, identificándolos por SKU.
+     * Cada producto se valida individualmente: un producto inválido o en conflicto no hace fallar al resto.
+     * @param productos Lista de productos a cargar. Ninguno debe traer ID.
+     * @return ResponseEntity con un resultado por producto, en el mismo orden que la solicitud, y estado HTTP OK.
+     */
+    @Operation(summary = "Carga masiva de productos (upsert por SKU)",
+            description = "Crea los productos cuyo SKU no existe y actualiza los existentes. El stock no se modifica en las actualizaciones. " +
+                    "Devuelve un resultado por producto (CREADO, ACTUALIZADO, CONFLICTO o INVALIDO) en el orden de la solicitud.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Carga procesada; consultar el resultado de cada producto",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = ResultadoCargaMasivaDTO.class)))
+    })
+    @PostMapping("/bulk")
+    public ResponseEntity<List<ResultadoCargaMasivaDTO>> cargarProductos(
+            @Parameter(description = "Lista de productos a crear o actualizar.", required = true)
+            @RequestBody List<Producto> productos) {
+        return ResponseEntity.ok(productoCargaMasivaService.cargarProductos(productos));
     }
 
     /**
      * Actualiza un producto existente.
      * @param id El ID del producto a actualizar.
      * @param productoDetallesDTO DTO con los detalles del producto a actualizar.
-     * @return ResponseEntity con el producto actualizado y estado HTTP OK.
+     * @param ifMatch Valor de la cabecera {@code If-Match} (opcional): ETags con los que se permite actualizar, o {@code *}.
+     * @return ResponseEntity con el producto actualizado, su nuevo ETag y estado HTTP OK.
      * @throws RecursoNoEncontradoException si el producto con el ID especificado no existe.
+     * @throws com.bootcampms.productos.Exception.ProductoModificadoException si el ETag de If-Match ya no es el vigente (lanzada por el servicio).
      * @throws com.bootcampms.productos.Exception.SkuDuplicadoException si el nuevo SKU ya está en uso (lanzada por el servicio).
      * @throws com.bootcampms.productos.Exception.CodBarDuplicadoException si el nuevo CodBar ya está en uso (lanzada por el servicio).
      */
-    @Operation(summary = "Actualizar un producto existente", description = "Actualiza los detalles de un producto existente basado en su ID.")
+    @Operation(summary = "Actualizar un producto existente",
+            description = "Actualiza los detalles de un producto existente basado en su ID. Con If-Match solo se actualiza si el ETag " +
+                    "indicado sigue siendo el vigente; si no, responde 412 y el cliente debe volver a leer el producto.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Producto actualizado exitosamente",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
@@ -132,7 +463,10 @@ public class ProductoController {
             @ApiResponse(responseCode = "404", description = "Producto no encontrado para actualizar",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class))),
-            @ApiResponse(responseCode = "409", description = "Conflicto (ej. nuevo SKU o Código de Barras duplicado)",
+            @ApiResponse(responseCode = "409", description = "Conflicto (ej. nuevo SKU o Código de Barras duplicado, o modificación concurrente)",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                            schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class))),
+            @ApiResponse(responseCode = "412", description = "El ETag de If-Match ya no es el vigente",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
                             schema = @Schema(implementation = GlobalExceptionHandler.ErrorResponse.class)))
     })
@@ -142,10 +476,26 @@ public class ProductoController {
             @PathVariable Long id,
             @Parameter(description = "DTO con los campos del producto a actualizar.", required = true,
                     schema = @Schema(implementation = ProductoUpdateRequestDTO.class))
-            @Valid @RequestBody ProductoUpdateRequestDTO productoDetallesDTO) {
-        Producto productoActualizado = productoService.actualizarProducto(id, productoDetallesDTO)
+            @Valid @RequestBody ProductoUpdateRequestDTO productoDetallesDTO,
+            @Parameter(description = "ETag con el que se leyó el producto; la actualización solo se aplica si sigue vigente.", example = "\"0-1a2b3c4d\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Producto productoActualizado = productoService.actualizarProducto(id, productoDetallesDTO, etagsDeIfMatch(ifMatch))
                 .orElseThrow(() -> new RecursoNoEncontradoException("Producto con ID " + id + " no encontrado para actualizar."));
-        return ResponseEntity.ok(productoActualizado);
+        return ResponseEntity.ok().eTag(productoService.calcularEtag(productoActualizado)).body(productoActualizado);
+    }
+
+    /**
+     * Separa la cabecera If-Match en sus ETags. {@code *} (o la ausencia de cabecera) no impone condición.
+     * Los ETags débiles se conservan tal cual y, por la comparación fuerte, nunca coinciden.
+     */
+    private static List<String> etagsDeIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return List.of();
+        }
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .filter(etag -> !etag.isEmpty())
+                .toList();
     }
 
     /**
@@ -0,0 +1,138 @@
+package com.bootcampms.productos.Controller;
+
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
+import com.bootcampms.productos.DTO.VistaProducto;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Service.ProductoReactivoService;
+import com.bootcampms.productos.Service.ProductoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.MissingRequestValueException;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Manejador de las rutas de lectura de la API reactiva de productos (perfil {@code reactivo}).
+ * <p>
+ * Replica el contrato de {@link ProductoController} para las lecturas por ID, listado, lote y búsqueda:
+ * mismas rutas, mismos parámetros y valores por defecto, mismo JSON y mismo ETag. Las rutas se declaran en
+ * {@link com.bootcampms.productos.Config.ReactivoConfig} y los errores los traduce
+ * {@link com.bootcampms.productos.Exception.ManejadorErroresReactivo}.
+ * </p>
+ */
+@Component
+@Profile("reactivo")
+public class ProductoReactivoHandler {
+
+    @Autowired
+    private ProductoReactivoService productoReactivoService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    /**
+     * Obtiene un producto por su ID, con su ETag. Responde 304 si coincide con {@code If-None-Match}.
+     * @param request La petición, con la variable de ruta {@code id}.
+     * @return La respuesta con el producto (200), sin cuerpo (304) o el error 404.
+     */
+    public Mono<ServerResponse> obtenerPorId(ServerRequest request) {
+        Long id = Long.valueOf(request.pathVariable("id"));
+        return productoReactivoService.obtenerProductoPorId(id).flatMap(producto -> {
+            String etag = productoService.calcularEtag(producto);
+            if (coincideEtag(request, etag)) {
+                return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ServerResponse.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).bodyValue(producto);
+        });
+    }
+
+    /**
+     * Obtiene todos los productos. El array JSON se escribe a medida que llegan las filas.
+     * @param request La petición, con el parámetro opcional {@code vista}.
+     * @return La respuesta con la lista de productos o de resúmenes.
+     */
+    public Mono<ServerResponse> obtenerTodos(ServerRequest request) {
+        if (vista(request) == VistaProducto.RESUMEN) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(productoReactivoService.obtenerResumenProductos(), ProductoResumenDTO.class);
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(productoReactivoService.obtenerTodosLosProductos(), Producto.class);
+    }
+
+    /**
+     * Busca productos por texto.
+     * @param request La petición, con {@code q} (obligatorio), {@code limite} y {@code vista}.
+     * @return La respuesta con los productos ordenados por relevancia, o el error 400 si falta {@code q}.
+     */
+    public Mono<ServerResponse> buscar(ServerRequest request) {
+        String q = request.queryParam("q")
+                .orElseThrow(() -> new MissingRequestValueException("q", String.class, "query parameter", null));
+        int limite = request.queryParam("limite").map(Integer::parseInt).orElse(20);
+        if (vista(request) == VistaProducto.RESUMEN) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(productoReactivoService.buscarResumen(q, limite), ProductoResumenDTO.class);
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(productoReactivoService.buscarProductos(q, limite), Producto.class);
+    }
+
+    /**
+     * Obtiene en lote los productos indicados por ID y/o SKU en la query string
+     * (separados por comas o repitiendo el parámetro).
+     * @param request La petición, con los parámetros {@code ids} y {@code skus}.
+     * @return La respuesta con el resultado del lote, o el error 400 si la solicitud no es válida.
+     */
+    public Mono<ServerResponse> obtenerLote(ServerRequest request) {
+        SolicitudLoteDTO solicitud = new SolicitudLoteDTO(
+                valoresLista(request, "ids", Long::valueOf), valoresLista(request, "skus", Function.identity()));
+        return responderLote(solicitud);
+    }
+
+    /**
+     * Obtiene en lote los productos indicados en el cuerpo de la petición.
+     * @param request La petición, con un {@link SolicitudLoteDTO} como cuerpo.
+     * @return La respuesta con el resultado del lote, o el error 400 si la solicitud no es válida.
+     */
+    public Mono<ServerResponse> obtenerLotePost(ServerRequest request) {
+        return request.bodyToMono(SolicitudLoteDTO.class)
+                .defaultIfEmpty(new SolicitudLoteDTO())
+                .flatMap(this::responderLote);
+    }
+
+    private Mono<ServerResponse> responderLote(SolicitudLoteDTO solicitud) {
+        return productoReactivoService.obtenerLote(solicitud)
+                .flatMap(resultado -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(resultado));
+    }
+
+    private static VistaProducto vista(ServerRequest request) {
+        return request.queryParam("vista").map(VistaProducto::valueOf).orElse(VistaProducto.COMPLETA);
+    }
+
+    private static <T> List<T> valoresLista(ServerRequest request, String nombre, Function<String, T> conversor) {
+        return request.queryParams().getOrDefault(nombre, List.of()).stream()
+                .flatMap(valor -> Arrays.stream(valor.split(",")))
+                .map(String::trim)
+                .filter(valor -> !valor.isEmpty())
+                .map(conversor)
+                .toList();
+    }
+
+    private static boolean coincideEtag(ServerRequest request, String etag) {
+        return request.headers().header(HttpHeaders.IF_NONE_MATCH).stream()
+                .flatMap(valor -> Arrays.stream(valor.split(",")))
+                .map(String::trim)
+                .anyMatch(valor -> valor.equals(etag) || valor.equals("*"));
+    }
+}
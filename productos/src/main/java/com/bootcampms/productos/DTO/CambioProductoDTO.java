@@ -0,0 +1,36 @@
+package com.bootcampms.productos.DTO;
+
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO que representa un cambio de un producto en el feed de cambios.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Cambio de un producto en el feed de cambios.")
+public class CambioProductoDTO {
+
+    @Schema(description = "Secuencia del cambio, creciente en todo el catálogo.", example = "1042")
+    private Long secuencia;
+
+    @Schema(description = "Tipo de cambio.", example = "ACTUALIZADO")
+    private TipoCambio tipo;
+
+    @Schema(description = "ID del producto afectado.", example = "1")
+    private Long productoId;
+
+    @Schema(description = "Momento en que se registró el cambio.")
+    private Instant fecha;
+
+    @Schema(description = "Estado actual del producto, o nulo si el producto ya no existe (en las lápidas y en cambios " +
+            "de productos eliminados después).")
+    private Producto producto;
+}
@@ -0,0 +1,27 @@
+package com.bootcampms.productos.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página del feed de cambios de productos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página del feed de cambios de productos.")
+public class FeedCambiosDTO {
+
+    @Schema(description = "Cambios posteriores a 'since', en orden de secuencia.")
+    private List<CambioProductoDTO> cambios;
+
+    @Schema(description = "Marca de agua que debe enviarse como 'since' en la siguiente consulta.", example = "1042")
+    private long siguiente;
+
+    @Schema(description = "Indica si hay más cambios disponibles tras esta página.", example = "false")
+    private boolean hayMas;
+}
@@ -0,0 +1,25 @@
+package com.bootcampms.productos.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa una página del catálogo obtenida mediante paginación por cursor.
+ * @param <T> Representación de los productos: {@link com.bootcampms.productos.Model.Producto} o {@link ProductoResumenDTO}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de productos obtenida mediante paginación por cursor.")
+public class PaginaProductosDTO<T> {
+
+    @Schema(description = "Productos de la página, ordenados por ID ascendente.")
+    private List<T> productos;
+
+    @Schema(description = "Cursor opaco para solicitar la página siguiente. Es nulo si no hay más resultados.", example = "MjA")
+    private String siguiente;
+}
@@ -0,0 +1,26 @@
+package com.bootcampms.productos.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Representación resumida de un producto para listados.
+ * Se obtiene como proyección directamente desde la consulta ({@code select new ...}): no se crea ninguna entidad
+ * gestionada, ni se lee la descripción ni se resuelve la categoría.
+ * @param id Identificador del producto.
+ * @param sku SKU del producto.
+ * @param nombre Nombre del producto.
+ * @param precio Precio regular.
+ * @param precioOferta Precio de oferta, o nulo.
+ * @param imagenUrl URL de la imagen principal.
+ */
+@Schema(description = "Resumen de un producto para listados (vista=RESUMEN).")
+public record ProductoResumenDTO(
+        @Schema(description = "Identificador único del producto.", example = "1") Long id,
+        @Schema(description = "Stock Keeping Unit (SKU) del producto.", example = "SKU001") String sku,
+        @Schema(description = "Nombre del producto.", example = "Laptop Pro") String nombre,
+        @Schema(description = "Precio regular del producto.", example = "1200.99") BigDecimal precio,
+        @Schema(description = "Precio de oferta del producto, si lo tiene.", example = "1100.50") BigDecimal precioOferta,
+        @Schema(description = "URL de la imagen principal del producto.", example = "http://example.com/laptop.jpg") String imagenUrl) {
+}
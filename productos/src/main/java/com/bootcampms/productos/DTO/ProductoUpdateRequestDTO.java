@@ -35,8 +35,11 @@ public class ProductoUpdateRequestDTO {
     private String codBar;
 
     @NotNull(message = "La categoría no puede ser nula")
-    @Schema(description = "Nueva categoría a la que pertenece el producto. Se debe enviar el objeto Categoría completo o solo el ID si el backend lo soporta de esa forma.", requiredMode = Schema.RequiredMode.REQUIRED)
-    private Categoria categoria; // O podrías enviar solo Long categoriaId si prefieres
+    @Schema(description = "ID de la nueva categoría a la que pertenece el producto.", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long categoriaId;
+
+    @Schema(description = "Forma heredada de indicar la categoría: basta con su id, que se copia a categoriaId.")
+    private Categoria categoria;
 
     @NotBlank(message = "La URL de la imagen no puede estar vacía")
     @Schema(description = "Nueva URL de la imagen principal del producto.", example = "http://example.com/new_laptop.jpg", requiredMode = Schema.RequiredMode.REQUIRED)
@@ -46,5 +49,14 @@ public class ProductoUpdateRequestDTO {
     @Schema(description = "Nuevo estado del producto en el sistema (BORRADOR, PUBLICADO, PRIVADO).", example = "PUBLICADO", requiredMode = Schema.RequiredMode.REQUIRED)
     private Estado estado;
 
-
+    /**
+     * Asigna la categoría (forma heredada del payload) y, si trae ID, también {@code categoriaId}.
+     * @param categoria La categoría.
+     */
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+        if (categoria != null && categoria.getId() != null) {
+            this.categoriaId = categoria.getId();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.bootcampms.productos.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resultado de un elemento de una carga masiva de productos.
+ * Se devuelve uno por cada producto recibido, en el mismo orden que la solicitud.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de la carga de un producto dentro de una carga masiva.")
+public class ResultadoCargaMasivaDTO {
+
+    /**
+     * Posibles resultados de la carga de un producto.
+     */
+    @Schema(description = "Resultado de la operación para un producto.")
+    public enum Resultado {
+        @Schema(description = "El producto no existía y se creó.")
+        CREADO,
+        @Schema(description = "Ya existía un producto con el SKU y se actualizó.")
+        ACTUALIZADO,
+        @Schema(description = "El producto entra en conflicto con otro (SKU repetido o código de barras en uso).")
+        CONFLICTO,
+        @Schema(description = "El producto no supera las validaciones.")
+        INVALIDO
+    }
+
+    @Schema(description = "SKU del producto recibido.", example = "SKU001")
+    private String sku;
+
+    @Schema(description = "Resultado de la operación.", example = "CREADO")
+    private Resultado resultado;
+
+    @Schema(description = "ID del producto creado o actualizado. Nulo en caso de conflicto o error de validación.", example = "1")
+    private Long id;
+
+    @Schema(description = "Detalle del conflicto o de los errores de validación, si los hay.")
+    private String mensaje;
+}
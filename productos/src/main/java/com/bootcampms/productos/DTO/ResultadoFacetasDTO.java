@@ -0,0 +1,39 @@
+package com.bootcampms.productos.DTO;
+
+import com.bootcampms.productos.Model.Estado;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO con una página de productos filtrados por facetas y los recuentos de cada faceta.
+ * @param <T> Representación de los productos: {@link com.bootcampms.productos.Model.Producto} o {@link ProductoResumenDTO}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Página de productos filtrados por facetas, con los recuentos por faceta.")
+public class ResultadoFacetasDTO<T> {
+
+    @Schema(description = "Productos de la página, ordenados por ID ascendente.")
+    private List<T> productos;
+
+    @Schema(description = "Número total de productos que cumplen el filtro.", example = "42")
+    private long total;
+
+    @Schema(description = "Recuento por ID de categoría, aplicando el resto de filtros salvo el de categoría.", example = "{\"1\": 30, \"2\": 12}")
+    private Map<Long, Long> categorias;
+
+    @Schema(description = "Recuento por estado, aplicando el resto de filtros salvo el de estado.", example = "{\"PUBLICADO\": 42}")
+    private Map<Estado, Long> estados;
+
+    @Schema(description = "Número de productos en oferta, aplicando el resto de filtros salvo el de oferta.", example = "5")
+    private long enOferta;
+
+    @Schema(description = "Cursor opaco para solicitar la página siguiente. Es nulo si no hay más resultados.", example = "MjA")
+    private String siguiente;
+}
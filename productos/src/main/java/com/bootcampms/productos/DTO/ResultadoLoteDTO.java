@@ -0,0 +1,30 @@
+package com.bootcampms.productos.DTO;
+
+import com.bootcampms.productos.Model.Producto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que describe la respuesta de una consulta de productos en lote.
+ * La respuesta se escribe en streaming con esta misma estructura.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado de una consulta de productos en lote.")
+public class ResultadoLoteDTO {
+
+    @Schema(description = "Productos encontrados: primero los solicitados por ID y después por SKU, cada grupo en el orden de la solicitud. " +
+            "Un producto solicitado por ID y por SKU aparece una sola vez.")
+    private List<Producto> productos;
+
+    @Schema(description = "IDs solicitados que no corresponden a ningún producto, en el orden de la solicitud.", example = "[99]")
+    private List<Long> idsNoEncontrados;
+
+    @Schema(description = "SKUs solicitados que no corresponden a ningún producto, en el orden de la solicitud.", example = "[\"SKU999\"]")
+    private List<String> skusNoEncontrados;
+}
@@ -0,0 +1,24 @@
+package com.bootcampms.productos.DTO;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con las claves de una consulta de productos en lote (multi-get).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Claves de los productos a obtener en lote. Se pueden combinar IDs y SKUs.")
+public class SolicitudLoteDTO {
+
+    @Schema(description = "IDs de los productos, en el orden en que se quieren recibir.", example = "[1, 2, 3]")
+    private List<Long> ids;
+
+    @Schema(description = "SKUs de los productos, en el orden en que se quieren recibir.", example = "[\"SKU001\", \"SKU002\"]")
+    private List<String> skus;
+}
@@ -0,0 +1,11 @@
+package com.bootcampms.productos.DTO;
+
+/**
+ * Representación de los productos en los endpoints de listado y búsqueda.
+ */
+public enum VistaProducto {
+    /** El producto completo, con descripción, categoría, estado y stock. */
+    COMPLETA,
+    /** Solo los campos de listado ({@link ProductoResumenDTO}), leídos como proyección sin hidratar entidades. */
+    RESUMEN
+}
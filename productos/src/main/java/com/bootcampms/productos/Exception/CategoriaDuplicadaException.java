@@ -0,0 +1,7 @@
+package com.bootcampms.productos.Exception;
+
+public class CategoriaDuplicadaException extends RuntimeException {
+    public CategoriaDuplicadaException(String message) {
+        super(message);
+    }
+}
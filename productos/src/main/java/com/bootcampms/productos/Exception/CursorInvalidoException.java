@@ -0,0 +1,7 @@
+package com.bootcampms.productos.Exception;
+
+public class CursorInvalidoException extends RuntimeException {
+    public CursorInvalidoException(String message) {
+        super(message);
+    }
+}
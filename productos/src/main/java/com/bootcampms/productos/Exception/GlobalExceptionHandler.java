@@ -1,14 +1,17 @@
 package com.bootcampms.productos.Exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType; // Para el contentType
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest; // Para obtener el path si lo necesitas
 import io.swagger.v3.oas.annotations.media.Schema; // Para documentar ErrorResponse
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.nio.charset.StandardCharsets; // Para el charset
 import java.time.LocalDateTime;
@@ -35,6 +38,9 @@ public class GlobalExceptionHandler {
         private String message;
         @Schema(description = "Marca de tiempo de cuándo ocurrió el error.", example = "2023-10-27T10:15:30")
         private LocalDateTime timestamp;
+        @Schema(description = "Campo que provocó el error, si aplica (p. ej. en un conflicto de unicidad).", example = "sku")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String campo;
 
         /**
          * Constructor para ErrorResponse.
@@ -48,10 +54,23 @@ public class GlobalExceptionHandler {
             this.timestamp = timestamp;
         }
 
+        /**
+         * Constructor para ErrorResponse asociado a un campo concreto.
+         * @param status Código de estado HTTP.
+         * @param message Mensaje del error.
+         * @param timestamp Momento del error.
+         * @param campo Campo que provocó el error.
+         */
+        public ErrorResponse(int status, String message, LocalDateTime timestamp, String campo) {
+            this(status, message, timestamp);
+            this.campo = campo;
+        }
+
         // Getters
         public int getStatus() { return status; }
         public String getMessage() { return message; }
         public LocalDateTime getTimestamp() { return timestamp; }
+        public String getCampo() { return campo; }
     }
 
     /**
@@ -97,7 +116,8 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.CONFLICT.value(),
                 ex.getMessage(),
-                LocalDateTime.now()
+                LocalDateTime.now(),
+                "sku"
         );
         return ResponseEntity.status(HttpStatus.CONFLICT).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
     }
@@ -113,7 +133,25 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(
                 HttpStatus.CONFLICT.value(),
                 ex.getMessage(),
-                LocalDateTime.now()
+                LocalDateTime.now(),
+                "codBar"
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
+    /**
+     * Maneja la excepción CategoriaDuplicadaException.
+     * @param ex La excepción CategoriaDuplicadaException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP CONFLICT.
+     */
+    @ExceptionHandler(CategoriaDuplicadaException.class)
+    public ResponseEntity<ErrorResponse> handleCategoriaDuplicada(CategoriaDuplicadaException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                LocalDateTime.now(),
+                "nombre"
         );
         return ResponseEntity.status(HttpStatus.CONFLICT).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
     }
@@ -134,6 +172,87 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
     }
 
+    /**
+     * Maneja la excepción CursorInvalidoException.
+     * @param ex La excepción CursorInvalidoException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP BAD_REQUEST.
+     */
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ResponseEntity<ErrorResponse> handleCursorInvalido(CursorInvalidoException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
+    /**
+     * Maneja la excepción SolicitudLoteInvalidaException.
+     * @param ex La excepción SolicitudLoteInvalidaException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP BAD_REQUEST.
+     */
+    @ExceptionHandler(SolicitudLoteInvalidaException.class)
+    public ResponseEntity<ErrorResponse> handleSolicitudLoteInvalida(SolicitudLoteInvalidaException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.badRequest().contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
+    /**
+     * Maneja la excepción ProductoModificadoException (el ETag de {@code If-Match} ya no es el vigente).
+     * @param ex La excepción ProductoModificadoException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP PRECONDITION_FAILED.
+     */
+    @ExceptionHandler(ProductoModificadoException.class)
+    public ResponseEntity<ErrorResponse> handleProductoModificado(ProductoModificadoException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                ex.getMessage(),
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
+    /**
+     * Maneja el fallo del bloqueo optimista: otra transacción modificó el producto entre su lectura y su escritura.
+     * @param ex La excepción OptimisticLockingFailureException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP CONFLICT.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleBloqueoOptimista(OptimisticLockingFailureException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "El recurso fue modificado concurrentemente por otra solicitud. Vuelva a leerlo y reintente.",
+                LocalDateTime.now()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
+    /**
+     * Maneja la falta de un parámetro obligatorio de la solicitud (ej. {@code q} en la búsqueda).
+     * @param ex La excepción MissingServletRequestParameterException.
+     * @param request El WebRequest actual.
+     * @return ResponseEntity con ErrorResponse y estado HTTP BAD_REQUEST.
+     */
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<ErrorResponse> handleParametroFaltante(MissingServletRequestParameterException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                "Falta el parámetro obligatorio '" + ex.getParameterName() + "'.",
+                LocalDateTime.now(),
+                ex.getParameterName()
+        );
+        return ResponseEntity.badRequest().contentType(APPLICATION_JSON_UTF8).body(errorResponse);
+    }
+
     /**
      * Maneja excepciones genéricas no capturadas por otros manejadores.
      * @param ex La excepción genérica.
@@ -0,0 +1,53 @@
+package com.bootcampms.productos.Exception;
+
+import com.bootcampms.productos.Exception.GlobalExceptionHandler.ErrorResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.MissingRequestValueException;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Equivalente de {@link GlobalExceptionHandler} para la API reactiva (perfil {@code reactivo}).
+ * Traduce los errores de las rutas reactivas a las mismas respuestas {@link ErrorResponse} (estado y mensaje)
+ * que devuelve la API MVC, para que los clientes no distingan por qué pila se ha atendido la petición.
+ */
+@Component
+@Profile("reactivo")
+public class ManejadorErroresReactivo {
+
+    private static final Logger log = LoggerFactory.getLogger(ManejadorErroresReactivo.class);
+    private static final MediaType APPLICATION_JSON_UTF8 = new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8);
+
+    /**
+     * Construye la respuesta de error correspondiente a una excepción.
+     * @param ex La excepción producida al atender la petición.
+     * @return Un Mono con la respuesta de error.
+     */
+    public Mono<ServerResponse> responder(Throwable ex) {
+        if (ex instanceof RecursoNoEncontradoException) {
+            return responder(HttpStatus.NOT_FOUND, new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage(), LocalDateTime.now()));
+        }
+        if (ex instanceof SolicitudLoteInvalidaException || ex instanceof CursorInvalidoException) {
+            return responder(HttpStatus.BAD_REQUEST, new ErrorResponse(HttpStatus.BAD_REQUEST.value(), ex.getMessage(), LocalDateTime.now()));
+        }
+        if (ex instanceof MissingRequestValueException faltante) {
+            return responder(HttpStatus.BAD_REQUEST, new ErrorResponse(HttpStatus.BAD_REQUEST.value(),
+                    "Falta el parámetro obligatorio '" + faltante.getName() + "'.", LocalDateTime.now(), faltante.getName()));
+        }
+        log.error("Excepción no controlada en la API reactiva: ", ex);
+        return responder(HttpStatus.INTERNAL_SERVER_ERROR, new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "Ocurrió un error interno inesperado. Por favor, contacte al administrador.", LocalDateTime.now()));
+    }
+
+    private Mono<ServerResponse> responder(HttpStatus status, ErrorResponse errorResponse) {
+        return ServerResponse.status(status).contentType(APPLICATION_JSON_UTF8).bodyValue(errorResponse);
+    }
+}
@@ -0,0 +1,11 @@
+package com.bootcampms.productos.Exception;
+
+public class ProductoModificadoException extends RuntimeException {
+    public ProductoModificadoException(String message) {
+        super(message);
+    }
+
+    public ProductoModificadoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.bootcampms.productos.Exception;
+
+public class SolicitudLoteInvalidaException extends RuntimeException {
+    public SolicitudLoteInvalidaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.bootcampms.productos.Generador;
+
+/**
+ * Utilidades para códigos de barras EAN-13: doce dígitos de datos más un dígito de control.
+ */
+public final class CodigoEan13 {
+
+    private CodigoEan13() {
+    }
+
+    /**
+     * Compone un EAN-13 válido a partir de sus doce primeros dígitos.
+     * @param datos Número de doce dígitos como máximo (se rellena con ceros a la izquierda).
+     * @return El código de trece dígitos con su dígito de control.
+     * @throws IllegalArgumentException si el número es negativo o tiene más de doce dígitos.
+     */
+    public static String generar(long datos) {
+        if (datos < 0 || datos > 999_999_999_999L) {
+            throw new IllegalArgumentException("Un EAN-13 tiene doce dígitos de datos: " + datos);
+        }
+        String doce = String.format("%012d", datos);
+        return doce + digitoControl(doce);
+    }
+
+    /**
+     * Comprueba si un texto es un EAN-13 válido (trece dígitos con el dígito de control correcto).
+     * @param codigo El código a comprobar.
+     * @return {@code true} si es válido.
+     */
+    public static boolean esValido(String codigo) {
+        if (codigo == null || codigo.length() != 13 || !codigo.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        return digitoControl(codigo.substring(0, 12)) == codigo.charAt(12) - '0';
+    }
+
+    /**
+     * Dígito de control: los dígitos en posición par (desde la izquierda, empezando en 1) pesan 3 y los impares 1.
+     */
+    private static int digitoControl(String doce) {
+        int suma = 0;
+        for (int i = 0; i < 12; i++) {
+            int digito = doce.charAt(i) - '0';
+            suma += (i % 2 == 0) ? digito : digito * 3;
+        }
+        return (10 - suma % 10) % 10;
+    }
+}
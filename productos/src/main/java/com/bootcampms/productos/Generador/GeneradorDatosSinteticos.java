@@ -0,0 +1,289 @@
+package com.bootcampms.productos.Generador;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Model.Estado;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generador de un catálogo sintético a escala de producción (perfil {@code datos-sinteticos}), en sustitución de
+ * los pocos registros de {@link com.bootcampms.productos.Config.DataInitializer}.
+ * <p>
+ * Genera {@code productos.generador.categorias} categorías y {@code productos.generador.productos} productos con
+ * distribuciones sesgadas: los productos se reparten entre categorías según una distribución de Zipf, las
+ * descripciones usan un vocabulario con frecuencias de Zipf (como el texto real), los precios siguen una
+ * log-normal, y un 20 % de los productos tiene oferta. Los SKU son únicos ({@code SKU000000001}...) y los códigos
+ * de barras son EAN-13 válidos y únicos.
+ * </p>
+ * <p>
+ * Los datos son deterministas a partir de {@code productos.generador.semilla}: cada producto se genera con su propio
+ * generador aleatorio derivado de la semilla y de su ID. Por eso los bloques se pueden insertar en paralelo con
+ * {@code productos.generador.hilos} hilos y el resultado no depende del orden. Los IDs van de 1 a N, que son los que
+ * espera el generador de inventario. La inserción usa lotes JDBC sin pasar por JPA, y al terminar se ajustan la
+ * secuencia y la identidad para que las altas posteriores continúen tras los IDs generados.
+ * </p>
+ * Los productos generados no se registran en el feed de cambios: un consumidor que arranque de cero debe partir
+ * de la exportación ({@code /export}) y seguir después con el feed.
+ */
+@Component
+@Profile("datos-sinteticos")
+public class GeneradorDatosSinteticos implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(GeneradorDatosSinteticos.class);
+
+    private static final String[] CATEGORIAS = {"Electrónica", "Ropa", "Hogar", "Deportes", "Juguetes", "Libros",
+            "Jardín", "Belleza", "Alimentación", "Mascotas", "Automoción", "Oficina", "Música", "Salud", "Bebés",
+            "Informática", "Telefonía", "Fotografía", "Videojuegos", "Bricolaje"};
+    private static final String[] SUSTANTIVOS = {"Laptop", "Teclado", "Ratón", "Monitor", "Auriculares", "Altavoz",
+            "Camiseta", "Pantalón", "Zapatillas", "Chaqueta", "Taza", "Lámpara", "Silla", "Mesa", "Cojín", "Balón",
+            "Bicicleta", "Mochila", "Reloj", "Cámara", "Tablet", "Libro", "Puzzle", "Sartén", "Cafetera", "Taladro"};
+    private static final String[] MARCAS = {"Acme", "Nova", "Orion", "Vértice", "Kappa", "Lumen", "Zenit", "Boreal",
+            "Cobalto", "Delta", "Eco", "Fénix", "Gamma", "Helix", "Iris"};
+    private static final String[] SERIES = {"Pro", "Max", "Plus", "Lite", "Ultra", "Mini", "Air", "Classic", "Sport", "One"};
+    private static final String[] VOCABULARIO = {"de", "con", "para", "y", "alta", "calidad", "diseño", "uso",
+            "diario", "resistente", "ligero", "compacto", "material", "garantía", "color", "negro", "blanco", "azul",
+            "rojo", "incluye", "batería", "inalámbrico", "algodón", "acero", "madera", "ergonómico", "duradero",
+            "rendimiento", "potente", "suave", "cómodo", "moderno", "clásico", "ajustable", "portátil", "recargable",
+            "premium", "edición", "limitada", "profesional", "hogar", "oficina", "exterior", "interior", "tamaño",
+            "grande", "pequeño", "mediano", "pack", "unidades", "accesorio", "compatible", "universal", "eficiente",
+            "silencioso", "rápido", "seguro", "fácil", "limpieza", "montaje"};
+
+    private static final String SQL_CATEGORIA = "INSERT INTO categorias (id, nombre, descripcion) VALUES (?, ?, ?)";
+    private static final String SQL_PRODUCTO = "INSERT INTO productos (id, sku, nombre, descripcion, precio, precio_oferta, " +
+            "cod_bar, stock, categoria_id, imagen_url, estado, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    /** Mismo incremento que el {@code allocationSize} de la secuencia de {@link com.bootcampms.productos.Model.Producto}. */
+    private static final int INCREMENTO_SECUENCIA = 50;
+    /** Prefijo GS1 de los códigos de barras generados; los diez dígitos siguientes son el ID del producto. */
+    private static final long PREFIJO_EAN = 84L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CatalogoCategorias catalogoCategorias;
+    private final int numeroCategorias;
+    private final int numeroProductos;
+    private final long semilla;
+    private final double exponenteZipf;
+    private final int tamanioLote;
+    private final int hilos;
+    private final DistribucionZipf distribucionCategorias;
+    private final DistribucionZipf distribucionVocabulario = new DistribucionZipf(VOCABULARIO.length, 1.0);
+    private final DistribucionZipf distribucionMarcas = new DistribucionZipf(MARCAS.length, 1.0);
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param jdbcTemplate El JdbcTemplate para las inserciones por lotes.
+     * @param catalogoCategorias El catálogo de categorías en memoria, que se recarga al terminar.
+     * @param numeroCategorias Número de categorías ({@code productos.generador.categorias}).
+     * @param numeroProductos Número de productos ({@code productos.generador.productos}).
+     * @param semilla Semilla de la que se derivan todos los datos ({@code productos.generador.semilla}).
+     * @param exponenteZipf Exponente de Zipf del reparto de productos por categoría ({@code productos.generador.exponente-zipf}).
+     * @param tamanioLote Filas por lote JDBC ({@code productos.generador.tamanio-lote}).
+     * @param hilos Hilos de inserción en paralelo ({@code productos.generador.hilos}); 0 para uno por núcleo.
+     */
+    @Autowired
+    public GeneradorDatosSinteticos(JdbcTemplate jdbcTemplate,
+                                    CatalogoCategorias catalogoCategorias,
+                                    @Value("${productos.generador.categorias:50}") int numeroCategorias,
+                                    @Value("${productos.generador.productos:100000}") int numeroProductos,
+                                    @Value("${productos.generador.semilla:42}") long semilla,
+                                    @Value("${productos.generador.exponente-zipf:1.0}") double exponenteZipf,
+                                    @Value("${productos.generador.tamanio-lote:5000}") int tamanioLote,
+                                    @Value("${productos.generador.hilos:0}") int hilos) {
+        if (numeroCategorias < 1 || numeroProductos < 0) {
+            throw new IllegalArgumentException("Se necesita al menos una categoría y un número de productos válido.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogoCategorias = catalogoCategorias;
+        this.numeroCategorias = numeroCategorias;
+        this.numeroProductos = numeroProductos;
+        this.semilla = semilla;
+        this.exponenteZipf = exponenteZipf;
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.distribucionCategorias = new DistribucionZipf(numeroCategorias, exponenteZipf);
+    }
+
+    /**
+     * Genera el catálogo si las tablas están vacías.
+     * @param args Argumentos de línea de comandos (no utilizados).
+     * @throws IllegalStateException si ya hay categorías o productos.
+     * @throws Exception si falla alguna inserción.
+     */
+    @Override
+    public void run(String... args) throws Exception {
+        Long existentes = jdbcTemplate.queryForObject(
+                "SELECT (SELECT COUNT(*) FROM categorias) + (SELECT COUNT(*) FROM productos)", Long.class);
+        if (existentes != null && existentes > 0) {
+            throw new IllegalStateException("El generador de datos sintéticos requiere las tablas de categorías y productos vacías.");
+        }
+        log.info("Generando {} categorías y {} productos (semilla {}, Zipf {}, {} hilos)...",
+                numeroCategorias, numeroProductos, semilla, exponenteZipf, hilos);
+        long inicio = System.nanoTime();
+
+        insertarCategorias();
+        insertarProductos();
+        // Las altas posteriores deben continuar tras los IDs generados
+        jdbcTemplate.execute("ALTER TABLE categorias ALTER COLUMN id RESTART WITH " + (numeroCategorias + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE productos_seq RESTART WITH " + ((long) numeroProductos + INCREMENTO_SECUENCIA + 1));
+        catalogoCategorias.recargar();
+
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        log.info("Datos sintéticos generados en {} s ({} productos/s).",
+                String.format("%.1f", segundos), String.format("%.0f", numeroProductos / Math.max(segundos, 1e-9)));
+    }
+
+    private void insertarCategorias() {
+        jdbcTemplate.batchUpdate(SQL_CATEGORIA, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int id = i + 1;
+                String base = CATEGORIAS[i % CATEGORIAS.length];
+                int vuelta = i / CATEGORIAS.length;
+                ps.setLong(1, id);
+                ps.setString(2, vuelta == 0 ? base : base + " " + (vuelta + 1));
+                ps.setString(3, "Productos de " + base.toLowerCase());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return numeroCategorias;
+            }
+        });
+    }
+
+    private void insertarProductos() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        try {
+            List<Future<?>> bloques = new ArrayList<>();
+            for (long desde = 1; desde <= numeroProductos; desde += tamanioLote) {
+                long primero = desde;
+                int filas = (int) Math.min(tamanioLote, numeroProductos - desde + 1);
+                bloques.add(executor.submit(() -> insertarBloque(primero, filas)));
+            }
+            long insertados = 0;
+            for (Future<?> bloque : bloques) {
+                bloque.get();
+                insertados += tamanioLote;
+                if (insertados % 1_000_000 < tamanioLote) {
+                    log.info("Productos insertados: {}", Math.min(insertados, numeroProductos));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertarBloque(long primero, int filas) {
+        jdbcTemplate.batchUpdate(SQL_PRODUCTO, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long id = primero + i;
+                SplittableRandom aleatorio = new SplittableRandom(mezclar(semilla, id));
+                String sku = sku(id);
+                BigDecimal precio = precio(aleatorio);
+
+                ps.setLong(1, id);
+                ps.setString(2, sku);
+                ps.setString(3, SUSTANTIVOS[aleatorio.nextInt(SUSTANTIVOS.length)] + " "
+                        + MARCAS[distribucionMarcas.muestra(aleatorio) - 1] + " "
+                        + SERIES[aleatorio.nextInt(SERIES.length)] + " " + (100 + aleatorio.nextInt(900)));
+                ps.setString(4, descripcion(aleatorio));
+                ps.setBigDecimal(5, precio);
+                if (aleatorio.nextInt(100) < 20) {
+                    ps.setBigDecimal(6, precio.multiply(BigDecimal.valueOf(0.60 + 0.35 * aleatorio.nextDouble()))
+                            .setScale(2, RoundingMode.HALF_UP));
+                } else {
+                    ps.setNull(6, Types.DECIMAL);
+                }
+                ps.setString(7, codBar(id));
+                ps.setInt(8, aleatorio.nextInt(10) == 0 ? 0 : aleatorio.nextInt(500) + 1);
+                ps.setLong(9, distribucionCategorias.muestra(aleatorio));
+                ps.setString(10, "https://cdn.example.com/productos/" + sku + ".jpg");
+                ps.setString(11, estado(aleatorio).name());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return filas;
+            }
+        });
+    }
+
+    /**
+     * SKU que el generador asigna a un ID.
+     * @param id ID del producto.
+     * @return El SKU, p. ej. {@code SKU000000001}.
+     */
+    public static String sku(long id) {
+        return String.format("SKU%09d", id);
+    }
+
+    /**
+     * Código de barras EAN-13 que el generador asigna a un ID.
+     * @param id ID del producto.
+     * @return El código de trece dígitos.
+     */
+    public static String codBar(long id) {
+        return CodigoEan13.generar(PREFIJO_EAN * 10_000_000_000L + id);
+    }
+
+    /**
+     * Precio log-normal (mediana unos 33, con cola larga), entre 0,50 y 99.999,99.
+     */
+    private static BigDecimal precio(SplittableRandom aleatorio) {
+        double valor = Math.exp(3.5 + 1.0 * gaussiana(aleatorio));
+        return BigDecimal.valueOf(Math.min(Math.max(valor, 0.5), 99_999.99)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private String descripcion(SplittableRandom aleatorio) {
+        int palabras = 8 + aleatorio.nextInt(13);
+        StringBuilder texto = new StringBuilder(palabras * 8);
+        for (int i = 0; i < palabras; i++) {
+            if (i > 0) {
+                texto.append(' ');
+            }
+            texto.append(VOCABULARIO[distribucionVocabulario.muestra(aleatorio) - 1]);
+        }
+        return texto.toString();
+    }
+
+    private static Estado estado(SplittableRandom aleatorio) {
+        int valor = aleatorio.nextInt(100);
+        return valor < 85 ? Estado.PUBLICADO : valor < 95 ? Estado.BORRADOR : Estado.PRIVADO;
+    }
+
+    /** Normal estándar por Box-Muller. */
+    private static double gaussiana(SplittableRandom aleatorio) {
+        double u1 = 1.0 - aleatorio.nextDouble(); // (0, 1]: evita log(0)
+        return Math.sqrt(-2 * Math.log(u1)) * Math.cos(2 * Math.PI * aleatorio.nextDouble());
+    }
+
+    /**
+     * Deriva una semilla independiente para cada clave (finalizador de SplitMix64), de modo que cada fila
+     * se genera igual sea cual sea el hilo o el bloque que la inserte.
+     */
+    static long mezclar(long semilla, long clave) {
+        long z = semilla + clave * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
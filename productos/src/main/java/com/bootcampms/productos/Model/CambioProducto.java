@@ -0,0 +1,43 @@
+package com.bootcampms.productos.Model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * Entrada del registro de cambios de productos. Cada alta, modificación o baja de un {@link Producto}
+ * añade una entrada con una secuencia creciente; las bajas quedan como lápidas.
+ * Las entradas las escribe {@code RegistroCambiosProductos} y no se modifican nunca.
+ */
+@Entity
+@Immutable
+@Table(name = "cambios_productos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CambioProducto {
+
+    /**
+     * Secuencia del cambio, asignada en orden creciente por {@code RegistroCambiosProductos} a partir de
+     * {@code productos_cambios_seq}. Las entradas se insertan por JDBC con la secuencia ya asignada; el generador
+     * solo declara la secuencia para que se cree con el esquema.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_cambios_seq")
+    @SequenceGenerator(name = "productos_cambios_seq", sequenceName = "productos_cambios_seq", allocationSize = 1)
+    private Long secuencia;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TipoCambio tipo;
+
+    @Column(nullable = false)
+    private Instant fecha;
+}
@@ -1,23 +1,36 @@
 package com.bootcampms.productos.Model;
 
+import com.bootcampms.productos.Cache.CategoriaCambiosListener;
+import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * Representa una categoría de productos. Son datos de referencia que se sirven desde
+ * {@link com.bootcampms.productos.Cache.CatalogoCategorias}.
+ */
 @Entity
 @Table(name = "categorias")
+@EntityListeners(CategoriaCambiosListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
+@Schema(description = "Representa una categoría de productos.")
 public class Categoria {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "Identificador único de la categoría generado automáticamente.", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
+    @NotBlank(message = "El nombre no puede estar vacío")
     @Column(nullable = false, unique = true)
+    @Schema(description = "Nombre único de la categoría.", example = "Electrónica", requiredMode = Schema.RequiredMode.REQUIRED)
     private String nombre;
 
+    @Schema(description = "Descripción de la categoría (opcional).", example = "Dispositivos y accesorios electrónicos")
     private String descripcion; // Opcional
 }
\ No newline at end of file
@@ -1,31 +1,53 @@
 package com.bootcampms.productos.Model;
 
+import com.bootcampms.productos.Cambios.ProductoCambiosListener;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 import java.math.BigDecimal;
 
 /**
  * Representa un producto en el catálogo.
  */
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", uniqueConstraints = {
+        // Nombres explícitos para poder traducir la violación de cada restricción a su excepción de dominio
+        @UniqueConstraint(name = Producto.UK_SKU, columnNames = "sku"),
+        @UniqueConstraint(name = Producto.UK_COD_BAR, columnNames = "cod_bar")
+}, indexes = {
+        // Índices compuestos para la paginación por cursor filtrada (WHERE filtro = ? AND id > ? ORDER BY id)
+        @Index(name = "idx_productos_categoria_id", columnList = "categoria_id, id"),
+        @Index(name = "idx_productos_estado_id", columnList = "estado, id")
+})
+@EntityListeners(ProductoCambiosListener.class)
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 @Schema(description = "Representa un producto en el sistema.")
 public class Producto {
 
+    /** Nombre de la restricción única sobre el SKU. */
+    public static final String UK_SKU = "uk_productos_sku";
+    /** Nombre de la restricción única sobre el código de barras. */
+    public static final String UK_COD_BAR = "uk_productos_cod_bar";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con asignación por bloques: a diferencia de IDENTITY, permite a Hibernate agrupar los INSERT en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productos_seq")
+    @SequenceGenerator(name = "productos_seq", sequenceName = "productos_seq", allocationSize = 50)
     @Schema(description = "Identificador único del producto generado automáticamente.", example = "1", accessMode = Schema.AccessMode.READ_ONLY)
     private Long id;
 
     @NotBlank(message = "El SKU no puede estar vacío")
-    @Column(unique = true, nullable = false)
+    @Column(nullable = false)
     @Schema(description = "Stock Keeping Unit (SKU) único para el producto.", example = "SKU001", requiredMode = Schema.RequiredMode.REQUIRED)
     private String sku;
 
@@ -51,7 +73,7 @@ public class Producto {
 
     @Size(min = 8, max = 13, message = "El código de barras debe tener entre 8 y 13 caracteres")
     @NotBlank(message = "El código de barras no puede estar vacío")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @Schema(description = "Código de barras universal del producto (EAN, UPC).", example = "1234567890123", requiredMode = Schema.RequiredMode.REQUIRED)
     private String codBar;
 
@@ -60,12 +82,28 @@ public class Producto {
     @Schema(description = "Cantidad de stock actual del producto. Generalmente gestionado por un servicio de inventario.", example = "10", defaultValue = "0")
     private Integer stock = 0;
 
-    @ManyToOne(fetch = FetchType.EAGER)
-    @JoinColumn(name = "categoria_id", nullable = false)
     @NotNull(message = "La categoría no puede ser nula")
-    @Schema(description = "Categoría a la que pertenece el producto.", requiredMode = Schema.RequiredMode.REQUIRED)
+    @Column(name = "categoria_id", nullable = false)
+    @Schema(description = "ID de la categoría a la que pertenece el producto.", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+    private Long categoriaId;
+
+    // La categoría no se lee con el producto (sin JOIN): el servicio la resuelve desde la instantánea en memoria
+    @Transient
+    @Schema(description = "Categoría del producto, resuelta a partir de categoriaId. En las escrituras basta con enviar categoriaId " +
+            "(se acepta también un objeto categoría con su id).", accessMode = Schema.AccessMode.READ_ONLY)
     private Categoria categoria;
 
+    // Asociación de solo lectura que únicamente sirve para que el esquema declare la clave foránea; nunca se navega
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "categoria_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_productos_categoria"))
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Categoria categoriaReferencia;
+
     @NotBlank(message = "La URL de la imagen no puede estar vacía")
     @Column(nullable = false)
     @Schema(description = "URL de la imagen principal del producto.", example = "http://example.com/laptop.jpg", requiredMode = Schema.RequiredMode.REQUIRED)
@@ -76,4 +114,56 @@ public class Producto {
     @Column(nullable = false)
     @Schema(description = "Estado actual del producto en el sistema (BORRADOR, PUBLICADO, PRIVADO).", example = "PUBLICADO", requiredMode = Schema.RequiredMode.REQUIRED)
     private Estado estado;
-}
\ No newline at end of file
+
+    @Version
+    @Column(nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Versión del producto para el control de concurrencia optimista. Se incrementa en cada modificación y forma parte del ETag.",
+            example = "0", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
+    /**
+     * Constructor con todos los campos del producto.
+     * El ID de categoría se toma de la categoría indicada.
+     */
+    public Producto(Long id, String sku, String nombre, String descripcion, BigDecimal precio, BigDecimal precioOferta,
+                    String codBar, Integer stock, Categoria categoria, String imagenUrl, Estado estado) {
+        this.id = id;
+        this.sku = sku;
+        this.nombre = nombre;
+        this.descripcion = descripcion;
+        this.precio = precio;
+        this.precioOferta = precioOferta;
+        this.codBar = codBar;
+        this.stock = stock;
+        setCategoria(categoria);
+        this.imagenUrl = imagenUrl;
+        this.estado = estado;
+    }
+
+    /**
+     * Asigna la categoría resuelta y, si trae ID, también {@code categoriaId}.
+     * Permite a los clientes seguir enviando {@code "categoria": {"id": 1}} en lugar de {@code categoriaId}.
+     * @param categoria La categoría.
+     */
+    public void setCategoria(Categoria categoria) {
+        this.categoria = categoria;
+        if (categoria != null && categoria.getId() != null) {
+            this.categoriaId = categoria.getId();
+        }
+    }
+
+    /**
+     * Crea una copia desasociada del producto con la categoría indicada, sin modificar el original
+     * (que puede estar compartido entre peticiones, p. ej. en la caché de productos).
+     * @param categoria La categoría resuelta a partir de {@code categoriaId}.
+     * @return La copia, con el mismo ID, {@code categoriaId} y versión.
+     */
+    public Producto conCategoria(Categoria categoria) {
+        Producto copia = new Producto(id, sku, nombre, descripcion, precio, precioOferta, codBar, stock, null, imagenUrl, estado);
+        copia.categoriaId = categoriaId;
+        copia.categoria = categoria;
+        copia.version = version;
+        return copia;
+    }
+}
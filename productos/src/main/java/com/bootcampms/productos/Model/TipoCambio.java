@@ -0,0 +1,27 @@
+package com.bootcampms.productos.Model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Enum que representa los tipos de cambio registrados en el feed de cambios de productos.
+ */
+@Schema(description = "Tipo de cambio de un producto en el feed de cambios.")
+public enum TipoCambio {
+    /**
+     * El producto se ha creado.
+     */
+    @Schema(description = "Producto creado.")
+    CREADO,
+
+    /**
+     * El producto se ha modificado.
+     */
+    @Schema(description = "Producto modificado.")
+    ACTUALIZADO,
+
+    /**
+     * El producto se ha eliminado (lápida: solo se conserva su ID).
+     */
+    @Schema(description = "Producto eliminado. El cambio se conserva como lápida con el ID del producto.")
+    ELIMINADO
+}
@@ -0,0 +1,25 @@
+package com.bootcampms.productos.Repository;
+
+import com.bootcampms.productos.Model.CambioProducto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repositorio de solo lectura del registro de cambios de productos.
+ */
+@Repository
+public interface CambioProductoRepository extends JpaRepository<CambioProducto, Long> {
+
+    /**
+     * Obtiene, en orden de secuencia, los cambios posteriores a una secuencia y hasta otra (incluida),
+     * con un número máximo de filas. Se resuelve con un rango sobre la clave primaria.
+     * @param desde Secuencia tras la que empezar (excluida).
+     * @param hasta Última secuencia a devolver (incluida).
+     * @param limite Número máximo de cambios.
+     * @return Los cambios en orden de secuencia.
+     */
+    List<CambioProducto> findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(Long desde, Long hasta, Limit limite);
+}
@@ -0,0 +1,138 @@
+package com.bootcampms.productos.Repository;
+
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * Acceso de solo lectura a la tabla de productos mediante R2DBC, para la API reactiva (perfil {@code reactivo}).
+ * <p>
+ * Lee la misma tabla que {@link ProductoRepository} con SQL explícito y sin contexto de persistencia: cada fila
+ * se convierte directamente en un {@link Producto} desasociado o en un {@link ProductoResumenDTO}. La categoría
+ * no se lee (igual que en JPA): la resuelve el servicio desde el catálogo en memoria.
+ * </p>
+ */
+@Repository
+@Profile("reactivo")
+public class ProductoReactivoRepository {
+
+    private static final String COLUMNAS = "id, sku, nombre, descripcion, precio, precio_oferta, cod_bar, stock, " +
+            "categoria_id, imagen_url, estado, version";
+    private static final String COLUMNAS_RESUMEN = "id, sku, nombre, precio, precio_oferta, imagen_url";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param databaseClient El cliente R2DBC sobre el pool de conexiones reactivo.
+     */
+    @Autowired
+    public ProductoReactivoRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Busca un producto por su ID.
+     * @param id El ID del producto.
+     * @return Un Mono con el producto, o vacío si no existe.
+     */
+    public Mono<Producto> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNAS + " FROM productos WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> aProducto(row))
+                .one();
+    }
+
+    /**
+     * Lee todos los productos ordenados por ID. Las filas se emiten según la demanda del suscriptor.
+     * @return Un Flux con los productos.
+     */
+    public Flux<Producto> findAllByOrderByIdAsc() {
+        return databaseClient.sql("SELECT " + COLUMNAS + " FROM productos ORDER BY id")
+                .map((row, metadata) -> aProducto(row))
+                .all();
+    }
+
+    /**
+     * Lee el resumen de todos los productos ordenados por ID, sin la descripción.
+     * @return Un Flux con los resúmenes.
+     */
+    public Flux<ProductoResumenDTO> findResumenByOrderByIdAsc() {
+        return databaseClient.sql("SELECT " + COLUMNAS_RESUMEN + " FROM productos ORDER BY id")
+                .map((row, metadata) -> aResumen(row))
+                .all();
+    }
+
+    /**
+     * Busca los productos con los IDs indicados (una sola consulta {@code IN}), sin orden garantizado.
+     * @param ids Los IDs; no puede estar vacío.
+     * @return Un Flux con los productos existentes.
+     */
+    public Flux<Producto> findByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT " + COLUMNAS + " FROM productos WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .map((row, metadata) -> aProducto(row))
+                .all();
+    }
+
+    /**
+     * Busca los productos con los SKUs indicados (una sola consulta {@code IN}), sin orden garantizado.
+     * @param skus Los SKUs; no puede estar vacío.
+     * @return Un Flux con los productos existentes.
+     */
+    public Flux<Producto> findBySkuIn(Collection<String> skus) {
+        return databaseClient.sql("SELECT " + COLUMNAS + " FROM productos WHERE sku IN (:skus)")
+                .bind("skus", skus)
+                .map((row, metadata) -> aProducto(row))
+                .all();
+    }
+
+    /**
+     * Busca el resumen de los productos con los IDs indicados, sin orden garantizado.
+     * @param ids Los IDs; no puede estar vacío.
+     * @return Un Flux con los resúmenes de los productos existentes.
+     */
+    public Flux<ProductoResumenDTO> findResumenByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT " + COLUMNAS_RESUMEN + " FROM productos WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .map((row, metadata) -> aResumen(row))
+                .all();
+    }
+
+    private static Producto aProducto(Row row) {
+        Producto producto = new Producto();
+        producto.setId(row.get("id", Long.class));
+        producto.setSku(row.get("sku", String.class));
+        producto.setNombre(row.get("nombre", String.class));
+        producto.setDescripcion(row.get("descripcion", String.class));
+        producto.setPrecio(row.get("precio", BigDecimal.class));
+        producto.setPrecioOferta(row.get("precio_oferta", BigDecimal.class));
+        producto.setCodBar(row.get("cod_bar", String.class));
+        producto.setStock(row.get("stock", Integer.class));
+        producto.setCategoriaId(row.get("categoria_id", Long.class));
+        producto.setImagenUrl(row.get("imagen_url", String.class));
+        producto.setEstado(Estado.valueOf(row.get("estado", String.class)));
+        producto.setVersion(row.get("version", Long.class));
+        return producto;
+    }
+
+    private static ProductoResumenDTO aResumen(Row row) {
+        return new ProductoResumenDTO(
+                row.get("id", Long.class),
+                row.get("sku", String.class),
+                row.get("nombre", String.class),
+                row.get("precio", BigDecimal.class),
+                row.get("precio_oferta", BigDecimal.class),
+                row.get("imagen_url", String.class));
+    }
+}
@@ -1,14 +1,81 @@
 package com.bootcampms.productos.Repository;
 
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.Model.Estado;
 import com.bootcampms.productos.Model.Producto;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductoRepository extends JpaRepository<Producto, Long> {
     Optional<Producto> findBySku(String sku);
     boolean existsBySku(String sku);
     boolean existsByCodBar(String codBar);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene solo la versión de un producto (consulta escalar por clave primaria, sin hidratar la entidad).
+     * Permite responder a un GET condicional sin cargar ni serializar el producto.
+     * @param id El ID del producto.
+     * @return La versión, o vacío si el producto no existe.
+     */
+    @Query("select p.version from Producto p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // --- Carga masiva: resolución de un lote completo con una consulta IN ---
+
+    List<Producto> findBySkuIn(Collection<String> skus);
+
+    List<Producto> findByCodBarIn(Collection<String> codBars);
+
+    // --- Paginación por cursor (keyset sobre id): una consulta indexada por página, sin COUNT ni OFFSET ---
+
+    List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<Producto> findByCategoriaIdAndIdGreaterThanOrderByIdAsc(Long categoriaId, Long id, Limit limit);
+
+    List<Producto> findByEstadoAndIdGreaterThanOrderByIdAsc(Estado estado, Long id, Limit limit);
+
+    List<Producto> findByCategoriaIdAndEstadoAndIdGreaterThanOrderByIdAsc(Long categoriaId, Estado estado, Long id, Limit limit);
+
+    // --- Vista resumen: proyecciones a ProductoResumenDTO (select new ...), sin entidades gestionadas ---
+
+    List<ProductoResumenDTO> findResumenByOrderByIdAsc();
+
+    List<ProductoResumenDTO> findResumenByIdIn(Collection<Long> ids);
+
+    List<ProductoResumenDTO> findResumenByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<ProductoResumenDTO> findResumenByCategoriaIdAndIdGreaterThanOrderByIdAsc(Long categoriaId, Long id, Limit limit);
+
+    List<ProductoResumenDTO> findResumenByEstadoAndIdGreaterThanOrderByIdAsc(Estado estado, Long id, Limit limit);
+
+    List<ProductoResumenDTO> findResumenByCategoriaIdAndEstadoAndIdGreaterThanOrderByIdAsc(Long categoriaId, Estado estado, Long id, Limit limit);
+
+    /**
+     * Recorre todo el catálogo ordenado por ID como un cursor de base de datos, sin materializarlo en memoria.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    Stream<Producto> streamAllByOrderByIdAsc();
+
+    /**
+     * Recorre los IDs de todo el catálogo en orden, como un cursor de base de datos y sin cargar las entidades.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("SELECT p.id FROM Producto p ORDER BY p.id")
+    Stream<Long> streamIds();
+}
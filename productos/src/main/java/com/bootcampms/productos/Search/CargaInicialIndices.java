@@ -0,0 +1,72 @@
+package com.bootcampms.productos.Search;
+
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Carga los índices en memoria (búsqueda de texto y facetas) con el catálogo existente al arrancar la aplicación,
+ * en una única pasada sobre la base de datos.
+ * A partir de ese momento los índices se mantienen de forma incremental desde los métodos de escritura del servicio.
+ * Se puede desactivar con {@code productos.busqueda.carga-inicial=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "productos.busqueda.carga-inicial", havingValue = "true", matchIfMissing = true)
+public class CargaInicialIndices {
+
+    private static final Logger log = LoggerFactory.getLogger(CargaInicialIndices.class);
+
+    private final ProductoRepository productoRepository;
+    private final EntityManager entityManager;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final IndiceFacetasProductos indiceFacetas;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param productoRepository El repositorio de productos.
+     * @param entityManager El EntityManager compartido, para desasociar los productos ya indexados.
+     * @param indiceBusqueda El índice de búsqueda de texto a cargar.
+     * @param indiceFacetas El índice de facetas a cargar.
+     */
+    @Autowired
+    public CargaInicialIndices(ProductoRepository productoRepository,
+                               EntityManager entityManager,
+                               IndiceBusquedaProductos indiceBusqueda,
+                               IndiceFacetasProductos indiceFacetas) {
+        this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.indiceBusqueda = indiceBusqueda;
+        this.indiceFacetas = indiceFacetas;
+    }
+
+    /**
+     * Recorre el catálogo con un cursor e indexa los productos que aún no estén en cada índice.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc()) {
+            Iterator<Producto> iterador = productos.iterator();
+            while (iterador.hasNext()) {
+                Producto producto = iterador.next();
+                indiceBusqueda.indexarSiAusente(producto);
+                indiceFacetas.indexarSiAusente(producto);
+                entityManager.detach(producto);
+            }
+        }
+        log.info("Índices cargados: {} productos en búsqueda, {} en facetas, en {} ms.",
+                indiceBusqueda.tamanio(), indiceFacetas.tamanio(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
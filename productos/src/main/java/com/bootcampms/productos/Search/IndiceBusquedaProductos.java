@@ -0,0 +1,421 @@
+package com.bootcampms.productos.Search;
+
+import com.bootcampms.productos.Model.Producto;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido en memoria sobre el nombre, la descripción y el SKU de los productos.
+ * <p>
+ * Los textos se normalizan (minúsculas y sin tildes ni diacríticos) y se dividen en términos. Cada término
+ * apunta a una lista de postings ordenada por un ordinal interno del documento. Las consultas exigen que
+ * todos sus términos aparezcan (AND); cada término de la consulta casa también con los términos del índice
+ * que empiezan por él, y los resultados se ordenan por BM25.
+ * </p>
+ * <p>
+ * El índice se mantiene incrementalmente: al actualizar un producto su ordinal anterior se marca como
+ * eliminado y se le asigna uno nuevo. Cuando los ordinales eliminados superan a los vivos, las listas de
+ * postings se compactan en memoria. Las lecturas son concurrentes; las escrituras se serializan.
+ * </p>
+ */
+@Component
+public class IndiceBusquedaProductos {
+
+    /** Saturación de la frecuencia del término en BM25. */
+    static final double K1 = 1.2;
+    /** Normalización por longitud del documento en BM25. */
+    static final double B = 0.75;
+    /** Peso de las apariciones en el nombre y el SKU frente a la descripción. */
+    private static final int PESO_NOMBRE = 2;
+    /** Factor aplicado a los términos que solo casan por prefijo, para que el término exacto puntúe más. */
+    private static final double PESO_PREFIJO = 0.8;
+    /** Longitud mínima de un término de consulta para expandirlo por prefijo. */
+    private static final int LONGITUD_MINIMA_PREFIJO = 2;
+    /** Máximo de términos del índice en que se expande un prefijo. */
+    private static final int MAX_EXPANSIONES_PREFIJO = 64;
+    private static final int COMPACTACION_MINIMA = 1024;
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+", Pattern.UNICODE_CHARACTER_CLASS);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> terminos = new TreeMap<>();
+    private final Map<Long, Integer> ordinalPorId = new HashMap<>();
+    private final BitSet eliminados = new BitSet();
+    private long[] idPorOrdinal = new long[1024];
+    private int[] longitudPorOrdinal = new int[1024];
+    private String[][] terminosPorOrdinal = new String[1024][];
+    private int siguienteOrdinal;
+    private int ordinalesEliminados;
+    private int documentosVivos;
+    private long longitudTotal;
+
+    /**
+     * Resultado de una búsqueda: ID del producto y su puntuación BM25.
+     * @param id El ID del producto.
+     * @param puntuacion La puntuación de relevancia.
+     */
+    public record ResultadoBusqueda(Long id, double puntuacion) {
+    }
+
+    /**
+     * Programa la (re)indexación de un producto para cuando se confirme la transacción en curso
+     * (o la aplica inmediatamente si no hay transacción). Los textos se copian en el momento de la llamada.
+     * @param producto El producto creado o actualizado.
+     */
+    public void actualizar(Producto producto) {
+        Long id = producto.getId();
+        String nombre = producto.getNombre();
+        String descripcion = producto.getDescripcion();
+        String sku = producto.getSku();
+        Transacciones.alConfirmar(() -> indexar(id, nombre, descripcion, sku));
+    }
+
+    /**
+     * Programa la eliminación de un producto del índice para cuando se confirme la transacción en curso
+     * (o la aplica inmediatamente si no hay transacción).
+     * @param id El ID del producto eliminado.
+     */
+    public void eliminar(Long id) {
+        Transacciones.alConfirmar(() -> quitar(id));
+    }
+
+    /**
+     * Indexa un producto, sustituyendo su versión anterior si ya estaba indexado.
+     * @param id El ID del producto.
+     * @param nombre El nombre del producto.
+     * @param descripcion La descripción del producto (puede ser nula).
+     * @param sku El SKU del producto.
+     */
+    public void indexar(Long id, String nombre, String descripcion, String sku) {
+        Map<String, Integer> frecuencias = new LinkedHashMap<>();
+        int longitud = acumular(frecuencias, nombre, PESO_NOMBRE)
+                + acumular(frecuencias, descripcion, 1)
+                + acumular(frecuencias, sku, PESO_NOMBRE);
+        // El SKU completo (sin separadores) también es un término, para buscar "SKU-001" como "sku001"
+        if (sku != null) {
+            String skuCompacto = String.join("", tokenizar(sku));
+            if (!skuCompacto.isEmpty()) {
+                frecuencias.merge(skuCompacto, PESO_NOMBRE, Math::max);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(id);
+            int ordinal = siguienteOrdinal++;
+            asegurarCapacidad(ordinal);
+            String[] terminosDocumento = new String[frecuencias.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entrada : frecuencias.entrySet()) {
+                Postings postings = terminos.computeIfAbsent(entrada.getKey(), t -> new Postings());
+                postings.agregar(ordinal, entrada.getValue());
+                // Reutiliza la instancia de la clave del mapa para no duplicar cadenas por documento
+                terminosDocumento[i++] = terminos.ceilingKey(entrada.getKey());
+            }
+            idPorOrdinal[ordinal] = id;
+            longitudPorOrdinal[ordinal] = longitud;
+            terminosPorOrdinal[ordinal] = terminosDocumento;
+            ordinalPorId.put(id, ordinal);
+            documentosVivos++;
+            longitudTotal += longitud;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexa un producto solo si aún no está en el índice. Usado por la carga inicial, para no
+     * sobrescribir con datos leídos antes una escritura ya indexada.
+     * @param producto El producto a indexar.
+     */
+    public void indexarSiAusente(Producto producto) {
+        lock.readLock().lock();
+        try {
+            if (ordinalPorId.containsKey(producto.getId())) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        indexar(producto.getId(), producto.getNombre(), producto.getDescripcion(), producto.getSku());
+    }
+
+    /**
+     * Quita un producto del índice.
+     * @param id El ID del producto.
+     */
+    public void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de productos indexados.
+     */
+    public int tamanio() {
+        lock.readLock().lock();
+        try {
+            return documentosVivos;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los productos que contienen todos los términos de la consulta (por término exacto o prefijo)
+     * y los devuelve ordenados por relevancia BM25 descendente.
+     * @param consulta El texto de búsqueda.
+     * @param limite Número máximo de resultados.
+     * @return Los IDs de los productos encontrados con su puntuación, de mayor a menor relevancia.
+     */
+    public List<ResultadoBusqueda> buscar(String consulta, int limite) {
+        List<String> terminosConsulta = tokenizar(consulta).stream().distinct().toList();
+        if (terminosConsulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (documentosVivos == 0) {
+                return List.of();
+            }
+            // Expande cada término y procesa primero el más selectivo para acotar los candidatos
+            List<Expansion> expansiones = new ArrayList<>(terminosConsulta.size());
+            for (String termino : terminosConsulta) {
+                Expansion expansion = expandir(termino);
+                if (expansion.terminos().isEmpty()) {
+                    return List.of(); // Semántica AND: un término sin coincidencias anula la búsqueda
+                }
+                expansiones.add(expansion);
+            }
+            expansiones.sort(Comparator.comparingInt(Expansion::totalPostings));
+
+            double longitudMedia = (double) longitudTotal / documentosVivos;
+            Map<Integer, Double> acumulado = null;
+            for (Expansion expansion : expansiones) {
+                Map<Integer, Double> puntuaciones = new HashMap<>();
+                for (Map.Entry<String, Postings> entrada : expansion.terminos().entrySet()) {
+                    Postings postings = entrada.getValue();
+                    double idf = Math.log(1 + (documentosVivos - postings.vivos + 0.5) / (postings.vivos + 0.5));
+                    double peso = entrada.getKey().equals(expansion.termino()) ? 1.0 : PESO_PREFIJO;
+                    for (int p = 0; p < postings.tamanio; p++) {
+                        int ordinal = postings.ordinales[p];
+                        if (eliminados.get(ordinal) || (acumulado != null && !acumulado.containsKey(ordinal))) {
+                            continue;
+                        }
+                        int tf = postings.frecuencias[p];
+                        double normalizacion = K1 * (1 - B + B * longitudPorOrdinal[ordinal] / longitudMedia);
+                        puntuaciones.merge(ordinal, peso * idf * tf * (K1 + 1) / (tf + normalizacion), Double::sum);
+                    }
+                }
+                if (acumulado != null) {
+                    Map<Integer, Double> anterior = acumulado;
+                    puntuaciones.replaceAll((ordinal, puntuacion) -> puntuacion + anterior.get(ordinal));
+                }
+                acumulado = puntuaciones;
+                if (acumulado.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return mejores(acumulado, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Devuelve los términos del índice que casan con un término de consulta: el propio término
+     * y, si es suficientemente largo, los que empiezan por él (acotados a {@link #MAX_EXPANSIONES_PREFIJO}).
+     */
+    private Expansion expandir(String termino) {
+        Map<String, Postings> coincidencias = new LinkedHashMap<>();
+        Postings exacto = terminos.get(termino);
+        if (exacto != null) {
+            coincidencias.put(termino, exacto);
+        }
+        if (termino.length() >= LONGITUD_MINIMA_PREFIJO) {
+            for (Map.Entry<String, Postings> entrada : terminos.subMap(termino, false, termino + Character.MAX_VALUE, false).entrySet()) {
+                if (coincidencias.size() >= MAX_EXPANSIONES_PREFIJO) {
+                    break;
+                }
+                coincidencias.put(entrada.getKey(), entrada.getValue());
+            }
+        }
+        int total = 0;
+        for (Postings postings : coincidencias.values()) {
+            total += postings.vivos;
+        }
+        return new Expansion(termino, coincidencias, total);
+    }
+
+    /**
+     * Términos del índice en que se expande un término de consulta.
+     * @param termino El término de la consulta.
+     * @param terminos Los términos del índice que casan, con sus postings.
+     * @param totalPostings Suma de documentos vivos de todos ellos (coste estimado de procesarlo).
+     */
+    private record Expansion(String termino, Map<String, Postings> terminos, int totalPostings) {
+    }
+
+    private List<ResultadoBusqueda> mejores(Map<Integer, Double> puntuaciones, int limite) {
+        Comparator<Map.Entry<Integer, Double>> porRelevancia = Map.Entry.<Integer, Double>comparingByValue()
+                .thenComparing(entrada -> -idPorOrdinal[entrada.getKey()]);
+        PriorityQueue<Map.Entry<Integer, Double>> monticulo = new PriorityQueue<>(limite + 1, porRelevancia);
+        for (Map.Entry<Integer, Double> entrada : puntuaciones.entrySet()) {
+            monticulo.offer(entrada);
+            if (monticulo.size() > limite) {
+                monticulo.poll(); // Descarta el menos relevante
+            }
+        }
+        List<ResultadoBusqueda> resultados = new ArrayList<>(monticulo.size());
+        while (!monticulo.isEmpty()) {
+            Map.Entry<Integer, Double> entrada = monticulo.poll();
+            resultados.add(new ResultadoBusqueda(idPorOrdinal[entrada.getKey()], entrada.getValue()));
+        }
+        Collections.reverse(resultados);
+        return resultados;
+    }
+
+    private void quitarSinBloqueo(Long id) {
+        Integer ordinal = ordinalPorId.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        for (String termino : terminosPorOrdinal[ordinal]) {
+            Postings postings = terminos.get(termino);
+            if (--postings.vivos == 0) {
+                terminos.remove(termino);
+            }
+        }
+        eliminados.set(ordinal);
+        ordinalesEliminados++;
+        terminosPorOrdinal[ordinal] = null;
+        documentosVivos--;
+        longitudTotal -= longitudPorOrdinal[ordinal];
+        if (ordinalesEliminados > Math.max(documentosVivos, COMPACTACION_MINIMA)) {
+            compactar();
+        }
+    }
+
+    /**
+     * Reasigna ordinales consecutivos a los documentos vivos (conservando su orden) y reescribe
+     * las listas de postings sin los ordinales eliminados.
+     */
+    private void compactar() {
+        int[] nuevoOrdinal = new int[siguienteOrdinal];
+        int vivos = 0;
+        for (int ordinal = 0; ordinal < siguienteOrdinal; ordinal++) {
+            if (!eliminados.get(ordinal)) {
+                nuevoOrdinal[ordinal] = vivos;
+                idPorOrdinal[vivos] = idPorOrdinal[ordinal];
+                longitudPorOrdinal[vivos] = longitudPorOrdinal[ordinal];
+                terminosPorOrdinal[vivos] = terminosPorOrdinal[ordinal];
+                ordinalPorId.put(idPorOrdinal[vivos], vivos);
+                vivos++;
+            }
+        }
+        for (Postings postings : terminos.values()) {
+            postings.compactar(eliminados, nuevoOrdinal);
+        }
+        Arrays.fill(terminosPorOrdinal, vivos, siguienteOrdinal, null);
+        eliminados.clear();
+        ordinalesEliminados = 0;
+        siguienteOrdinal = vivos;
+    }
+
+    private void asegurarCapacidad(int ordinal) {
+        if (ordinal >= idPorOrdinal.length) {
+            int capacidad = Math.max(ordinal + 1, idPorOrdinal.length * 2);
+            idPorOrdinal = Arrays.copyOf(idPorOrdinal, capacidad);
+            longitudPorOrdinal = Arrays.copyOf(longitudPorOrdinal, capacidad);
+            terminosPorOrdinal = Arrays.copyOf(terminosPorOrdinal, capacidad);
+        }
+    }
+
+    /**
+     * Suma a las frecuencias los términos del texto con el peso indicado.
+     * @return El número de términos del texto (longitud sin ponderar).
+     */
+    private static int acumular(Map<String, Integer> frecuencias, String texto, int peso) {
+        List<String> tokens = tokenizar(texto);
+        for (String token : tokens) {
+            frecuencias.merge(token, peso, Integer::sum);
+        }
+        return tokens.size();
+    }
+
+    /**
+     * Normaliza un texto (minúsculas, sin tildes ni diacríticos) y lo divide en términos alfanuméricos.
+     * @param texto El texto a tokenizar (puede ser nulo).
+     * @return Los términos, en orden de aparición.
+     */
+    static List<String> tokenizar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return List.of();
+        }
+        String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARADORES.split(normalizado)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Lista de postings de un término: ordinales crecientes y su frecuencia ponderada, en arrays primitivos.
+     */
+    private static final class Postings {
+        private int[] ordinales = new int[4];
+        private int[] frecuencias = new int[4];
+        private int tamanio;
+        /** Postings cuyo documento sigue vivo (frecuencia de documento del término). */
+        private int vivos;
+
+        void agregar(int ordinal, int frecuencia) {
+            if (tamanio == ordinales.length) {
+                ordinales = Arrays.copyOf(ordinales, tamanio * 2);
+                frecuencias = Arrays.copyOf(frecuencias, tamanio * 2);
+            }
+            ordinales[tamanio] = ordinal;
+            frecuencias[tamanio] = frecuencia;
+            tamanio++;
+            vivos++;
+        }
+
+        void compactar(BitSet eliminados, int[] nuevoOrdinal) {
+            int escritos = 0;
+            for (int i = 0; i < tamanio; i++) {
+                if (!eliminados.get(ordinales[i])) {
+                    ordinales[escritos] = nuevoOrdinal[ordinales[i]];
+                    frecuencias[escritos] = frecuencias[i];
+                    escritos++;
+                }
+            }
+            tamanio = escritos;
+        }
+    }
+}
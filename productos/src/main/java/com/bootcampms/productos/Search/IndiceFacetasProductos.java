@@ -0,0 +1,281 @@
+package com.bootcampms.productos.Search;
+
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de facetas en memoria para filtrar el catálogo por categoría, estado, precio y oferta.
+ * <p>
+ * Mantiene un bitmap comprimido (Roaring) de IDs de producto por categoría, por estado y para los
+ * productos en oferta, y un índice ordenado por precio efectivo (precio de oferta si existe, si no el precio)
+ * con un bitmap por precio. Cada combinación de filtros se resuelve con operaciones AND/OR entre bitmaps,
+ * sin consultar la base de datos, y los recuentos por faceta se obtienen con cardinalidades de intersección.
+ * </p>
+ * <p>
+ * Los IDs de producto deben caber en un {@code int}, que es el dominio de los bitmaps Roaring.
+ * </p>
+ */
+@Component
+public class IndiceFacetasProductos {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap todos = new RoaringBitmap();
+    private final RoaringBitmap enOferta = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> porCategoria = new HashMap<>();
+    private final Map<Estado, RoaringBitmap> porEstado = new EnumMap<>(Estado.class);
+    private final NavigableMap<BigDecimal, RoaringBitmap> porPrecio = new TreeMap<>();
+    private final Map<Integer, Facetas> facetasPorId = new HashMap<>();
+
+    /**
+     * Filtro sobre el índice de facetas. Los criterios nulos o vacíos no filtran.
+     * @param categorias IDs de categoría admitidos (OR entre ellos).
+     * @param estados Estados admitidos (OR entre ellos).
+     * @param precioMinimo Precio efectivo mínimo, inclusivo.
+     * @param precioMaximo Precio efectivo máximo, inclusivo.
+     * @param enOferta Si es true, solo productos con precio de oferta; si es false, solo sin él.
+     */
+    public record Filtro(Collection<Long> categorias, Collection<Estado> estados,
+                         BigDecimal precioMinimo, BigDecimal precioMaximo, Boolean enOferta) {
+    }
+
+    /**
+     * Resultado de un filtrado: los IDs que cumplen todos los criterios y los recuentos por faceta.
+     * Los recuentos de cada faceta se calculan aplicando el resto de criterios pero no el de la propia faceta,
+     * para que la interfaz pueda mostrar cuántos productos habría al cambiar la selección.
+     * @param ids Los IDs de los productos que cumplen el filtro, en orden ascendente.
+     * @param categorias Recuento por ID de categoría (solo las que tienen productos).
+     * @param estados Recuento por estado (solo los que tienen productos).
+     * @param enOferta Número de productos en oferta.
+     */
+    public record ResultadoFacetas(RoaringBitmap ids, Map<Long, Long> categorias, Map<Estado, Long> estados, long enOferta) {
+    }
+
+    /** Valores de faceta con los que está indexado un producto, para poder retirarlo. */
+    private record Facetas(Long categoriaId, Estado estado, BigDecimal precio, boolean enOferta) {
+    }
+
+    /**
+     * Programa la (re)indexación de un producto para cuando se confirme la transacción en curso
+     * (o la aplica inmediatamente si no hay transacción). Los valores se copian en el momento de la llamada.
+     * @param producto El producto creado o actualizado.
+     */
+    public void actualizar(Producto producto) {
+        Long id = producto.getId();
+        Facetas facetas = facetasDe(producto);
+        Transacciones.alConfirmar(() -> indexar(id, facetas));
+    }
+
+    /**
+     * Programa la eliminación de un producto del índice para cuando se confirme la transacción en curso
+     * (o la aplica inmediatamente si no hay transacción).
+     * @param id El ID del producto eliminado.
+     */
+    public void eliminar(Long id) {
+        Transacciones.alConfirmar(() -> quitar(id));
+    }
+
+    /**
+     * Indexa un producto inmediatamente, sustituyendo sus facetas anteriores si ya estaba indexado.
+     * @param producto El producto a indexar.
+     */
+    public void indexar(Producto producto) {
+        indexar(producto.getId(), facetasDe(producto));
+    }
+
+    /**
+     * Indexa un producto solo si aún no está en el índice. Usado por la carga inicial, para no
+     * sobrescribir con datos leídos antes una escritura ya indexada.
+     * @param producto El producto a indexar.
+     */
+    public void indexarSiAusente(Producto producto) {
+        lock.writeLock().lock();
+        try {
+            if (!facetasPorId.containsKey(Math.toIntExact(producto.getId()))) {
+                indexarSinBloqueo(Math.toIntExact(producto.getId()), facetasDe(producto));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void indexar(Long id, Facetas facetas) {
+        int clave = Math.toIntExact(id);
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(clave);
+            indexarSinBloqueo(clave, facetas);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice.
+     * @param id El ID del producto.
+     */
+    public void quitar(Long id) {
+        lock.writeLock().lock();
+        try {
+            quitarSinBloqueo(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return El número de productos indexados.
+     */
+    public int tamanio() {
+        lock.readLock().lock();
+        try {
+            return todos.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Aplica un filtro y calcula los recuentos por faceta.
+     * @param filtro Los criterios de filtrado.
+     * @return Los IDs que cumplen el filtro y los recuentos por faceta.
+     */
+    public ResultadoFacetas filtrar(Filtro filtro) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoria = unionDe(filtro.categorias(), porCategoria);
+            RoaringBitmap estado = unionDe(filtro.estados(), porEstado);
+            RoaringBitmap precio = rangoDePrecio(filtro.precioMinimo(), filtro.precioMaximo());
+            RoaringBitmap oferta = filtro.enOferta() == null ? null
+                    : filtro.enOferta() ? enOferta : RoaringBitmap.andNot(todos, enOferta);
+
+            RoaringBitmap ids = interseccion(categoria, estado, precio, oferta);
+
+            // Recuentos por faceta: se aplican todos los criterios salvo el de la propia faceta
+            RoaringBitmap sinCategoria = interseccion(null, estado, precio, oferta);
+            Map<Long, Long> conteoCategorias = new TreeMap<>();
+            porCategoria.forEach((categoriaId, bitmap) -> {
+                long conteo = RoaringBitmap.andCardinality(sinCategoria, bitmap);
+                if (conteo > 0) {
+                    conteoCategorias.put(categoriaId, conteo);
+                }
+            });
+            RoaringBitmap sinEstado = interseccion(categoria, null, precio, oferta);
+            Map<Estado, Long> conteoEstados = new EnumMap<>(Estado.class);
+            porEstado.forEach((valor, bitmap) -> {
+                long conteo = RoaringBitmap.andCardinality(sinEstado, bitmap);
+                if (conteo > 0) {
+                    conteoEstados.put(valor, conteo);
+                }
+            });
+            long conteoEnOferta = RoaringBitmap.andCardinality(interseccion(categoria, estado, precio, null), enOferta);
+
+            return new ResultadoFacetas(ids, conteoCategorias, conteoEstados, conteoEnOferta);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersección de los criterios no nulos. Siempre devuelve un bitmap nuevo, que el llamador puede
+     * usar fuera del bloqueo.
+     */
+    private RoaringBitmap interseccion(RoaringBitmap... criterios) {
+        RoaringBitmap resultado = null;
+        for (RoaringBitmap criterio : criterios) {
+            if (criterio != null) {
+                resultado = resultado == null ? criterio.clone() : RoaringBitmap.and(resultado, criterio);
+            }
+        }
+        return resultado != null ? resultado : todos.clone();
+    }
+
+    private static <K> RoaringBitmap unionDe(Collection<K> claves, Map<K, RoaringBitmap> bitmaps) {
+        if (claves == null || claves.isEmpty()) {
+            return null;
+        }
+        List<RoaringBitmap> seleccion = new ArrayList<>(claves.size());
+        for (K clave : claves) {
+            RoaringBitmap bitmap = bitmaps.get(clave);
+            if (bitmap != null) {
+                seleccion.add(bitmap);
+            }
+        }
+        return seleccion.isEmpty() ? new RoaringBitmap() : FastAggregation.or(seleccion.iterator());
+    }
+
+    private RoaringBitmap rangoDePrecio(BigDecimal minimo, BigDecimal maximo) {
+        if (minimo == null && maximo == null) {
+            return null;
+        }
+        NavigableMap<BigDecimal, RoaringBitmap> rango = porPrecio;
+        if (minimo != null) {
+            rango = rango.tailMap(minimo, true);
+        }
+        if (maximo != null) {
+            rango = rango.headMap(maximo, true);
+        }
+        return rango.isEmpty() ? new RoaringBitmap() : FastAggregation.or(rango.values().iterator());
+    }
+
+    private void indexarSinBloqueo(int clave, Facetas facetas) {
+        todos.add(clave);
+        if (facetas.categoriaId() != null) {
+            porCategoria.computeIfAbsent(facetas.categoriaId(), c -> new RoaringBitmap()).add(clave);
+        }
+        if (facetas.estado() != null) {
+            porEstado.computeIfAbsent(facetas.estado(), e -> new RoaringBitmap()).add(clave);
+        }
+        if (facetas.precio() != null) {
+            porPrecio.computeIfAbsent(facetas.precio(), p -> new RoaringBitmap()).add(clave);
+        }
+        if (facetas.enOferta()) {
+            enOferta.add(clave);
+        }
+        facetasPorId.put(clave, facetas);
+    }
+
+    private void quitarSinBloqueo(int clave) {
+        Facetas facetas = facetasPorId.remove(clave);
+        if (facetas == null) {
+            return;
+        }
+        todos.remove(clave);
+        enOferta.remove(clave);
+        quitarDe(porCategoria, facetas.categoriaId(), clave);
+        quitarDe(porEstado, facetas.estado(), clave);
+        quitarDe(porPrecio, facetas.precio(), clave);
+    }
+
+    private static <K> void quitarDe(Map<K, RoaringBitmap> bitmaps, K valor, int clave) {
+        if (valor == null) {
+            return;
+        }
+        RoaringBitmap bitmap = bitmaps.get(valor);
+        if (bitmap != null) {
+            bitmap.remove(clave);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(valor);
+            }
+        }
+    }
+
+    private static Facetas facetasDe(Producto producto) {
+        BigDecimal precioEfectivo = producto.getPrecioOferta() != null ? producto.getPrecioOferta() : producto.getPrecio();
+        Long categoriaId = producto.getCategoriaId();
+        return new Facetas(categoriaId, producto.getEstado(), precioEfectivo, producto.getPrecioOferta() != null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.bootcampms.productos.Search;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidad para aplicar cambios a los índices en memoria solo cuando la transacción se confirma.
+ */
+final class Transacciones {
+
+    private Transacciones() {
+    }
+
+    /**
+     * Ejecuta la acción tras el commit de la transacción en curso, o inmediatamente si no hay transacción.
+     * Si la transacción se revierte, la acción no se ejecuta.
+     * @param accion La acción a ejecutar.
+     */
+    static void alConfirmar(Runnable accion) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accion.run();
+                }
+            });
+        } else {
+            accion.run();
+        }
+    }
+}
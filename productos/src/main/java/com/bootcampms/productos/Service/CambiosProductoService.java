@@ -0,0 +1,110 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cambios.RegistroCambiosProductos;
+import com.bootcampms.productos.DTO.CambioProductoDTO;
+import com.bootcampms.productos.DTO.FeedCambiosDTO;
+import com.bootcampms.productos.Exception.CursorInvalidoException;
+import com.bootcampms.productos.Model.CambioProducto;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import com.bootcampms.productos.Repository.CambioProductoRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio del feed de cambios de productos, para que otros servicios sincronicen el catálogo de forma incremental.
+ * <p>
+ * Un consumidor al día (su marca de agua es la secuencia visible) obtiene una página vacía sin consultar
+ * la base de datos. Uno retrasado recorre el registro en páginas acotadas, cada una con una consulta por rango
+ * de secuencia y otra por los IDs de los productos que siguen existiendo.
+ * </p>
+ */
+@Service
+public class CambiosProductoService {
+
+    private final CambioProductoRepository cambioProductoRepository;
+    private final ProductoRepository productoRepository;
+    private final RegistroCambiosProductos registroCambios;
+    private final CatalogoCategorias catalogoCategorias;
+    private final int tamanioMaximo;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param cambioProductoRepository El repositorio del registro de cambios.
+     * @param productoRepository El repositorio de productos, para adjuntar el estado actual de cada producto.
+     * @param registroCambios El registro de cambios, que indica hasta qué secuencia se puede leer.
+     * @param catalogoCategorias El catálogo de categorías en memoria, del que se resuelve la categoría de cada producto.
+     * @param tamanioMaximo Número máximo de cambios por página ({@code productos.cambios.tamanio-maximo}).
+     */
+    @Autowired
+    public CambiosProductoService(CambioProductoRepository cambioProductoRepository,
+                                  ProductoRepository productoRepository,
+                                  RegistroCambiosProductos registroCambios,
+                                  CatalogoCategorias catalogoCategorias,
+                                  @Value("${productos.cambios.tamanio-maximo:1000}") int tamanioMaximo) {
+        this.cambioProductoRepository = cambioProductoRepository;
+        this.productoRepository = productoRepository;
+        this.registroCambios = registroCambios;
+        this.catalogoCategorias = catalogoCategorias;
+        this.tamanioMaximo = tamanioMaximo;
+    }
+
+    /**
+     * Obtiene los cambios posteriores a una marca de agua, en orden de secuencia.
+     * @param desde La marca de agua del consumidor: la secuencia del último cambio ya procesado (0 para empezar).
+     * @param limite Número máximo de cambios; se limita a {@code productos.cambios.tamanio-maximo}.
+     * @return La página de cambios y la marca de agua siguiente.
+     * @throws CursorInvalidoException si la marca de agua es negativa o posterior a la última secuencia emitida.
+     */
+    @Transactional(readOnly = true)
+    public FeedCambiosDTO obtenerCambios(long desde, int limite) {
+        long hasta = registroCambios.secuenciaVisible();
+        if (desde < 0 || desde > registroCambios.ultimaSecuenciaAsignada()) {
+            throw new CursorInvalidoException("La marca de agua " + desde + " no corresponde a ninguna secuencia del feed de cambios.");
+        }
+        if (desde >= hasta) {
+            // Consumidor al día: sin acceso a base de datos
+            return new FeedCambiosDTO(List.of(), desde, false);
+        }
+
+        int limiteEfectivo = Math.max(1, Math.min(limite, tamanioMaximo));
+        // Se pide un elemento extra para saber si quedan más cambios sin ejecutar un COUNT
+        List<CambioProducto> cambios = cambioProductoRepository.findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(
+                desde, hasta, Limit.of(limiteEfectivo + 1));
+        boolean hayMas = cambios.size() > limiteEfectivo;
+        if (hayMas) {
+            cambios = cambios.subList(0, limiteEfectivo);
+        }
+        // Sin más cambios, la marca avanza hasta la secuencia visible aunque las últimas sean huecos de transacciones revertidas
+        long siguiente = hayMas ? cambios.get(cambios.size() - 1).getSecuencia() : hasta;
+        return new FeedCambiosDTO(conProductos(cambios), siguiente, hayMas);
+    }
+
+    /**
+     * Adjunta a cada cambio el estado actual de su producto, cargando todos los productos con una sola consulta.
+     */
+    private List<CambioProductoDTO> conProductos(List<CambioProducto> cambios) {
+        List<Long> ids = cambios.stream()
+                .filter(cambio -> cambio.getTipo() != TipoCambio.ELIMINADO)
+                .map(CambioProducto::getProductoId)
+                .distinct()
+                .toList();
+        Map<Long, Producto> productos = ids.isEmpty() ? Map.of()
+                : catalogoCategorias.resolver(productoRepository.findAllById(ids)).stream()
+                        .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        return cambios.stream()
+                .map(cambio -> new CambioProductoDTO(cambio.getSecuencia(), cambio.getTipo(), cambio.getProductoId(),
+                        cambio.getFecha(), cambio.getTipo() == TipoCambio.ELIMINADO ? null : productos.get(cambio.getProductoId())))
+                .toList();
+    }
+}
@@ -0,0 +1,89 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Exception.CategoriaDuplicadaException;
+import com.bootcampms.productos.Exception.RecursoNoEncontradoException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Servicio para la gestión de categorías.
+ * Las lecturas se sirven desde el {@link CatalogoCategorias} en memoria; las escrituras van al repositorio
+ * y el catálogo se recarga tras el commit (mediante {@link com.bootcampms.productos.Cache.CategoriaCambiosListener}).
+ */
+@Service
+public class CategoriaService {
+
+    private final CategoriaRepository categoriaRepository;
+    private final CatalogoCategorias catalogoCategorias;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param categoriaRepository El repositorio de categorías.
+     * @param catalogoCategorias El catálogo de categorías en memoria.
+     */
+    @Autowired
+    public CategoriaService(CategoriaRepository categoriaRepository, CatalogoCategorias catalogoCategorias) {
+        this.categoriaRepository = categoriaRepository;
+        this.catalogoCategorias = catalogoCategorias;
+    }
+
+    /**
+     * @return La instantánea vigente del catálogo de categorías, con su ETag.
+     */
+    public CatalogoCategorias.Instantanea obtenerCategorias() {
+        return catalogoCategorias.instantanea();
+    }
+
+    /**
+     * Busca una categoría por su ID en el catálogo en memoria.
+     * @param id El ID de la categoría.
+     * @return Un Optional con la categoría, o vacío si no existe.
+     */
+    public Optional<Categoria> obtenerCategoriaPorId(Long id) {
+        return catalogoCategorias.obtener(id);
+    }
+
+    /**
+     * Crea una nueva categoría.
+     * @param categoria La categoría a crear (sin ID).
+     * @return La categoría creada.
+     * @throws CategoriaDuplicadaException si ya existe una categoría con el mismo nombre.
+     */
+    @Transactional
+    public Categoria crearCategoria(Categoria categoria) {
+        categoria.setId(null);
+        return guardar(categoria);
+    }
+
+    /**
+     * Actualiza el nombre y la descripción de una categoría existente.
+     * @param id El ID de la categoría.
+     * @param datos Los nuevos datos de la categoría.
+     * @return La categoría actualizada.
+     * @throws RecursoNoEncontradoException si la categoría no existe.
+     * @throws CategoriaDuplicadaException si el nuevo nombre ya está en uso.
+     */
+    @Transactional
+    public Categoria actualizarCategoria(Long id, Categoria datos) {
+        Categoria existente = categoriaRepository.findById(id)
+                .orElseThrow(() -> new RecursoNoEncontradoException("Categoría con ID " + id + " no encontrada."));
+        existente.setNombre(datos.getNombre());
+        existente.setDescripcion(datos.getDescripcion());
+        return guardar(existente);
+    }
+
+    private Categoria guardar(Categoria categoria) {
+        try {
+            return categoriaRepository.saveAndFlush(categoria);
+        } catch (DataIntegrityViolationException e) {
+            throw new CategoriaDuplicadaException("Ya existe una categoría con el nombre: " + categoria.getNombre());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO.Resultado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Servicio para la carga masiva (upsert por SKU) de productos.
+ * <p>
+ * Los productos se procesan en lotes, cada uno en su propia transacción. Por lote se resuelven los productos
+ * existentes con una sola consulta {@code IN} por SKU y otra por código de barras, y las inserciones y
+ * actualizaciones se envían como lotes JDBC al hacer flush. Un error en un producto no hace fallar la solicitud:
+ * cada elemento recibe su propio {@link ResultadoCargaMasivaDTO}.
+ * </p>
+ */
+@Service
+public class ProductoCargaMasivaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoCargaMasivaService.class);
+
+    private final ProductoRepository productoRepository;
+    private final CatalogoCategorias catalogoCategorias;
+    private final ProductoCache productoCache;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final IndiceFacetasProductos indiceFacetas;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanioLote;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param productoRepository El repositorio de productos.
+     * @param catalogoCategorias El catálogo de categorías en memoria, para validar las categorías referenciadas.
+     * @param productoCache La caché de productos, para invalidar los productos actualizados.
+     * @param indiceBusqueda El índice de búsqueda de texto, para indexar los productos cargados.
+     * @param indiceFacetas El índice de facetas, para indexar los productos cargados.
+     * @param validator El validador de Jakarta Validation.
+     * @param transactionManager El gestor de transacciones, para abrir una transacción por lote.
+     * @param tamanioLote Número de productos por transacción ({@code productos.bulk.tamanio-lote}).
+     */
+    @Autowired
+    public ProductoCargaMasivaService(ProductoRepository productoRepository,
+                                      CatalogoCategorias catalogoCategorias,
+                                      ProductoCache productoCache,
+                                      IndiceBusquedaProductos indiceBusqueda,
+                                      IndiceFacetasProductos indiceFacetas,
+                                      Validator validator,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${productos.bulk.tamanio-lote:500}") int tamanioLote) {
+        this.productoRepository = productoRepository;
+        this.catalogoCategorias = catalogoCategorias;
+        this.productoCache = productoCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.indiceFacetas = indiceFacetas;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanioLote = tamanioLote;
+    }
+
+    /**
+     * Crea o actualiza (por SKU) los productos recibidos.
+     * @param productos Los productos a cargar. No deben traer ID.
+     * @return Un resultado por producto, en el mismo orden que la entrada.
+     */
+    public List<ResultadoCargaMasivaDTO> cargarProductos(List<Producto> productos) {
+        ResultadoCargaMasivaDTO[] resultados = new ResultadoCargaMasivaDTO[productos.size()];
+        Set<String> skusVistos = new HashSet<>();
+        Set<String> codBarsVistos = new HashSet<>();
+        List<Integer> aProcesar = new ArrayList<>();
+
+        // 1. Validaciones en memoria (sin acceso a base de datos)
+        for (int i = 0; i < productos.size(); i++) {
+            Producto producto = productos.get(i);
+            String error = validar(producto);
+            if (error != null) {
+                resultados[i] = new ResultadoCargaMasivaDTO(producto != null ? producto.getSku() : null, Resultado.INVALIDO, null, error);
+            } else if (!skusVistos.add(producto.getSku())) {
+                resultados[i] = conflicto(producto, "El SKU '" + producto.getSku() + "' está repetido en la solicitud.");
+            } else if (!codBarsVistos.add(producto.getCodBar())) {
+                resultados[i] = conflicto(producto, "El código de barras '" + producto.getCodBar() + "' está repetido en la solicitud.");
+            } else {
+                aProcesar.add(i);
+            }
+        }
+
+        // 2. Validar las categorías referenciadas contra el catálogo en memoria
+        aProcesar.removeIf(i -> {
+            Producto producto = productos.get(i);
+            if (catalogoCategorias.existe(producto.getCategoriaId())) {
+                return false;
+            }
+            resultados[i] = new ResultadoCargaMasivaDTO(producto.getSku(), Resultado.INVALIDO, null,
+                    "categoriaId: No existe la categoría con ID " + producto.getCategoriaId());
+            return true;
+        });
+
+        // 3. Procesar por lotes, una transacción por lote
+        for (int desde = 0; desde < aProcesar.size(); desde += tamanioLote) {
+            List<Integer> lote = aProcesar.subList(desde, Math.min(desde + tamanioLote, aProcesar.size()));
+            procesarLote(lote, productos, resultados);
+        }
+        log.info("Carga masiva completada: {} productos recibidos.", productos.size());
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Procesa un lote en una transacción. Si el lote falla por una restricción de integridad
+     * (p. ej. un alta concurrente con el mismo SKU), se reintenta producto a producto para
+     * aislar los elementos en conflicto sin perder el resto.
+     */
+    private void procesarLote(List<Integer> lote, List<Producto> productos, ResultadoCargaMasivaDTO[] resultados) {
+        try {
+            transactionTemplate.executeWithoutResult(estado -> aplicarLote(lote, productos, resultados));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Lote de {} productos rechazado por integridad, reintentando individualmente: {}", lote.size(), e.getMessage());
+            for (Integer i : lote) {
+                try {
+                    transactionTemplate.executeWithoutResult(estado -> aplicarLote(List.of(i), productos, resultados));
+                } catch (DataIntegrityViolationException ex) {
+                    resultados[i] = conflicto(productos.get(i), "El SKU o el código de barras ya están en uso por otro producto.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica un lote dentro de la transacción actual: resuelve los existentes con consultas IN,
+     * actualiza los gestionados (UPDATE en lote por dirty checking) e inserta los nuevos (INSERT en lote).
+     */
+    private void aplicarLote(List<Integer> lote, List<Producto> productos, ResultadoCargaMasivaDTO[] resultados) {
+        List<String> skus = lote.stream().map(i -> productos.get(i).getSku()).toList();
+        List<String> codBars = lote.stream().map(i -> productos.get(i).getCodBar()).toList();
+        Map<String, Producto> existentesPorSku = productoRepository.findBySkuIn(skus).stream()
+                .collect(Collectors.toMap(Producto::getSku, Function.identity()));
+        Map<String, Producto> existentesPorCodBar = productoRepository.findByCodBarIn(codBars).stream()
+                .collect(Collectors.toMap(Producto::getCodBar, Function.identity()));
+
+        List<Producto> nuevos = new ArrayList<>();
+        List<Integer> indicesNuevos = new ArrayList<>();
+        for (Integer i : lote) {
+            Producto recibido = productos.get(i);
+            Producto existente = existentesPorSku.get(recibido.getSku());
+            Producto duenoCodBar = existentesPorCodBar.get(recibido.getCodBar());
+
+            if (duenoCodBar != null && (existente == null || !Objects.equals(duenoCodBar.getId(), existente.getId()))) {
+                resultados[i] = conflicto(recibido, "El código de barras '" + recibido.getCodBar() + "' ya está en uso por otro producto.");
+            } else if (existente != null) {
+                copiarCampos(recibido, existente);
+                productoCache.invalidar(existente.getId());
+                indiceBusqueda.actualizar(existente);
+                indiceFacetas.actualizar(existente);
+                resultados[i] = new ResultadoCargaMasivaDTO(recibido.getSku(), Resultado.ACTUALIZADO, existente.getId(), null);
+            } else {
+                // Se inserta una copia para que un reintento no reutilice una entidad con ID ya asignado
+                Producto nuevo = new Producto();
+                nuevo.setSku(recibido.getSku());
+                nuevo.setStock(recibido.getStock() != null ? recibido.getStock() : 0);
+                copiarCampos(recibido, nuevo);
+                nuevos.add(nuevo);
+                indicesNuevos.add(i);
+            }
+        }
+
+        productoRepository.saveAll(nuevos);
+        productoRepository.flush();
+        for (int j = 0; j < nuevos.size(); j++) {
+            Producto nuevo = nuevos.get(j);
+            indiceBusqueda.actualizar(nuevo);
+            indiceFacetas.actualizar(nuevo);
+            resultados[indicesNuevos.get(j)] = new ResultadoCargaMasivaDTO(nuevo.getSku(), Resultado.CREADO, nuevo.getId(), null);
+        }
+    }
+
+    /**
+     * Copia los campos modificables por la carga masiva. El stock lo gestiona el servicio de inventario.
+     */
+    private void copiarCampos(Producto origen, Producto destino) {
+        destino.setNombre(origen.getNombre());
+        destino.setDescripcion(origen.getDescripcion());
+        destino.setPrecio(origen.getPrecio());
+        destino.setPrecioOferta(origen.getPrecioOferta());
+        destino.setCodBar(origen.getCodBar());
+        destino.setCategoriaId(origen.getCategoriaId());
+        destino.setImagenUrl(origen.getImagenUrl());
+        destino.setEstado(origen.getEstado());
+    }
+
+    /**
+     * Valida un producto de la solicitud.
+     * @return El mensaje de error, o nulo si es válido.
+     */
+    private String validar(Producto producto) {
+        if (producto == null) {
+            return "El producto no puede ser nulo.";
+        }
+        if (producto.getId() != null) {
+            return "id: El ID no debe especificarse en una carga masiva; los productos se identifican por SKU.";
+        }
+        Set<ConstraintViolation<Producto>> violaciones = validator.validate(producto);
+        if (!violaciones.isEmpty()) {
+            return violaciones.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+        return null;
+    }
+
+    private static ResultadoCargaMasivaDTO conflicto(Producto producto, String mensaje) {
+        return new ResultadoCargaMasivaDTO(producto.getSku(), Resultado.CONFLICTO, null, mensaje);
+    }
+}
@@ -0,0 +1,117 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Servicio para exportar el catálogo completo de productos en formato NDJSON
+ * (un objeto JSON por línea).
+ * <p>
+ * Los productos se leen de un cursor de base de datos con tamaño de fetch acotado y se escriben
+ * uno a uno con el generador en streaming de Jackson, desasociando cada entidad del contexto de
+ * persistencia tras escribirla. Así el uso de heap se mantiene constante sea cual sea el tamaño del catálogo.
+ * </p>
+ */
+@Service
+public class ProductoExportacionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductoExportacionService.class);
+
+    private final ProductoRepository productoRepository;
+    private final EntityManager entityManager;
+    private final CatalogoCategorias catalogoCategorias;
+    private final ObjectWriter productoWriter;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param productoRepository El repositorio de productos.
+     * @param entityManager El EntityManager compartido, usado para desasociar las entidades ya exportadas.
+     * @param objectMapper El ObjectMapper de la aplicación, para mantener el mismo contrato JSON que la API.
+     * @param catalogoCategorias El catálogo de categorías en memoria, del que se resuelve la categoría de cada producto.
+     */
+    @Autowired
+    public ProductoExportacionService(ProductoRepository productoRepository,
+                                      EntityManager entityManager,
+                                      ObjectMapper objectMapper,
+                                      CatalogoCategorias catalogoCategorias) {
+        this.productoRepository = productoRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.catalogoCategorias = catalogoCategorias;
+        // Sin flush por cada producto: el generador vacía su buffer interno al llenarse
+        this.productoWriter = objectMapper.writerFor(Producto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Escribe todos los productos, ordenados por ID, en la salida indicada como NDJSON.
+     * La salida no se cierra; el llamador es responsable de ella (p. ej. para finalizar un GZIP).
+     * @param salida El flujo de salida donde escribir.
+     * @return El número de productos exportados.
+     * @throws IOException si ocurre un error al escribir en la salida.
+     */
+    @Transactional(readOnly = true)
+    public long exportarProductos(OutputStream salida) throws IOException {
+        long exportados = 0;
+        try (Stream<Producto> productos = productoRepository.streamAllByOrderByIdAsc();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null); // El separador entre objetos es el salto de línea
+            Iterator<Producto> iterador = productos.iterator();
+            while (iterador.hasNext()) {
+                Producto producto = iterador.next();
+                productoWriter.writeValue(generator, catalogoCategorias.resolver(producto));
+                generator.writeRaw('\n');
+                entityManager.detach(producto); // Evita que el contexto de persistencia crezca con el catálogo
+                exportados++;
+            }
+            generator.flush();
+        }
+        log.info("Exportación NDJSON completada: {} productos.", exportados);
+        return exportados;
+    }
+
+    /**
+     * Escribe los IDs de todos los productos, ordenados, en la salida indicada como NDJSON (un número por línea).
+     * Pensado para clientes que solo necesitan saber qué productos existen (p. ej. la caché de inventario).
+     * La salida no se cierra; el llamador es responsable de ella.
+     * @param salida El flujo de salida donde escribir.
+     * @return El número de IDs exportados.
+     * @throws IOException si ocurre un error al escribir en la salida.
+     */
+    @Transactional(readOnly = true)
+    public long exportarIds(OutputStream salida) throws IOException {
+        long exportados = 0;
+        try (Stream<Long> ids = productoRepository.streamIds();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<Long> iterador = ids.iterator();
+            while (iterador.hasNext()) {
+                generator.writeNumber(iterador.next());
+                generator.writeRaw('\n');
+                exportados++;
+            }
+            generator.flush();
+        }
+        log.info("Exportación NDJSON de IDs completada: {} productos.", exportados);
+        return exportados;
+    }
+}
@@ -0,0 +1,194 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
+import com.bootcampms.productos.Exception.SolicitudLoteInvalidaException;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Servicio para obtener productos en lote (multi-get) por ID y por SKU.
+ * <p>
+ * Las claves se resuelven en tramos de {@link #TAMANIO_CONSULTA}: los IDs presentes en la caché de productos
+ * se toman de ella y el resto se cargan con una sola consulta {@code IN} por tramo. Cada tramo se escribe en la
+ * salida en el orden de la solicitud y se libera del contexto de persistencia antes de pasar al siguiente, de modo
+ * que el uso de heap no crece con el tamaño del lote.
+ * </p>
+ */
+@Service
+public class ProductoLoteService {
+
+    /** Número de claves resueltas por cada consulta {@code IN}. */
+    static final int TAMANIO_CONSULTA = 500;
+
+    private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final CatalogoCategorias catalogoCategorias;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter productoWriter;
+    private final int maximoClaves;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param productoRepository El repositorio de productos.
+     * @param productoCache La caché de productos por ID, consultada antes de ir a la base de datos.
+     * @param catalogoCategorias El catálogo de categorías en memoria, del que se resuelve la categoría de cada producto.
+     * @param entityManager El EntityManager compartido, usado para liberar cada tramo ya escrito.
+     * @param objectMapper El ObjectMapper de la aplicación, para mantener el mismo contrato JSON que la API.
+     * @param maximoClaves Número máximo de claves (IDs más SKUs) por solicitud ({@code productos.batch.maximo-claves}).
+     */
+    @Autowired
+    public ProductoLoteService(ProductoRepository productoRepository,
+                               ProductoCache productoCache,
+                               CatalogoCategorias catalogoCategorias,
+                               EntityManager entityManager,
+                               ObjectMapper objectMapper,
+                               @Value("${productos.batch.maximo-claves:1000}") int maximoClaves) {
+        this.productoRepository = productoRepository;
+        this.productoCache = productoCache;
+        this.catalogoCategorias = catalogoCategorias;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.productoWriter = objectMapper.writerFor(Producto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.maximoClaves = maximoClaves;
+    }
+
+    /**
+     * Valida una solicitud y elimina las claves nulas, vacías o repetidas, conservando el orden.
+     * Debe llamarse antes de empezar a escribir la respuesta, ya que después no se puede cambiar su estado HTTP.
+     * @param solicitud La solicitud recibida.
+     * @return Una solicitud normalizada.
+     * @throws SolicitudLoteInvalidaException si no hay ninguna clave o se supera el máximo permitido.
+     */
+    public SolicitudLoteDTO validarSolicitud(SolicitudLoteDTO solicitud) {
+        List<Long> ids = new ArrayList<>();
+        List<String> skus = new ArrayList<>();
+        if (solicitud != null && solicitud.getIds() != null) {
+            solicitud.getIds().stream().filter(Objects::nonNull).distinct().forEach(ids::add);
+        }
+        if (solicitud != null && solicitud.getSkus() != null) {
+            solicitud.getSkus().stream().filter(sku -> sku != null && !sku.isBlank()).distinct().forEach(skus::add);
+        }
+        int claves = ids.size() + skus.size();
+        if (claves == 0) {
+            throw new SolicitudLoteInvalidaException("Se debe indicar al menos un ID o un SKU.");
+        }
+        if (claves > maximoClaves) {
+            throw new SolicitudLoteInvalidaException("Se pueden solicitar como máximo " + maximoClaves
+                    + " productos por lote; se recibieron " + claves + ".");
+        }
+        return new SolicitudLoteDTO(ids, skus);
+    }
+
+    /**
+     * Escribe en la salida, en streaming, el JSON con los productos solicitados y las claves no encontradas
+     * (estructura de {@link com.bootcampms.productos.DTO.ResultadoLoteDTO}).
+     * La salida no se cierra; el llamador es responsable de ella.
+     * @param solicitud La solicitud, ya validada con {@link #validarSolicitud(SolicitudLoteDTO)}.
+     * @param salida El flujo de salida donde escribir.
+     * @throws IOException si ocurre un error al escribir en la salida.
+     */
+    @Transactional(readOnly = true)
+    public void escribirProductos(SolicitudLoteDTO solicitud, OutputStream salida) throws IOException {
+        Set<Long> escritos = new HashSet<>();
+        Set<String> skusEscritos = new HashSet<>();
+        List<Long> idsNoEncontrados = new ArrayList<>();
+        List<String> skusNoEncontrados = new ArrayList<>();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("productos");
+
+            List<Long> ids = solicitud.getIds();
+            for (int desde = 0; desde < ids.size(); desde += TAMANIO_CONSULTA) {
+                List<Long> tramo = ids.subList(desde, Math.min(desde + TAMANIO_CONSULTA, ids.size()));
+                Map<Long, Producto> encontrados = new HashMap<>();
+                List<Long> aConsultar = new ArrayList<>();
+                for (Long id : tramo) {
+                    productoCache.consultar(id).ifPresentOrElse(p -> encontrados.put(id, p), () -> aConsultar.add(id));
+                }
+                if (!aConsultar.isEmpty()) {
+                    productoRepository.findAllById(aConsultar).forEach(p -> encontrados.put(p.getId(), p));
+                }
+                for (Long id : tramo) {
+                    Producto producto = encontrados.get(id);
+                    if (producto == null) {
+                        idsNoEncontrados.add(id);
+                    } else {
+                        escribir(generator, producto, escritos);
+                        skusEscritos.add(producto.getSku());
+                    }
+                }
+                liberarTramo(generator);
+            }
+
+            // Los SKU de productos ya escritos por ID no se vuelven a consultar ni cuentan como no encontrados
+            List<String> skus = solicitud.getSkus().stream().filter(sku -> !skusEscritos.contains(sku)).toList();
+            for (int desde = 0; desde < skus.size(); desde += TAMANIO_CONSULTA) {
+                List<String> tramo = skus.subList(desde, Math.min(desde + TAMANIO_CONSULTA, skus.size()));
+                Map<String, Producto> encontrados = new HashMap<>();
+                productoRepository.findBySkuIn(tramo).forEach(p -> encontrados.put(p.getSku(), p));
+                for (String sku : tramo) {
+                    Producto producto = encontrados.get(sku);
+                    if (producto == null) {
+                        skusNoEncontrados.add(sku);
+                    } else {
+                        escribir(generator, producto, escritos);
+                    }
+                }
+                liberarTramo(generator);
+            }
+
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("idsNoEncontrados");
+            for (Long id : idsNoEncontrados) {
+                generator.writeNumber(id);
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("skusNoEncontrados");
+            for (String sku : skusNoEncontrados) {
+                generator.writeString(sku);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.flush();
+        }
+    }
+
+    private void escribir(JsonGenerator generator, Producto producto, Set<Long> escritos) throws IOException {
+        // Un producto pedido por ID y también por SKU se escribe una sola vez
+        if (escritos.add(producto.getId())) {
+            productoWriter.writeValue(generator, catalogoCategorias.resolver(producto));
+        }
+    }
+
+    /**
+     * Envía lo escrito del tramo y vacía el contexto de persistencia (transacción de solo lectura: no hay cambios pendientes).
+     */
+    private void liberarTramo(JsonGenerator generator) throws IOException {
+        generator.flush();
+        entityManager.clear();
+    }
+}
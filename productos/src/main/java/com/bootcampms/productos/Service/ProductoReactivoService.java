@@ -0,0 +1,202 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.DTO.ResultadoLoteDTO;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
+import com.bootcampms.productos.Exception.RecursoNoEncontradoException;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.ProductoReactivoRepository;
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Servicio de lectura de productos para la API reactiva (perfil {@code reactivo}).
+ * <p>
+ * Ofrece las mismas lecturas que {@link ProductoService} (por ID, listado, lote y búsqueda) sin bloquear el hilo
+ * que atiende la petición: la base de datos se consulta con R2DBC, y la caché de productos, el catálogo de
+ * categorías y el índice de búsqueda se consultan en memoria sin esperas. La validación del lote es la misma
+ * que la de {@link ProductoLoteService}.
+ * </p>
+ */
+@Service
+@Profile("reactivo")
+public class ProductoReactivoService {
+
+    private final ProductoReactivoRepository productoReactivoRepository;
+    private final ProductoCache productoCache;
+    private final CatalogoCategorias catalogoCategorias;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final ProductoLoteService productoLoteService;
+
+    /**
+     * Constructor para inyección de dependencias.
+     * @param productoReactivoRepository El repositorio R2DBC de productos.
+     * @param productoCache La caché de productos por ID; solo se consulta, nunca se espera a una carga en curso.
+     * @param catalogoCategorias El catálogo de categorías en memoria, del que se resuelve la categoría de cada producto.
+     * @param indiceBusqueda El índice de texto en memoria.
+     * @param productoLoteService El servicio de lotes, del que se reutiliza la validación de la solicitud.
+     */
+    @Autowired
+    public ProductoReactivoService(ProductoReactivoRepository productoReactivoRepository,
+                                   ProductoCache productoCache,
+                                   CatalogoCategorias catalogoCategorias,
+                                   IndiceBusquedaProductos indiceBusqueda,
+                                   ProductoLoteService productoLoteService) {
+        this.productoReactivoRepository = productoReactivoRepository;
+        this.productoCache = productoCache;
+        this.catalogoCategorias = catalogoCategorias;
+        this.indiceBusqueda = indiceBusqueda;
+        this.productoLoteService = productoLoteService;
+    }
+
+    /**
+     * Obtiene un producto por su ID, de la caché si ya está en ella o de la base de datos.
+     * @param id El ID del producto.
+     * @return Un Mono con el producto.
+     * @throws RecursoNoEncontradoException (como error del Mono) si el producto no existe.
+     */
+    public Mono<Producto> obtenerProductoPorId(Long id) {
+        Mono<Producto> producto = productoCache.consultar(id)
+                .map(Mono::just)
+                .orElseGet(() -> productoReactivoRepository.findById(id));
+        return producto
+                .map(catalogoCategorias::resolver)
+                .switchIfEmpty(Mono.error(() -> new RecursoNoEncontradoException("Producto con ID " + id + " no encontrado.")));
+    }
+
+    /**
+     * Obtiene todos los productos ordenados por ID, emitidos según la demanda del suscriptor.
+     * @return Un Flux con los productos.
+     */
+    public Flux<Producto> obtenerTodosLosProductos() {
+        return productoReactivoRepository.findAllByOrderByIdAsc().map(catalogoCategorias::resolver);
+    }
+
+    /**
+     * Obtiene el resumen de todos los productos ordenados por ID.
+     * @return Un Flux con los resúmenes.
+     */
+    public Flux<ProductoResumenDTO> obtenerResumenProductos() {
+        return productoReactivoRepository.findResumenByOrderByIdAsc();
+    }
+
+    /**
+     * Busca productos por texto con el índice en memoria y los carga con una sola consulta {@code IN}.
+     * @param consulta El texto de búsqueda.
+     * @param limite Número máximo de resultados; se limita a {@link ProductoService#LIMITE_BUSQUEDA_MAXIMO}.
+     * @return Un Flux con los productos, ordenados por relevancia.
+     */
+    public Flux<Producto> buscarProductos(String consulta, int limite) {
+        List<Long> ids = buscarIds(consulta, limite);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return ordenarSegun(ids, productoReactivoRepository.findByIdIn(ids), Producto::getId)
+                .map(catalogoCategorias::resolver);
+    }
+
+    /**
+     * Igual que {@link #buscarProductos(String, int)}, pero con la vista resumen.
+     * @param consulta El texto de búsqueda.
+     * @param limite Número máximo de resultados; se limita a {@link ProductoService#LIMITE_BUSQUEDA_MAXIMO}.
+     * @return Un Flux con los resúmenes, ordenados por relevancia.
+     */
+    public Flux<ProductoResumenDTO> buscarResumen(String consulta, int limite) {
+        List<Long> ids = buscarIds(consulta, limite);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return ordenarSegun(ids, productoReactivoRepository.findResumenByIdIn(ids), ProductoResumenDTO::id);
+    }
+
+    /**
+     * Obtiene en lote los productos indicados por ID y por SKU, con la misma estructura y orden que
+     * {@link ProductoLoteService}: primero los pedidos por ID y después por SKU, sin repetir productos.
+     * @param solicitud La solicitud recibida.
+     * @return Un Mono con los productos encontrados y las claves no encontradas.
+     * @throws com.bootcampms.productos.Exception.SolicitudLoteInvalidaException (como error del Mono) si no hay
+     *         claves o se supera el máximo permitido.
+     */
+    public Mono<ResultadoLoteDTO> obtenerLote(SolicitudLoteDTO solicitud) {
+        return Mono.fromCallable(() -> productoLoteService.validarSolicitud(solicitud))
+                .flatMap(validada -> Mono.zip(cargarPorId(validada.getIds()), cargarPorSku(validada.getSkus()))
+                        .map(cargados -> componerLote(validada, cargados.getT1(), cargados.getT2())));
+    }
+
+    private Mono<Map<Long, Producto>> cargarPorId(List<Long> ids) {
+        Map<Long, Producto> enCache = new HashMap<>();
+        List<Long> aConsultar = new ArrayList<>();
+        for (Long id : ids) {
+            productoCache.consultar(id).ifPresentOrElse(p -> enCache.put(id, p), () -> aConsultar.add(id));
+        }
+        if (aConsultar.isEmpty()) {
+            return Mono.just(enCache);
+        }
+        return productoReactivoRepository.findByIdIn(aConsultar)
+                .collect(() -> enCache, (porId, producto) -> porId.put(producto.getId(), producto));
+    }
+
+    private Mono<Map<String, Producto>> cargarPorSku(List<String> skus) {
+        if (skus.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return productoReactivoRepository.findBySkuIn(skus).collectMap(Producto::getSku);
+    }
+
+    private ResultadoLoteDTO componerLote(SolicitudLoteDTO solicitud, Map<Long, Producto> porId, Map<String, Producto> porSku) {
+        List<Producto> productos = new ArrayList<>();
+        List<Long> idsNoEncontrados = new ArrayList<>();
+        List<String> skusNoEncontrados = new ArrayList<>();
+        Set<Long> incluidos = new HashSet<>();
+        for (Long id : solicitud.getIds()) {
+            Producto producto = porId.get(id);
+            if (producto == null) {
+                idsNoEncontrados.add(id);
+            } else if (incluidos.add(producto.getId())) {
+                productos.add(catalogoCategorias.resolver(producto));
+            }
+        }
+        for (String sku : solicitud.getSkus()) {
+            Producto producto = porSku.get(sku);
+            if (producto == null) {
+                skusNoEncontrados.add(sku);
+            } else if (incluidos.add(producto.getId())) {
+                productos.add(catalogoCategorias.resolver(producto));
+            }
+        }
+        return new ResultadoLoteDTO(productos, idsNoEncontrados, skusNoEncontrados);
+    }
+
+    /**
+     * Busca en el índice de texto y devuelve los IDs de los resultados por relevancia.
+     */
+    private List<Long> buscarIds(String consulta, int limite) {
+        int limiteEfectivo = Math.max(1, Math.min(limite, ProductoService.LIMITE_BUSQUEDA_MAXIMO));
+        return indiceBusqueda.buscar(consulta, limiteEfectivo).stream()
+                .map(IndiceBusquedaProductos.ResultadoBusqueda::id)
+                .toList();
+    }
+
+    /**
+     * Reordena los elementos cargados según el orden de los IDs indicados, omitiendo los que ya no existen.
+     * Como mucho hay {@link ProductoService#LIMITE_BUSQUEDA_MAXIMO} elementos, así que se reúnen antes de reordenar.
+     */
+    private static <T> Flux<T> ordenarSegun(List<Long> ids, Flux<T> cargados, Function<T, Long> id) {
+        return cargados.collectMap(id)
+                .flatMapIterable(porId -> ids.stream().filter(porId::containsKey).map(porId::get).toList());
+    }
+}
@@ -1,7 +1,13 @@
 package com.bootcampms.productos.Service;
 
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
 import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.DTO.ResultadoFacetasDTO;
+import com.bootcampms.productos.Model.Estado;
 import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,12 +17,91 @@ import java.util.Optional;
  */
 public interface ProductoService {
 
+    /**
+     * Tamaño máximo de página permitido en la paginación por cursor.
+     */
+    int TAMANIO_PAGINA_MAXIMO = 100;
+
+    /**
+     * Número máximo de resultados devueltos por una búsqueda de texto.
+     */
+    int LIMITE_BUSQUEDA_MAXIMO = 100;
+
     /**
      * Obtiene todos los productos existentes.
      * @return Una lista de todos los productos.
      */
     List<Producto> obtenerTodosLosProductos();
 
+    /**
+     * Obtiene el resumen de todos los productos, ordenados por ID, como proyección de solo lectura
+     * (sin entidades gestionadas, descripción ni categoría).
+     * @return Una lista con el resumen de todos los productos.
+     */
+    List<ProductoResumenDTO> obtenerResumenProductos();
+
+    /**
+     * Obtiene una página de productos mediante paginación por cursor (keyset sobre el ID).
+     * Cada página se resuelve con una única consulta indexada, sin COUNT ni OFFSET.
+     * @param cursor Cursor opaco devuelto por la página anterior, o nulo para la primera página.
+     * @param tamanio Tamaño de página solicitado; se limita a {@link #TAMANIO_PAGINA_MAXIMO}.
+     * @param categoriaId Filtro opcional por ID de categoría.
+     * @param estado Filtro opcional por estado.
+     * @return La página de productos y el cursor de la página siguiente (nulo si no hay más).
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    PaginaProductosDTO<Producto> obtenerPaginaProductos(String cursor, int tamanio, Long categoriaId, Estado estado);
+
+    /**
+     * Igual que {@link #obtenerPaginaProductos(String, int, Long, Estado)}, pero con la vista resumen
+     * leída como proyección directamente desde la consulta.
+     * @param cursor Cursor opaco devuelto por la página anterior, o nulo para la primera página.
+     * @param tamanio Tamaño de página solicitado; se limita a {@link #TAMANIO_PAGINA_MAXIMO}.
+     * @param categoriaId Filtro opcional por ID de categoría.
+     * @param estado Filtro opcional por estado.
+     * @return La página de resúmenes y el cursor de la página siguiente (nulo si no hay más).
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    PaginaProductosDTO<ProductoResumenDTO> obtenerPaginaResumen(String cursor, int tamanio, Long categoriaId, Estado estado);
+
+    /**
+     * Busca productos por texto sobre nombre, descripción y SKU usando el índice invertido en memoria.
+     * La búsqueda ignora mayúsculas y tildes, admite prefijos y ordena por relevancia (BM25).
+     * @param consulta El texto de búsqueda.
+     * @param limite Número máximo de resultados; se limita a {@link #LIMITE_BUSQUEDA_MAXIMO}.
+     * @return Los productos encontrados, de mayor a menor relevancia.
+     */
+    List<Producto> buscarProductos(String consulta, int limite);
+
+    /**
+     * Igual que {@link #buscarProductos(String, int)}, pero con la vista resumen.
+     * @param consulta El texto de búsqueda.
+     * @param limite Número máximo de resultados; se limita a {@link #LIMITE_BUSQUEDA_MAXIMO}.
+     * @return Los resúmenes de los productos encontrados, de mayor a menor relevancia.
+     */
+    List<ProductoResumenDTO> buscarResumen(String consulta, int limite);
+
+    /**
+     * Filtra el catálogo por facetas (categoría, estado, rango de precio efectivo y oferta) usando el índice
+     * de facetas en memoria, y devuelve una página de resultados junto con los recuentos por faceta.
+     * @param filtro Los criterios de filtrado; los nulos o vacíos no filtran.
+     * @param cursor Cursor opaco devuelto por la página anterior, o nulo para la primera página.
+     * @param tamanio Tamaño de página solicitado; se limita a {@link #TAMANIO_PAGINA_MAXIMO}.
+     * @return La página de productos, el total, los recuentos por faceta y el cursor siguiente.
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    ResultadoFacetasDTO<Producto> filtrarPorFacetas(IndiceFacetasProductos.Filtro filtro, String cursor, int tamanio);
+
+    /**
+     * Igual que {@link #filtrarPorFacetas(IndiceFacetasProductos.Filtro, String, int)}, pero con la vista resumen.
+     * @param filtro Los criterios de filtrado; los nulos o vacíos no filtran.
+     * @param cursor Cursor opaco devuelto por la página anterior, o nulo para la primera página.
+     * @param tamanio Tamaño de página solicitado; se limita a {@link #TAMANIO_PAGINA_MAXIMO}.
+     * @return La página de resúmenes, el total, los recuentos por faceta y el cursor siguiente.
+     * @throws com.bootcampms.productos.Exception.CursorInvalidoException si el cursor no es válido.
+     */
+    ResultadoFacetasDTO<ProductoResumenDTO> filtrarPorFacetasResumen(IndiceFacetasProductos.Filtro filtro, String cursor, int tamanio);
+
     /**
      * Busca un producto por su ID.
      * @param id El ID del producto a buscar.
@@ -24,9 +109,26 @@ public interface ProductoService {
      */
     Optional<Producto> obtenerProductoPorId(Long id);
 
+    /**
+     * Obtiene el ETag vigente de un producto sin cargar la entidad: se toma del producto en caché o,
+     * si no está, de una consulta escalar por la versión.
+     * @param id El ID del producto.
+     * @return Un Optional con el ETag, o vacío si el producto no existe.
+     */
+    Optional<String> obtenerEtagProducto(Long id);
+
+    /**
+     * Calcula el ETag fuerte (entrecomillado) de un producto a partir de su versión y de la versión
+     * del catálogo de categorías, que también forma parte de su representación.
+     * @param producto El producto.
+     * @return El ETag del producto.
+     */
+    String calcularEtag(Producto producto);
+
     /**
      * Guarda un nuevo producto o actualiza uno existente.
-     * Si el producto tiene un ID nulo, se considera una creación y se valida la unicidad de SKU y CodBar.
+     * Si el producto tiene un ID nulo, se considera una creación. La unicidad de SKU y CodBar la garantizan
+     * las restricciones únicas de la tabla, sin consultas previas.
      * @param producto El producto a guardar.
      * @return El producto guardado (con su ID asignado si es una creación).
      * @throws com.bootcampms.productos.Exception.SkuDuplicadoException si el SKU ya existe al crear.
@@ -52,10 +154,15 @@ public interface ProductoService {
      * Actualiza un producto existente utilizando un DTO.
      * @param id El ID del producto a actualizar.
      * @param productoUpdateRequestDTO DTO con los datos para actualizar el producto.
+     * @param etagsEsperados ETags aceptados ({@code If-Match}); nulo o vacío para actualizar sin condición.
      * @return Un Optional que contiene el producto actualizado si se encuentra y actualiza,
      *         o un Optional vacío si el producto con el ID dado no existe.
      * @throws com.bootcampms.productos.Exception.SkuDuplicadoException si el nuevo SKU ya está en uso.
      * @throws com.bootcampms.productos.Exception.CodBarDuplicadoException si el nuevo CodBar ya está en uso.
+     * @throws com.bootcampms.productos.Exception.ProductoModificadoException si el ETag vigente no es ninguno de los esperados,
+     *         o si se indicaron ETags y otra transacción modifica el producto a la vez.
+     * @throws org.springframework.dao.OptimisticLockingFailureException si otra transacción modifica el producto a la vez
+     *         y no se indicaron ETags.
      */
-    Optional<Producto> actualizarProducto(Long id, ProductoUpdateRequestDTO productoUpdateRequestDTO);
+    Optional<Producto> actualizarProducto(Long id, ProductoUpdateRequestDTO productoUpdateRequestDTO, Collection<String> etagsEsperados);
 }
\ No newline at end of file
@@ -1,18 +1,43 @@
 package com.bootcampms.productos.Service;
 
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.DTO.ResultadoFacetasDTO;
 import com.bootcampms.productos.Exception.CodBarDuplicadoException;
+import com.bootcampms.productos.Exception.CursorInvalidoException;
+import com.bootcampms.productos.Exception.ProductoModificadoException;
 import com.bootcampms.productos.Exception.RecursoNoEncontradoException;
+import com.bootcampms.productos.Model.Estado;
 import com.bootcampms.productos.Model.Producto;
 import com.bootcampms.productos.Repository.ProductoRepository;
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
 import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
 import com.bootcampms.productos.Exception.SkuDuplicadoException;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.roaringbitmap.PeekableIntIterator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementación del servicio para la gestión de productos.
@@ -21,14 +46,28 @@ import java.util.Optional;
 public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
+    private final ProductoCache productoCache;
+    private final IndiceBusquedaProductos indiceBusqueda;
+    private final IndiceFacetasProductos indiceFacetas;
+    private final CatalogoCategorias catalogoCategorias;
 
     /**
      * Constructor para inyección de dependencias.
      * @param productoRepository El repositorio de productos.
+     * @param productoCache La caché de productos por ID.
+     * @param indiceBusqueda El índice de búsqueda de texto, que se actualiza en cada escritura.
+     * @param indiceFacetas El índice de facetas, que se actualiza en cada escritura.
+     * @param catalogoCategorias El catálogo de categorías en memoria, del que se resuelve la categoría de cada producto.
      */
     @Autowired
-    public ProductoServiceImpl(ProductoRepository productoRepository) {
+    public ProductoServiceImpl(ProductoRepository productoRepository, ProductoCache productoCache,
+                               IndiceBusquedaProductos indiceBusqueda, IndiceFacetasProductos indiceFacetas,
+                               CatalogoCategorias catalogoCategorias) {
         this.productoRepository = productoRepository;
+        this.productoCache = productoCache;
+        this.indiceBusqueda = indiceBusqueda;
+        this.indiceFacetas = indiceFacetas;
+        this.catalogoCategorias = catalogoCategorias;
     }
 
     /**
@@ -37,7 +76,7 @@ public class ProductoServiceImpl implements ProductoService {
     @Override
     @Transactional(readOnly = true)
     public List<Producto> obtenerTodosLosProductos() {
-        return productoRepository.findAll();
+        return catalogoCategorias.resolver(productoRepository.findAll());
     }
 
     /**
@@ -45,25 +84,266 @@ public class ProductoServiceImpl implements ProductoService {
      */
     @Override
     @Transactional(readOnly = true)
-    public Optional<Producto> obtenerProductoPorId(Long id) {
-        return productoRepository.findById(id);
+    public List<ProductoResumenDTO> obtenerResumenProductos() {
+        return productoRepository.findResumenByOrderByIdAsc();
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @Transactional
-    public Producto guardarProducto(Producto producto) {
-        if (producto.getId() == null) { // Solo para creación
-            if (productoRepository.existsBySku(producto.getSku())) {
-                throw new SkuDuplicadoException("Ya existe un producto con el SKU proporcionado: " + producto.getSku());
+    @Transactional(readOnly = true)
+    public PaginaProductosDTO<Producto> obtenerPaginaProductos(String cursor, int tamanio, Long categoriaId, Estado estado) {
+        PaginaProductosDTO<Producto> pagina = paginar(cursor, tamanio, Producto::getId, (despuesDeId, limite) -> {
+            if (categoriaId != null && estado != null) {
+                return productoRepository.findByCategoriaIdAndEstadoAndIdGreaterThanOrderByIdAsc(categoriaId, estado, despuesDeId, limite);
+            } else if (categoriaId != null) {
+                return productoRepository.findByCategoriaIdAndIdGreaterThanOrderByIdAsc(categoriaId, despuesDeId, limite);
+            } else if (estado != null) {
+                return productoRepository.findByEstadoAndIdGreaterThanOrderByIdAsc(estado, despuesDeId, limite);
             }
-            if (producto.getCodBar() != null && !producto.getCodBar().isEmpty() && productoRepository.existsByCodBar(producto.getCodBar())) {
-                throw new CodBarDuplicadoException("Ya existe un producto con el código de barras: " + producto.getCodBar());
+            return productoRepository.findByIdGreaterThanOrderByIdAsc(despuesDeId, limite);
+        });
+        pagina.setProductos(catalogoCategorias.resolver(pagina.getProductos()));
+        return pagina;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaProductosDTO<ProductoResumenDTO> obtenerPaginaResumen(String cursor, int tamanio, Long categoriaId, Estado estado) {
+        return paginar(cursor, tamanio, ProductoResumenDTO::id, (despuesDeId, limite) -> {
+            if (categoriaId != null && estado != null) {
+                return productoRepository.findResumenByCategoriaIdAndEstadoAndIdGreaterThanOrderByIdAsc(categoriaId, estado, despuesDeId, limite);
+            } else if (categoriaId != null) {
+                return productoRepository.findResumenByCategoriaIdAndIdGreaterThanOrderByIdAsc(categoriaId, despuesDeId, limite);
+            } else if (estado != null) {
+                return productoRepository.findResumenByEstadoAndIdGreaterThanOrderByIdAsc(estado, despuesDeId, limite);
             }
+            return productoRepository.findResumenByIdGreaterThanOrderByIdAsc(despuesDeId, limite);
+        });
+    }
+
+    /**
+     * Resuelve una página por cursor con una única consulta indexada, en cualquiera de las dos representaciones.
+     * @param cursor El cursor recibido, o nulo para la primera página.
+     * @param tamanio El tamaño de página solicitado.
+     * @param idDe Función que obtiene el ID de un elemento.
+     * @param consulta Consulta que recibe el ID tras el que continuar y el límite de filas.
+     * @return La página y el cursor siguiente.
+     */
+    private <T> PaginaProductosDTO<T> paginar(String cursor, int tamanio, Function<T, Long> idDe,
+                                              BiFunction<Long, Limit, List<T>> consulta) {
+        int tamanioEfectivo = Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAXIMO));
+        long despuesDeId = decodificarCursor(cursor);
+        // Se pide un elemento extra para saber si existe una página siguiente sin ejecutar un COUNT
+        List<T> elementos = consulta.apply(despuesDeId, Limit.of(tamanioEfectivo + 1));
+
+        String siguiente = null;
+        if (elementos.size() > tamanioEfectivo) {
+            elementos = elementos.subList(0, tamanioEfectivo);
+            siguiente = codificarCursor(idDe.apply(elementos.get(tamanioEfectivo - 1)));
         }
-        return productoRepository.save(producto);
+        return new PaginaProductosDTO<>(elementos, siguiente);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Producto> buscarProductos(String consulta, int limite) {
+        List<Long> ids = buscarIds(consulta, limite);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Una sola consulta por IN para cargar los productos; se reordenan según la relevancia del índice
+        return ordenarSegun(ids, productoRepository.findAllById(ids), Producto::getId).stream()
+                .map(catalogoCategorias::resolver)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductoResumenDTO> buscarResumen(String consulta, int limite) {
+        List<Long> ids = buscarIds(consulta, limite);
+        return ids.isEmpty() ? List.of() : ordenarSegun(ids, productoRepository.findResumenByIdIn(ids), ProductoResumenDTO::id);
+    }
+
+    /**
+     * Busca en el índice de texto y devuelve los IDs de los resultados por relevancia.
+     */
+    private List<Long> buscarIds(String consulta, int limite) {
+        int limiteEfectivo = Math.max(1, Math.min(limite, LIMITE_BUSQUEDA_MAXIMO));
+        return indiceBusqueda.buscar(consulta, limiteEfectivo).stream()
+                .map(IndiceBusquedaProductos.ResultadoBusqueda::id)
+                .toList();
+    }
+
+    /**
+     * Ordena los elementos cargados según el orden de los IDs indicados, omitiendo los que ya no existen.
+     */
+    private static <T> List<T> ordenarSegun(List<Long> ids, List<T> cargados, Function<T, Long> idDe) {
+        Map<Long, T> porId = cargados.stream().collect(Collectors.toMap(idDe, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResultadoFacetasDTO<Producto> filtrarPorFacetas(IndiceFacetasProductos.Filtro filtro, String cursor, int tamanio) {
+        PaginaFacetas pagina = paginarFacetas(filtro, cursor, tamanio);
+        List<Producto> productos = pagina.ids().isEmpty() ? List.of()
+                : ordenarSegun(pagina.ids(), productoRepository.findAllById(pagina.ids()), Producto::getId).stream()
+                        .map(catalogoCategorias::resolver)
+                        .toList();
+        return pagina.conProductos(productos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResultadoFacetasDTO<ProductoResumenDTO> filtrarPorFacetasResumen(IndiceFacetasProductos.Filtro filtro, String cursor, int tamanio) {
+        PaginaFacetas pagina = paginarFacetas(filtro, cursor, tamanio);
+        List<ProductoResumenDTO> productos = pagina.ids().isEmpty() ? List.of()
+                : ordenarSegun(pagina.ids(), productoRepository.findResumenByIdIn(pagina.ids()), ProductoResumenDTO::id);
+        return pagina.conProductos(productos);
+    }
+
+    /**
+     * IDs de una página de facetas, con los recuentos del filtro y el cursor siguiente.
+     */
+    private record PaginaFacetas(List<Long> ids, IndiceFacetasProductos.ResultadoFacetas resultado, String siguiente) {
+
+        <T> ResultadoFacetasDTO<T> conProductos(List<T> productos) {
+            return new ResultadoFacetasDTO<>(productos, resultado.ids().getLongCardinality(),
+                    resultado.categorias(), resultado.estados(), resultado.enOferta(), siguiente);
+        }
+    }
+
+    /**
+     * Filtra con el índice de facetas y toma, a partir del cursor, los IDs de la página en orden ascendente.
+     */
+    private PaginaFacetas paginarFacetas(IndiceFacetasProductos.Filtro filtro, String cursor, int tamanio) {
+        int tamanioEfectivo = Math.max(1, Math.min(tamanio, TAMANIO_PAGINA_MAXIMO));
+        long despuesDeId = decodificarCursor(cursor);
+        IndiceFacetasProductos.ResultadoFacetas resultado = indiceFacetas.filtrar(filtro);
+
+        // Se toman tamanio + 1 IDs a partir del cursor para saber si hay página siguiente
+        List<Long> ids = new ArrayList<>(tamanioEfectivo + 1);
+        if (despuesDeId < Integer.MAX_VALUE) {
+            PeekableIntIterator iterador = resultado.ids().getIntIterator();
+            iterador.advanceIfNeeded((int) despuesDeId + 1);
+            while (iterador.hasNext() && ids.size() <= tamanioEfectivo) {
+                ids.add((long) iterador.next());
+            }
+        }
+        String siguiente = null;
+        if (ids.size() > tamanioEfectivo) {
+            ids = ids.subList(0, tamanioEfectivo);
+            siguiente = codificarCursor(ids.get(tamanioEfectivo - 1));
+        }
+        return new PaginaFacetas(ids, resultado, siguiente);
+    }
+
+    /**
+     * Codifica el último ID de una página como cursor opaco (Base64 URL-safe).
+     * @param ultimoId El ID del último producto devuelto.
+     * @return El cursor codificado.
+     */
+    private static String codificarCursor(Long ultimoId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(ultimoId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor opaco al ID a partir del cual continuar.
+     * @param cursor El cursor recibido, o nulo/vacío para la primera página.
+     * @return El ID tras el cual comienza la página (0 para la primera página).
+     * @throws CursorInvalidoException si el cursor no tiene un formato válido.
+     */
+    private static long decodificarCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            long id = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (id < 0) {
+                throw new CursorInvalidoException("El cursor de paginación proporcionado no es válido.");
+            }
+            return id;
+        } catch (IllegalArgumentException e) { // Incluye NumberFormatException y Base64 inválido
+            throw new CursorInvalidoException("El cursor de paginación proporcionado no es válido.");
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<Producto> obtenerProductoPorId(Long id) {
+        // Sin @Transactional: un acierto de caché no debe abrir transacción ni tomar conexión del pool
+        // La categoría se resuelve en cada lectura para reflejar la instantánea vigente aunque el producto esté en caché,
+        // sobre una copia: el producto en caché es compartido y no se modifica
+        return productoCache.obtener(id, productoRepository::findById).map(catalogoCategorias::resolver);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Optional<String> obtenerEtagProducto(Long id) {
+        // Sin @Transactional ni hidratación: un producto en caché ya trae su versión
+        Optional<Producto> enCache = productoCache.consultar(id);
+        if (enCache.isPresent()) {
+            return Optional.of(calcularEtag(enCache.get()));
+        }
+        return productoRepository.findVersionById(id).map(this::etagDeVersion);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String calcularEtag(Producto producto) {
+        return etagDeVersion(producto.getVersion());
+    }
+
+    /**
+     * Compone el ETag con la versión del producto y la del catálogo de categorías: renombrar una categoría
+     * cambia la representación del producto sin cambiar su versión.
+     */
+    private String etagDeVersion(Long version) {
+        String etagCatalogo = catalogoCategorias.instantanea().etag();
+        return "\"" + version + "-" + etagCatalogo.substring(1, Math.min(9, etagCatalogo.length() - 1)) + "\"";
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @Transactional
+    public Producto guardarProducto(Producto producto) {
+        validarCategoria(producto.getCategoriaId());
+        // La unicidad de SKU y CodBar la garantizan las restricciones de la tabla: sin consultas previas
+        // y sin carrera entre la comprobación y el INSERT. El flush hace que la violación se produzca aquí.
+        Producto guardado = guardarYTraducirDuplicados(producto);
+        productoCache.invalidar(guardado.getId());
+        indiceBusqueda.actualizar(guardado);
+        indiceFacetas.actualizar(guardado);
+        return catalogoCategorias.resolver(guardado);
     }
 
     /**
@@ -71,27 +351,25 @@ public class ProductoServiceImpl implements ProductoService {
      */
     @Override
     @Transactional
-    public Optional<Producto> actualizarProducto(Long id, ProductoUpdateRequestDTO productoDetallesDTO) {
+    public Optional<Producto> actualizarProducto(Long id, ProductoUpdateRequestDTO productoDetallesDTO, Collection<String> etagsEsperados) {
         Optional<Producto> productoOptional = productoRepository.findById(id);
         if (productoOptional.isEmpty()) {
             return Optional.empty();
         }
 
         Producto productoExistente = productoOptional.get();
+        // If-Match: la versión leída en esta transacción debe ser la que el cliente tenía. Si otra transacción
+        // la modifica antes del flush, el UPDATE ... WHERE version = ? de @Version lo detecta.
+        boolean condicional = etagsEsperados != null && !etagsEsperados.isEmpty();
+        if (condicional && !etagsEsperados.contains(calcularEtag(productoExistente))) {
+            throw new ProductoModificadoException("El producto con ID " + id + " fue modificado; la versión indicada en If-Match ya no es la vigente.");
+        }
 
-        // Validar y actualizar SKU si es diferente y se proporciona
-        if (productoDetallesDTO.getSku() != null && !productoExistente.getSku().equals(productoDetallesDTO.getSku())) {
-            if (this.existeProductoPorSku(productoDetallesDTO.getSku())) {
-                throw new SkuDuplicadoException("El nuevo SKU '" + productoDetallesDTO.getSku() + "' ya está en uso por otro producto.");
-            }
+        // SKU y CodBar se actualizan sin comprobación previa: un duplicado lo rechaza la restricción única
+        if (productoDetallesDTO.getSku() != null) {
             productoExistente.setSku(productoDetallesDTO.getSku());
         }
-
-        // Validar y actualizar CodBar si es diferente y se proporciona
-        if (productoDetallesDTO.getCodBar() != null && !productoExistente.getCodBar().equals(productoDetallesDTO.getCodBar())) {
-            if (productoRepository.existsByCodBar(productoDetallesDTO.getCodBar())) {
-                throw new CodBarDuplicadoException("El nuevo código de barras '" + productoDetallesDTO.getCodBar() + "' ya está en uso.");
-            }
+        if (productoDetallesDTO.getCodBar() != null) {
             productoExistente.setCodBar(productoDetallesDTO.getCodBar());
         }
 
@@ -105,14 +383,74 @@ public class ProductoServiceImpl implements ProductoService {
         if (productoDetallesDTO.getImagenUrl() != null) {
             productoExistente.setImagenUrl(productoDetallesDTO.getImagenUrl());
         }
-        if (productoDetallesDTO.getCategoria() != null) {
-            productoExistente.setCategoria(productoDetallesDTO.getCategoria());
+        if (productoDetallesDTO.getCategoriaId() != null) {
+            validarCategoria(productoDetallesDTO.getCategoriaId());
+            productoExistente.setCategoriaId(productoDetallesDTO.getCategoriaId());
         }
         if (productoDetallesDTO.getEstado() != null) {
             productoExistente.setEstado(productoDetallesDTO.getEstado());
         }
 
-        return Optional.of(productoRepository.save(productoExistente));
+        Producto actualizado;
+        try {
+            actualizado = guardarYTraducirDuplicados(productoExistente);
+        } catch (OptimisticLockingFailureException e) {
+            // Con If-Match, perder la carrera del flush es la misma precondición fallida que la comprobación previa
+            if (condicional) {
+                throw new ProductoModificadoException("El producto con ID " + id + " fue modificado; la versión indicada en If-Match ya no es la vigente.", e);
+            }
+            throw e;
+        }
+        productoCache.invalidar(id);
+        indiceBusqueda.actualizar(actualizado);
+        indiceFacetas.actualizar(actualizado);
+        return Optional.of(catalogoCategorias.resolver(actualizado));
+    }
+
+    /**
+     * Comprueba contra el catálogo en memoria que la categoría exista, sin consultar la base de datos.
+     * @param categoriaId El ID de la categoría.
+     * @throws RecursoNoEncontradoException si la categoría no existe.
+     */
+    private void validarCategoria(Long categoriaId) {
+        if (!catalogoCategorias.existe(categoriaId)) {
+            throw new RecursoNoEncontradoException("Categoría con ID " + categoriaId + " no encontrada.");
+        }
+    }
+
+    /**
+     * Guarda el producto forzando el flush, de modo que una violación de las restricciones únicas
+     * se detecta dentro de este método y se traduce a la excepción de dominio correspondiente.
+     * @param producto El producto a guardar.
+     * @return El producto guardado.
+     * @throws SkuDuplicadoException si el SKU ya está en uso por otro producto.
+     * @throws CodBarDuplicadoException si el código de barras ya está en uso por otro producto.
+     */
+    private Producto guardarYTraducirDuplicados(Producto producto) {
+        try {
+            return productoRepository.saveAndFlush(producto);
+        } catch (DataIntegrityViolationException e) {
+            String restriccion = nombreRestriccionViolada(e);
+            if (restriccion.contains(Producto.UK_SKU)) {
+                throw new SkuDuplicadoException("Ya existe un producto con el SKU proporcionado: " + producto.getSku());
+            }
+            if (restriccion.contains(Producto.UK_COD_BAR)) {
+                throw new CodBarDuplicadoException("Ya existe un producto con el código de barras: " + producto.getCodBar());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene, en minúsculas, el nombre de la restricción violada; si el driver no lo expone,
+     * devuelve el mensaje de la causa raíz (que en H2 incluye el nombre del índice).
+     */
+    private static String nombreRestriccionViolada(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException cve && cve.getConstraintName() != null) {
+            return cve.getConstraintName().toLowerCase(Locale.ROOT);
+        }
+        Throwable causaRaiz = e.getMostSpecificCause();
+        return causaRaiz.getMessage() != null ? causaRaiz.getMessage().toLowerCase(Locale.ROOT) : "";
     }
 
     /**
@@ -125,6 +463,9 @@ public class ProductoServiceImpl implements ProductoService {
             throw new RecursoNoEncontradoException("Producto con ID " + id + " no encontrado para eliminar.");
         }
         productoRepository.deleteById(id);
+        productoCache.invalidar(id);
+        indiceBusqueda.eliminar(id);
+        indiceFacetas.eliminar(id);
     }
 
     /**
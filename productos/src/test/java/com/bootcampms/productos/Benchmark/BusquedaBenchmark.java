@@ -0,0 +1,130 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la búsqueda en el índice invertido en memoria con una consulta {@code LIKE '%q%'} sobre H2,
+ * con un catálogo sintético de un millón de productos.
+ * <p>
+ * Ejecutar con {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.productos.Benchmark.BusquedaBenchmark
+ * -Dexec.classpathScope=test} o desde el IDE mediante {@link #main(String[])}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BusquedaBenchmark {
+
+    private static final String[] NOMBRES = {"laptop", "cámara", "funda", "teclado", "ratón", "monitor", "camiseta",
+            "pantalón", "zapatilla", "mochila", "lámpara", "silla", "mesa", "cafetera", "batidora", "auriculares"};
+    private static final String[] ADJETIVOS = {"negra", "blanco", "inalámbrico", "ergonómica", "deportiva", "compacta",
+            "profesional", "básico", "acolchada", "portátil", "algodón", "acero", "madera", "gaming", "mini", "pro"};
+    private static final int LIMITE = 20;
+
+    @Param({"1000000"})
+    private int productos;
+
+    @Param({"laptop", "cam", "funda negra"})
+    private String consulta;
+
+    private IndiceBusquedaProductos indice;
+    private Connection conexion;
+    private PreparedStatement consultaLike;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        indice = new IndiceBusquedaProductos();
+        conexion = DriverManager.getConnection("jdbc:h2:mem:busqueda_benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = conexion.createStatement()) {
+            ddl.execute("CREATE TABLE productos (id BIGINT PRIMARY KEY, sku VARCHAR(32), nombre VARCHAR(255), descripcion VARCHAR(1000))");
+        }
+        Random aleatorio = new Random(42);
+        conexion.setAutoCommit(false);
+        try (PreparedStatement insert = conexion.prepareStatement("INSERT INTO productos VALUES (?, ?, ?, ?)")) {
+            for (long id = 1; id <= productos; id++) {
+                String sku = "SKU-" + id;
+                String nombre = palabra(aleatorio, NOMBRES) + " " + palabra(aleatorio, ADJETIVOS) + " " + palabra(aleatorio, ADJETIVOS);
+                String descripcion = nombre + " de " + palabra(aleatorio, ADJETIVOS) + " con acabado " + palabra(aleatorio, ADJETIVOS);
+                indice.indexar(id, nombre, descripcion, sku);
+                insert.setLong(1, id);
+                insert.setString(2, sku);
+                insert.setString(3, nombre);
+                insert.setString(4, descripcion);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        conexion.commit();
+        consultaLike = conexion.prepareStatement(
+                "SELECT id FROM productos WHERE LOWER(nombre) LIKE ? OR LOWER(descripcion) LIKE ? OR LOWER(sku) LIKE ? LIMIT " + LIMITE);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        consultaLike.close();
+        try (Statement ddl = conexion.createStatement()) {
+            ddl.execute("DROP TABLE productos");
+        }
+        conexion.close();
+    }
+
+    @Benchmark
+    public List<IndiceBusquedaProductos.ResultadoBusqueda> indiceInvertido() {
+        return indice.buscar(consulta, LIMITE);
+    }
+
+    @Benchmark
+    public int consultaLike() throws SQLException {
+        String patron = "%" + consulta.toLowerCase() + "%";
+        consultaLike.setString(1, patron);
+        consultaLike.setString(2, patron);
+        consultaLike.setString(3, patron);
+        int filas = 0;
+        try (ResultSet resultado = consultaLike.executeQuery()) {
+            while (resultado.next()) {
+                filas++;
+            }
+        }
+        return filas;
+    }
+
+    private static String palabra(Random aleatorio, String[] palabras) {
+        return palabras[aleatorio.nextInt(palabras.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BusquedaBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.Generador.CodigoEan13;
+import com.bootcampms.productos.Generador.GeneradorDatosSinteticos;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.ProductosApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+
+/**
+ * Utilidades comunes de los benchmarks de los caminos críticos: arrancan la aplicación sobre H2 con un catálogo
+ * sintético de {@code productos} productos (perfil {@code datos-sinteticos}, semilla fija) y construyen productos
+ * y actualizaciones coherentes con los datos generados.
+ */
+final class CatalogoSintetico {
+
+    /** Prefijo de los códigos de barras de los productos creados durante el benchmark (distinto del del generador). */
+    private static final long PREFIJO_EAN_BENCHMARK = 99L * 10_000_000_000L;
+
+    private CatalogoSintetico() {
+    }
+
+    /**
+     * Arranca la aplicación con el catálogo generado.
+     * @param baseDatos Nombre de la base H2 en memoria.
+     * @param productos Tamaño del catálogo.
+     * @param tipoWeb {@code NONE} para usar solo los servicios, {@code SERVLET} para levantar también Tomcat en un puerto libre.
+     * @return El contexto arrancado.
+     */
+    static ConfigurableApplicationContext arrancar(String baseDatos, int productos, WebApplicationType tipoWeb) {
+        return new SpringApplicationBuilder(ProductosApplication.class)
+                .web(tipoWeb)
+                .properties(
+                        "spring.profiles.active=datos-sinteticos",
+                        "spring.datasource.url=jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "server.port=0",
+                        "logging.level.com.bootcampms=WARN",
+                        "logging.level.org.hibernate=WARN",
+                        "productos.generador.productos=" + productos,
+                        "productos.generador.semilla=42")
+                .run();
+    }
+
+    /**
+     * Construye un producto nuevo, con SKU y código de barras que no colisionan con el catálogo generado.
+     * @param numero Número único del producto dentro del benchmark.
+     * @return El producto, sin ID.
+     */
+    static Producto productoNuevo(long numero) {
+        Producto producto = new Producto(null, String.format("BENCH%09d", numero), "Producto benchmark " + numero,
+                "Producto creado durante el benchmark", new BigDecimal("19.99"), null,
+                CodigoEan13.generar(PREFIJO_EAN_BENCHMARK + numero), 10, null,
+                "https://cdn.example.com/productos/benchmark.jpg", Estado.PUBLICADO);
+        producto.setCategoriaId(1L);
+        return producto;
+    }
+
+    /**
+     * Construye una actualización de un producto generado que conserva su SKU y su código de barras
+     * (los mismos que asigna {@link GeneradorDatosSinteticos}).
+     * @param id ID del producto generado.
+     * @param version Valor que se incluye en el nombre para que cada actualización modifique la fila.
+     * @return El DTO de actualización.
+     */
+    static ProductoUpdateRequestDTO actualizacion(long id, long version) {
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setSku(GeneradorDatosSinteticos.sku(id));
+        dto.setNombre("Producto actualizado " + version);
+        dto.setDescripcion("Descripción actualizada durante el benchmark");
+        dto.setCodBar(GeneradorDatosSinteticos.codBar(id));
+        dto.setCategoriaId(1L);
+        dto.setImagenUrl("https://cdn.example.com/productos/" + dto.getSku() + ".jpg");
+        dto.setEstado(Estado.PUBLICADO);
+        return dto;
+    }
+}
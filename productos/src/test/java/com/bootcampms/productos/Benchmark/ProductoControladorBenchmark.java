@@ -0,0 +1,157 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Mide el recorrido completo de {@code ProductoController} (deserialización, validación, servicio y serialización)
+ * con un catálogo sintético de {@code catalogo} productos, de dos formas:
+ * <ul>
+ *     <li>{@code mockMvc*}: a través de {@link MockMvc}, sin red ni Tomcat; aísla el coste de Spring MVC.</li>
+ *     <li>{@code http*}: peticiones HTTP/1.1 reales al Tomcat embebido en un puerto libre, con conexión persistente.
+ *     La diferencia con {@code mockMvc*} es el coste de Tomcat y del transporte local.</li>
+ * </ul>
+ * Los cuerpos de las actualizaciones se serializan antes de la medición, para medir solo el servidor.
+ * <p>
+ * Ejecutar junto con el resto de los caminos críticos mediante {@link SuiteBenchmarks}, o solo este con
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.productos.Benchmark.ProductoControladorBenchmark
+ * -Dexec.classpathScope=test}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductoControladorBenchmark {
+
+    private static final String RUTA = "/api/v1/productos/";
+    /** Número de cuerpos de actualización preparados; se recorren en ciclo. */
+    private static final int CUERPOS = 1024;
+
+    @Param({"1000", "100000"})
+    private int catalogo;
+
+    private ConfigurableApplicationContext contexto;
+    private MockMvc mockMvc;
+    private HttpClient httpClient;
+    private String urlBase;
+    private long[] idsActualizados;
+    private String[] cuerposActualizacion;
+    private int siguienteCuerpo;
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void preparar() throws JsonProcessingException {
+        contexto = CatalogoSintetico.arrancar("controlador_benchmark", catalogo, WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) contexto).build();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        urlBase = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + RUTA;
+
+        ObjectMapper objectMapper = contexto.getBean(ObjectMapper.class);
+        idsActualizados = new long[CUERPOS];
+        cuerposActualizacion = new String[CUERPOS];
+        for (int i = 0; i < CUERPOS; i++) {
+            idsActualizados[i] = idAleatorio();
+            cuerposActualizacion[i] = objectMapper.writeValueAsString(CatalogoSintetico.actualizacion(idsActualizados[i], i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public String mockMvcObtenerPorId() throws Exception {
+        return comprobar(mockMvc.perform(get(RUTA + "{id}", idAleatorio())).andReturn().getResponse());
+    }
+
+    @Benchmark
+    public String mockMvcActualizar() throws Exception {
+        int i = siguienteCuerpo();
+        return comprobar(mockMvc.perform(put(RUTA + "{id}", idsActualizados[i])
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerposActualizacion[i]))
+                .andReturn().getResponse());
+    }
+
+    @Benchmark
+    public String httpObtenerPorId() throws IOException, InterruptedException {
+        return comprobar(httpClient.send(HttpRequest.newBuilder(URI.create(urlBase + idAleatorio())).GET().build(),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+
+    @Benchmark
+    public String httpActualizar() throws IOException, InterruptedException {
+        int i = siguienteCuerpo();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(urlBase + idsActualizados[i]))
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .PUT(HttpRequest.BodyPublishers.ofString(cuerposActualizacion[i]))
+                .build();
+        return comprobar(httpClient.send(peticion, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private long idAleatorio() {
+        return 1 + aleatorio.nextInt(catalogo);
+    }
+
+    private int siguienteCuerpo() {
+        siguienteCuerpo = (siguienteCuerpo + 1) % CUERPOS;
+        return siguienteCuerpo;
+    }
+
+    /** Una respuesta de error invalidaría la medición: se detiene el benchmark en lugar de medir el camino de error. */
+    private static String comprobar(MockHttpServletResponse respuesta) throws IOException {
+        if (respuesta.getStatus() != 200) {
+            throw new IllegalStateException("Respuesta inesperada " + respuesta.getStatus() + ": " + respuesta.getContentAsString());
+        }
+        return respuesta.getContentAsString();
+    }
+
+    private static String comprobar(HttpResponse<String> respuesta) {
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("Respuesta inesperada " + respuesta.statusCode() + ": " + respuesta.body());
+        }
+        return respuesta.body();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductoControladorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
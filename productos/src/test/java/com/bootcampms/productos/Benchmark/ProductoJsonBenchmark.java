@@ -0,0 +1,123 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide la serialización y deserialización JSON de {@link Producto} y {@link ProductoUpdateRequestDTO} con Jackson,
+ * configurado como lo hace Spring Boot ({@link Jackson2ObjectMapperBuilder}), sin contexto de Spring.
+ * {@code pagina} es el número de productos de la lista que se serializa en {@code serializarListado}, como en
+ * los listados del catálogo.
+ * <p>
+ * Ejecutar junto con el resto de los caminos críticos mediante {@link SuiteBenchmarks}, o solo este con
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.productos.Benchmark.ProductoJsonBenchmark
+ * -Dexec.classpathScope=test}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductoJsonBenchmark {
+
+    private static final TypeReference<List<Producto>> LISTA_PRODUCTOS = new TypeReference<>() {
+    };
+
+    @Param({"20", "100"})
+    private int pagina;
+
+    private ObjectMapper objectMapper;
+    private Producto producto;
+    private byte[] productoJson;
+    private ProductoUpdateRequestDTO actualizacion;
+    private byte[] actualizacionJson;
+    private List<Producto> listado;
+    private byte[] listadoJson;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Categoria categoria = new Categoria(1L, "Electrónica", "Dispositivos y accesorios electrónicos");
+        producto = producto(1, categoria);
+        productoJson = objectMapper.writeValueAsBytes(producto);
+        actualizacion = CatalogoSintetico.actualizacion(1, 1);
+        actualizacionJson = objectMapper.writeValueAsBytes(actualizacion);
+        listado = new ArrayList<>();
+        for (int i = 1; i <= pagina; i++) {
+            listado.add(producto(i, categoria));
+        }
+        listadoJson = objectMapper.writeValueAsBytes(listado);
+    }
+
+    @Benchmark
+    public byte[] serializarProducto() throws IOException {
+        return objectMapper.writeValueAsBytes(producto);
+    }
+
+    @Benchmark
+    public Producto deserializarProducto() throws IOException {
+        return objectMapper.readValue(productoJson, Producto.class);
+    }
+
+    @Benchmark
+    public byte[] serializarActualizacion() throws IOException {
+        return objectMapper.writeValueAsBytes(actualizacion);
+    }
+
+    @Benchmark
+    public ProductoUpdateRequestDTO deserializarActualizacion() throws IOException {
+        return objectMapper.readValue(actualizacionJson, ProductoUpdateRequestDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializarListado() throws IOException {
+        return objectMapper.writeValueAsBytes(listado);
+    }
+
+    @Benchmark
+    public List<Producto> deserializarListado() throws IOException {
+        return objectMapper.readValue(listadoJson, LISTA_PRODUCTOS);
+    }
+
+    private static Producto producto(long id, Categoria categoria) {
+        Producto producto = new Producto(id, "SKU" + id, "Laptop Pro X " + id,
+                "Laptop ultra delgada y potente con pantalla de 14 pulgadas, 16 GB de RAM y 512 GB de SSD.",
+                new BigDecimal("1299.99"), id % 5 == 0 ? new BigDecimal("1099.99") : null,
+                String.format("%013d", id), 25, categoria, "https://cdn.example.com/productos/SKU" + id + ".jpg",
+                Estado.PUBLICADO);
+        producto.setVersion(3L);
+        return producto;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductoJsonBenchmark.class.getSimpleName()).build()).run();
+    }
+}
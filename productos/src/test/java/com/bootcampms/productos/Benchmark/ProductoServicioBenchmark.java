@@ -0,0 +1,96 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide los caminos críticos de {@link ProductoService} sobre H2 con el contexto de Spring completo (sin servidor web)
+ * y un catálogo sintético de {@code catalogo} productos.
+ * <ul>
+ *     <li>{@code obtenerProductoPorId}: lectura de un ID aleatorio del catálogo. Con catálogos mayores que la caché
+ *     ({@code productos.cache.tamanio-maximo}) la mayoría de las lecturas fallan en la caché y van a la base de datos.</li>
+ *     <li>{@code guardarProducto}: alta de un producto nuevo (validaciones de unicidad, inserción, índices y feed de cambios).</li>
+ *     <li>{@code actualizarProducto}: actualización de un ID aleatorio del catálogo, sin condición de ETag.</li>
+ * </ul>
+ * Las altas hacen crecer el catálogo durante la medición, igual que en producción.
+ * <p>
+ * Ejecutar junto con el resto de los caminos críticos mediante {@link SuiteBenchmarks}, o solo este con
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.productos.Benchmark.ProductoServicioBenchmark
+ * -Dexec.classpathScope=test}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductoServicioBenchmark {
+
+    @Param({"1000", "100000"})
+    private int catalogo;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private final SplittableRandom aleatorio = new SplittableRandom(42);
+    private long altas;
+    private long actualizaciones;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = CatalogoSintetico.arrancar("servicio_benchmark", catalogo, WebApplicationType.NONE);
+        productoService = contexto.getBean(ProductoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Producto> obtenerProductoPorId() {
+        return productoService.obtenerProductoPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public Producto guardarProducto() {
+        return productoService.guardarProducto(CatalogoSintetico.productoNuevo(++altas));
+    }
+
+    @Benchmark
+    public Optional<Producto> actualizarProducto() {
+        long id = idAleatorio();
+        return productoService.actualizarProducto(id, CatalogoSintetico.actualizacion(id, ++actualizaciones), List.of());
+    }
+
+    private long idAleatorio() {
+        return 1 + aleatorio.nextInt(catalogo);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProductoServicioBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,137 @@
+package com.bootcampms.productos.Benchmark;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.ProductosApplication;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.bootcampms.productos.Service.ProductoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la lectura de una página del catálogo hidratando entidades {@link Producto} con la lectura
+ * de la proyección {@link ProductoResumenDTO}, sobre H2 con el contexto de Spring completo.
+ * <ul>
+ *     <li>{@code entidadesGestionadas}: entidades en una transacción de escritura, con instantáneas para el dirty checking.</li>
+ *     <li>{@code vistaCompleta}: el camino actual de {@code vista=COMPLETA} (transacción de solo lectura).</li>
+ *     <li>{@code vistaResumen}: el camino de {@code vista=RESUMEN}, sin registrar nada en el contexto de persistencia.</li>
+ * </ul>
+ * <p>
+ * Para ver también la asignación de memoria por operación, ejecutar con el perfilador de GC:
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.bootcampms.productos.Benchmark.ProyeccionBenchmark
+ * -Dexec.classpathScope=test} (el {@link #main(String[])} ya añade {@code -prof gc}).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProyeccionBenchmark {
+
+    private static final int PRODUCTOS = 20_000;
+    private static final String DESCRIPCION = "Descripción extensa del producto para el listado. ".repeat(5);
+
+    @Param({"20", "100"})
+    private int tamanio;
+
+    private ConfigurableApplicationContext contexto;
+    private ProductoService productoService;
+    private ProductoRepository productoRepository;
+    private CatalogoCategorias catalogoCategorias;
+    private TransactionTemplate transaccion;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        contexto = new SpringApplicationBuilder(ProductosApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.profiles.active=benchmark",
+                        "spring.datasource.url=jdbc:h2:mem:proyeccion_benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.bootcampms=WARN",
+                        "logging.level.org.hibernate=WARN",
+                        "productos.busqueda.carga-inicial=false")
+                .run();
+        productoService = contexto.getBean(ProductoService.class);
+        productoRepository = contexto.getBean(ProductoRepository.class);
+        catalogoCategorias = contexto.getBean(CatalogoCategorias.class);
+        transaccion = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        Categoria categoria = contexto.getBean(CategoriaRepository.class)
+                .save(new Categoria(null, "Electrónica", "Dispositivos y accesorios electrónicos"));
+        catalogoCategorias.recargar();
+        transaccion.executeWithoutResult(estado -> {
+            List<Producto> lote = new ArrayList<>();
+            for (int i = 1; i <= PRODUCTOS; i++) {
+                lote.add(new Producto(null, "SKU" + i, "Producto " + i, DESCRIPCION, new BigDecimal("19.99"),
+                        i % 3 == 0 ? new BigDecimal("14.99") : null, String.format("%013d", i), 10, categoria,
+                        "http://example.com/" + i + ".jpg", Estado.PUBLICADO));
+                if (lote.size() == 500) {
+                    productoRepository.saveAll(lote);
+                    lote.clear();
+                }
+            }
+            productoRepository.saveAll(lote);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Producto> entidadesGestionadas() {
+        return transaccion.execute(estado -> catalogoCategorias.resolver(
+                productoRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(tamanio))));
+    }
+
+    @Benchmark
+    public PaginaProductosDTO<Producto> vistaCompleta() {
+        return productoService.obtenerPaginaProductos(null, tamanio, null, null);
+    }
+
+    @Benchmark
+    public PaginaProductosDTO<ProductoResumenDTO> vistaResumen() {
+        return productoService.obtenerPaginaResumen(null, tamanio, null, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProyeccionBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
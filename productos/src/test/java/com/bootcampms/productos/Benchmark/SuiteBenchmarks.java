@@ -0,0 +1,45 @@
+package com.bootcampms.productos.Benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Ejecuta los benchmarks de los caminos críticos de productos ({@link ProductoServicioBenchmark},
+ * {@link ProductoControladorBenchmark} y {@link ProductoJsonBenchmark}) y guarda los resultados en JSON
+ * en {@code target/jmh/resultados.json}, para comparar ejecuciones y detectar regresiones.
+ * <p>
+ * Acepta las opciones de línea de comandos de JMH, que tienen prioridad sobre los valores por defecto:
+ * por ejemplo {@code -p catalogo=1000000} para otro tamaño de catálogo, una expresión regular para elegir
+ * benchmarks ({@code ProductoJson}) o {@code -rf csv -rff resultados.csv} para otro formato.
+ * </p>
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args="-p catalogo=10000"}
+ */
+public class SuiteBenchmarks {
+
+    private static final String[] CAMINOS_CRITICOS = {
+            ProductoServicioBenchmark.class.getSimpleName(),
+            ProductoControladorBenchmark.class.getSimpleName(),
+            ProductoJsonBenchmark.class.getSimpleName()};
+    private static final Path RESULTADOS = Path.of("target", "jmh", "resultados.json");
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions lineaComandos = new CommandLineOptions(args);
+        ChainedOptionsBuilder opciones = new OptionsBuilder().parent(lineaComandos);
+        if (lineaComandos.getIncludes().isEmpty()) {
+            for (String benchmark : CAMINOS_CRITICOS) {
+                opciones.include(benchmark);
+            }
+        }
+        if (!lineaComandos.getResultFormat().hasValue() && !lineaComandos.getResult().hasValue()) {
+            Files.createDirectories(RESULTADOS.getParent());
+            opciones.resultFormat(ResultFormatType.JSON).result(RESULTADOS.toString());
+        }
+        new Runner(opciones.build()).run();
+    }
+}
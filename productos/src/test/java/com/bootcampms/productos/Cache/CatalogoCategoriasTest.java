@@ -0,0 +1,85 @@
+package com.bootcampms.productos.Cache;
+
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class CatalogoCategoriasTest {
+
+    private CategoriaRepository categoriaRepository;
+    private CatalogoCategorias catalogo;
+
+    @BeforeEach
+    void setUp() {
+        categoriaRepository = mock(CategoriaRepository.class);
+        when(categoriaRepository.findAll()).thenReturn(List.of(
+                new Categoria(2L, "Ropa", "Prendas de vestir"),
+                new Categoria(1L, "Electrónica", "Dispositivos electrónicos")));
+        catalogo = new CatalogoCategorias(categoriaRepository);
+        catalogo.recargar();
+    }
+
+    @Test
+    void recargar_publicaUnaInstantaneaOrdenadaEInmutable() {
+        CatalogoCategorias.Instantanea instantanea = catalogo.instantanea();
+
+        assertThat(instantanea.todas()).extracting(Categoria::getId).containsExactly(1L, 2L);
+        assertThatThrownBy(() -> instantanea.porId().remove(1L)).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(catalogo.existe(1L)).isTrue();
+        assertThat(catalogo.existe(99L)).isFalse();
+        assertThat(catalogo.existe(null)).isFalse();
+    }
+
+    @Test
+    void etag_esEstableSinCambiosYCambiaAlModificarUnaCategoria() {
+        String etagInicial = catalogo.instantanea().etag();
+        catalogo.recargar();
+        assertThat(catalogo.instantanea().etag()).isEqualTo(etagInicial);
+
+        when(categoriaRepository.findAll()).thenReturn(List.of(
+                new Categoria(1L, "Electrónica", "Dispositivos electrónicos"),
+                new Categoria(2L, "Moda", "Prendas de vestir")));
+        catalogo.recargar();
+
+        assertThat(catalogo.instantanea().etag()).isNotEqualTo(etagInicial).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void resolver_asignaLaCategoriaPorIdSinConsultarElRepositorio() {
+        Producto producto = new Producto();
+        producto.setCategoriaId(2L);
+
+        List<Producto> resueltos = catalogo.resolver(List.of(producto));
+
+        assertThat(resueltos).singleElement().satisfies(resuelto -> {
+            assertThat(resuelto.getCategoria().getNombre()).isEqualTo("Ropa");
+            assertThat(resuelto.getCategoriaId()).isEqualTo(2L);
+        });
+        verify(categoriaRepository, times(1)).findAll(); // Solo la carga inicial
+    }
+
+    @Test
+    void resolver_noModificaElProductoRecibido() {
+        // Los productos de la caché se comparten entre peticiones: resolver debe trabajar sobre una copia
+        Producto compartido = new Producto();
+        compartido.setId(7L);
+        compartido.setCategoriaId(1L);
+        compartido.setVersion(3L);
+
+        Producto resuelto = catalogo.resolver(compartido);
+
+        assertThat(resuelto).isNotSameAs(compartido);
+        assertThat(resuelto.getCategoria().getNombre()).isEqualTo("Electrónica");
+        assertThat(resuelto.getId()).isEqualTo(7L);
+        assertThat(resuelto.getVersion()).isEqualTo(3L);
+        assertThat(compartido.getCategoria()).isNull();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bootcampms.productos.Cache;
+
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProductoCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CanalInvalidacionLocal canal;
+    private Producto producto;
+    private AtomicInteger cargas;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        canal = new CanalInvalidacionLocal();
+        producto = new Producto(1L, "SKU001", "Laptop Pro", null, new BigDecimal("1200.00"), null,
+                "1234567890123", 0, new Categoria(1L, "Electrónica", null), "url", Estado.PUBLICADO);
+        cargas = new AtomicInteger();
+    }
+
+    private Optional<Producto> cargar(Long id) {
+        cargas.incrementAndGet();
+        return id.equals(1L) ? Optional.of(producto) : Optional.empty();
+    }
+
+    @Test
+    void obtener_registraAciertosYFallosEnMicrometer() {
+        ProductoCache cache = new ProductoCache(100, Duration.ofMinutes(5), canal, meterRegistry);
+
+        cache.obtener(1L, this::cargar);
+        cache.obtener(1L, this::cargar);
+        cache.obtener(1L, this::cargar);
+
+        assertThat(cargas.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ProductoCache.NOMBRE_CACHE).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ProductoCache.NOMBRE_CACHE).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void obtener_noAlmacenaProductosInexistentes() {
+        ProductoCache cache = new ProductoCache(100, Duration.ofMinutes(5), canal, meterRegistry);
+
+        assertThat(cache.obtener(99L, this::cargar)).isEmpty();
+        assertThat(cache.obtener(99L, this::cargar)).isEmpty();
+
+        assertThat(cargas.get()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidar_seSincronizaConOtrasInstanciasPorElCanal() {
+        // Dos cachés sobre el mismo canal simulan dos instancias detrás de un balanceador
+        ProductoCache instanciaA = new ProductoCache(100, Duration.ofMinutes(5), canal, meterRegistry);
+        ProductoCache instanciaB = new ProductoCache(100, Duration.ofMinutes(5), canal, new SimpleMeterRegistry());
+        instanciaA.obtener(1L, this::cargar);
+        instanciaB.obtener(1L, this::cargar);
+
+        instanciaA.invalidar(1L);
+        instanciaB.obtener(1L, this::cargar);
+
+        assertThat(cargas.get()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,100 @@
+package com.bootcampms.productos.Cambios;
+
+import com.bootcampms.productos.DTO.CambioProductoDTO;
+import com.bootcampms.productos.DTO.FeedCambiosDTO;
+import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Service.CambiosProductoService;
+import com.bootcampms.productos.Service.ProductoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración que comprueba que las escrituras de productos quedan registradas en el feed
+ * de cambios, en orden y con la baja como lápida, que un consumidor al día no recibe nada y que la secuencia
+ * no retrocede tras un reinicio.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class FeedCambiosIntegracionTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CambiosProductoService cambiosProductoService;
+
+    @Autowired
+    private RegistroCambiosProductos registroCambios;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void altaModificacionYBaja_aparecenEnElFeedEnOrden() {
+        Categoria categoria = categoriaRepository.save(new Categoria(null, "Feed", "Categoría de prueba del feed"));
+        long marca = registroCambios.secuenciaVisible();
+
+        Producto creado = productoService.guardarProducto(new Producto(null, "SKU-FEED", "Producto feed", null,
+                new BigDecimal("10.00"), null, "8800000000001", 0, categoria, "http://example.com/f.jpg", Estado.BORRADOR));
+        ProductoUpdateRequestDTO cambios = new ProductoUpdateRequestDTO();
+        cambios.setCategoriaId(categoria.getId());
+        cambios.setNombre("Producto feed modificado");
+        productoService.actualizarProducto(creado.getId(), cambios, List.of());
+        productoService.eliminarProducto(creado.getId());
+
+        FeedCambiosDTO feed = cambiosProductoService.obtenerCambios(marca, 100);
+
+        List<CambioProductoDTO> delProducto = feed.getCambios().stream()
+                .filter(cambio -> cambio.getProductoId().equals(creado.getId()))
+                .toList();
+        assertThat(delProducto).extracting(CambioProductoDTO::getTipo)
+                .containsExactly(TipoCambio.CREADO, TipoCambio.ACTUALIZADO, TipoCambio.ELIMINADO);
+        // El producto ya no existe: ningún cambio lleva su estado actual
+        assertThat(delProducto).extracting(CambioProductoDTO::getProducto).containsOnlyNulls();
+        assertThat(feed.isHayMas()).isFalse();
+
+        FeedCambiosDTO alDia = cambiosProductoService.obtenerCambios(feed.getSiguiente(), 100);
+
+        assertThat(alDia.getCambios()).isEmpty();
+        assertThat(alDia.getSiguiente()).isEqualTo(feed.getSiguiente());
+    }
+
+    @Test
+    void reinicioTrasRevertirElUltimoCambio_laSiguienteSecuenciaSuperaLaMarcaEntregada() {
+        transactionTemplate.executeWithoutResult(estado -> {
+            registroCambios.registrar(-1L, TipoCambio.ACTUALIZADO);
+            estado.setRollbackOnly();
+        });
+        // La marca visible ya ha pasado por encima del hueco revertido y se entrega así a los consumidores
+        long marca = registroCambios.secuenciaVisible();
+        long maximaRegistrada = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(secuencia), 0) FROM cambios_productos", Long.class);
+        assertThat(marca).isGreaterThan(maximaRegistrada);
+
+        RegistroCambiosProductos trasReinicio = new RegistroCambiosProductos(jdbcTemplate);
+
+        // La marca del consumidor sigue siendo un cursor válido antes de cualquier escritura
+        assertThat(trasReinicio.ultimaSecuenciaAsignada()).isGreaterThanOrEqualTo(marca);
+        trasReinicio.registrar(-2L, TipoCambio.ACTUALIZADO);
+        Long secuencia = jdbcTemplate.queryForObject("SELECT secuencia FROM cambios_productos WHERE producto_id = -2", Long.class);
+        assertThat(secuencia).isGreaterThan(marca);
+        assertThat(trasReinicio.secuenciaVisible()).isEqualTo(secuencia);
+    }
+}
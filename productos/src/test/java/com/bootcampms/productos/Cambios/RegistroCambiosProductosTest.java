@@ -0,0 +1,84 @@
+package com.bootcampms.productos.Cambios;
+
+import com.bootcampms.productos.Model.TipoCambio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RegistroCambiosProductosTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RegistroCambiosProductos registro;
+
+    @BeforeEach
+    void setUp() {
+        // La primera llamada a la secuencia es la que se descarta al inicializar
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(10L, 11L, 12L);
+        registro = new RegistroCambiosProductos(jdbcTemplate);
+    }
+
+    @AfterEach
+    void limpiar() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void registrar_sinTransaccion_insertaConSiguienteSecuenciaYLaHaceVisible() {
+        registro.registrar(1L, TipoCambio.CREADO);
+
+        verify(jdbcTemplate).update(anyString(), eq(11L), eq(1L), eq("CREADO"), any());
+        assertThat(registro.secuenciaVisible()).isEqualTo(11L);
+        // Solo la inicialización y el cambio piden valores a la secuencia
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void secuenciaVisible_conTransaccionAnteriorEnCurso_noSuperaLaSecuenciaPendiente() {
+        TransactionSynchronizationManager.initSynchronization();
+        registro.registrar(1L, TipoCambio.ACTUALIZADO); // secuencia 11, transacción aún abierta
+        List<TransactionSynchronization> primeraTransaccion = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        registro.registrar(2L, TipoCambio.ACTUALIZADO); // secuencia 12, confirmada sin transacción
+
+        // La 12 ya está confirmada, pero exponerla permitiría a un lector saltarse la 11 cuando se confirme
+        assertThat(registro.ultimaSecuenciaAsignada()).isEqualTo(12L);
+        assertThat(registro.secuenciaVisible()).isEqualTo(10L);
+
+        primeraTransaccion.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(registro.secuenciaVisible()).isEqualTo(12L);
+    }
+
+    @Test
+    void secuenciaVisible_trasRevertirLaTransaccion_avanzaSobreElHueco() {
+        TransactionSynchronizationManager.initSynchronization();
+        registro.registrar(1L, TipoCambio.ELIMINADO);
+
+        assertThat(registro.secuenciaVisible()).isEqualTo(10L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(registro.secuenciaVisible()).isEqualTo(11L);
+    }
+}
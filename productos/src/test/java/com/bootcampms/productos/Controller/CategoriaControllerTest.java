@@ -0,0 +1,126 @@
+package com.bootcampms.productos.Controller;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Exception.CategoriaDuplicadaException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Service.CategoriaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CategoriaController.class)
+public class CategoriaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoriaService categoriaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Categoria electronica;
+    private CatalogoCategorias.Instantanea instantanea;
+
+    @TestConfiguration
+    static class TestConfig {
+        @Bean
+        public CategoriaService categoriaService() {
+            return Mockito.mock(CategoriaService.class);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        Mockito.reset(categoriaService);
+        electronica = new Categoria(1L, "Electrónica", "Dispositivos electrónicos");
+        Map<Long, Categoria> porId = new LinkedHashMap<>();
+        porId.put(1L, electronica);
+        porId.put(2L, new Categoria(2L, "Ropa", "Prendas de vestir"));
+        instantanea = new CatalogoCategorias.Instantanea(porId, CatalogoCategorias.calcularEtag(porId.values()));
+    }
+
+    @Test
+    void obtenerTodas_retornaCategoriasConEtag() throws Exception {
+        when(categoriaService.obtenerCategorias()).thenReturn(instantanea);
+
+        mockMvc.perform(get("/api/v1/categorias"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, instantanea.etag()))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nombre", is("Electrónica")));
+    }
+
+    @Test
+    void obtenerTodas_conIfNoneMatchVigente_retornaNotModifiedSinCuerpo() throws Exception {
+        when(categoriaService.obtenerCategorias()).thenReturn(instantanea);
+
+        mockMvc.perform(get("/api/v1/categorias").header(HttpHeaders.IF_NONE_MATCH, instantanea.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, instantanea.etag()))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void obtenerPorId_conIfNoneMatchAntiguo_retornaCategoriaYOk() throws Exception {
+        when(categoriaService.obtenerCategoriaPorId(1L)).thenReturn(Optional.of(electronica));
+
+        mockMvc.perform(get("/api/v1/categorias/1").header(HttpHeaders.IF_NONE_MATCH, "\"antiguo\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, CatalogoCategorias.calcularEtag(List.of(electronica))))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void obtenerPorId_cuandoNoExiste_retornaNotFound() throws Exception {
+        when(categoriaService.obtenerCategoriaPorId(99L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/categorias/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)));
+    }
+
+    @Test
+    void crearCategoria_conNombreDuplicado_retornaConflict() throws Exception {
+        when(categoriaService.crearCategoria(any(Categoria.class)))
+                .thenThrow(new CategoriaDuplicadaException("Ya existe una categoría con el nombre: Ropa"));
+
+        mockMvc.perform(post("/api/v1/categorias")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Categoria(null, "Ropa", null))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.campo", is("nombre")));
+    }
+
+    @Test
+    void crearCategoria_sinNombre_retornaBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/categorias")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new Categoria(null, "", null))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.nombre").exists());
+
+        verifyNoInteractions(categoriaService);
+    }
+}
@@ -1,10 +1,22 @@
 package com.bootcampms.productos.Controller;
 
+import com.bootcampms.productos.DTO.CambioProductoDTO;
+import com.bootcampms.productos.DTO.FeedCambiosDTO;
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
 import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO;
+import com.bootcampms.productos.DTO.ResultadoFacetasDTO;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
 import com.bootcampms.productos.Exception.*;
 import com.bootcampms.productos.Model.Categoria;
 import com.bootcampms.productos.Model.Estado;
 import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import com.bootcampms.productos.Service.CambiosProductoService;
+import com.bootcampms.productos.Service.ProductoCargaMasivaService;
+import com.bootcampms.productos.Service.ProductoExportacionService;
+import com.bootcampms.productos.Service.ProductoLoteService;
 import com.bootcampms.productos.Service.ProductoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,16 +27,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 // import org.springframework.boot.test.mock.mockito.MockBean; // Ya no se usa
 import org.springframework.boot.test.context.TestConfiguration; // Para la configuración del mock
 import org.springframework.context.annotation.Bean; // Para definir el bean mock
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 // import java.time.LocalDateTime; // No se usa directamente en este test
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.hasSize;
@@ -45,6 +63,18 @@ public class ProductoControllerTest {
     @Autowired
     private ProductoService productoService;
 
+    @Autowired
+    private ProductoExportacionService productoExportacionService;
+
+    @Autowired
+    private ProductoCargaMasivaService productoCargaMasivaService;
+
+    @Autowired
+    private ProductoLoteService productoLoteService;
+
+    @Autowired
+    private CambiosProductoService cambiosProductoService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,6 +84,7 @@ public class ProductoControllerTest {
     private Categoria categoriaRopa;
     private ProductoUpdateRequestDTO updateRequestDTO;
     private final MediaType APPLICATION_JSON_UTF8 = MediaType.APPLICATION_JSON_UTF8;
+    private static final String ETAG_VIGENTE = "\"3-1a2b3c4d\"";
 
     // Clase de configuración interna para proporcionar el mock
     @TestConfiguration
@@ -62,13 +93,34 @@ public class ProductoControllerTest {
         public ProductoService productoService() {
             return Mockito.mock(ProductoService.class);
         }
+
+        @Bean
+        public ProductoExportacionService productoExportacionService() {
+            return Mockito.mock(ProductoExportacionService.class);
+        }
+
+        @Bean
+        public ProductoCargaMasivaService productoCargaMasivaService() {
+            return Mockito.mock(ProductoCargaMasivaService.class);
+        }
+
+        @Bean
+        public ProductoLoteService productoLoteService() {
+            return Mockito.mock(ProductoLoteService.class);
+        }
+
+        @Bean
+        public CambiosProductoService cambiosProductoService() {
+            return Mockito.mock(CambiosProductoService.class);
+        }
     }
 
     @BeforeEach
     void setUp() {
         // Es importante resetear el mock antes de cada test si se define como un @Bean
         // para evitar que el estado de un test afecte a otro.
-        Mockito.reset(productoService);
+        Mockito.reset(productoService, productoExportacionService, productoCargaMasivaService, productoLoteService, cambiosProductoService);
+        when(productoService.calcularEtag(any(Producto.class))).thenReturn(ETAG_VIGENTE);
 
         categoriaElectronica = new Categoria(1L, "Electrónica", "Dispositivos electrónicos");
         categoriaRopa = new Categoria(2L, "Ropa", "Prendas de vestir");
@@ -125,6 +177,225 @@ public class ProductoControllerTest {
         verify(productoService).obtenerTodosLosProductos();
     }
 
+    // --- Tests para obtenerPagina ---
+    @Test
+    void obtenerPagina_conFiltros_retornaPaginaYCursorSiguiente() throws Exception {
+        when(productoService.obtenerPaginaProductos(null, 2, 1L, Estado.PUBLICADO))
+                .thenReturn(new PaginaProductosDTO<>(Arrays.asList(producto1, producto2), "Mg"));
+
+        mockMvc.perform(get("/api/v1/productos/pagina")
+                        .param("size", "2")
+                        .param("categoria", "1")
+                        .param("estado", "PUBLICADO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos", hasSize(2)))
+                .andExpect(jsonPath("$.siguiente", is("Mg")));
+
+        verify(productoService).obtenerPaginaProductos(null, 2, 1L, Estado.PUBLICADO);
+    }
+
+    @Test
+    void obtenerPagina_conCursorInvalido_retornaBadRequestConErrorResponse() throws Exception {
+        String mensajeEsperado = "El cursor de paginación proporcionado no es válido.";
+        when(productoService.obtenerPaginaProductos("???", 20, null, null))
+                .thenThrow(new CursorInvalidoException(mensajeEsperado));
+
+        mockMvc.perform(get("/api/v1/productos/pagina").param("cursor", "???"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(APPLICATION_JSON_UTF8))
+                .andExpect(jsonPath("$.message", is(mensajeEsperado)));
+    }
+
+    // --- Tests para exportar ---
+    @Test
+    void exportar_escribeNdjsonEnStreaming() throws Exception {
+        String ndjson = "{\"id\":1}\n{\"id\":2}\n";
+        when(productoExportacionService.exportarProductos(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream salida = invocation.getArgument(0);
+            salida.write(ndjson.getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(ndjson));
+    }
+
+    @Test
+    void exportar_conGzip_indicaContentEncoding() throws Exception {
+        when(productoExportacionService.exportarProductos(any(OutputStream.class))).thenReturn(0L);
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/export").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"));
+    }
+
+    @Test
+    void exportarIds_escribeUnIdPorLinea() throws Exception {
+        when(productoExportacionService.exportarIds(any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream salida = invocation.getArgument(0);
+            salida.write("1\n2\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/export/ids"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("1\n2\n"));
+    }
+
+    // --- Tests para obtenerLote ---
+    @Test
+    void obtenerLote_conIdsYSkusEnLaQuery_escribeElResultadoEnStreaming() throws Exception {
+        SolicitudLoteDTO validada = new SolicitudLoteDTO(List.of(1L, 2L), List.of("SKU001"));
+        when(productoLoteService.validarSolicitud(new SolicitudLoteDTO(List.of(1L, 2L), List.of("SKU001")))).thenReturn(validada);
+        String json = "{\"productos\":[{\"id\":1}],\"idsNoEncontrados\":[2],\"skusNoEncontrados\":[]}";
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(json.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(productoLoteService).escribirProductos(eq(validada), any(OutputStream.class));
+
+        MvcResult resultado = mockMvc.perform(get("/api/v1/productos/batch").param("ids", "1,2").param("skus", "SKU001"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos", hasSize(1)))
+                .andExpect(jsonPath("$.idsNoEncontrados[0]", is(2)));
+    }
+
+    @Test
+    void obtenerLote_conSolicitudInvalida_retornaBadRequestSinEmpezarElStreaming() throws Exception {
+        when(productoLoteService.validarSolicitud(any()))
+                .thenThrow(new SolicitudLoteInvalidaException("Se debe indicar al menos un ID o un SKU."));
+
+        mockMvc.perform(post("/api/v1/productos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Se debe indicar al menos un ID o un SKU.")));
+
+        verify(productoLoteService, never()).escribirProductos(any(), any());
+    }
+
+    // --- Tests para filtrarPorFacetas ---
+    @Test
+    void filtrarPorFacetas_sinEstado_filtraSoloPublicadosYDevuelveRecuentos() throws Exception {
+        ResultadoFacetasDTO<Producto> resultado = new ResultadoFacetasDTO<>(List.of(producto1), 1, Map.of(1L, 1L),
+                Map.of(Estado.PUBLICADO, 1L), 0, null);
+        when(productoService.filtrarPorFacetas(any(), eq(null), eq(20))).thenReturn(resultado);
+
+        mockMvc.perform(get("/api/v1/productos/facetas").param("categoria", "1", "2").param("precioMax", "1500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos", hasSize(1)))
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.categorias['1']", is(1)))
+                .andExpect(jsonPath("$.estados.PUBLICADO", is(1)));
+
+        verify(productoService).filtrarPorFacetas(argThat(filtro ->
+                filtro.categorias().equals(List.of(1L, 2L))
+                        && filtro.estados().equals(List.of(Estado.PUBLICADO))
+                        && filtro.precioMaximo().compareTo(new BigDecimal("1500")) == 0
+                        && filtro.precioMinimo() == null
+                        && filtro.enOferta() == null), eq(null), eq(20));
+    }
+
+    // --- Tests para obtenerCambios ---
+    @Test
+    void obtenerCambios_retornaCambiosYMarcaSiguiente() throws Exception {
+        FeedCambiosDTO feed = new FeedCambiosDTO(List.of(
+                new CambioProductoDTO(41L, TipoCambio.ACTUALIZADO, 1L, Instant.parse("2024-05-01T10:00:00Z"), producto1),
+                new CambioProductoDTO(42L, TipoCambio.ELIMINADO, 2L, Instant.parse("2024-05-01T10:00:01Z"), null)), 42L, false);
+        when(cambiosProductoService.obtenerCambios(40L, 500)).thenReturn(feed);
+
+        mockMvc.perform(get("/api/v1/productos/changes").param("since", "40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cambios", hasSize(2)))
+                .andExpect(jsonPath("$.cambios[0].producto.sku", is("SKU001")))
+                .andExpect(jsonPath("$.cambios[1].tipo", is("ELIMINADO")))
+                .andExpect(jsonPath("$.siguiente", is(42)))
+                .andExpect(jsonPath("$.hayMas", is(false)));
+
+        verify(cambiosProductoService).obtenerCambios(40L, 500);
+    }
+
+    @Test
+    void obtenerCambios_conMarcaInvalida_retornaBadRequest() throws Exception {
+        when(cambiosProductoService.obtenerCambios(999L, 500))
+                .thenThrow(new CursorInvalidoException("La marca de agua 999 no corresponde a ninguna secuencia del feed de cambios."));
+
+        mockMvc.perform(get("/api/v1/productos/changes").param("since", "999"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
+    // --- Tests para buscar ---
+    @Test
+    void buscar_retornaProductosPorRelevanciaYOk() throws Exception {
+        when(productoService.buscarProductos("laptop", 5)).thenReturn(List.of(producto1));
+
+        mockMvc.perform(get("/api/v1/productos/search").param("q", "laptop").param("limite", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].sku", is("SKU001")));
+
+        verify(productoService).buscarProductos("laptop", 5);
+    }
+
+    @Test
+    void buscar_conVistaResumen_retornaProyeccionSinCamposDeDetalle() throws Exception {
+        ProductoResumenDTO resumen = new ProductoResumenDTO(1L, "SKU001", "Laptop Pro", new BigDecimal("1200.00"), null, "url1");
+        when(productoService.buscarResumen("laptop", 20)).thenReturn(List.of(resumen));
+
+        mockMvc.perform(get("/api/v1/productos/search").param("q", "laptop").param("vista", "RESUMEN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].sku", is("SKU001")))
+                .andExpect(jsonPath("$[0].descripcion").doesNotExist())
+                .andExpect(jsonPath("$[0].categoria").doesNotExist());
+
+        verify(productoService).buscarResumen("laptop", 20);
+        verify(productoService, never()).buscarProductos(any(), anyInt());
+    }
+
+    @Test
+    void obtenerPagina_conVistaResumen_retornaPaginaDeProyecciones() throws Exception {
+        ProductoResumenDTO resumen = new ProductoResumenDTO(1L, "SKU001", "Laptop Pro", new BigDecimal("1200.00"), null, "url1");
+        when(productoService.obtenerPaginaResumen(null, 20, null, null))
+                .thenReturn(new PaginaProductosDTO<>(List.of(resumen), null));
+
+        mockMvc.perform(get("/api/v1/productos/pagina").param("vista", "RESUMEN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productos", hasSize(1)))
+                .andExpect(jsonPath("$.productos[0].nombre", is("Laptop Pro")));
+
+        verify(productoService).obtenerPaginaResumen(null, 20, null, null);
+    }
+
+    @Test
+    void buscar_sinParametroQ_retornaBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/productos/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.campo", is("q")));
+
+        verifyNoInteractions(productoService);
+    }
+
     // --- Tests para obtenerPorId ---
     @Test
     void obtenerPorId_cuandoProductoExiste_retornaProductoYOk() throws Exception {
@@ -135,9 +406,34 @@ public class ProductoControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id", is(1)))
-                .andExpect(jsonPath("$.nombre", is(producto1.getNombre())));
+                .andExpect(jsonPath("$.nombre", is(producto1.getNombre())))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG_VIGENTE));
 
         verify(productoService).obtenerProductoPorId(1L);
+        verify(productoService, never()).obtenerEtagProducto(any());
+    }
+
+    @Test
+    void obtenerPorId_conIfNoneMatchVigente_retornaNotModifiedSinCargarElProducto() throws Exception {
+        when(productoService.obtenerEtagProducto(1L)).thenReturn(Optional.of(ETAG_VIGENTE));
+
+        mockMvc.perform(get("/api/v1/productos/1").header(HttpHeaders.IF_NONE_MATCH, ETAG_VIGENTE))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG_VIGENTE))
+                .andExpect(content().string(""));
+
+        verify(productoService, never()).obtenerProductoPorId(any());
+    }
+
+    @Test
+    void obtenerPorId_conIfNoneMatchAntiguo_retornaProductoConEtagNuevo() throws Exception {
+        when(productoService.obtenerEtagProducto(1L)).thenReturn(Optional.of(ETAG_VIGENTE));
+        when(productoService.obtenerProductoPorId(1L)).thenReturn(Optional.of(producto1));
+
+        mockMvc.perform(get("/api/v1/productos/1").header(HttpHeaders.IF_NONE_MATCH, "\"2-1a2b3c4d\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG_VIGENTE))
+                .andExpect(jsonPath("$.id", is(1)));
     }
 
     @Test
@@ -211,6 +507,7 @@ public class ProductoControllerTest {
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$.status", is(HttpStatus.CONFLICT.value())))
                 .andExpect(jsonPath("$.message", is(mensajeEsperado)))
+                .andExpect(jsonPath("$.campo", is("sku")))
                 .andExpect(jsonPath("$.timestamp").exists());
 
         verify(productoService).guardarProducto(any(Producto.class));
@@ -231,6 +528,7 @@ public class ProductoControllerTest {
                 .andExpect(content().contentType(APPLICATION_JSON_UTF8))
                 .andExpect(jsonPath("$.status", is(HttpStatus.CONFLICT.value())))
                 .andExpect(jsonPath("$.message", is(mensajeEsperado)))
+                .andExpect(jsonPath("$.campo", is("codBar")))
                 .andExpect(jsonPath("$.timestamp").exists());
 
         verify(productoService).guardarProducto(any(Producto.class));
@@ -250,7 +548,7 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$.nombre").exists())
                 .andExpect(jsonPath("$.precio").exists())
                 .andExpect(jsonPath("$.codBar").exists())
-                .andExpect(jsonPath("$.categoria").exists())
+                .andExpect(jsonPath("$.categoriaId").exists())
                 .andExpect(jsonPath("$.imagenUrl").exists())
                 .andExpect(jsonPath("$.estado").exists());
 
@@ -258,6 +556,30 @@ public class ProductoControllerTest {
     }
 
 
+    // --- Tests para cargarProductos (bulk) ---
+    @Test
+    void cargarProductos_retornaResultadoPorProductoYOk() throws Exception {
+        producto1.setId(null);
+        producto2.setId(null);
+        List<ResultadoCargaMasivaDTO> resultados = Arrays.asList(
+                new ResultadoCargaMasivaDTO("SKU001", ResultadoCargaMasivaDTO.Resultado.CREADO, 10L, null),
+                new ResultadoCargaMasivaDTO("SKU002", ResultadoCargaMasivaDTO.Resultado.CONFLICTO, null, "El código de barras '9876543210123' ya está en uso por otro producto."));
+        when(productoCargaMasivaService.cargarProductos(any())).thenReturn(resultados);
+
+        mockMvc.perform(post("/api/v1/productos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(producto1, producto2))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].resultado", is("CREADO")))
+                .andExpect(jsonPath("$[0].id", is(10)))
+                .andExpect(jsonPath("$[1].resultado", is("CONFLICTO")));
+
+        verify(productoCargaMasivaService).cargarProductos(argThat(lista -> lista.size() == 2
+                && "SKU001".equals(lista.get(0).getSku()) && "SKU002".equals(lista.get(1).getSku())));
+        verifyNoInteractions(productoService);
+    }
+
     // --- Tests para actualizarProducto ---
     @Test
     void actualizarProducto_conDatosValidos_retornaProductoActualizadoYOk() throws Exception {
@@ -267,7 +589,7 @@ public class ProductoControllerTest {
                 producto1.getStock(), updateRequestDTO.getCategoria(), updateRequestDTO.getImagenUrl(), updateRequestDTO.getEstado()
         );
 
-        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class)))
+        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of())))
                 .thenReturn(Optional.of(productoActualizado));
 
         mockMvc.perform(put("/api/v1/productos/1")
@@ -279,14 +601,40 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$.nombre", is(updateRequestDTO.getNombre())))
                 .andExpect(jsonPath("$.sku", is(updateRequestDTO.getSku())));
 
-        verify(productoService).actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class));
+        verify(productoService).actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of()));
+    }
+
+    @Test
+    void actualizarProducto_conIfMatch_pasaLosEtagsAlServicio() throws Exception {
+        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of(ETAG_VIGENTE))))
+                .thenReturn(Optional.of(producto1));
+
+        mockMvc.perform(put("/api/v1/productos/1")
+                        .header(HttpHeaders.IF_MATCH, ETAG_VIGENTE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG_VIGENTE));
+    }
+
+    @Test
+    void actualizarProducto_conIfMatchObsoleto_retornaPreconditionFailed() throws Exception {
+        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of("\"2-1a2b3c4d\""))))
+                .thenThrow(new ProductoModificadoException("El producto con ID 1 fue modificado."));
+
+        mockMvc.perform(put("/api/v1/productos/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2-1a2b3c4d\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequestDTO)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", is(HttpStatus.PRECONDITION_FAILED.value())));
     }
 
     @Test
     void actualizarProducto_cuandoProductoNoExiste_retornaNotFoundConErrorResponse() throws Exception {
         Long idNoExistente = 99L;
         String mensajeEsperado = "Producto con ID " + idNoExistente + " no encontrado para actualizar.";
-        when(productoService.actualizarProducto(eq(idNoExistente), any(ProductoUpdateRequestDTO.class)))
+        when(productoService.actualizarProducto(eq(idNoExistente), any(ProductoUpdateRequestDTO.class), eq(List.of())))
                 .thenThrow(new RecursoNoEncontradoException(mensajeEsperado));
 
         mockMvc.perform(put("/api/v1/productos/" + idNoExistente)
@@ -298,13 +646,13 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$.message", is(mensajeEsperado)))
                 .andExpect(jsonPath("$.timestamp").exists());
 
-        verify(productoService).actualizarProducto(eq(idNoExistente), any(ProductoUpdateRequestDTO.class));
+        verify(productoService).actualizarProducto(eq(idNoExistente), any(ProductoUpdateRequestDTO.class), eq(List.of()));
     }
 
     @Test
     void actualizarProducto_conNuevoSkuDuplicado_retornaConflictConErrorResponse() throws Exception {
         String mensajeEsperado = "El nuevo SKU '" + updateRequestDTO.getSku() + "' ya está en uso por otro producto.";
-        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class)))
+        when(productoService.actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of())))
                 .thenThrow(new SkuDuplicadoException(mensajeEsperado));
 
         mockMvc.perform(put("/api/v1/productos/1")
@@ -315,7 +663,7 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$.status", is(HttpStatus.CONFLICT.value())))
                 .andExpect(jsonPath("$.message", is(mensajeEsperado)))
                 .andExpect(jsonPath("$.timestamp").exists());
-        verify(productoService).actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class));
+        verify(productoService).actualizarProducto(eq(1L), any(ProductoUpdateRequestDTO.class), eq(List.of()));
     }
 
 
@@ -332,7 +680,7 @@ public class ProductoControllerTest {
                 .andExpect(jsonPath("$.nombre").exists())
                 .andExpect(jsonPath("$.sku").exists())
                 .andExpect(jsonPath("$.codBar").exists())
-                .andExpect(jsonPath("$.categoria").exists())
+                .andExpect(jsonPath("$.categoriaId").exists())
                 .andExpect(jsonPath("$.imagenUrl").exists())
                 .andExpect(jsonPath("$.estado").exists());
 
@@ -0,0 +1,142 @@
+package com.bootcampms.productos.Controller;
+
+import com.bootcampms.productos.Config.ServidorReactivo;
+import com.bootcampms.productos.DTO.ResultadoLoteDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración de la API reactiva de lectura: arranca la aplicación con el perfil {@code reactivo}
+ * (y los datos de ejemplo de {@code dev}) y consulta el servidor Reactor Netty por HTTP, comprobando que
+ * el JSON, el ETag y las respuestas de error son los mismos que los de la API MVC.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:reactivo_test;DB_CLOSE_DELAY=-1",
+        "productos.reactivo.r2dbc-url=r2dbc:h2:mem:///reactivo_test",
+        "productos.reactivo.puerto=0",
+        "productos.reactivo.hilos=2"
+})
+@ActiveProfiles({"dev", "reactivo"})
+class ProductoReactivoIntegracionTest {
+
+    @Autowired
+    private ServidorReactivo servidorReactivo;
+
+    private WebTestClient cliente;
+
+    @BeforeEach
+    void setUp() {
+        cliente = WebTestClient.bindToServer().baseUrl("http://localhost:" + servidorReactivo.getPuerto()).build();
+    }
+
+    @Test
+    void obtenerLote_porSku_retornaProductosConCategoriaYNoEncontrados() {
+        cliente.get().uri("/api/v1/productos/batch?skus=SKU001,SKU999")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productos.length()").isEqualTo(1)
+                .jsonPath("$.productos[0].sku").isEqualTo("SKU001")
+                .jsonPath("$.productos[0].categoria.nombre").isEqualTo("Electrónica")
+                .jsonPath("$.idsNoEncontrados").isEmpty()
+                .jsonPath("$.skusNoEncontrados[0]").isEqualTo("SKU999");
+    }
+
+    @Test
+    void obtenerPorId_conEtagVigente_retorna304() {
+        Long id = idDelSku("SKU002");
+
+        String etag = cliente.get().uri("/api/v1/productos/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.sku").isEqualTo("SKU002")
+                .jsonPath("$.precioOferta").isEqualTo(69.99)
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        cliente.get().uri("/api/v1/productos/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void obtenerPorId_cuandoNoExiste_retorna404ConErrorResponse() {
+        cliente.get().uri("/api/v1/productos/999999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("Producto con ID 999999 no encontrado.")
+                .jsonPath("$.timestamp").exists();
+    }
+
+    @Test
+    void buscar_conVistaResumen_retornaResumenSinDescripcion() {
+        cliente.get().uri("/api/v1/productos/search?q=laptop&vista=RESUMEN")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].sku").isEqualTo("SKU001")
+                .jsonPath("$[0].descripcion").doesNotExist();
+    }
+
+    @Test
+    void buscar_sinParametroQ_retorna400ConCampo() {
+        cliente.get().uri("/api/v1/productos/search")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Falta el parámetro obligatorio 'q'.")
+                .jsonPath("$.campo").isEqualTo("q");
+    }
+
+    @Test
+    void obtenerLotePost_sinClaves_retorna400() {
+        cliente.post().uri("/api/v1/productos/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("ids", new Long[0]))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message").isEqualTo("Se debe indicar al menos un ID o un SKU.");
+    }
+
+    @Test
+    void obtenerTodos_retornaCatalogoOrdenadoPorId() {
+        cliente.get().uri("/api/v1/productos")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(4)
+                .jsonPath("$[0].sku").isEqualTo("SKU001")
+                .jsonPath("$[3].sku").isEqualTo("SKU004");
+    }
+
+    private Long idDelSku(String sku) {
+        ResultadoLoteDTO lote = cliente.get().uri("/api/v1/productos/batch?skus={sku}", sku)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ResultadoLoteDTO.class)
+                .returnResult()
+                .getResponseBody();
+        assertThat(lote).isNotNull();
+        return lote.getProductos().get(0).getId();
+    }
+}
@@ -0,0 +1,30 @@
+package com.bootcampms.productos.Generador;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CodigoEan13Test {
+
+    @Test
+    void generar_anadeElDigitoDeControl() {
+        assertThat(CodigoEan13.generar(400638133393L)).isEqualTo("4006381333931");
+        assertThat(CodigoEan13.generar(1L)).isEqualTo("0000000000017");
+    }
+
+    @Test
+    void esValido_compruebaLongitudDigitosYControl() {
+        assertThat(CodigoEan13.esValido("4006381333931")).isTrue();
+        assertThat(CodigoEan13.esValido("4006381333932")).isFalse();
+        assertThat(CodigoEan13.esValido("400638133393")).isFalse();
+        assertThat(CodigoEan13.esValido("40063813339A1")).isFalse();
+        assertThat(CodigoEan13.esValido(null)).isFalse();
+    }
+
+    @Test
+    void generar_conMasDeDoceDigitos_lanzaExcepcion() {
+        assertThatThrownBy(() -> CodigoEan13.generar(1_000_000_000_000L)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CodigoEan13.generar(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.bootcampms.productos.Generador;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class DistribucionZipfTest {
+
+    private static final int MUESTRAS = 200_000;
+
+    @Test
+    void muestra_sigueLasFrecuenciasTeoricas() {
+        DistribucionZipf zipf = new DistribucionZipf(100, 1.0);
+        int[] frecuencias = muestrear(zipf, new SplittableRandom(7));
+
+        double armonico = 0;
+        for (int k = 1; k <= 100; k++) {
+            armonico += 1.0 / k;
+        }
+        // P(1) = 1/H(100) ≈ 0,193 y P(2) = P(1)/2
+        assertThat(frecuencias[1] / (double) MUESTRAS).isCloseTo(1 / armonico, within(0.005));
+        assertThat(frecuencias[2] / (double) MUESTRAS).isCloseTo(1 / (2 * armonico), within(0.005));
+        assertThat(frecuencias[1]).isGreaterThan(frecuencias[10]).isGreaterThan(frecuencias[100]);
+    }
+
+    @Test
+    void muestra_siempreDentroDelRango() {
+        DistribucionZipf zipf = new DistribucionZipf(10_000_000, 1.2);
+        SplittableRandom aleatorio = new SplittableRandom(1);
+
+        for (int i = 0; i < MUESTRAS; i++) {
+            assertThat(zipf.muestra(aleatorio)).isBetween(1, 10_000_000);
+        }
+        assertThat(new DistribucionZipf(1, 1.0).muestra(aleatorio)).isEqualTo(1);
+    }
+
+    @Test
+    void muestra_conLaMismaSemilla_esDeterminista() {
+        DistribucionZipf zipf = new DistribucionZipf(1000, 0.9);
+
+        assertThat(muestrear(zipf, new SplittableRandom(42))).isEqualTo(muestrear(zipf, new SplittableRandom(42)));
+    }
+
+    @Test
+    void constructor_conParametrosInvalidos_lanzaExcepcion() {
+        assertThatThrownBy(() -> new DistribucionZipf(0, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new DistribucionZipf(10, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int[] muestrear(DistribucionZipf zipf, SplittableRandom aleatorio) {
+        int[] frecuencias = new int[zipf.getN() + 1];
+        for (int i = 0; i < MUESTRAS; i++) {
+            frecuencias[zipf.muestra(aleatorio)]++;
+        }
+        return frecuencias;
+    }
+}
@@ -0,0 +1,83 @@
+package com.bootcampms.productos.Search;
+
+import com.bootcampms.productos.Search.IndiceBusquedaProductos.ResultadoBusqueda;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceBusquedaProductosTest {
+
+    private IndiceBusquedaProductos indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceBusquedaProductos();
+        indice.indexar(1L, "Cámara réflex", "Cámara digital con lente intercambiable", "CAM-001");
+        indice.indexar(2L, "Lente para cámara", "Objetivo de 50mm", "LEN-050");
+        indice.indexar(3L, "Camiseta de algodón", "Camiseta básica", "ROP-010");
+        indice.indexar(4L, "Año nuevo pack", "Pack de cañones de confeti", "FIE-2024");
+    }
+
+    @Test
+    void buscar_ignoraTildesYMayusculas() {
+        assertThat(indice.buscar("CAMARA", 10)).extracting(ResultadoBusqueda::id).containsExactly(1L, 2L);
+        assertThat(indice.buscar("ano", 10)).extracting(ResultadoBusqueda::id).containsExactly(4L);
+        assertThat(indice.buscar("cañon", 10)).extracting(ResultadoBusqueda::id).containsExactly(4L);
+    }
+
+    @Test
+    void buscar_porPrefijo_incluyeTerminosQueEmpiezanPorLaConsulta() {
+        assertThat(indice.buscar("cam", 10)).extracting(ResultadoBusqueda::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void buscar_exigeTodosLosTerminos() {
+        assertThat(indice.buscar("camara lente", 10)).extracting(ResultadoBusqueda::id).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(indice.buscar("camara algodon", 10)).isEmpty();
+    }
+
+    @Test
+    void buscar_ordenaPorRelevanciaYRespetaElLimite() {
+        // "camiseta" aparece en el nombre y dos veces en total en el producto 3
+        indice.indexar(5L, "Pack regalo", "Incluye una camiseta", "REG-001");
+
+        assertThat(indice.buscar("camiseta", 10)).extracting(ResultadoBusqueda::id).containsExactly(3L, 5L);
+        assertThat(indice.buscar("camiseta", 1)).extracting(ResultadoBusqueda::id).containsExactly(3L);
+    }
+
+    @Test
+    void buscar_porSku_conYSinSeparadores() {
+        assertThat(indice.buscar("LEN-050", 10)).extracting(ResultadoBusqueda::id).containsExactly(2L);
+        assertThat(indice.buscar("len050", 10)).extracting(ResultadoBusqueda::id).containsExactly(2L);
+    }
+
+    @Test
+    void indexar_productoExistente_sustituyeSuVersionAnterior() {
+        indice.indexar(3L, "Sudadera", "Sudadera con capucha", "ROP-010");
+
+        assertThat(indice.buscar("camiseta", 10)).isEmpty();
+        assertThat(indice.buscar("sudadera", 10)).extracting(ResultadoBusqueda::id).containsExactly(3L);
+        assertThat(indice.tamanio()).isEqualTo(4);
+    }
+
+    @Test
+    void quitar_eliminaElProductoDeLosResultados() {
+        indice.quitar(1L);
+
+        assertThat(indice.buscar("camara", 10)).extracting(ResultadoBusqueda::id).containsExactly(2L);
+        assertThat(indice.tamanio()).isEqualTo(3);
+    }
+
+    @Test
+    void actualizacionesRepetidas_compactanElIndiceSinPerderDocumentos() {
+        for (int i = 0; i < 5000; i++) {
+            indice.indexar(3L, "Camiseta version " + i, "Camiseta básica", "ROP-010");
+        }
+
+        assertThat(indice.tamanio()).isEqualTo(4);
+        assertThat(indice.buscar("camiseta", 10)).extracting(ResultadoBusqueda::id).containsExactly(3L);
+        assertThat(indice.buscar("4999", 10)).extracting(ResultadoBusqueda::id).containsExactly(3L);
+        assertThat(indice.buscar("camara", 10)).extracting(ResultadoBusqueda::id).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,101 @@
+package com.bootcampms.productos.Search;
+
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Search.IndiceFacetasProductos.Filtro;
+import com.bootcampms.productos.Search.IndiceFacetasProductos.ResultadoFacetas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndiceFacetasProductosTest {
+
+    private IndiceFacetasProductos indice;
+
+    @BeforeEach
+    void setUp() {
+        indice = new IndiceFacetasProductos();
+        indice.indexar(producto(1L, 1L, Estado.PUBLICADO, "100.00", null));
+        indice.indexar(producto(2L, 1L, Estado.PUBLICADO, "250.00", "199.99"));
+        indice.indexar(producto(3L, 2L, Estado.PUBLICADO, "30.00", null));
+        indice.indexar(producto(4L, 2L, Estado.BORRADOR, "45.00", "40.00"));
+        indice.indexar(producto(5L, 3L, Estado.PRIVADO, "10.00", null));
+    }
+
+    private static Producto producto(Long id, Long categoriaId, Estado estado, String precio, String precioOferta) {
+        return new Producto(id, "SKU" + id, "Producto " + id, null, new BigDecimal(precio),
+                precioOferta != null ? new BigDecimal(precioOferta) : null, "1000000" + id, 0,
+                new Categoria(categoriaId, null, null), "http://example.com/" + id + ".jpg", estado);
+    }
+
+    private static List<Integer> ids(ResultadoFacetas resultado) {
+        return Arrays.stream(resultado.ids().toArray()).boxed().toList();
+    }
+
+    @Test
+    void filtrar_sinCriterios_devuelveTodoYRecuentosCompletos() {
+        ResultadoFacetas resultado = indice.filtrar(new Filtro(null, null, null, null, null));
+
+        assertThat(ids(resultado)).containsExactly(1, 2, 3, 4, 5);
+        assertThat(resultado.categorias()).isEqualTo(Map.of(1L, 2L, 2L, 2L, 3L, 1L));
+        assertThat(resultado.estados()).isEqualTo(Map.of(Estado.PUBLICADO, 3L, Estado.BORRADOR, 1L, Estado.PRIVADO, 1L));
+        assertThat(resultado.enOferta()).isEqualTo(2);
+    }
+
+    @Test
+    void filtrar_combinaCategoriasConOrYFacetasConAnd() {
+        ResultadoFacetas resultado = indice.filtrar(new Filtro(List.of(1L, 2L), List.of(Estado.PUBLICADO), null, null, null));
+
+        assertThat(ids(resultado)).containsExactly(1, 2, 3);
+        // El recuento de categorías ignora el filtro de categoría pero aplica el de estado
+        assertThat(resultado.categorias()).isEqualTo(Map.of(1L, 2L, 2L, 1L));
+        // El recuento de estados ignora el filtro de estado pero aplica el de categoría
+        assertThat(resultado.estados()).isEqualTo(Map.of(Estado.PUBLICADO, 3L, Estado.BORRADOR, 1L));
+    }
+
+    @Test
+    void filtrar_porRangoDePrecioEfectivo_usaElPrecioDeOfertaSiExiste() {
+        ResultadoFacetas resultado = indice.filtrar(new Filtro(null, null, new BigDecimal("40"), new BigDecimal("200"), null));
+
+        // 2 entra por su oferta (199.99) aunque su precio sea 250; 4 entra por su oferta (40.00)
+        assertThat(ids(resultado)).containsExactly(1, 2, 4);
+    }
+
+    @Test
+    void filtrar_porOferta() {
+        assertThat(ids(indice.filtrar(new Filtro(null, null, null, null, true)))).containsExactly(2, 4);
+        assertThat(ids(indice.filtrar(new Filtro(null, null, null, null, false)))).containsExactly(1, 3, 5);
+    }
+
+    @Test
+    void filtrar_categoriaInexistente_devuelveVacio() {
+        assertThat(ids(indice.filtrar(new Filtro(List.of(99L), null, null, null, null)))).isEmpty();
+    }
+
+    @Test
+    void indexar_productoExistente_sustituyeSusFacetas() {
+        indice.indexar(producto(5L, 1L, Estado.PUBLICADO, "10.00", null));
+
+        ResultadoFacetas resultado = indice.filtrar(new Filtro(List.of(3L), null, null, null, null));
+        assertThat(ids(resultado)).isEmpty();
+        assertThat(resultado.categorias()).doesNotContainKey(3L).containsEntry(1L, 3L);
+        assertThat(ids(indice.filtrar(new Filtro(null, null, null, new BigDecimal("10.00"), null)))).containsExactly(5);
+    }
+
+    @Test
+    void quitar_eliminaElProductoDeTodasLasFacetas() {
+        indice.quitar(2L);
+
+        ResultadoFacetas resultado = indice.filtrar(new Filtro(null, null, null, null, null));
+        assertThat(ids(resultado)).containsExactly(1, 3, 4, 5);
+        assertThat(resultado.enOferta()).isEqualTo(1);
+        assertThat(indice.tamanio()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,123 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cambios.RegistroCambiosProductos;
+import com.bootcampms.productos.DTO.CambioProductoDTO;
+import com.bootcampms.productos.DTO.FeedCambiosDTO;
+import com.bootcampms.productos.Exception.CursorInvalidoException;
+import com.bootcampms.productos.Model.CambioProducto;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Model.TipoCambio;
+import com.bootcampms.productos.Repository.CambioProductoRepository;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CambiosProductoServiceTest {
+
+    @Mock
+    private CambioProductoRepository cambioProductoRepository;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private RegistroCambiosProductos registroCambios;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    private CambiosProductoService cambiosService;
+    private Producto producto1;
+
+    @BeforeEach
+    void setUp() {
+        Categoria categoria = new Categoria(1L, "Electrónica", null);
+        when(categoriaRepository.findAll()).thenReturn(List.of(categoria));
+        CatalogoCategorias catalogoCategorias = new CatalogoCategorias(categoriaRepository);
+        catalogoCategorias.recargar();
+        cambiosService = new CambiosProductoService(cambioProductoRepository, productoRepository, registroCambios, catalogoCategorias, 2);
+        producto1 = new Producto(1L, "SKU001", "Laptop", null, new BigDecimal("10.00"), null,
+                "1234567890123", 0, categoria, "url", Estado.PUBLICADO);
+        lenient().when(registroCambios.ultimaSecuenciaAsignada()).thenReturn(5L);
+    }
+
+    private static CambioProducto cambio(long secuencia, long productoId, TipoCambio tipo) {
+        return new CambioProducto(secuencia, productoId, tipo, Instant.now());
+    }
+
+    @Test
+    void obtenerCambios_consumidorAlDia_noConsultaLaBaseDeDatos() {
+        when(registroCambios.secuenciaVisible()).thenReturn(5L);
+
+        FeedCambiosDTO feed = cambiosService.obtenerCambios(5, 100);
+
+        assertThat(feed.getCambios()).isEmpty();
+        assertThat(feed.getSiguiente()).isEqualTo(5L);
+        assertThat(feed.isHayMas()).isFalse();
+        verifyNoInteractions(cambioProductoRepository, productoRepository);
+    }
+
+    @Test
+    void obtenerCambios_consumidorRetrasado_devuelvePaginaAcotadaYMarcaDelUltimoCambio() {
+        when(registroCambios.secuenciaVisible()).thenReturn(5L);
+        // Tamaño máximo 2: se piden 3 para saber si hay más
+        when(cambioProductoRepository.findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(
+                eq(0L), eq(5L), argThat(limite -> limite.max() == 3)))
+                .thenReturn(List.of(cambio(1, 1, TipoCambio.CREADO), cambio(2, 2, TipoCambio.ELIMINADO), cambio(3, 1, TipoCambio.ACTUALIZADO)));
+        when(productoRepository.findAllById(List.of(1L))).thenReturn(List.of(producto1));
+
+        FeedCambiosDTO feed = cambiosService.obtenerCambios(0, 100);
+
+        assertThat(feed.getCambios()).extracting(CambioProductoDTO::getSecuencia).containsExactly(1L, 2L);
+        assertThat(feed.getCambios().get(0).getProducto().getCategoria().getNombre()).isEqualTo("Electrónica");
+        // Las bajas son lápidas: solo el ID del producto
+        assertThat(feed.getCambios().get(1).getTipo()).isEqualTo(TipoCambio.ELIMINADO);
+        assertThat(feed.getCambios().get(1).getProducto()).isNull();
+        assertThat(feed.getSiguiente()).isEqualTo(2L);
+        assertThat(feed.isHayMas()).isTrue();
+    }
+
+    @Test
+    void obtenerCambios_ultimaPaginaConHuecos_avanzaHastaLaSecuenciaVisible() {
+        when(registroCambios.secuenciaVisible()).thenReturn(5L);
+        // La secuencia 5 fue de una transacción revertida
+        when(cambioProductoRepository.findBySecuenciaGreaterThanAndSecuenciaLessThanEqualOrderBySecuenciaAsc(eq(3L), eq(5L), any()))
+                .thenReturn(List.of(cambio(4, 7, TipoCambio.ELIMINADO)));
+
+        FeedCambiosDTO feed = cambiosService.obtenerCambios(3, 100);
+
+        assertThat(feed.getCambios()).hasSize(1);
+        assertThat(feed.getSiguiente()).isEqualTo(5L);
+        assertThat(feed.isHayMas()).isFalse();
+        verify(productoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void obtenerCambios_conMarcaPosteriorALaUltimaSecuencia_deberiaLanzarCursorInvalidoException() {
+        when(registroCambios.secuenciaVisible()).thenReturn(5L);
+
+        assertThatThrownBy(() -> cambiosService.obtenerCambios(99, 100))
+                .isInstanceOf(CursorInvalidoException.class);
+        assertThatThrownBy(() -> cambiosService.obtenerCambios(-1, 100))
+                .isInstanceOf(CursorInvalidoException.class);
+    }
+}
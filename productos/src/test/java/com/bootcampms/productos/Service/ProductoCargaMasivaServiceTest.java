@@ -0,0 +1,178 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CanalInvalidacionLocal;
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO;
+import com.bootcampms.productos.DTO.ResultadoCargaMasivaDTO.Resultado;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductoCargaMasivaServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProductoCache productoCache;
+    private ProductoCargaMasivaService cargaMasivaService;
+    private Categoria categoria;
+    private final AtomicLong secuencia = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        productoCache = spy(new ProductoCache(100, Duration.ofMinutes(5),
+                new CanalInvalidacionLocal(), new SimpleMeterRegistry()));
+        categoria = new Categoria(1L, "Electrónica", "Dispositivos electrónicos");
+        when(categoriaRepository.findAll()).thenReturn(List.of(categoria));
+        CatalogoCategorias catalogoCategorias = new CatalogoCategorias(categoriaRepository);
+        catalogoCategorias.recargar();
+        cargaMasivaService = new ProductoCargaMasivaService(productoRepository, catalogoCategorias, productoCache,
+                new IndiceBusquedaProductos(), new IndiceFacetasProductos(), Validation.buildDefaultValidatorFactory().getValidator(), transactionManager, 2);
+
+        lenient().when(productoRepository.findBySkuIn(anyCollection())).thenReturn(List.of());
+        lenient().when(productoRepository.findByCodBarIn(anyCollection())).thenReturn(List.of());
+        // Simula la asignación de IDs por la secuencia al insertar
+        lenient().when(productoRepository.saveAll(anyIterable())).thenAnswer(inv -> {
+            List<Producto> guardados = new ArrayList<>();
+            for (Producto p : inv.<Iterable<Producto>>getArgument(0)) {
+                p.setId(secuencia.incrementAndGet());
+                guardados.add(p);
+            }
+            return guardados;
+        });
+    }
+
+    private Producto nuevoProducto(String sku, String codBar) {
+        return new Producto(null, sku, "Producto " + sku, "Descripción", new BigDecimal("10.00"), null,
+                codBar, 5, new Categoria(1L, null, null), "http://example.com/" + sku + ".jpg", Estado.PUBLICADO);
+    }
+
+    @Test
+    void cargarProductos_nuevos_seInsertanEnLotesYRetornanCreado() {
+        List<Producto> productos = List.of(
+                nuevoProducto("SKU-1", "10000001"),
+                nuevoProducto("SKU-2", "10000002"),
+                nuevoProducto("SKU-3", "10000003"));
+
+        List<ResultadoCargaMasivaDTO> resultados = cargaMasivaService.cargarProductos(productos);
+
+        assertThat(resultados).extracting(ResultadoCargaMasivaDTO::getResultado)
+                .containsExactly(Resultado.CREADO, Resultado.CREADO, Resultado.CREADO);
+        assertThat(resultados).extracting(ResultadoCargaMasivaDTO::getId).doesNotContainNull();
+        // Tamaño de lote 2: dos lotes, dos consultas IN por SKU y dos transacciones
+        verify(productoRepository, times(2)).findBySkuIn(anyCollection());
+        verify(productoRepository, times(2)).saveAll(anyIterable());
+        verify(transactionManager, times(2)).commit(any());
+        // Las categorías se validan contra el catálogo en memoria, sin consultas
+        verify(categoriaRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void cargarProductos_skuExistente_actualizaSinTocarStockEInvalidaCache() {
+        Producto existente = nuevoProducto("SKU-1", "10000001");
+        existente.setId(7L);
+        existente.setStock(42);
+        when(productoRepository.findBySkuIn(anyCollection())).thenReturn(List.of(existente));
+        when(productoRepository.findByCodBarIn(anyCollection())).thenReturn(List.of(existente));
+
+        Producto recibido = nuevoProducto("SKU-1", "10000001");
+        recibido.setNombre("Nombre nuevo");
+        recibido.setStock(0);
+
+        List<ResultadoCargaMasivaDTO> resultados = cargaMasivaService.cargarProductos(List.of(recibido));
+
+        assertThat(resultados).singleElement().satisfies(r -> {
+            assertThat(r.getResultado()).isEqualTo(Resultado.ACTUALIZADO);
+            assertThat(r.getId()).isEqualTo(7L);
+        });
+        assertThat(existente.getNombre()).isEqualTo("Nombre nuevo");
+        assertThat(existente.getStock()).isEqualTo(42);
+        verify(productoCache).invalidar(7L);
+    }
+
+    @Test
+    void cargarProductos_codBarDeOtroProducto_retornaConflicto() {
+        Producto otro = nuevoProducto("SKU-OTRO", "10000001");
+        otro.setId(8L);
+        when(productoRepository.findByCodBarIn(anyCollection())).thenReturn(List.of(otro));
+
+        List<ResultadoCargaMasivaDTO> resultados = cargaMasivaService.cargarProductos(List.of(
+                nuevoProducto("SKU-1", "10000001"),
+                nuevoProducto("SKU-2", "10000002")));
+
+        assertThat(resultados).extracting(ResultadoCargaMasivaDTO::getResultado)
+                .containsExactly(Resultado.CONFLICTO, Resultado.CREADO);
+    }
+
+    @Test
+    void cargarProductos_invalidosYRepetidos_noLleganABaseDeDatos() {
+        Producto sinNombre = nuevoProducto("SKU-1", "10000001");
+        sinNombre.setNombre("");
+        Producto conId = nuevoProducto("SKU-2", "10000002");
+        conId.setId(3L);
+        Producto categoriaInexistente = nuevoProducto("SKU-3", "10000003");
+        categoriaInexistente.setCategoria(new Categoria(99L, null, null));
+        Producto valido = nuevoProducto("SKU-4", "10000004");
+        Producto skuRepetido = nuevoProducto("SKU-4", "10000005");
+
+        List<ResultadoCargaMasivaDTO> resultados = cargaMasivaService.cargarProductos(
+                List.of(sinNombre, conId, categoriaInexistente, valido, skuRepetido));
+
+        assertThat(resultados).extracting(ResultadoCargaMasivaDTO::getResultado)
+                .containsExactly(Resultado.INVALIDO, Resultado.INVALIDO, Resultado.INVALIDO, Resultado.CREADO, Resultado.CONFLICTO);
+        assertThat(resultados.get(0).getMensaje()).contains("nombre");
+        verify(productoRepository, times(1)).findBySkuIn(argThat((Collection<String> skus) -> skus.size() == 1));
+    }
+
+    @Test
+    void cargarProductos_violacionDeIntegridadEnLote_reintentaIndividualmenteYAislaElConflicto() {
+        // El primer flush (lote completo) falla; en el reintento individual solo falla SKU-2
+        doThrow(new DataIntegrityViolationException("lote"))
+                .doNothing()
+                .doThrow(new DataIntegrityViolationException("SKU-2"))
+                .when(productoRepository).flush();
+
+        List<ResultadoCargaMasivaDTO> resultados = cargaMasivaService.cargarProductos(List.of(
+                nuevoProducto("SKU-1", "10000001"),
+                nuevoProducto("SKU-2", "10000002")));
+
+        assertThat(resultados).extracting(ResultadoCargaMasivaDTO::getResultado)
+                .containsExactly(Resultado.CREADO, Resultado.CONFLICTO);
+        assertThat(resultados.get(1).getId()).isNull();
+        verify(transactionManager, times(2)).rollback(any());
+    }
+}
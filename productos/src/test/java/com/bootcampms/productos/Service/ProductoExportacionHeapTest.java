@@ -0,0 +1,64 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de volumen de la exportación NDJSON sobre filas reales de H2, con el repositorio, los hints de fetch y
+ * solo lectura y la desasociación por producto del camino de producción.
+ * <p>
+ * Se ejecuta solo en la ejecución {@code exportacion-heap-acotado} de Surefire, con un heap menor que el que ocuparía
+ * el catálogo materializado: si la exportación deja de recorrer un cursor o de liberar cada producto, falla con
+ * {@link OutOfMemoryError}. La base de datos es de fichero (en {@code target}) para que las filas no ocupen el heap.
+ * </p>
+ */
+@Tag(ProductoExportacionHeapTest.ETIQUETA)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/exportacion-heap-acotado/${random.uuid}",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.bootcampms=INFO"
+})
+class ProductoExportacionHeapTest {
+
+    /** Etiqueta JUnit con la que Surefire separa esta prueba de las demás (véase el pom). */
+    static final String ETIQUETA = "heap-acotado";
+
+    private static final int PRODUCTOS = 300_000;
+    /** Por encima de los IDs de la secuencia usados por los datos iniciales. */
+    private static final long PRIMER_ID = 10_000_000L;
+
+    @Autowired
+    private ProductoExportacionService exportacionService;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportarProductos_conTrescientasMilFilas_noMaterializaElCatalogo() throws Exception {
+        Categoria categoria = categoriaRepository.save(new Categoria(null, "Exportación", "Categoría de la prueba de volumen"));
+        jdbcTemplate.update("INSERT INTO productos (id, sku, nombre, descripcion, precio, precio_oferta, cod_bar, stock, "
+                        + "categoria_id, imagen_url, estado, version) "
+                        + "SELECT X, 'SKU-EXP-' || X, 'Producto ' || X, 'Descripción del producto ' || X, 10.00, NULL, "
+                        + "LPAD(CAST(X AS VARCHAR), 13, '0'), 0, ?, 'http://example.com/' || X || '.jpg', 'PUBLICADO', 0 "
+                        + "FROM SYSTEM_RANGE(?, ?)",
+                categoria.getId(), PRIMER_ID, PRIMER_ID + PRODUCTOS - 1);
+        long filas = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM productos", Long.class);
+        ProductoExportacionServiceTest.ContadorDeLineas salida = new ProductoExportacionServiceTest.ContadorDeLineas();
+
+        long exportados = exportacionService.exportarProductos(salida);
+
+        assertThat(filas).isGreaterThanOrEqualTo(PRODUCTOS);
+        assertThat(exportados).isEqualTo(filas);
+        assertThat(salida.lineas).isEqualTo(filas);
+    }
+}
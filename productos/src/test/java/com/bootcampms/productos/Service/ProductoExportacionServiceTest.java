@@ -0,0 +1,133 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pruebas de la exportación NDJSON.
+ * La prueba de volumen genera los productos de forma perezosa y comprueba que el servicio no los acumula; la
+ * comprobación con filas reales y heap acotado está en {@link ProductoExportacionHeapTest}.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ProductoExportacionServiceTest {
+
+    private static final int PRODUCTOS_SINTETICOS = 1_000_000;
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    private ProductoExportacionService exportacionService;
+    private CatalogoCategorias catalogoCategorias;
+    private Categoria categoria;
+
+    @BeforeEach
+    void setUp() {
+        categoria = new Categoria(1L, "Electrónica", "Dispositivos electrónicos");
+        when(categoriaRepository.findAll()).thenReturn(List.of(categoria));
+        catalogoCategorias = new CatalogoCategorias(categoriaRepository);
+        catalogoCategorias.recargar();
+        exportacionService = new ProductoExportacionService(productoRepository, entityManager, new ObjectMapper(), catalogoCategorias);
+    }
+
+    private Producto productoSintetico(long id) {
+        return new Producto(id, "SKU" + id, "Producto " + id, "Descripción del producto " + id,
+                new BigDecimal("10.00"), null, String.format("%013d", id), 0, categoria,
+                "http://example.com/" + id + ".jpg", Estado.PUBLICADO);
+    }
+
+    @Test
+    void exportarProductos_escribeUnaLineaJsonPorProducto() throws Exception {
+        when(productoRepository.streamAllByOrderByIdAsc())
+                .thenReturn(LongStream.rangeClosed(1, 2).mapToObj(this::productoSintetico));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long exportados = exportacionService.exportarProductos(salida);
+
+        String[] lineas = salida.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exportados).isEqualTo(2);
+        assertThat(lineas).hasSize(2);
+        assertThat(lineas[0]).startsWith("{\"id\":1,").contains("\"sku\":\"SKU1\"")
+                .contains("\"categoriaId\":1").contains("\"nombre\":\"Electrónica\"");
+        assertThat(lineas[1]).startsWith("{\"id\":2,");
+        verify(entityManager, times(2)).detach(any(Producto.class));
+    }
+
+    @Test
+    void exportarIds_escribeUnIdPorLineaSinCargarLosProductos() throws Exception {
+        when(productoRepository.streamIds()).thenReturn(Stream.of(1L, 2L, 10L));
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+        long exportados = exportacionService.exportarIds(salida);
+
+        assertThat(exportados).isEqualTo(3);
+        assertThat(salida.toString(StandardCharsets.UTF_8)).isEqualTo("1\n2\n10\n");
+        verify(productoRepository, never()).streamAllByOrderByIdAsc();
+    }
+
+    @Test
+    void exportarProductos_conUnMillonDeProductos_noMaterializaElCatalogo() throws Exception {
+        when(productoRepository.streamAllByOrderByIdAsc())
+                .thenReturn(LongStream.rangeClosed(1, PRODUCTOS_SINTETICOS).mapToObj(this::productoSintetico));
+        // Mock sin registro de invocaciones: un mock normal retendría el millón de productos desasociados
+        EntityManager entityManagerSinRegistro = mock(EntityManager.class, withSettings().stubOnly());
+        ProductoExportacionService servicio = new ProductoExportacionService(productoRepository, entityManagerSinRegistro, new ObjectMapper(), catalogoCategorias);
+        ContadorDeLineas salida = new ContadorDeLineas();
+
+        long exportados = servicio.exportarProductos(salida);
+
+        assertThat(exportados).isEqualTo(PRODUCTOS_SINTETICOS);
+        assertThat(salida.lineas).isEqualTo(PRODUCTOS_SINTETICOS);
+    }
+
+    /**
+     * Salida que descarta los bytes y solo cuenta los saltos de línea.
+     */
+    static class ContadorDeLineas extends OutputStream {
+        long lineas;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lineas++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lineas++;
+                }
+            }
+        }
+    }
+}
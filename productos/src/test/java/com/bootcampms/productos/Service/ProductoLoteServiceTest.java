@@ -0,0 +1,134 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Cache.CanalInvalidacionLocal;
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.SolicitudLoteDTO;
+import com.bootcampms.productos.Exception.SolicitudLoteInvalidaException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductoLoteServiceTest {
+
+    @Mock
+    private ProductoRepository productoRepository;
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductoCache productoCache;
+    private ProductoLoteService loteService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        when(categoriaRepository.findAll()).thenReturn(List.of(new Categoria(1L, "Electrónica", null)));
+        CatalogoCategorias catalogoCategorias = new CatalogoCategorias(categoriaRepository);
+        catalogoCategorias.recargar();
+        productoCache = new ProductoCache(100, Duration.ofMinutes(5), new CanalInvalidacionLocal(), new SimpleMeterRegistry());
+        loteService = new ProductoLoteService(productoRepository, productoCache, catalogoCategorias, entityManager, objectMapper, 1000);
+    }
+
+    private Producto producto(long id) {
+        return new Producto(id, "SKU" + id, "Producto " + id, null, new BigDecimal("10.00"), null,
+                String.format("%013d", id), 0, new Categoria(1L, null, null), "url", Estado.PUBLICADO);
+    }
+
+    private JsonNode escribir(SolicitudLoteDTO solicitud) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        loteService.escribirProductos(loteService.validarSolicitud(solicitud), salida);
+        return objectMapper.readTree(salida.toByteArray());
+    }
+
+    @Test
+    void escribirProductos_conservaElOrdenDeLaSolicitudYListaLosNoEncontrados() throws Exception {
+        // La consulta IN devuelve en un orden arbitrario
+        when(productoRepository.findAllById(anyIterable())).thenReturn(List.of(producto(1), producto(3)));
+        when(productoRepository.findBySkuIn(anyCollection())).thenReturn(List.of(producto(7)));
+
+        JsonNode resultado = escribir(new SolicitudLoteDTO(List.of(3L, 99L, 1L, 3L), List.of("SKU7", "NOEXISTE", "SKU1")));
+
+        List<Long> ids = new ArrayList<>();
+        resultado.get("productos").forEach(p -> ids.add(p.get("id").asLong()));
+        assertThat(ids).containsExactly(3L, 1L, 7L); // SKU1 ya se escribió por ID
+        assertThat(resultado.get("productos").get(0).get("categoria").get("nombre").asText()).isEqualTo("Electrónica");
+        assertThat(resultado.get("idsNoEncontrados").toString()).isEqualTo("[99]");
+        assertThat(resultado.get("skusNoEncontrados").toString()).isEqualTo("[\"NOEXISTE\"]");
+        verify(productoRepository, times(1)).findAllById(anyIterable());
+        verify(productoRepository, times(1)).findBySkuIn(anyCollection());
+    }
+
+    @Test
+    void escribirProductos_tomaDeLaCacheLosIdsPresentesYConsultaSoloElResto() throws Exception {
+        productoCache.obtener(1L, id -> Optional.of(producto(1)));
+        when(productoRepository.findAllById(anyIterable())).thenReturn(List.of(producto(2)));
+
+        JsonNode resultado = escribir(new SolicitudLoteDTO(List.of(1L, 2L), null));
+
+        assertThat(resultado.get("productos")).hasSize(2);
+        verify(productoRepository).findAllById(argThat((Iterable<Long> consultados) -> List.of(2L).equals(copiar(consultados))));
+    }
+
+    @Test
+    void escribirProductos_resuelveLotesGrandesPorTramosLiberandoElContexto() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(productoRepository.findAllById(anyIterable())).thenAnswer(inv -> {
+            List<Producto> encontrados = new ArrayList<>();
+            inv.<Iterable<Long>>getArgument(0).forEach(id -> encontrados.add(producto(id)));
+            return encontrados;
+        });
+
+        JsonNode resultado = escribir(new SolicitudLoteDTO(ids, null));
+
+        assertThat(resultado.get("productos")).hasSize(1000);
+        verify(productoRepository, times(1000 / ProductoLoteService.TAMANIO_CONSULTA)).findAllById(anyIterable());
+        verify(entityManager, times(1000 / ProductoLoteService.TAMANIO_CONSULTA)).clear();
+    }
+
+    @Test
+    void validarSolicitud_sinClavesOConDemasiadas_lanzaSolicitudLoteInvalida() {
+        assertThatThrownBy(() -> loteService.validarSolicitud(new SolicitudLoteDTO(null, Arrays.asList(" ", null))))
+                .isInstanceOf(SolicitudLoteInvalidaException.class);
+        List<Long> demasiados = LongStream.rangeClosed(1, 1001).boxed().toList();
+        assertThatThrownBy(() -> loteService.validarSolicitud(new SolicitudLoteDTO(demasiados, null)))
+                .isInstanceOf(SolicitudLoteInvalidaException.class)
+                .hasMessageContaining("1000");
+    }
+
+    private static List<Long> copiar(Iterable<Long> ids) {
+        List<Long> lista = new ArrayList<>();
+        ids.forEach(lista::add);
+        return lista;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.Exception.ProductoModificadoException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración de dos actualizaciones con el mismo {@code If-Match} que pasan las dos la comprobación del
+ * ETag: la que llega al {@code UPDATE} después pierde en el {@code @Version} y debe fallar con
+ * {@link ProductoModificadoException} (412), no con el 409 de las actualizaciones sin condición.
+ * <p>
+ * La primera actualización se hace dentro de una transacción que no se confirma hasta que la segunda, que ya ha leído
+ * la versión anterior, está esperando el bloqueo de la fila en H2.
+ * </p>
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ProductoServiceIfMatchConcurrenteTest {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void actualizacionesConMismoIfMatch_laQuePierdeElFlushRecibeProductoModificado() throws Exception {
+        Categoria categoria = categoriaRepository.save(new Categoria(null, "IfMatch", "Categoría de prueba de If-Match"));
+        Producto producto = productoService.guardarProducto(new Producto(null, "SKU-IFMATCH", "Producto If-Match", null,
+                new BigDecimal("10.00"), null, "6600000000001", 0, categoria, "http://example.com/m.jpg", Estado.BORRADOR));
+        List<String> ifMatch = List.of(productoService.obtenerEtagProducto(producto.getId()).orElseThrow());
+
+        CountDownLatch primeraEscrita = new CountDownLatch(1);
+        AtomicReference<Throwable> errorSegunda = new AtomicReference<>();
+        Thread segunda = new Thread(() -> {
+            try {
+                primeraEscrita.await();
+                productoService.actualizarProducto(producto.getId(), cambioDeNombre("Segunda"), ifMatch);
+            } catch (Throwable e) {
+                errorSegunda.set(e);
+            }
+        }, "segunda-actualizacion");
+        segunda.start();
+
+        transactionTemplate.executeWithoutResult(estado -> {
+            productoService.actualizarProducto(producto.getId(), cambioDeNombre("Primera"), ifMatch);
+            primeraEscrita.countDown();
+            esperarBloqueoEnH2(segunda);
+        });
+        segunda.join(TimeUnit.SECONDS.toMillis(30));
+
+        assertThat(segunda.isAlive()).isFalse();
+        assertThat(errorSegunda.get()).isInstanceOf(ProductoModificadoException.class);
+        assertThat(productoRepository.findById(producto.getId())).get()
+                .extracting(Producto::getNombre).isEqualTo("Primera");
+    }
+
+    private static ProductoUpdateRequestDTO cambioDeNombre(String nombre) {
+        ProductoUpdateRequestDTO cambios = new ProductoUpdateRequestDTO();
+        cambios.setNombre(nombre);
+        return cambios;
+    }
+
+    /**
+     * Espera a que el hilo esté bloqueado dentro de H2 (esperando el bloqueo de la fila) o haya terminado.
+     */
+    private static void esperarBloqueoEnH2(Thread hilo) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (hilo.isAlive() && System.nanoTime() < limite) {
+            Thread.State estado = hilo.getState();
+            if ((estado == Thread.State.WAITING || estado == Thread.State.TIMED_WAITING)
+                    && Arrays.stream(hilo.getStackTrace()).anyMatch(marco -> marco.getClassName().startsWith("org.h2."))) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
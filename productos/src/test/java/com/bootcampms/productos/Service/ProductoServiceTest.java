@@ -1,22 +1,48 @@
 package com.bootcampms.productos.Service;
 
+import com.bootcampms.productos.Cache.CanalInvalidacionLocal;
+import com.bootcampms.productos.Cache.CatalogoCategorias;
+import com.bootcampms.productos.Cache.ProductoCache;
+import com.bootcampms.productos.DTO.PaginaProductosDTO;
+import com.bootcampms.productos.DTO.ProductoResumenDTO;
+import com.bootcampms.productos.DTO.ProductoUpdateRequestDTO;
+import com.bootcampms.productos.DTO.ResultadoFacetasDTO;
+import com.bootcampms.productos.Exception.CodBarDuplicadoException;
+import com.bootcampms.productos.Exception.CursorInvalidoException;
+import com.bootcampms.productos.Exception.ProductoModificadoException;
+import com.bootcampms.productos.Exception.RecursoNoEncontradoException;
+import com.bootcampms.productos.Exception.SkuDuplicadoException;
 import com.bootcampms.productos.Model.Categoria; // Asegúrate de importar Categoria
 import com.bootcampms.productos.Model.Estado;    // Asegúrate de importar Estado
 import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
 import com.bootcampms.productos.Repository.ProductoRepository;
+import com.bootcampms.productos.Search.IndiceBusquedaProductos;
+import com.bootcampms.productos.Search.IndiceFacetasProductos;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +51,21 @@ public class ProductoServiceTest {
     @Mock
     private ProductoRepository productoRepository;
 
+    @Spy
+    private ProductoCache productoCache = new ProductoCache(100, Duration.ofMinutes(5),
+            new CanalInvalidacionLocal(), new SimpleMeterRegistry());
+
+    @Spy
+    private IndiceBusquedaProductos indiceBusqueda = new IndiceBusquedaProductos();
+
+    @Spy
+    private IndiceFacetasProductos indiceFacetas = new IndiceFacetasProductos();
+
+    private final CategoriaRepository categoriaRepository = mock(CategoriaRepository.class);
+
+    @Spy
+    private CatalogoCategorias catalogoCategorias = new CatalogoCategorias(categoriaRepository);
+
     @InjectMocks
     private ProductoServiceImpl productoService; // Inyecta la implementación
 
@@ -36,6 +77,9 @@ public class ProductoServiceTest {
     void setUp() {
         categoriaElectronica = new Categoria(1L, "Electrónica", "Dispositivos electrónicos"); // Asumiendo que tienes este constructor en Categoria
         estadoPublicado = Estado.PUBLICADO;
+        when(categoriaRepository.findAll()).thenReturn(List.of(categoriaElectronica,
+                new Categoria(2L, "Periféricos", "Accesorios de computadora")));
+        catalogoCategorias.recargar();
         producto1 = new Producto(
                 1L,                                 // id
                 "SKU001",                           // sku
@@ -93,12 +137,161 @@ public class ProductoServiceTest {
     }
 
     @Test
-    void guardarProducto_deberiaLlamarRepositorioSave() {
-        when(productoRepository.save(any(Producto.class))).thenReturn(producto1);
+    void guardarProducto_deberiaLlamarRepositorioSaveAndFlushSinConsultasPrevias() {
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto1);
         Producto guardado = productoService.guardarProducto(producto1);
         assertThat(guardado).isNotNull();
         assertThat(guardado.getNombre()).isEqualTo("Laptop Pro");
-        verify(productoRepository, times(1)).save(producto1);
+        verify(productoRepository, times(1)).saveAndFlush(producto1);
+        verify(productoRepository, never()).existsBySku(any());
+        verify(productoRepository, never()).existsByCodBar(any());
+    }
+
+    @Test
+    void obtenerProductoPorId_deberiaResolverLaCategoriaDesdeElCatalogoSinJoin() {
+        Producto sinCategoria = new Producto();
+        sinCategoria.setId(5L);
+        sinCategoria.setCategoriaId(2L);
+        when(productoRepository.findById(5L)).thenReturn(Optional.of(sinCategoria));
+
+        Optional<Producto> producto = productoService.obtenerProductoPorId(5L);
+
+        assertThat(producto).hasValueSatisfying(p -> assertThat(p.getCategoria().getNombre()).isEqualTo("Periféricos"));
+        verify(categoriaRepository, never()).findById(any());
+    }
+
+    @Test
+    void guardarProducto_conCategoriaInexistente_deberiaLanzarRecursoNoEncontradoSinGuardar() {
+        producto1.setCategoriaId(99L);
+
+        assertThatThrownBy(() -> productoService.guardarProducto(producto1))
+                .isInstanceOf(RecursoNoEncontradoException.class)
+                .hasMessageContaining("99");
+        verify(productoRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void actualizarProducto_conCategoriaId_deberiaCambiarLaCategoria() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenAnswer(inv -> inv.getArgument(0));
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setCategoriaId(2L);
+
+        Optional<Producto> actualizado = productoService.actualizarProducto(1L, dto, null);
+
+        assertThat(actualizado).hasValueSatisfying(p -> {
+            assertThat(p.getCategoriaId()).isEqualTo(2L);
+            assertThat(p.getCategoria().getNombre()).isEqualTo("Periféricos");
+        });
+    }
+
+    @Test
+    void obtenerEtagProducto_conProductoEnCache_noConsultaLaBaseDeDatos() {
+        producto1.setVersion(3L);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        productoService.obtenerProductoPorId(1L); // Carga la caché
+
+        Optional<String> etag = productoService.obtenerEtagProducto(1L);
+
+        assertThat(etag).contains(productoService.calcularEtag(producto1));
+        assertThat(etag.get()).startsWith("\"3-").endsWith("\"");
+        verify(productoRepository, never()).findVersionById(any());
+    }
+
+    @Test
+    void obtenerEtagProducto_sinProductoEnCache_consultaSoloLaVersion() {
+        producto1.setVersion(3L);
+        when(productoRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+        when(productoRepository.findVersionById(99L)).thenReturn(Optional.empty());
+
+        assertThat(productoService.obtenerEtagProducto(1L)).contains(productoService.calcularEtag(producto1));
+        assertThat(productoService.obtenerEtagProducto(99L)).isEmpty();
+        verify(productoRepository, never()).findById(any());
+    }
+
+    @Test
+    void actualizarProducto_conEtagObsoleto_deberiaLanzarProductoModificadoSinGuardar() {
+        producto1.setVersion(4L);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setNombre("Cambio perdido");
+        producto1.setVersion(3L);
+        String etagObsoleto = productoService.calcularEtag(producto1);
+        producto1.setVersion(4L);
+
+        assertThatThrownBy(() -> productoService.actualizarProducto(1L, dto, List.of(etagObsoleto)))
+                .isInstanceOf(ProductoModificadoException.class);
+        verify(productoRepository, never()).saveAndFlush(any());
+        assertThat(producto1.getNombre()).isEqualTo("Laptop Pro");
+    }
+
+    @Test
+    void actualizarProducto_conIfMatchYVersionCambiadaAntesDelFlush_deberiaLanzarProductoModificado() {
+        producto1.setVersion(4L);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        when(productoRepository.saveAndFlush(any(Producto.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Producto.class, 1L));
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setNombre("Carrera perdida");
+
+        assertThatThrownBy(() -> productoService.actualizarProducto(1L, dto, List.of(productoService.calcularEtag(producto1))))
+                .isInstanceOf(ProductoModificadoException.class)
+                .hasCauseInstanceOf(ObjectOptimisticLockingFailureException.class);
+        // Sin If-Match, la misma carrera sigue siendo un conflicto (409)
+        assertThatThrownBy(() -> productoService.actualizarProducto(1L, dto, List.of()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void actualizarProducto_conEtagVigente_deberiaActualizar() {
+        producto1.setVersion(4L);
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenAnswer(inv -> inv.getArgument(0));
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setNombre("Nombre nuevo");
+
+        Optional<Producto> actualizado = productoService.actualizarProducto(1L, dto, List.of(productoService.calcularEtag(producto1)));
+
+        assertThat(actualizado).hasValueSatisfying(p -> assertThat(p.getNombre()).isEqualTo("Nombre nuevo"));
+    }
+
+    @Test
+    void guardarProducto_conViolacionDeRestriccionSku_deberiaLanzarSkuDuplicadoException() {
+        when(productoRepository.saveAndFlush(any(Producto.class)))
+                .thenThrow(violacionDeRestriccion(Producto.UK_SKU));
+
+        assertThatThrownBy(() -> productoService.guardarProducto(producto1))
+                .isInstanceOf(SkuDuplicadoException.class)
+                .hasMessageContaining("SKU001");
+        verify(productoCache, never()).invalidar(any());
+    }
+
+    @Test
+    void actualizarProducto_conViolacionDeRestriccionCodBar_deberiaLanzarCodBarDuplicadoException() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        when(productoRepository.saveAndFlush(any(Producto.class)))
+                .thenThrow(violacionDeRestriccion(Producto.UK_COD_BAR));
+        ProductoUpdateRequestDTO dto = new ProductoUpdateRequestDTO();
+        dto.setCodBar("9999999999999");
+
+        assertThatThrownBy(() -> productoService.actualizarProducto(1L, dto, null))
+                .isInstanceOf(CodBarDuplicadoException.class)
+                .hasMessageContaining("9999999999999");
+        verify(productoRepository, never()).existsByCodBar(any());
+    }
+
+    @Test
+    void guardarProducto_conOtraViolacionDeIntegridad_deberiaPropagarLaExcepcionOriginal() {
+        DataIntegrityViolationException violacion = violacionDeRestriccion("fk_productos_categoria");
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenThrow(violacion);
+
+        assertThatThrownBy(() -> productoService.guardarProducto(producto1)).isSameAs(violacion);
+    }
+
+    private static DataIntegrityViolationException violacionDeRestriccion(String restriccion) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation",
+                        new SQLException("violation", "23505"), "PUBLIC." + restriccion.toUpperCase() + "_INDEX_F"));
     }
 
     @Test
@@ -117,4 +310,168 @@ public class ProductoServiceTest {
         verify(productoRepository, times(1)).existsById(1L);
     }
 
-}
\ No newline at end of file
+    @Test
+    void obtenerPaginaProductos_conMasResultados_deberiaRetornarCursorQueContinuaTrasElUltimoId() {
+        Producto producto2 = new Producto(2L, "SKU002", "Mouse", null, new BigDecimal("10.00"), null,
+                "0987654321098", 0, categoriaElectronica, "url", estadoPublicado);
+        // Se piden tamanio + 1 elementos para detectar si hay página siguiente
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), argThat(limite -> limite != null && limite.max() == 2)))
+                .thenReturn(Arrays.asList(producto1, producto2));
+
+        PaginaProductosDTO<Producto> pagina = productoService.obtenerPaginaProductos(null, 1, null, null);
+
+        assertThat(pagina.getProductos()).containsExactly(producto1);
+        assertThat(pagina.getSiguiente()).isNotNull();
+
+        // Al volver a simular el mismo método, Mockito evalúa el matcher anterior con el argumento nulo de la simulación
+        when(productoRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), argThat(limite -> limite != null && limite.max() == 2)))
+                .thenReturn(List.of(producto2));
+
+        PaginaProductosDTO<Producto> siguiente = productoService.obtenerPaginaProductos(pagina.getSiguiente(), 1, null, null);
+
+        assertThat(siguiente.getProductos()).containsExactly(producto2);
+        assertThat(siguiente.getSiguiente()).isNull();
+    }
+
+    @Test
+    void obtenerPaginaProductos_conFiltros_deberiaUsarConsultaFiltradaYLimitarTamanio() {
+        when(productoRepository.findByCategoriaIdAndEstadoAndIdGreaterThanOrderByIdAsc(
+                eq(1L), eq(Estado.PUBLICADO), eq(0L), argThat(limite -> limite.max() == ProductoService.TAMANIO_PAGINA_MAXIMO + 1)))
+                .thenReturn(List.of(producto1));
+
+        PaginaProductosDTO<Producto> pagina = productoService.obtenerPaginaProductos(null, 10_000, 1L, Estado.PUBLICADO);
+
+        assertThat(pagina.getProductos()).containsExactly(producto1);
+        assertThat(pagina.getSiguiente()).isNull();
+    }
+
+    @Test
+    void obtenerPaginaResumen_conMasResultados_deberiaUsarProyeccionYDevolverCursorSiguiente() {
+        ProductoResumenDTO resumen1 = new ProductoResumenDTO(1L, "SKU001", "Laptop", new BigDecimal("1200.00"), null, "url");
+        ProductoResumenDTO resumen2 = new ProductoResumenDTO(2L, "SKU002", "Mouse", new BigDecimal("10.00"), null, "url");
+        when(productoRepository.findResumenByEstadoAndIdGreaterThanOrderByIdAsc(
+                eq(Estado.PUBLICADO), eq(0L), argThat(limite -> limite.max() == 2)))
+                .thenReturn(List.of(resumen1, resumen2));
+
+        PaginaProductosDTO<ProductoResumenDTO> pagina = productoService.obtenerPaginaResumen(null, 1, null, Estado.PUBLICADO);
+
+        assertThat(pagina.getProductos()).containsExactly(resumen1);
+        assertThat(pagina.getSiguiente()).isNotNull();
+        // La proyección no hidrata entidades ni consulta el catálogo de categorías
+        verify(productoRepository, never()).findByEstadoAndIdGreaterThanOrderByIdAsc(any(), any(), any());
+        verify(catalogoCategorias, never()).resolver(any(Producto.class));
+    }
+
+    @Test
+    void obtenerPaginaProductos_conCursorInvalido_deberiaLanzarCursorInvalidoException() {
+        assertThatThrownBy(() -> productoService.obtenerPaginaProductos("no-es-un-cursor", 20, null, null))
+                .isInstanceOf(CursorInvalidoException.class);
+        verifyNoInteractions(productoRepository);
+    }
+
+    @Test
+    void obtenerProductoPorId_segundaLectura_deberiaServirseDesdeCache() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+
+        productoService.obtenerProductoPorId(1L);
+        Optional<Producto> productoOptional = productoService.obtenerProductoPorId(1L);
+
+        assertThat(productoOptional).contains(producto1);
+        verify(productoRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void obtenerProductoPorId_desdeCache_noDeberiaModificarElProductoCompartido() {
+        Producto enCache = new Producto();
+        enCache.setId(5L);
+        enCache.setCategoriaId(2L);
+        when(productoRepository.findById(5L)).thenReturn(Optional.of(enCache));
+
+        Producto primera = productoService.obtenerProductoPorId(5L).orElseThrow();
+        Producto segunda = productoService.obtenerProductoPorId(5L).orElseThrow();
+
+        assertThat(primera.getCategoria().getNombre()).isEqualTo("Periféricos");
+        assertThat(segunda).isNotSameAs(primera).isNotSameAs(enCache);
+        assertThat(enCache.getCategoria()).isNull();
+    }
+
+    @Test
+    void eliminarProducto_deberiaInvalidarCache() {
+        when(productoRepository.findById(1L)).thenReturn(Optional.of(producto1));
+        when(productoRepository.existsById(1L)).thenReturn(true);
+        productoService.obtenerProductoPorId(1L);
+
+        productoService.eliminarProducto(1L);
+        when(productoRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThat(productoService.obtenerProductoPorId(1L)).isEmpty();
+        verify(productoCache).invalidar(1L);
+    }
+
+    @Test
+    void buscarProductos_deberiaRetornarProductosEnOrdenDeRelevancia() {
+        Producto producto2 = new Producto(2L, "SKU002", "Funda para laptop", "Funda acolchada", new BigDecimal("20.00"), null,
+                "2234567890123", 5, categoriaElectronica, "http://example.com/funda.jpg", estadoPublicado);
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenAnswer(inv -> inv.getArgument(0));
+        productoService.guardarProducto(producto2);
+        productoService.guardarProducto(producto1);
+        // findAllById no garantiza el orden: el servicio debe reordenar según el índice
+        when(productoRepository.findAllById(argThat((Iterable<Long> ids) -> ids.iterator().hasNext())))
+                .thenReturn(List.of(producto2, producto1));
+
+        List<Producto> resultados = productoService.buscarProductos("LAPTOP pro", 10);
+
+        assertThat(resultados).containsExactly(producto1);
+        assertThat(productoService.buscarProductos("lap", 10)).extracting(Producto::getId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void eliminarProducto_deberiaQuitarloDelIndiceDeBusqueda() {
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto1);
+        when(productoRepository.existsById(1L)).thenReturn(true);
+        productoService.guardarProducto(producto1);
+
+        productoService.eliminarProducto(1L);
+
+        assertThat(productoService.buscarProductos("laptop", 10)).isEmpty();
+        verify(productoRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void filtrarPorFacetas_deberiaPaginarPorCursorYDevolverRecuentos() {
+        for (long id = 1; id <= 5; id++) {
+            indiceFacetas.indexar(new Producto(id, "SKU" + id, "Producto " + id, null, new BigDecimal("10.00"), null,
+                    "1000000" + id, 0, categoriaElectronica, "http://example.com/p.jpg", id == 3 ? Estado.BORRADOR : estadoPublicado));
+        }
+        when(productoRepository.findAllById(argThat((Iterable<Long> ids) -> ids.iterator().hasNext())))
+                .thenAnswer(inv -> {
+                    List<Producto> productos = new ArrayList<>();
+                    for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                        Producto producto = new Producto();
+                        producto.setId(id);
+                        productos.add(0, producto); // Orden inverso: el servicio debe reordenar por ID
+                    }
+                    return productos;
+                });
+        IndiceFacetasProductos.Filtro publicados = new IndiceFacetasProductos.Filtro(null, List.of(Estado.PUBLICADO), null, null, null);
+
+        ResultadoFacetasDTO<Producto> primera = productoService.filtrarPorFacetas(publicados, null, 2);
+        ResultadoFacetasDTO<Producto> segunda = productoService.filtrarPorFacetas(publicados, primera.getSiguiente(), 2);
+
+        assertThat(primera.getProductos()).extracting(Producto::getId).containsExactly(1L, 2L);
+        assertThat(primera.getTotal()).isEqualTo(4);
+        assertThat(primera.getEstados()).containsEntry(Estado.PUBLICADO, 4L).containsEntry(Estado.BORRADOR, 1L);
+        assertThat(segunda.getProductos()).extracting(Producto::getId).containsExactly(4L, 5L);
+        assertThat(segunda.getSiguiente()).isNull();
+    }
+
+    @Test
+    void guardarProducto_deberiaIndexarFacetas() {
+        when(productoRepository.saveAndFlush(any(Producto.class))).thenReturn(producto1);
+
+        productoService.guardarProducto(producto1);
+
+        assertThat(indiceFacetas.filtrar(new IndiceFacetasProductos.Filtro(List.of(1L), null, null, null, null)).ids().contains(1))
+                .isTrue();
+    }
+}
@@ -0,0 +1,77 @@
+package com.bootcampms.productos.Service;
+
+import com.bootcampms.productos.Exception.SkuDuplicadoException;
+import com.bootcampms.productos.Model.Categoria;
+import com.bootcampms.productos.Model.Estado;
+import com.bootcampms.productos.Model.Producto;
+import com.bootcampms.productos.Repository.CategoriaRepository;
+import com.bootcampms.productos.Repository.ProductoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de integración que lanza altas concurrentes con el mismo SKU y comprueba que la
+ * restricción única deja pasar exactamente una y el resto se traduce a {@link SkuDuplicadoException}.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class ProductoServiceUnicidadTest {
+
+    private static final int ALTAS_CONCURRENTES = 16;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Test
+    void altasConcurrentesConMismoSku_soloUnaTieneExito() throws Exception {
+        Categoria categoria = categoriaRepository.save(new Categoria(null, "Concurrencia", "Categoría de prueba"));
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger creados = new AtomicInteger();
+        AtomicInteger duplicados = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(ALTAS_CONCURRENTES);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < ALTAS_CONCURRENTES; i++) {
+                String codBar = String.format("77%011d", i); // CodBar distinto: solo compite el SKU
+                futuros.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        productoService.guardarProducto(new Producto(null, "SKU-CONCURRENTE", "Producto concurrente", null,
+                                new BigDecimal("10.00"), null, codBar, 0, categoria, "http://example.com/c.jpg", Estado.BORRADOR));
+                        creados.incrementAndGet();
+                    } catch (SkuDuplicadoException e) {
+                        duplicados.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(creados.get()).isEqualTo(1);
+        assertThat(duplicados.get()).isEqualTo(ALTAS_CONCURRENTES - 1);
+        assertThat(productoRepository.findBySku("SKU-CONCURRENTE")).isPresent();
+    }
+}